@@ -1,13 +1,20 @@
 package Client;
 
 import java.io.*;
+import java.rmi.NotBoundException;
 import java.rmi.RemoteException;
 import java.rmi.registry.LocateRegistry;
 import java.rmi.registry.Registry;
 import java.util.Random;
 import java.util.Scanner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import GameServer.Constants;
+import GameServer.GameRouter;
+import GameServer.RoutedServerInterface;
 import GameServer.ServerFactory;
 import GameServer.ServerInterface;
 import UserAccountServer.UserData;
@@ -22,18 +29,25 @@ public class Client {
 
     private static int sequence = 0;
 
+    // Saves run in the background so the user can keep playing while they are
+    // in flight; each save is chained after the previous one to keep them
+    // ordered.
+    private static final ExecutorService background = Executors.newVirtualThreadPerTaskExecutor();
+    private static CompletableFuture<Void> pendingSave = CompletableFuture.completedFuture(null);
+
     /**
      * Main method to start the client.
      *
-     * Gets the factory and then generates a game server with it.
+     * Gets the factory and then generates a game server with it. If a router
+     * is running, the game server is instead chosen by the router once the
+     * username is known.
      *
      * @param args - Command-line arguments (not used).
      */
     public static void main(String[] args) {
         try {
             Registry registry = LocateRegistry.getRegistry("localhost", Constants.GAME_SERVER_PORT);
-            ServerFactory serverMaker = (ServerFactory) registry.lookup("Server");
-            ServerInterface server = (ServerInterface) serverMaker.createServer(sequence);
+            ServerInterface server = connect(registry);
             sequence++;
 
             String username = validateUserName(server);
@@ -48,8 +62,7 @@ public class Client {
 
                 if (userData != null) {
                     System.out.println("Client: '" + userData.getUsername() + "' connected.");
-                    Thread heartbeatThread = new Thread(() -> heartbeat(server, username));
-                    heartbeatThread.start();
+                    Thread.ofVirtual().start(() -> heartbeat(server, username));
                     serveUser(server, userData);
                 }
             } catch (RemoteException e) {
@@ -71,6 +84,23 @@ public class Client {
         }
     }
 
+    /**
+     * Connects to the game server.
+     *
+     * @param registry - The registry on the game server port.
+     * @return - A RoutedServerInterface if a router is bound in the registry,
+     *         otherwise a ServerInterface from the standalone game server.
+     * @throws Exception - if neither a router nor a game server can be reached.
+     */
+    private static ServerInterface connect(Registry registry) throws Exception {
+        try {
+            return new RoutedServerInterface((GameRouter) registry.lookup("Router"));
+        } catch (NotBoundException e) {
+            ServerFactory serverMaker = (ServerFactory) registry.lookup("Server");
+            return (ServerInterface) serverMaker.createServer(sequence);
+        }
+    }
+
     /**
      * Continuously sends heartbeat signals to the server for the specified user.
      * This method runs indefinitely, periodically sending heartbeat signals to the
@@ -84,7 +114,7 @@ public class Client {
         while (true) {
             try {
                 server.validateHeartbeat(username);
-                Thread.sleep(5000);
+                Thread.sleep(Constants.CLIENT_HEARTBEAT_INTERVAL_MS);
             } catch (Exception e) {
                 e.printStackTrace();
             }
@@ -154,6 +184,38 @@ public class Client {
                     break;
                 }
 
+                // Show the leaderboard; it changes nothing, so it has no sequence number
+                if (input.startsWith("Leaderboard;")) {
+                    try {
+                        int count = Integer.parseInt(input.substring("Leaderboard;".length()).trim());
+                        System.out.println(server.getLeaderboard(userData, count));
+                    } catch (NumberFormatException e) {
+                        System.out.println(Constants.INVALID_LEADERBOARD_COUNT);
+                    }
+                    continue;
+                }
+
+                // Open or join a shared puzzle room; rooms are kept apart from the user's own
+                // game and score
+                if (input.startsWith("New Room;")) {
+                    String[] arguments = input.substring("New Room;".length()).split(";", 2);
+                    String option = arguments.length > 1 ? arguments[1] : null;
+                    String roomId = server.createRoom(arguments[0], option, sequence);
+                    if (duplicator.nextBoolean()) {
+                        roomId = server.createRoom(arguments[0], option, sequence);
+                    }
+                    sequence++;
+
+                    System.out.println("\nOpened room " + roomId + ". Other players can join it with Join Room;"
+                            + roomId);
+                    playRoom(server, roomId);
+                    continue;
+                }
+                if (input.startsWith("Join Room;")) {
+                    playRoom(server, input.substring("Join Room;".length()).trim());
+                    continue;
+                }
+
                 // Process user input, and proceed to gameplay menu if appropriate (command is
                 // New Game or Continue)
                 userData = server.processUserInput(userData, input, sequence);
@@ -221,6 +283,7 @@ public class Client {
                 } else {
                     synchronized (server) {
                         if (userData.getGameState().checkUniqueGuess(input)) {
+                            awaitPendingSave();
                             activeGameData = server.processPuzzleGuess(userData, input, sequence);
                             if (duplicator.nextBoolean()) {
                                 activeGameData = server.processPuzzleGuess(userData, input, sequence);
@@ -231,10 +294,7 @@ public class Client {
                             System.out.println(activeGameData.getMessage());
                             activeGameData.setMessage("");
 
-                            server.saveGame(userData, sequence);
-                            if (duplicator.nextBoolean()) {
-                                server.saveGame(userData, sequence);
-                            }
+                            saveGameAsync(server, userData);
                         } else {
                             System.out.println("Already guessed that!");
                         }
@@ -249,6 +309,7 @@ public class Client {
         }
 
         try {
+            awaitPendingSave();
             if (!activeGameData.getGameStatus()) {
                 userData.getGameState().resetPuzzle();
             }
@@ -264,6 +325,95 @@ public class Client {
         return userData;
     }
 
+    /**
+     * Plays in a shared puzzle room until the user leaves it.
+     *
+     * Details: guesses follow the same rules as in playGame, but are checked
+     * for uniqueness by the room, across all of its players. The puzzle is
+     * printed by the RoomView whenever the server pushes an update.
+     *
+     * @param server - The ServerInterface object for server communication.
+     * @param roomId - The room id.
+     * @throws RemoteException - if the room cannot be joined.
+     */
+    private static void playRoom(ServerInterface server, String roomId) throws RemoteException {
+        Scanner scanner = new Scanner(System.in);
+        RoomView view = new RoomView();
+        try {
+            view.show(server.joinRoom(roomId, view));
+            System.out.println(Constants.ROOM_MENU);
+
+            while (true) {
+                String input = scanner.nextLine();
+                if (input.equals(Constants.LEAVE_CODE)) {
+                    break;
+                } else if (input.isEmpty() || input.matches(Constants.NO_SPECIAL_CHAR_REGEX)) {
+                    System.out.println("\nInvalid guess: " + input + ". Try again.");
+                    continue;
+                }
+
+                try {
+                    String message = server.roomGuess(roomId, input, sequence);
+                    if (duplicator.nextBoolean()) {
+                        message = server.roomGuess(roomId, input, sequence);
+                    }
+                    sequence++;
+                    System.out.println(message);
+                } catch (RemoteException e) {
+                    System.out.println("\nError: " + e.getMessage());
+                    if (e.getMessage().contains("Connection refused")) {
+                        break;
+                    }
+                }
+            }
+        } finally {
+            try {
+                server.leaveRoom(roomId);
+            } catch (RemoteException e) {
+                // The room is gone or the server unreachable; either way we are out
+            }
+            view.close();
+        }
+    }
+
+    /**
+     * Saves the user data in the background, after any save already in flight.
+     *
+     * @param server   - The ServerInterface object for server communication.
+     * @param userData - The UserData object to save; must not be modified until
+     *                 the save has completed.
+     */
+    private static void saveGameAsync(ServerInterface server, UserData userData) {
+        int saveSequence = sequence;
+        pendingSave = pendingSave.exceptionally(e -> null).thenRunAsync(() -> {
+            try {
+                server.saveGame(userData, saveSequence);
+                if (duplicator.nextBoolean()) {
+                    server.saveGame(userData, saveSequence);
+                }
+            } catch (RemoteException e) {
+                throw new CompletionException(e);
+            }
+        }, background);
+    }
+
+    /**
+     * Waits for the background save in flight (if any) to complete.
+     *
+     * @throws RemoteException - if the background save failed.
+     */
+    private static void awaitPendingSave() throws RemoteException {
+        try {
+            pendingSave.join();
+        } catch (CompletionException e) {
+            pendingSave = CompletableFuture.completedFuture(null);
+            if (e.getCause() instanceof RemoteException) {
+                throw (RemoteException) e.getCause();
+            }
+            throw new RemoteException(Constants.COULD_NOT_SAVE, e.getCause());
+        }
+    }
+
     /**
      * Handles errors that occur during client-server communication.
      * Attempts to save user data if possible.
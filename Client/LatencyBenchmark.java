@@ -0,0 +1,127 @@
+package Client;
+
+import java.rmi.registry.LocateRegistry;
+import java.rmi.registry.Registry;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import GameServer.Constants;
+import GameServer.ServerFactory;
+import GameServer.ServerInterface;
+import UserAccountServer.UserData;
+
+/**
+ * Measures the game server as a client sees it, for comparing deployments
+ * (three processes, or CoLocatedServer).
+ *
+ * Start it together with the servers: it first waits for the game server to
+ * answer a word query and reports how long that took, then times word
+ * queries (word database), saves (user account service) and new games (both)
+ * and reports the mean, median and 99th percentile of each.
+ *
+ * Usage: java Client.LatencyBenchmark [requests]
+ */
+public class LatencyBenchmark {
+
+    // Interval between attempts to reach the game server while it starts
+    private static final long STARTUP_POLL_MS = 20;
+    private static final long STARTUP_TIMEOUT_MS = 120000;
+
+    private static int sequence = 0;
+
+    public static void main(String[] args) throws Exception {
+        int requests = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        String username = "benchmark" + ProcessHandle.current().pid();
+
+        long start = System.currentTimeMillis();
+        ServerInterface server = untilReady(start, () -> {
+            Registry registry = LocateRegistry.getRegistry("localhost", Constants.GAME_SERVER_PORT);
+            return ((ServerFactory) registry.lookup("Server")).createServer(++sequence);
+        });
+        untilReady(start, () -> server.checkValidUser(username, ++sequence));
+        UserData loaded = untilReady(start, () -> server.validateUserData(username, ++sequence));
+        untilReady(start, () -> server.processWordQuery(loaded, "cat", ++sequence));
+        UserData userData = loaded;
+        System.out.println("Ready after " + (System.currentTimeMillis() - start) + " ms");
+
+        Thread.ofVirtual().start(() -> {
+            while (true) {
+                try {
+                    server.validateHeartbeat(username);
+                    Thread.sleep(5000);
+                } catch (Exception e) {
+                    return;
+                }
+            }
+        });
+
+        try {
+            // Warm up
+            for (int i = 0; i < requests / 10; i++) {
+                server.processWordQuery(userData, "cat", ++sequence);
+                server.saveGame(userData, ++sequence);
+            }
+
+            List<Long> queries = new ArrayList<>();
+            List<Long> saves = new ArrayList<>();
+            List<Long> newGames = new ArrayList<>();
+            for (int i = 0; i < requests; i++) {
+                long t = System.nanoTime();
+                server.processWordQuery(userData, "cat", ++sequence);
+                queries.add(System.nanoTime() - t);
+
+                t = System.nanoTime();
+                server.saveGame(userData, ++sequence);
+                saves.add(System.nanoTime() - t);
+
+                t = System.nanoTime();
+                userData = server.processUserInput(userData, "New Game;5", ++sequence);
+                newGames.add(System.nanoTime() - t);
+            }
+            report("Word query", queries);
+            report("Save", saves);
+            report("New game", newGames);
+        } finally {
+            server.logoutUser(username, ++sequence);
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Step of connecting to a game server that is starting up.
+     */
+    @FunctionalInterface
+    private interface StartupStep<T> {
+        T call() throws Exception;
+    }
+
+    /**
+     * Retries a step until it succeeds, while the servers start.
+     *
+     * @param start - The time the benchmark started.
+     * @param step  - The step.
+     * @return - The result of the step.
+     * @throws Exception - the step's last failure, if the servers are not
+     *                   ready within STARTUP_TIMEOUT_MS.
+     */
+    private static <T> T untilReady(long start, StartupStep<T> step) throws Exception {
+        while (true) {
+            try {
+                return step.call();
+            } catch (Exception e) {
+                if (System.currentTimeMillis() - start > STARTUP_TIMEOUT_MS) {
+                    throw e;
+                }
+                Thread.sleep(STARTUP_POLL_MS);
+            }
+        }
+    }
+
+    private static void report(String name, List<Long> nanos) {
+        Collections.sort(nanos);
+        double mean = nanos.stream().mapToLong(Long::longValue).average().orElse(0);
+        System.out.printf("%-10s mean %7.1f us, p50 %7.1f us, p99 %7.1f us%n", name, mean / 1000,
+                nanos.get(nanos.size() / 2) / 1000.0, nanos.get(nanos.size() * 99 / 100) / 1000.0);
+    }
+}
@@ -0,0 +1,69 @@
+package Client;
+
+import java.rmi.NoSuchObjectException;
+import java.rmi.RemoteException;
+import java.rmi.server.UnicastRemoteObject;
+
+import GameServer.RoomListener;
+import GameServer.RoomUpdate;
+
+/**
+ * Prints the updates of a shared puzzle room as they are pushed by the game
+ * server. Updates older than the last one shown (e.g. a flush that crossed
+ * the reply to joinRoom) are ignored.
+ */
+public class RoomView extends UnicastRemoteObject implements RoomListener {
+    private long shownVersion = -1;
+
+    /**
+     * Constructs and exports a RoomView.
+     *
+     * @throws RemoteException - if the view cannot be exported.
+     */
+    public RoomView() throws RemoteException {
+        super();
+    }
+
+    @Override
+    public void onRoomUpdate(RoomUpdate update) {
+        show(update);
+    }
+
+    /**
+     * Prints a room update, unless a newer one has been shown.
+     *
+     * @param update - The update.
+     */
+    public synchronized void show(RoomUpdate update) {
+        if (update.getVersion() <= shownVersion) {
+            return;
+        }
+        shownVersion = update.getVersion();
+
+        StringBuilder view = new StringBuilder("\n");
+        for (String event : update.getEvents()) {
+            view.append("* ").append(event).append('\n');
+        }
+        if (update.getSkippedEvents() > 0) {
+            view.append("* ...and ").append(update.getSkippedEvents()).append(" more.\n");
+        }
+        view.append(update.getPuzzle());
+        view.append("Room ").append(update.getRoomId()).append(" - players: ").append(update.getMemberCount())
+                .append(", attempts remaining: ").append(update.getAttempts());
+        if (update.getResult() != null) {
+            view.append("\n").append(update.getResult()).append(" Enter *Leave* to return to the main menu.");
+        }
+        System.out.println(view);
+    }
+
+    /**
+     * Stops receiving updates.
+     */
+    public void close() {
+        try {
+            UnicastRemoteObject.unexportObject(this, true);
+        } catch (NoSuchObjectException e) {
+            // Already unexported
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package DatabaseServer;
+
+import java.util.Random;
+
+/**
+ * Immutable table for sampling an index in proportion to its weight in O(1),
+ * built with Vose's alias method.
+ *
+ * Each of the n slots holds a probability and an alias: a sample picks a slot
+ * uniformly, then either the slot's own index, with the slot's probability,
+ * or its alias. Building the table takes O(n).
+ */
+public class AliasTable {
+    private final float[] probability;
+    private final int[] alias;
+    private final double totalWeight;
+
+    /**
+     * Builds an AliasTable.
+     *
+     * @param weights - The weight of each index; non-negative, and not all 0.
+     */
+    public AliasTable(double[] weights) {
+        int n = weights.length;
+        this.probability = new float[n];
+        this.alias = new int[n];
+
+        double total = 0;
+        for (double weight : weights) {
+            total += weight;
+        }
+        this.totalWeight = total;
+
+        // Scale the weights to an average of 1 and pair each slot below 1
+        // (small) with one above (large), which tops it up
+        double[] scaled = new double[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < n; i++) {
+            scaled[i] = weights[i] * n / total;
+            if (scaled[i] < 1) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+            probability[less] = (float) scaled[less];
+            alias[less] = more;
+            scaled[more] = scaled[more] + scaled[less] - 1;
+            if (scaled[more] < 1) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+        // What is left is 1 up to rounding errors
+        while (largeCount > 0) {
+            probability[large[--largeCount]] = 1;
+        }
+        while (smallCount > 0) {
+            probability[small[--smallCount]] = 1;
+        }
+    }
+
+    public int size() {
+        return this.alias.length;
+    }
+
+    public double getTotalWeight() {
+        return this.totalWeight;
+    }
+
+    /**
+     * Samples an index.
+     *
+     * @param random - The source of randomness.
+     * @return - An index, with probability its weight over the total weight.
+     */
+    public int sample(Random random) {
+        int slot = random.nextInt(alias.length);
+        return random.nextFloat() < probability[slot] ? slot : alias[slot];
+    }
+}
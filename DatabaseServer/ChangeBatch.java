@@ -0,0 +1,71 @@
+package DatabaseServer;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * A batch of consecutive changes read from a primary database's ChangeLog.
+ */
+public class ChangeBatch implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final long epoch;
+    private final long latestVersion;
+    private final List<WordChange> changes;
+    private final boolean resyncRequired;
+
+    /**
+     * Constructs a ChangeBatch.
+     *
+     * @param epoch         - The epoch of the change log the batch was read from.
+     * @param latestVersion - The latest version in the change log.
+     * @param changes       - The changes, in version order.
+     * @param resyncRequired - true if the changes the reader asked for are no
+     *                       longer retained.
+     */
+    public ChangeBatch(long epoch, long latestVersion, List<WordChange> changes, boolean resyncRequired) {
+        this.epoch = epoch;
+        this.latestVersion = latestVersion;
+        this.changes = changes;
+        this.resyncRequired = resyncRequired;
+    }
+
+    /**
+     * Gets the epoch of the change log. The epoch changes whenever the primary
+     * restarts, after which versions are no longer comparable.
+     *
+     * @return - The epoch.
+     */
+    public long getEpoch() {
+        return this.epoch;
+    }
+
+    /**
+     * Gets the latest version in the change log when the batch was read.
+     *
+     * @return - The latest version.
+     */
+    public long getLatestVersion() {
+        return this.latestVersion;
+    }
+
+    /**
+     * Gets the changes in the batch.
+     *
+     * @return - The changes, in version order.
+     */
+    public List<WordChange> getChanges() {
+        return this.changes;
+    }
+
+    /**
+     * Checks whether the reader fell too far behind. If so, the batch has no
+     * changes and the reader must reload the word table from snapshot pages
+     * before following the change log again.
+     *
+     * @return - true if the reader must resync.
+     */
+    public boolean isResyncRequired() {
+        return this.resyncRequired;
+    }
+}
@@ -0,0 +1,100 @@
+package DatabaseServer;
+
+import java.rmi.RemoteException;
+import java.util.concurrent.ConcurrentHashMap;
+
+import GameServer.Constants;
+
+/**
+ * Pushes the change log of a primary DatabaseServer to remote
+ * DictionaryListeners.
+ *
+ * Each subscription runs on its own virtual thread, which waits on the change
+ * log and delivers the changes accumulated since the last delivery in one
+ * batch of up to Constants.CHANGE_FEED_BATCH_SIZE. A slow listener therefore
+ * receives fewer, larger batches rather than falling further behind. A
+ * listener that cannot be reached, or that falls out of the change log's
+ * retention, is dropped.
+ */
+public class ChangeFeed {
+    private final ChangeLog changeLog;
+    private final ConcurrentHashMap<DictionaryListener, Thread> subscriptions = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a ChangeFeed.
+     *
+     * @param changeLog - The change log to publish.
+     */
+    public ChangeFeed(ChangeLog changeLog) {
+        this.changeLog = changeLog;
+    }
+
+    /**
+     * Subscribes a listener, replacing any earlier subscription of it.
+     *
+     * @param listener    - The listener.
+     * @param fromVersion - The last version the listener has applied.
+     */
+    public void subscribe(DictionaryListener listener, long fromVersion) {
+        Thread thread = Thread.ofVirtual().unstarted(() -> deliver(listener, fromVersion));
+        Thread previous = subscriptions.put(listener, thread);
+        if (previous != null) {
+            previous.interrupt();
+        }
+        thread.start();
+    }
+
+    /**
+     * Ends the subscription of a listener.
+     *
+     * @param listener - The listener.
+     */
+    public void unsubscribe(DictionaryListener listener) {
+        Thread thread = subscriptions.remove(listener);
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    /**
+     * Gets the number of subscribed listeners.
+     *
+     * @return - The number of subscriptions.
+     */
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+
+    /**
+     * Delivers the change log to a listener until it is unsubscribed, cannot
+     * be reached, or must resync.
+     *
+     * @param listener - The listener.
+     * @param version  - The last version the listener has applied.
+     */
+    private void deliver(DictionaryListener listener, long version) {
+        try {
+            while (subscriptions.get(listener) == Thread.currentThread()) {
+                changeLog.await(version, Constants.CHANGE_FEED_MAX_WAIT_MS);
+                ChangeBatch batch = changeLog.since(version, Constants.CHANGE_FEED_BATCH_SIZE);
+                if (batch.getChanges().isEmpty() && !batch.isResyncRequired()) {
+                    continue;
+                }
+
+                if (batch.isResyncRequired()) {
+                    // End the subscription first, so the listener can subscribe again
+                    subscriptions.remove(listener, Thread.currentThread());
+                    listener.onChanges(batch);
+                    return;
+                }
+                listener.onChanges(batch);
+                version = batch.getChanges().get(batch.getChanges().size() - 1).getVersion();
+            }
+        } catch (InterruptedException e) {
+            return;
+        } catch (RemoteException e) {
+            System.out.println("Dropping change feed listener: " + e.getMessage());
+        }
+        subscriptions.remove(listener, Thread.currentThread());
+    }
+}
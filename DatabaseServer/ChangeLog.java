@@ -0,0 +1,137 @@
+package DatabaseServer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import GameServer.Constants;
+
+/**
+ * Ordered log of the changes made to the word table by a primary
+ * DatabaseServer, read by replicas and other subscribers to follow it.
+ *
+ * Versions start at 0 when the primary starts and increase by 1 with every
+ * change. Each run of the primary has a random epoch; a reader that sees the
+ * epoch change can no longer trust its version. Only the latest
+ * Constants.CHANGE_LOG_RETENTION changes are kept, in a ring; a reader whose
+ * version is older than that must resync from a snapshot. So must a reader
+ * whose version is older than a resync barrier, which marks a change the log
+ * cannot express.
+ */
+public class ChangeLog {
+    private final long epoch = new Random().nextLong();
+    private final WordChange[] ring = new WordChange[Constants.CHANGE_LOG_RETENTION];
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    private long version;
+    private long barrier;
+
+    /**
+     * Gets the epoch of this change log.
+     *
+     * @return - The epoch.
+     */
+    public long getEpoch() {
+        return this.epoch;
+    }
+
+    /**
+     * Gets the latest version.
+     *
+     * @return - The version of the most recent change, or 0 if there is none.
+     */
+    public long getVersion() {
+        lock.lock();
+        try {
+            return this.version;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Appends a change to the log, waking readers waiting for it.
+     *
+     * @param operation - Whether the word was added or removed.
+     * @param word      - The word.
+     * @return - The version of the change.
+     */
+    public long append(WordChange.Operation operation, String word) {
+        lock.lock();
+        try {
+            this.version++;
+            this.ring[(int) ((this.version - 1) % this.ring.length)] = new WordChange(this.version, operation, word);
+            appended.signalAll();
+            return this.version;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adds a resync barrier: a version without a change, which every reader
+     * older than it must resync past.
+     *
+     * @return - The version of the barrier.
+     */
+    public long requireResync() {
+        lock.lock();
+        try {
+            this.version++;
+            this.barrier = this.version;
+            appended.signalAll();
+            return this.version;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until the log has a change after a version.
+     *
+     * @param version    - The last version the reader has applied.
+     * @param waitMillis - The maximum time to wait.
+     * @throws InterruptedException - if the waiting thread is interrupted.
+     */
+    public void await(long version, long waitMillis) throws InterruptedException {
+        long remaining = TimeUnit.MILLISECONDS.toNanos(waitMillis);
+        lock.lock();
+        try {
+            while (this.version <= version && remaining > 0) {
+                remaining = appended.awaitNanos(remaining);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reads the changes after a version.
+     *
+     * @param version    - The last version the reader has applied.
+     * @param maxChanges - The maximum number of changes to return.
+     * @return - The next changes, in version order, or an empty batch marked
+     *         for resync if the changes after the version are no longer
+     *         retained.
+     */
+    public ChangeBatch since(long version, int maxChanges) {
+        lock.lock();
+        try {
+            long oldest = Math.max(Math.max(1, this.version - this.ring.length + 1), this.barrier + 1);
+            if (version < oldest - 1 || version > this.version) {
+                return new ChangeBatch(this.epoch, this.version, new ArrayList<>(), true);
+            }
+
+            List<WordChange> changes = new ArrayList<>();
+            for (long v = version + 1; v <= this.version && changes.size() < maxChanges; v++) {
+                changes.add(this.ring[(int) ((v - 1) % this.ring.length)]);
+            }
+            return new ChangeBatch(this.epoch, this.version, changes, false);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
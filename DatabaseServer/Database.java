@@ -2,6 +2,8 @@ package DatabaseServer;
 
 import java.sql.*;
 import java.rmi.Remote;
+import java.util.Collection;
+import java.util.List;
 
 import java.rmi.RemoteException;
 
@@ -12,7 +14,35 @@ public interface Database extends Remote {
 
     public void addWord(String word) throws RemoteException;
 
+    public List<String> addWords(Collection<String> words) throws RemoteException;
+
+    public List<String> removeWords(Collection<String> words) throws RemoteException, SQLException;
+
     public String randomWord(char a) throws RemoteException, SQLException;
 
     public String randomWordLength(int a) throws RemoteException, SQLException;
+
+    public String randomWord(char a, Difficulty difficulty) throws RemoteException, SQLException;
+
+    public String randomWordLength(int a, Difficulty difficulty) throws RemoteException, SQLException;
+
+    public List<String> wordsWithPrefix(String prefix, int limit) throws RemoteException, SQLException;
+
+    public PatternPage matchPattern(String pattern, int limit) throws RemoteException, SQLException;
+
+    public PatternPage matchPattern(String pattern, String after, int limit) throws RemoteException, SQLException;
+
+    public ChangeBatch changesSince(long version, int maxChanges) throws RemoteException;
+
+    public ChangeBatch pollChanges(long version, int maxChanges, long waitMillis) throws RemoteException;
+
+    public SnapshotPage snapshot(long afterRowid, int maxWords) throws RemoteException;
+
+    public void subscribe(DictionaryListener listener, long fromVersion) throws RemoteException;
+
+    public void unsubscribe(DictionaryListener listener) throws RemoteException;
+
+    public ReplicationStatus getReplicationStatus() throws RemoteException;
+
+    public ImportResult importWords(String path) throws RemoteException;
 }
@@ -1,20 +1,65 @@
 package DatabaseServer;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.rmi.RemoteException;
 import java.rmi.server.UnicastRemoteObject;
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import GameServer.Constants;
+import GameServer.ServiceSockets;
 
 /**
  *
  * Implements the datbase logic
+ *
+ * A DatabaseImp is either the primary, which accepts writes and records them
+ * in its ChangeLog, or a read replica, which rejects writes from clients and
+ * applies the primary's changes through a ReplicaFollower.
+ *
+ * Writes go to the word table through one connection. Reads are served from
+ * an immutable DictionarySnapshot instead, which the writers replace after
+ * each commit, so reads neither touch the connection nor wait for writes.
  */
 public class DatabaseImp extends UnicastRemoteObject implements Database {
 
+    private static final String INSERT_WORD_SQL = "INSERT OR IGNORE INTO word (word, length, letters) VALUES (?, ?, ?)";
+    private static final String DELETE_WORD_SQL = "DELETE FROM word WHERE word = ?";
+
     private Connection c;
+    private final ChangeLog changeLog;
+    private final GroupCommitter committer;
+    private final ChangeFeed changeFeed;
+    private ReplicaFollower follower;
+    private SnapshotManager snapshots;
 
+    /**
+     * Constructs the primary database on the default database file.
+     */
     public DatabaseImp() throws RemoteException, SQLException {
-        super();
-        establishDatabase();
+        this(Constants.WORD_DATABASE_FILE, false);
+    }
+
+    /**
+     * Constructs a database on the given database file.
+     *
+     * @param databaseFile - The SQLite database file.
+     * @param replica      - true to construct a read replica, false for the
+     *                     primary.
+     */
+    public DatabaseImp(String databaseFile, boolean replica) throws RemoteException, SQLException {
+        super(0, ServiceSockets.WORD_DATABASE.client(), ServiceSockets.WORD_DATABASE.server());
+        this.changeLog = replica ? null : new ChangeLog();
+        establishDatabase(databaseFile);
+        this.committer = replica ? null : new GroupCommitter(this);
+        this.changeFeed = replica ? null : new ChangeFeed(changeLog);
     }
 
     /**
@@ -24,23 +69,78 @@ public class DatabaseImp extends UnicastRemoteObject implements Database {
      * @throws SQLException
      */
 
-    private void establishDatabase() throws SQLException {
+    private void establishDatabase(String databaseFile) throws SQLException {
         try {
-            c = DriverManager.getConnection("jdbc:sqlite:./DatabaseServer/data/wordDatabase.db");
-        } catch (SQLException e) {
+            c = DriverManager.getConnection("jdbc:sqlite:" + databaseFile);
+            WordSchema.migrate(c);
+            snapshots = new SnapshotManager(databaseFile);
+        } catch (SQLException | IOException e) {
             throw new RuntimeException(e);
         }
     }
 
+    /**
+     * Sets the follower that keeps this replica in sync with the primary.
+     *
+     * @param follower - The replica's follower.
+     */
+    void setFollower(ReplicaFollower follower) {
+        this.follower = follower;
+    }
+
+    /**
+     * Rejects writes from clients if this is a read replica.
+     *
+     * @throws RemoteException - if this is a read replica.
+     */
+    private void checkWritable() throws RemoteException {
+        if (this.changeLog == null) {
+            throw new RemoteException(Constants.READ_ONLY_REPLICA);
+        }
+    }
+
+    /**
+     * Rejects change feed requests if this is a read replica.
+     *
+     * @throws RemoteException - if this is a read replica.
+     */
+    private void checkPrimary() throws RemoteException {
+        if (this.changeLog == null) {
+            throw new RemoteException(Constants.NOT_PRIMARY);
+        }
+    }
+
     /**
      * Removes the specified word from the database.
      *
      * @param word - The word to be removed.
      */
     public void removeWord(String word) throws RemoteException, SQLException {
-        String sql = "DELETE FROM word WHERE word = '" + word + "';";
-        Statement stmt = c.createStatement();
-        stmt.executeUpdate(sql);
+        checkWritable();
+        committer.commit(WordChange.Operation.REMOVE, word);
+    }
+
+    /**
+     * Removes the specified words from the database.
+     *
+     * @param words - The words to be removed.
+     * @return - The words that were in the database.
+     */
+    public List<String> removeWords(Collection<String> words) throws RemoteException, SQLException {
+        checkWritable();
+        return committer.commitAll(WordChange.Operation.REMOVE, words);
+    }
+
+    /**
+     * Deletes a word from the word table.
+     *
+     * @param deleteStmt - The prepared DELETE_WORD_SQL statement.
+     * @param word       - The word to delete.
+     * @return - true if the word was in the table.
+     */
+    private static boolean deleteWord(PreparedStatement deleteStmt, String word) throws SQLException {
+        deleteStmt.setString(1, word);
+        return deleteStmt.executeUpdate() > 0;
     }
 
     /**
@@ -50,11 +150,9 @@ public class DatabaseImp extends UnicastRemoteObject implements Database {
      * @return The word if found in the database, otherwise null.
      */
     public Boolean checkWord(String word) throws RemoteException, SQLException {
-
-        String sql = "SELECT word FROM word WHERE word = '" + word + "' LIMIT 1;";
-        Statement stmt = c.createStatement();
-        ResultSet rs = stmt.executeQuery(sql);
-        return rs.next();
+        try (DictionarySnapshot snapshot = snapshots.acquire()) {
+            return snapshot.contains(word);
+        }
     }
 
     /**
@@ -63,17 +161,218 @@ public class DatabaseImp extends UnicastRemoteObject implements Database {
      * @param word The word to add to the database.
      */
     public void addWord(String word) throws RemoteException {
-        String sqlInsert = "INSERT INTO word (word) VALUES (?)";
+        checkWritable();
         try {
-            PreparedStatement insertStmt = c.prepareStatement(sqlInsert);
-            insertStmt.setString(1, word);
-            insertStmt.executeUpdate();
-            System.out.println("Word added successfully.");
+            if (committer.commit(WordChange.Operation.ADD, word)) {
+                System.out.println("Word added successfully.");
+            } else {
+                System.out.println("Word already exists: " + word);
+            }
         } catch (SQLException e) {
             System.out.println(e.getMessage());
         }
     }
 
+    /**
+     * Adds the specified words to the database, skipping those that already
+     * exist.
+     *
+     * @param words - The words to add to the database.
+     * @return - The words added.
+     */
+    public List<String> addWords(Collection<String> words) throws RemoteException {
+        checkWritable();
+        try {
+            List<String> added = committer.commitAll(WordChange.Operation.ADD, words);
+            System.out.println(added.size() + " of " + words.size() + " words added successfully.");
+            return added;
+        } catch (SQLException e) {
+            throw new RemoteException(e.getMessage());
+        }
+    }
+
+    /**
+     * Inserts a word into the word table unless it already exists.
+     *
+     * @param insertStmt - The prepared INSERT_WORD_SQL statement.
+     * @param word       - The word to insert.
+     * @return - true if the word was inserted.
+     */
+    private static boolean insertWord(PreparedStatement insertStmt, String word) throws SQLException {
+        insertStmt.setString(1, word);
+        insertStmt.setInt(2, word.length());
+        insertStmt.setInt(3, WordSchema.letterMask(word));
+        return insertStmt.executeUpdate() > 0;
+    }
+
+    /**
+     * Applies a list of changes to the word table in one transaction. The
+     * changes that modified the table are then published as the next
+     * dictionary snapshot and, on the primary, recorded in the change log, in
+     * order.
+     *
+     * Details: used by the GroupCommitter on the primary and by the
+     * ReplicaFollower to replay a batch of the primary's changes. Adding a
+     * word that exists or removing one that does not is not an error. The
+     * insert and delete statements are prepared once per batch.
+     *
+     * @param changes - The changes to apply; their versions are ignored.
+     * @return - For each change, whether it modified the word table.
+     * @throws SQLException - if the transaction fails; it is rolled back.
+     */
+    synchronized boolean[] applyInTransaction(List<WordChange> changes) throws SQLException {
+        boolean[] changed = new boolean[changes.size()];
+        c.setAutoCommit(false);
+        try (PreparedStatement insertStmt = c.prepareStatement(INSERT_WORD_SQL);
+                PreparedStatement deleteStmt = c.prepareStatement(DELETE_WORD_SQL)) {
+            for (int i = 0; i < changes.size(); i++) {
+                WordChange change = changes.get(i);
+                changed[i] = change.getOperation() == WordChange.Operation.ADD
+                        ? insertWord(insertStmt, change.getWord())
+                        : deleteWord(deleteStmt, change.getWord());
+            }
+            c.commit();
+        } catch (Throwable e) {
+            // Rolled back on any failure, as re-enabling autocommit would
+            // otherwise commit the changes applied so far
+            c.rollback();
+            throw e;
+        } finally {
+            c.setAutoCommit(true);
+        }
+
+        List<WordChange> committed = new ArrayList<>();
+        for (int i = 0; i < changes.size(); i++) {
+            if (changed[i]) {
+                WordChange change = changes.get(i);
+                committed.add(change);
+                if (changeLog != null) {
+                    changeLog.append(change.getOperation(), change.getWord());
+                }
+            }
+        }
+        snapshots.publish(committed);
+        return changed;
+    }
+
+    /**
+     * Imports the words of a CSV or text file in this server's import
+     * directory (Constants.IMPORT_DIRECTORY) into the database.
+     *
+     * Details: see WordImporter. The path is resolved against the import
+     * directory and must stay inside it once links and ".." are resolved, so
+     * callers cannot make the server read its other files. Each imported word
+     * is recorded in the change
+     * log for the replicas; if the file gave words weights, which the change
+     * log does not carry, the replicas are made to resync instead. Reads keep
+     * being served from the snapshot before the import until a snapshot
+     * including it has been built.
+     *
+     * @param path - The path of the file, relative to the import directory.
+     * @return - The summary of the import.
+     * @throws RemoteException - if this is a read replica, the file is
+     *                         outside the import directory or the import
+     *                         fails.
+     */
+    public synchronized ImportResult importWords(String path) throws RemoteException {
+        checkWritable();
+        Path file = resolveImport(path);
+        try {
+            ImportResult result = new WordImporter(c).importFile(file.toString(),
+                    word -> changeLog.append(WordChange.Operation.ADD, word));
+            if (result.getWeighted() > 0) {
+                changeLog.requireResync();
+            }
+            System.out.println("Imported " + file + ": " + result);
+            return result;
+        } catch (IOException | SQLException e) {
+            throw new RemoteException(Constants.IMPORT_FAILED + e.getMessage());
+        } finally {
+            publishBulkChange();
+        }
+    }
+
+    /**
+     * Resolves the path of a file to import against the import directory.
+     *
+     * @param path - The path, relative to the import directory.
+     * @return - The real path of the file.
+     * @throws RemoteException - if the file does not exist or is outside the
+     *                         import directory.
+     */
+    private static Path resolveImport(String path) throws RemoteException {
+        Path directory;
+        Path file;
+        try {
+            directory = Files.createDirectories(Paths.get(Constants.IMPORT_DIRECTORY)).toRealPath();
+            file = directory.resolve(path).toRealPath();
+        } catch (IOException | InvalidPathException e) {
+            throw new RemoteException(Constants.IMPORT_FAILED + e.getMessage());
+        }
+        if (!file.startsWith(directory) || !Files.isRegularFile(file)) {
+            throw new RemoteException(Constants.IMPORT_OUTSIDE_DIRECTORY);
+        }
+        return file;
+    }
+
+    /**
+     * Publishes a bulk change of the word table as the next dictionary
+     * snapshot.
+     */
+    private void publishBulkChange() {
+        try {
+            snapshots.publishBulkChange();
+        } catch (SQLException | IOException e) {
+            System.out.println("Could not rebuild word DAWG: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Lists words in the database starting with a prefix.
+     *
+     * @param prefix - The prefix.
+     * @param limit  - The maximum number of words to return.
+     * @return - Up to limit words starting with the prefix.
+     */
+    public List<String> wordsWithPrefix(String prefix, int limit) throws RemoteException, SQLException {
+        try (DictionarySnapshot snapshot = snapshots.acquire()) {
+            return snapshot.wordsWithPrefix(prefix, limit);
+        }
+    }
+
+    /**
+     * Finds the first page of words matching a pattern.
+     *
+     * @param pattern - The pattern; '?' matches any character and other
+     *                characters match themselves, ignoring case. Only words
+     *                of the pattern's length match.
+     * @param limit   - The maximum number of words on the page.
+     * @return - The page of matching words, in (length, word) order.
+     */
+    public PatternPage matchPattern(String pattern, int limit) throws RemoteException, SQLException {
+        return matchPattern(pattern, null, limit);
+    }
+
+    /**
+     * Finds a page of words matching a pattern.
+     *
+     * @param pattern - The pattern; see matchPattern(String, int).
+     * @param after   - The cursor returned with the previous page, or null
+     *                for the first page.
+     * @param limit   - The maximum number of words on the page, capped at
+     *                Constants.MAX_PATTERN_PAGE_SIZE.
+     * @return - The page of matching words, in (length, word) order.
+     */
+    public PatternPage matchPattern(String pattern, String after, int limit) throws RemoteException, SQLException {
+        limit = Math.max(0, Math.min(limit, Constants.MAX_PATTERN_PAGE_SIZE));
+        List<String> words;
+        try (DictionarySnapshot snapshot = snapshots.acquire()) {
+            words = snapshot.matchPattern(pattern, after, limit);
+        }
+        String nextCursor = limit > 0 && words.size() == limit ? words.get(words.size() - 1) : null;
+        return new PatternPage(words, nextCursor);
+    }
+
     /**
      * Generates a random word from the database that contains the specified
      * substring.
@@ -83,16 +382,7 @@ public class DatabaseImp extends UnicastRemoteObject implements Database {
      *         string if no such word is found.
      */
     public String randomWord(char a) throws RemoteException, SQLException {
-
-        a = Character.toLowerCase(a);
-        String sql = "SELECT word FROM word WHERE word like '%" + a + "%' ORDER BY RANDOM() LIMIT 1;";
-        Statement stmt = c.createStatement();
-        ResultSet rs = stmt.executeQuery(sql);
-        if (rs.next()) {
-            return rs.getString("word");
-        } else {
-            return ""; // Or handle the case where no word is found
-        }
+        return randomWord(a, Difficulty.NORMAL);
     }
 
     /**
@@ -103,14 +393,193 @@ public class DatabaseImp extends UnicastRemoteObject implements Database {
      *         such word is found.
      */
     public String randomWordLength(int a) throws RemoteException, SQLException {
-        String sql = "SELECT word FROM word WHERE LENGTH(word) >= " + a + " ORDER BY RANDOM() LIMIT 1";
+        return randomWordLength(a, Difficulty.NORMAL);
+    }
+
+    /**
+     * Generates a random word from the database that contains the specified
+     * substring, weighted for a difficulty profile.
+     *
+     * @param a          - The substring to match in the generated word.
+     * @param difficulty - The difficulty profile.
+     * @return - A random word containing the specified substring, or an empty
+     *         string if no such word is found.
+     */
+    public String randomWord(char a, Difficulty difficulty) throws RemoteException, SQLException {
+        try (DictionarySnapshot snapshot = snapshots.acquire()) {
+            String word = snapshot.randomContaining(a, ThreadLocalRandom.current(), difficulty);
+            return word == null ? "" : word;
+        }
+    }
+
+    /**
+     * Generates a random word from the database with the specified length,
+     * weighted for a difficulty profile.
+     *
+     * @param a          - The length of the word to generate.
+     * @param difficulty - The difficulty profile.
+     * @return - A random word with the specified length, or an empty string if no
+     *         such word is found.
+     */
+    public String randomWordLength(int a, Difficulty difficulty) throws RemoteException, SQLException {
+        try (DictionarySnapshot snapshot = snapshots.acquire()) {
+            String word = snapshot.randomWithMinLength(a, ThreadLocalRandom.current(), difficulty);
+            return word == null ? "" : word; // Or handle the case where no word is found
+        }
+    }
 
-        Statement stmt = c.createStatement();
-        ResultSet rs = stmt.executeQuery(sql);
-        if (rs.next()) {
-            return rs.getString("word");
-        } else {
-            return ""; // Or handle the case where no word is found
+    /**
+     * Reads the changes recorded on the primary after a version.
+     *
+     * @param version    - The last version the caller has applied.
+     * @param maxChanges - The maximum number of changes to return.
+     * @return - The next changes, in version order.
+     * @throws RemoteException - if this is a read replica.
+     */
+    public ChangeBatch changesSince(long version, int maxChanges) throws RemoteException {
+        return pollChanges(version, maxChanges, 0);
+    }
+
+    /**
+     * Reads the changes recorded on the primary after a version, waiting for
+     * one if there is none yet (long polling).
+     *
+     * @param version    - The last version the caller has applied.
+     * @param maxChanges - The maximum number of changes to return.
+     * @param waitMillis - The maximum time to wait for a change, capped at
+     *                   Constants.CHANGE_FEED_MAX_WAIT_MS.
+     * @return - The next changes, in version order; empty if none arrived in
+     *         time, or marked for resync if the caller fell too far behind.
+     * @throws RemoteException - if this is a read replica.
+     */
+    public ChangeBatch pollChanges(long version, int maxChanges, long waitMillis) throws RemoteException {
+        checkPrimary();
+        try {
+            changeLog.await(version, Math.min(waitMillis, Constants.CHANGE_FEED_MAX_WAIT_MS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return changeLog.since(version, maxChanges);
+    }
+
+    /**
+     * Reads a page of a snapshot of the word table, for subscribers that must
+     * resync.
+     *
+     * @param afterRowid - The last rowid of the previous page, or 0 for the
+     *                   first page.
+     * @param maxWords   - The maximum number of words on the page.
+     * @return - The page and the change log version it includes.
+     * @throws RemoteException - if this is a read replica or the word table
+     *                         cannot be read.
+     */
+    public SnapshotPage snapshot(long afterRowid, int maxWords) throws RemoteException {
+        checkPrimary();
+        // Holding the lock ensures every change up to the version is committed
+        synchronized (this) {
+            try (PreparedStatement stmt = c.prepareStatement(
+                    "SELECT rowid, word, weight FROM word WHERE rowid > ? ORDER BY rowid LIMIT ?")) {
+                long version = changeLog.getVersion();
+                stmt.setLong(1, afterRowid);
+                stmt.setInt(2, maxWords);
+
+                List<String> words = new ArrayList<>();
+                List<Double> weights = new ArrayList<>();
+                long lastRowid = afterRowid;
+                ResultSet rs = stmt.executeQuery();
+                while (rs.next()) {
+                    lastRowid = rs.getLong(1);
+                    words.add(rs.getString(2));
+                    weights.add(rs.getDouble(3));
+                }
+                return new SnapshotPage(changeLog.getEpoch(), version, words, weights, lastRowid);
+            } catch (SQLException e) {
+                throw new RemoteException(e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Subscribes a listener to the change feed.
+     *
+     * @param listener    - The listener.
+     * @param fromVersion - The last version the listener has applied.
+     * @throws RemoteException - if this is a read replica.
+     */
+    public void subscribe(DictionaryListener listener, long fromVersion) throws RemoteException {
+        checkPrimary();
+        changeFeed.subscribe(listener, fromVersion);
+    }
+
+    /**
+     * Unsubscribes a listener from the change feed.
+     *
+     * @param listener - The listener.
+     * @throws RemoteException - if this is a read replica.
+     */
+    public void unsubscribe(DictionaryListener listener) throws RemoteException {
+        checkPrimary();
+        changeFeed.unsubscribe(listener);
+    }
+
+    /**
+     * Replaces the whole word table with the given words, in one transaction.
+     *
+     * Details: used by the ReplicaFollower to resync a replica. The words are
+     * staged in a temporary table first, so the word table is only swapped
+     * at the end.
+     *
+     * @param pages - The snapshot pages.
+     * @throws SQLException - if the word table cannot be replaced; it is left
+     *                      unchanged.
+     */
+    synchronized void replaceWords(List<SnapshotPage> pages) throws SQLException {
+        try (Statement stmt = c.createStatement()) {
+            stmt.executeUpdate("DROP TABLE IF EXISTS temp.resync_word");
+            stmt.executeUpdate(
+                    "CREATE TEMP TABLE resync_word (word TEXT PRIMARY KEY, length INTEGER, letters INTEGER, "
+                            + "weight REAL)");
+
+            c.setAutoCommit(false);
+            try (PreparedStatement insert = c.prepareStatement(
+                    "INSERT OR IGNORE INTO resync_word (word, length, letters, weight) VALUES (?, ?, ?, ?)")) {
+                for (SnapshotPage page : pages) {
+                    for (int i = 0; i < page.getWords().size(); i++) {
+                        String word = page.getWords().get(i);
+                        insert.setString(1, word);
+                        insert.setInt(2, word.length());
+                        insert.setInt(3, WordSchema.letterMask(word));
+                        insert.setDouble(4, page.getWeights().get(i));
+                        insert.addBatch();
+                    }
+                    insert.executeBatch();
+                }
+                stmt.executeUpdate("DELETE FROM word");
+                stmt.executeUpdate("INSERT INTO word (word, length, letters, weight) "
+                        + "SELECT word, length, letters, weight FROM resync_word");
+                c.commit();
+            } catch (SQLException e) {
+                c.rollback();
+                throw e;
+            } finally {
+                c.setAutoCommit(true);
+                stmt.executeUpdate("DROP TABLE IF EXISTS temp.resync_word");
+                publishBulkChange();
+            }
+        }
+    }
+
+    /**
+     * Gets the replication metrics of this database.
+     *
+     * @return - The replication status; a replica reports how far it lags
+     *         behind the primary.
+     */
+    public ReplicationStatus getReplicationStatus() throws RemoteException {
+        if (this.changeLog != null) {
+            long version = changeLog.getVersion();
+            return new ReplicationStatus(false, version, version, 0);
         }
+        return follower.getStatus();
     }
 }
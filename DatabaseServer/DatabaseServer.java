@@ -1,25 +1,38 @@
 package DatabaseServer;
 
-import java.rmi.registry.LocateRegistry;
 import java.rmi.registry.Registry;
 
 import GameServer.Constants;
+import GameServer.ServiceSockets;
 
 /**
  * Establishes the database and registers it
+ *
+ * With no arguments, the primary database is started on Constants.WDBS_PORT.
+ * With arguments "replica port databaseFile [primaryHost]", a read-only
+ * replica is started on the given port, serving the given database file and
+ * following the primary on primaryHost (default localhost).
  */
 public class DatabaseServer {
     public static void main(String[] args) {
         try {
-            LocateRegistry.createRegistry(Constants.WDBS_PORT);
-            Registry registry = LocateRegistry.getRegistry("localhost", Constants.WDBS_PORT);
+            boolean replica = args.length >= 3 && args[0].equals("replica");
+            int port = replica ? Integer.parseInt(args[1]) : Constants.WDBS_PORT;
 
-            DatabaseImp database = new DatabaseImp();
+            Registry registry = ServiceSockets.WORD_DATABASE.createRegistry(port);
+
+            DatabaseImp database;
+            if (replica) {
+                database = new DatabaseImp(args[2], true);
+                new ReplicaFollower(database, args.length > 3 ? args[3] : "localhost").start();
+            } else {
+                database = new DatabaseImp();
+            }
             registry.rebind("DatabaseService", database);
 
-            System.out.println("RMI server is running...");
+            System.out.println("RMI server is running" + (replica ? " as a read replica" : "") + "...");
         } catch (Exception e) {
             System.err.println("Server exception: " + e.toString());
         }
     }
-}
\ No newline at end of file
+}
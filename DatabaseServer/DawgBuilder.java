@@ -0,0 +1,273 @@
+package DatabaseServer;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import GameServer.Constants;
+
+/**
+ * Compiles a sorted list of words into a minimized acyclic automaton (DAWG)
+ * file, which DawgDictionary memory-maps.
+ *
+ * Details: words are added as UTF-8 bytes in strictly increasing unsigned
+ * byte order, which is the order of SQLite's BINARY collation, so the word
+ * table can be streamed with ORDER BY word. The automaton is minimized as it
+ * is built (Daciuk et al., incremental construction from sorted data): once
+ * a branch can no longer change, each of its states is replaced by an
+ * equivalent registered state if there is one.
+ *
+ * File layout (big-endian):
+ * int magic, int format, long version, int wordCount, int nodeCount,
+ * int edgeCount, int maxWordBytes,
+ * int[nodeCount + 1] first edge of each node (high bit set if the node is
+ * final), byte[edgeCount] edge labels (ascending within a node), padding to
+ * a multiple of 4, int[edgeCount] edge targets.
+ * Node 0 is the start state.
+ *
+ * Usage: DawgBuilder [databaseFile] output
+ */
+public class DawgBuilder {
+    static final int MAGIC = 0x44415747; // "DAWG"
+    static final int FORMAT = 1;
+    static final int HEADER_BYTES = 32;
+    static final int FINAL_BIT = 0x80000000;
+
+    /**
+     * A state of the automaton under construction.
+     */
+    private static class Node {
+        private boolean isFinal;
+        private byte[] labels = new byte[2];
+        private Node[] targets = new Node[2];
+        private int edgeCount;
+
+        private void addEdge(byte label, Node target) {
+            if (edgeCount == labels.length) {
+                labels = Arrays.copyOf(labels, edgeCount * 2);
+                targets = Arrays.copyOf(targets, edgeCount * 2);
+            }
+            labels[edgeCount] = label;
+            targets[edgeCount] = target;
+            edgeCount++;
+        }
+
+        // Two states are equivalent if they have the same finality and the
+        // same edges to the same (already registered) states
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Node)) {
+                return false;
+            }
+            Node other = (Node) o;
+            if (isFinal != other.isFinal || edgeCount != other.edgeCount) {
+                return false;
+            }
+            for (int i = 0; i < edgeCount; i++) {
+                if (labels[i] != other.labels[i] || targets[i] != other.targets[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = isFinal ? 1 : 0;
+            for (int i = 0; i < edgeCount; i++) {
+                hash = hash * 31 + labels[i];
+                hash = hash * 31 + System.identityHashCode(targets[i]);
+            }
+            return hash;
+        }
+    }
+
+    private final Node root = new Node();
+    private final Map<Node, Node> register = new HashMap<>();
+    private final List<Node> path = new ArrayList<>();
+    private byte[] previous = new byte[0];
+    private int wordCount;
+    private int maxWordBytes;
+
+    /**
+     * Main method to build a DAWG file from a word database.
+     *
+     * @param args - Command-line arguments: [databaseFile] output.
+     */
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.err.println("Usage: DawgBuilder [databaseFile] output");
+            return;
+        }
+        String databaseFile = args.length > 1 ? args[0] : Constants.WORD_DATABASE_FILE;
+        Path output = Paths.get(args[args.length - 1]);
+
+        try (Connection c = DriverManager.getConnection("jdbc:sqlite:" + databaseFile)) {
+            WordSchema.migrate(c);
+            long start = System.currentTimeMillis();
+            int words = build(c, output, 0);
+            System.out.println("Built " + output + ": " + words + " words, " + Files.size(output) + " bytes in "
+                    + (System.currentTimeMillis() - start) + " ms");
+        } catch (SQLException | IOException e) {
+            System.err.println("DAWG build failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Builds a DAWG file from the word table.
+     *
+     * @param c       - The connection to the word database.
+     * @param output  - The file to write.
+     * @param version - The version to record in the file.
+     * @return - The number of words in the file.
+     * @throws SQLException - if the word table cannot be read.
+     * @throws IOException  - if the file cannot be written.
+     */
+    public static int build(Connection c, Path output, long version) throws SQLException, IOException {
+        DawgBuilder builder = new DawgBuilder();
+        try (Statement stmt = c.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT word FROM word ORDER BY word")) {
+            while (rs.next()) {
+                builder.add(rs.getString(1));
+            }
+        }
+        builder.write(output, version);
+        return builder.wordCount;
+    }
+
+    /**
+     * Adds a word.
+     *
+     * @param word - The word; must sort after the previous word.
+     */
+    public void add(String word) {
+        add(word.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Adds a word given as UTF-8 bytes.
+     *
+     * @param word - The word; must sort after the previous word in unsigned
+     *             byte order.
+     * @throws IllegalArgumentException - if the word is out of order or a
+     *                                  duplicate.
+     */
+    public void add(byte[] word) {
+        if (wordCount > 0 && Arrays.compareUnsigned(previous, word) >= 0) {
+            throw new IllegalArgumentException("Words must be added in increasing order: "
+                    + new String(word, StandardCharsets.UTF_8));
+        }
+
+        int common = 0;
+        while (common < word.length && common < previous.length && word[common] == previous[common]) {
+            common++;
+        }
+        minimize(common);
+
+        Node node = path.isEmpty() ? root : path.get(path.size() - 1);
+        for (int i = common; i < word.length; i++) {
+            Node child = new Node();
+            node.addEdge(word[i], child);
+            path.add(child);
+            node = child;
+        }
+        node.isFinal = true;
+
+        previous = word;
+        wordCount++;
+        maxWordBytes = Math.max(maxWordBytes, word.length);
+    }
+
+    /**
+     * Replaces the states on the current path below a depth by their
+     * registered equivalents, registering those that have none.
+     *
+     * @param depth - The length of the prefix of the path to keep unchecked.
+     */
+    private void minimize(int depth) {
+        for (int i = path.size() - 1; i >= depth; i--) {
+            Node child = path.remove(i);
+            Node parent = i == 0 ? root : path.get(i - 1);
+            Node registered = register.putIfAbsent(child, child);
+            if (registered != null) {
+                parent.targets[parent.edgeCount - 1] = registered;
+            }
+        }
+    }
+
+    /**
+     * Finishes the automaton and writes it to a file.
+     *
+     * @param output  - The file to write.
+     * @param version - The version to record in the file.
+     * @throws IOException - if the file cannot be written.
+     */
+    public void write(Path output, long version) throws IOException {
+        minimize(0);
+
+        // Number the states breadth-first from the start state
+        Map<Node, Integer> ids = new IdentityHashMap<>();
+        List<Node> nodes = new ArrayList<>();
+        ArrayDeque<Node> queue = new ArrayDeque<>();
+        ids.put(root, 0);
+        nodes.add(root);
+        queue.add(root);
+        int edgeCount = 0;
+        while (!queue.isEmpty()) {
+            Node node = queue.poll();
+            edgeCount += node.edgeCount;
+            for (int i = 0; i < node.edgeCount; i++) {
+                if (!ids.containsKey(node.targets[i])) {
+                    ids.put(node.targets[i], nodes.size());
+                    nodes.add(node.targets[i]);
+                    queue.add(node.targets[i]);
+                }
+            }
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(output)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT);
+            out.writeLong(version);
+            out.writeInt(wordCount);
+            out.writeInt(nodes.size());
+            out.writeInt(edgeCount);
+            out.writeInt(maxWordBytes);
+
+            int firstEdge = 0;
+            for (Node node : nodes) {
+                out.writeInt(firstEdge | (node.isFinal ? FINAL_BIT : 0));
+                firstEdge += node.edgeCount;
+            }
+            out.writeInt(firstEdge);
+
+            for (Node node : nodes) {
+                out.write(node.labels, 0, node.edgeCount);
+            }
+            for (int i = edgeCount; i % 4 != 0; i++) {
+                out.writeByte(0);
+            }
+            for (Node node : nodes) {
+                for (int i = 0; i < node.edgeCount; i++) {
+                    out.writeInt(ids.get(node.targets[i]));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,332 @@
+package DatabaseServer;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read-only word dictionary backed by a memory-mapped DAWG file written by
+ * DawgBuilder.
+ *
+ * Membership and prefix queries walk the automaton directly in the mapped
+ * file, encoding the query to UTF-8 on the fly, so they allocate nothing.
+ * Prefix enumeration reports each word through a WordVisitor as UTF-8 bytes
+ * in a per-thread buffer. Instances are immutable and safe to share between
+ * threads.
+ */
+public class DawgDictionary {
+
+    /**
+     * Receives the words found by an enumeration.
+     */
+    @FunctionalInterface
+    public interface WordVisitor {
+
+        /**
+         * Receives one word.
+         *
+         * @param utf8   - A buffer holding the word as UTF-8; only valid until
+         *               this method returns.
+         * @param length - The length of the word in bytes.
+         * @return - true to continue the enumeration, false to stop it.
+         */
+        boolean visit(byte[] utf8, int length);
+    }
+
+    /**
+     * Per-thread scratch space for enumerations.
+     */
+    private static class Scratch {
+        private int[] nodes = new int[0];
+        private int[] edges = new int[0];
+        private byte[] word = new byte[0];
+
+        private void ensure(int depth) {
+            if (word.length < depth) {
+                nodes = new int[depth];
+                edges = new int[depth];
+                word = new byte[depth];
+            }
+        }
+    }
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final long version;
+    private final int wordCount;
+    private final int nodeCount;
+    private final int maxWordBytes;
+    private final int nodesOffset;
+    private final int labelsOffset;
+    private final int targetsOffset;
+
+    private DawgDictionary(Path path, MappedByteBuffer buffer) throws IOException {
+        this.path = path;
+        this.buffer = buffer;
+        if (buffer.capacity() < DawgBuilder.HEADER_BYTES || buffer.getInt(0) != DawgBuilder.MAGIC
+                || buffer.getInt(4) != DawgBuilder.FORMAT) {
+            throw new IOException("Not a DAWG file: " + path);
+        }
+        this.version = buffer.getLong(8);
+        this.wordCount = buffer.getInt(16);
+        this.nodeCount = buffer.getInt(20);
+        int edgeCount = buffer.getInt(24);
+        this.maxWordBytes = buffer.getInt(28);
+        this.nodesOffset = DawgBuilder.HEADER_BYTES;
+        this.labelsOffset = nodesOffset + 4 * (nodeCount + 1);
+        this.targetsOffset = labelsOffset + (edgeCount + 3) / 4 * 4;
+        if (targetsOffset + 4L * edgeCount > buffer.capacity()) {
+            throw new IOException("Truncated DAWG file: " + path);
+        }
+    }
+
+    /**
+     * Memory-maps a DAWG file.
+     *
+     * @param path - The file.
+     * @return - The dictionary.
+     * @throws IOException - if the file cannot be mapped or is not a DAWG
+     *                     file.
+     */
+    public static DawgDictionary open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new DawgDictionary(path, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public Path getPath() {
+        return this.path;
+    }
+
+    /**
+     * Gets the version of the word table the file was built from.
+     *
+     * @return - The version.
+     */
+    public long getVersion() {
+        return this.version;
+    }
+
+    public int getWordCount() {
+        return this.wordCount;
+    }
+
+    /**
+     * Checks whether a word is in the dictionary.
+     *
+     * @param word - The word.
+     * @return - true if the word is in the dictionary.
+     */
+    public boolean contains(CharSequence word) {
+        int node = walk(word);
+        return node >= 0 && isFinal(node);
+    }
+
+    /**
+     * Checks whether any word in the dictionary starts with a prefix.
+     *
+     * @param prefix - The prefix.
+     * @return - true if some word starts with the prefix.
+     */
+    public boolean hasPrefix(CharSequence prefix) {
+        return walk(prefix) >= 0;
+    }
+
+    /**
+     * Checks whether any word in the dictionary contains a substring.
+     *
+     * Details: every state of the automaton lies on the path of some word, so
+     * a word contains the substring if and only if the substring can be
+     * walked from some state. This costs one walk per state.
+     *
+     * @param substring - The substring.
+     * @return - true if some word contains the substring.
+     */
+    public boolean anyContains(CharSequence substring) {
+        for (int node = 0; node < nodeCount; node++) {
+            if (walk(node, substring) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Enumerates the words starting with a prefix, in unsigned UTF-8 byte
+     * order. The visitor must not start another enumeration on the same
+     * thread.
+     *
+     * @param prefix  - The prefix.
+     * @param visitor - Receives each word.
+     */
+    public void forEachWithPrefix(CharSequence prefix, WordVisitor visitor) {
+        int start = walk(prefix);
+        if (start < 0) {
+            return;
+        }
+
+        Scratch scratch = SCRATCH.get();
+        scratch.ensure(maxWordBytes + 1);
+        int[] nodes = scratch.nodes;
+        int[] edges = scratch.edges;
+        byte[] word = scratch.word;
+
+        // The prefix is re-encoded into the buffer so visitors see whole words
+        int prefixLength = encode(prefix, word);
+        if (isFinal(start) && !visitor.visit(word, prefixLength)) {
+            return;
+        }
+
+        int depth = 0;
+        nodes[0] = start;
+        edges[0] = firstEdge(start);
+        while (depth >= 0) {
+            int node = nodes[depth];
+            int edge = edges[depth];
+            if (edge >= firstEdge(node + 1)) {
+                depth--;
+                continue;
+            }
+            edges[depth] = edge + 1;
+
+            int target = buffer.getInt(targetsOffset + 4 * edge);
+            word[prefixLength + depth] = buffer.get(labelsOffset + edge);
+            if (isFinal(target) && !visitor.visit(word, prefixLength + depth + 1)) {
+                return;
+            }
+            depth++;
+            nodes[depth] = target;
+            edges[depth] = firstEdge(target);
+        }
+    }
+
+    /**
+     * Lists the words starting with a prefix.
+     *
+     * @param prefix - The prefix.
+     * @param limit  - The maximum number of words to return.
+     * @return - Up to limit words, in unsigned UTF-8 byte order.
+     */
+    public List<String> wordsWithPrefix(CharSequence prefix, int limit) {
+        List<String> words = new ArrayList<>();
+        if (limit <= 0) {
+            return words;
+        }
+        forEachWithPrefix(prefix, (utf8, length) -> {
+            words.add(new String(utf8, 0, length, StandardCharsets.UTF_8));
+            return words.size() < limit;
+        });
+        return words;
+    }
+
+    /**
+     * Walks a string from the start state.
+     *
+     * @param s - The string.
+     * @return - The state reached, or -1 if the string is not a prefix of any
+     *         word.
+     */
+    private int walk(CharSequence s) {
+        return walk(0, s);
+    }
+
+    /**
+     * Walks a string from a state, encoding it to UTF-8 as it goes.
+     *
+     * @param node - The state to start from.
+     * @param s    - The string.
+     * @return - The state reached, or -1 if there is no such path.
+     */
+    private int walk(int node, CharSequence s) {
+        for (int i = 0; i < s.length() && node >= 0; i++) {
+            char ch = s.charAt(i);
+            if (ch < 0x80) {
+                node = step(node, ch);
+            } else if (ch < 0x800) {
+                node = step(step(node, 0xC0 | ch >> 6), 0x80 | ch & 0x3F);
+            } else if (Character.isHighSurrogate(ch) && i + 1 < s.length()
+                    && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int cp = Character.toCodePoint(ch, s.charAt(++i));
+                node = step(step(step(step(node, 0xF0 | cp >> 18), 0x80 | cp >> 12 & 0x3F),
+                        0x80 | cp >> 6 & 0x3F), 0x80 | cp & 0x3F);
+            } else {
+                node = step(step(step(node, 0xE0 | ch >> 12), 0x80 | ch >> 6 & 0x3F), 0x80 | ch & 0x3F);
+            }
+        }
+        return node;
+    }
+
+    /**
+     * Follows the edge of a state with a label, by binary search.
+     *
+     * @param node  - The state, or -1.
+     * @param label - The label, as an unsigned byte value.
+     * @return - The target state, or -1 if there is no such edge.
+     */
+    private int step(int node, int label) {
+        if (node < 0) {
+            return -1;
+        }
+        int low = firstEdge(node);
+        int high = firstEdge(node + 1) - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midLabel = buffer.get(labelsOffset + mid) & 0xFF;
+            if (midLabel < label) {
+                low = mid + 1;
+            } else if (midLabel > label) {
+                high = mid - 1;
+            } else {
+                return buffer.getInt(targetsOffset + 4 * mid);
+            }
+        }
+        return -1;
+    }
+
+    private int firstEdge(int node) {
+        return buffer.getInt(nodesOffset + 4 * node) & ~DawgBuilder.FINAL_BIT;
+    }
+
+    private boolean isFinal(int node) {
+        return (buffer.getInt(nodesOffset + 4 * node) & DawgBuilder.FINAL_BIT) != 0;
+    }
+
+    /**
+     * Encodes a string to UTF-8 into a buffer, the same way walk does.
+     *
+     * @param s   - The string.
+     * @param out - The buffer; must be large enough.
+     * @return - The number of bytes written.
+     */
+    private static int encode(CharSequence s, byte[] out) {
+        int n = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char ch = s.charAt(i);
+            if (ch < 0x80) {
+                out[n++] = (byte) ch;
+            } else if (ch < 0x800) {
+                out[n++] = (byte) (0xC0 | ch >> 6);
+                out[n++] = (byte) (0x80 | ch & 0x3F);
+            } else if (Character.isHighSurrogate(ch) && i + 1 < s.length()
+                    && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int cp = Character.toCodePoint(ch, s.charAt(++i));
+                out[n++] = (byte) (0xF0 | cp >> 18);
+                out[n++] = (byte) (0x80 | cp >> 12 & 0x3F);
+                out[n++] = (byte) (0x80 | cp >> 6 & 0x3F);
+                out[n++] = (byte) (0x80 | cp & 0x3F);
+            } else {
+                out[n++] = (byte) (0xE0 | ch >> 12);
+                out[n++] = (byte) (0x80 | ch >> 6 & 0x3F);
+                out[n++] = (byte) (0x80 | ch & 0x3F);
+            }
+        }
+        return n;
+    }
+}
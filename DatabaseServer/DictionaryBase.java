@@ -0,0 +1,145 @@
+package DatabaseServer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The immutable compiled part of a DictionarySnapshot: the words of the word
+ * table at one version, as a memory-mapped DawgDictionary and a PatternIndex,
+ * and a WeightedSampler per weighted Difficulty. The samplers are only built
+ * if some word has a weight other than the default; otherwise every profile
+ * samples uniformly.
+ *
+ * A base is reference counted. The SnapshotManager holds one reference while
+ * the base is current and each reader holds one while it uses a snapshot of
+ * it. Once the base has been replaced and the last reader releases it, its
+ * DAWG file is deleted.
+ */
+public class DictionaryBase {
+    private final long version;
+    private final DawgDictionary dawg;
+    private final PatternIndex patterns;
+    private final Map<Difficulty, WeightedSampler> samplers;
+    private final AtomicInteger references = new AtomicInteger(1);
+
+    private DictionaryBase(long version, DawgDictionary dawg, PatternIndex patterns,
+            Map<Difficulty, WeightedSampler> samplers) {
+        this.version = version;
+        this.dawg = dawg;
+        this.patterns = patterns;
+        this.samplers = samplers;
+    }
+
+    /**
+     * Builds a base from the word table.
+     *
+     * @param c        - The connection to read the word table from; the
+     *                 table is read in one transaction.
+     * @param file     - The DAWG file to write.
+     * @param version  - The version of the word table; the table must include
+     *                 every change up to it.
+     * @param previous - The base to reuse sampling buckets from, or null.
+     * @param changed  - The words changed since the previous base was built,
+     *                 or null if they are unknown (after a bulk change).
+     * @return - The base, holding one reference for the caller.
+     * @throws SQLException - if the word table cannot be read.
+     * @throws IOException  - if the DAWG file cannot be written or mapped; it
+     *                      is deleted.
+     */
+    public static DictionaryBase build(Connection c, Path file, long version, DictionaryBase previous,
+            Set<String> changed) throws SQLException, IOException {
+        Map<String, Double> weights = new HashMap<>();
+        boolean autoCommit = c.getAutoCommit();
+        try {
+            c.setAutoCommit(false);
+            DawgBuilder.build(c, file, version);
+            try (Statement stmt = c.createStatement();
+                    ResultSet rs = stmt.executeQuery(
+                            "SELECT word, weight FROM word WHERE weight != " + WordSchema.DEFAULT_WEIGHT)) {
+                while (rs.next()) {
+                    weights.put(rs.getString(1), rs.getDouble(2));
+                }
+            }
+            c.commit();
+
+            DawgDictionary dawg = DawgDictionary.open(file);
+            PatternIndex patterns = new PatternIndex(dawg.wordsWithPrefix("", Integer.MAX_VALUE));
+            Map<Difficulty, WeightedSampler> samplers = new EnumMap<>(Difficulty.class);
+            if (!weights.isEmpty()) {
+                for (Difficulty difficulty : new Difficulty[] { Difficulty.EASY, Difficulty.HARD }) {
+                    samplers.put(difficulty, WeightedSampler.build(difficulty, patterns, weights,
+                            previous == null ? null : previous.getSampler(difficulty), changed));
+                }
+            }
+            return new DictionaryBase(version, dawg, patterns, samplers);
+        } catch (SQLException | IOException e) {
+            c.rollback();
+            Files.deleteIfExists(file);
+            throw e;
+        } finally {
+            c.setAutoCommit(autoCommit);
+        }
+    }
+
+    public long getVersion() {
+        return this.version;
+    }
+
+    public DawgDictionary getDawg() {
+        return this.dawg;
+    }
+
+    public PatternIndex getPatterns() {
+        return this.patterns;
+    }
+
+    /**
+     * Gets the sampler of a difficulty profile.
+     *
+     * @param difficulty - The profile.
+     * @return - The sampler, or null if the profile samples uniformly.
+     */
+    public WeightedSampler getSampler(Difficulty difficulty) {
+        return this.samplers.get(difficulty);
+    }
+
+    /**
+     * Takes a reference unless the base has already been reclaimed.
+     *
+     * @return - true if a reference was taken.
+     */
+    boolean tryAcquire() {
+        while (true) {
+            int count = references.get();
+            if (count == 0) {
+                return false;
+            }
+            if (references.compareAndSet(count, count + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Releases a reference, reclaiming the base if it was the last one.
+     */
+    void release() {
+        if (references.decrementAndGet() == 0) {
+            try {
+                Files.deleteIfExists(dawg.getPath());
+            } catch (IOException e) {
+                // Still mapped on this platform; left for the next start
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package DatabaseServer;
+
+import java.rmi.Remote;
+import java.rmi.RemoteException;
+
+/**
+ * Remote callback receiving the change feed of the primary DatabaseServer.
+ */
+public interface DictionaryListener extends Remote {
+
+    /**
+     * Receives the next batch of changes, in version order.
+     *
+     * Details: if the batch requires a resync, the subscription has ended; the
+     * listener must reload the word table from snapshot pages and subscribe
+     * again from the snapshot's version.
+     *
+     * @param batch - The changes.
+     * @throws RemoteException - if the listener cannot be reached; the
+     *                         subscription is then dropped.
+     */
+    public void onChanges(ChangeBatch batch) throws RemoteException;
+}
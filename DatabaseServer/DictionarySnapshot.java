@@ -0,0 +1,356 @@
+package DatabaseServer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Immutable view of the word table at one version, from which a DatabaseImp
+ * serves all its reads.
+ *
+ * A snapshot is a DictionaryBase, compiled at some earlier version, plus the
+ * words added or removed since (the delta), which override the base. A
+ * change never modifies a snapshot: the writer copies the delta with the
+ * change applied into a new snapshot, which the SnapshotManager then
+ * publishes. Readers acquire the current snapshot from the SnapshotManager
+ * and close it when they are done, which releases their reference to its
+ * base; see DictionaryBase.
+ */
+public class DictionarySnapshot implements AutoCloseable {
+
+    /**
+     * A word added or removed since the base was built.
+     */
+    private static class Delta {
+        private final boolean present;
+        private final long version;
+
+        private Delta(boolean present, long version) {
+            this.present = present;
+            this.version = version;
+        }
+    }
+
+    private final DictionaryBase base;
+    private final Map<String, Delta> delta;
+    // The words the delta marks present, in (length, word) order
+    private final String[] added;
+    private final long version;
+
+    private DictionarySnapshot(DictionaryBase base, Map<String, Delta> delta, String[] added, long version) {
+        this.base = base;
+        this.delta = delta;
+        this.added = added;
+        this.version = version;
+    }
+
+    /**
+     * Constructs a snapshot of a freshly built base.
+     *
+     * @param base - The base.
+     */
+    public DictionarySnapshot(DictionaryBase base) {
+        this(base, Collections.emptyMap(), new String[0], base.getVersion());
+    }
+
+    public DictionaryBase getBase() {
+        return this.base;
+    }
+
+    /**
+     * Gets the version of the word table the snapshot shows.
+     *
+     * @return - The version.
+     */
+    public long getVersion() {
+        return this.version;
+    }
+
+    public int getDeltaSize() {
+        return this.delta.size();
+    }
+
+    /**
+     * Gets the words added or removed since the base was built.
+     *
+     * @return - The words; read-only.
+     */
+    public Set<String> getChangedWords() {
+        return Collections.unmodifiableSet(this.delta.keySet());
+    }
+
+    /**
+     * Creates the snapshot following this one after some changes.
+     *
+     * @param changes - The changes, each of which modified the word table, in
+     *                increasing version order after this snapshot's.
+     * @return - The new snapshot, sharing this one's base.
+     */
+    public DictionarySnapshot withChanges(List<WordChange> changes) {
+        if (changes.isEmpty()) {
+            return this;
+        }
+        Map<String, Delta> next = new HashMap<>(this.delta);
+        for (WordChange change : changes) {
+            next.put(change.getWord(),
+                    new Delta(change.getOperation() == WordChange.Operation.ADD, change.getVersion()));
+        }
+
+        // Merge the words now added into the sorted added words of this
+        // snapshot, dropping those the changes removed
+        List<String> addedNow = new ArrayList<>();
+        for (WordChange change : changes) {
+            if (next.get(change.getWord()).version == change.getVersion() && next.get(change.getWord()).present) {
+                addedNow.add(change.getWord());
+            }
+        }
+        addedNow.sort(PatternIndex.order());
+        List<String> merged = new ArrayList<>(added.length + addedNow.size());
+        int i = 0;
+        for (String word : addedNow) {
+            while (i < added.length && PatternIndex.order().compare(added[i], word) < 0) {
+                addIfPresent(merged, added[i++], next);
+            }
+            if (i < added.length && added[i].equals(word)) {
+                i++;
+            }
+            merged.add(word);
+        }
+        while (i < added.length) {
+            addIfPresent(merged, added[i++], next);
+        }
+        return new DictionarySnapshot(base, next, merged.toArray(new String[0]),
+                changes.get(changes.size() - 1).getVersion());
+    }
+
+    private static void addIfPresent(List<String> words, String word, Map<String, Delta> delta) {
+        if (delta.get(word).present) {
+            words.add(word);
+        }
+    }
+
+    /**
+     * Creates a snapshot on a newer base.
+     *
+     * @param rebuilt - The new base.
+     * @return - The new snapshot, keeping the delta entries the base does not
+     *         include, at the later of the two versions.
+     */
+    public DictionarySnapshot withBase(DictionaryBase rebuilt) {
+        Map<String, Delta> next = new HashMap<>();
+        for (Map.Entry<String, Delta> entry : delta.entrySet()) {
+            if (entry.getValue().version > rebuilt.getVersion()) {
+                next.put(entry.getKey(), entry.getValue());
+            }
+        }
+        List<String> stillAdded = new ArrayList<>();
+        for (String word : added) {
+            if (next.containsKey(word)) {
+                stillAdded.add(word);
+            }
+        }
+        return new DictionarySnapshot(rebuilt, next, stillAdded.toArray(new String[0]),
+                Math.max(version, rebuilt.getVersion()));
+    }
+
+    /**
+     * Takes a reference to the base unless it has already been reclaimed.
+     *
+     * @return - true if a reference was taken.
+     */
+    boolean tryAcquire() {
+        return base.tryAcquire();
+    }
+
+    /**
+     * Releases the reference taken by SnapshotManager.acquire.
+     */
+    @Override
+    public void close() {
+        base.release();
+    }
+
+    /**
+     * Checks whether a word is in the snapshot.
+     *
+     * @param word - The word.
+     * @return - true if the word is present.
+     */
+    public boolean contains(String word) {
+        Delta change = delta.get(word);
+        return change != null ? change.present : base.getDawg().contains(word);
+    }
+
+    /**
+     * Lists the words starting with a prefix.
+     *
+     * @param prefix - The prefix.
+     * @param limit  - The maximum number of words to return.
+     * @return - Up to limit words, in no particular order.
+     */
+    public List<String> wordsWithPrefix(String prefix, int limit) {
+        List<String> words = new ArrayList<>();
+        for (String word : added) {
+            if (words.size() < limit && word.startsWith(prefix)) {
+                words.add(word);
+            }
+        }
+        base.getDawg().forEachWithPrefix(prefix, (utf8, length) -> {
+            if (words.size() >= limit) {
+                return false;
+            }
+            String word = new String(utf8, 0, length, StandardCharsets.UTF_8);
+            if (!delta.containsKey(word)) {
+                words.add(word);
+            }
+            return true;
+        });
+        return words;
+    }
+
+    /**
+     * Finds the words matching a pattern, in (length, word) order.
+     *
+     * @param pattern - The pattern; '?' matches any character.
+     * @param after   - Only words after this one are returned, or null to
+     *                start from the first match.
+     * @param limit   - The maximum number of words to return.
+     * @return - Up to limit matching words.
+     */
+    public List<String> matchPattern(String pattern, String after, int limit) {
+        List<String> words = base.getPatterns().match(pattern, after, limit, word -> !delta.containsKey(word));
+        for (String word : added) {
+            if (PatternIndex.matches(pattern, word)
+                    && (after == null || PatternIndex.order().compare(word, after) > 0)) {
+                words.add(word);
+            }
+        }
+        words.sort(PatternIndex.order());
+        return words.size() > limit ? new ArrayList<>(words.subList(0, limit)) : words;
+    }
+
+    /**
+     * Picks a random word of at least a length.
+     *
+     * Details: the delta's added words are picked with probability in
+     * proportion to their number, otherwise a word of the base that the
+     * delta does not override.
+     *
+     * @param minLength - The minimum length.
+     * @param random    - The source of randomness.
+     * @return - The word, or null if there is none.
+     */
+    public String randomWithMinLength(int minLength, Random random) {
+        int first = 0;
+        while (first < added.length && added[first].length() < minLength) {
+            first++;
+        }
+        int addedCount = added.length - first;
+        int total = base.getPatterns().countWithMinLength(minLength) + addedCount;
+        if (total == 0) {
+            return null;
+        }
+        if (random.nextInt(total) < addedCount) {
+            return added[first + random.nextInt(addedCount)];
+        }
+
+        String word = base.getPatterns().randomWithMinLength(minLength, random, w -> !delta.containsKey(w));
+        return word != null || addedCount == 0 ? word : added[first + random.nextInt(addedCount)];
+    }
+
+    /**
+     * Picks a random word containing a character, ignoring case.
+     *
+     * @param ch     - The character.
+     * @param random - The source of randomness.
+     * @return - The word, or null if there is none.
+     */
+    public String randomContaining(char ch, Random random) {
+        List<String> addedMatches = new ArrayList<>();
+        for (String word : added) {
+            if (PatternIndex.containsIgnoreCase(word, ch)) {
+                addedMatches.add(word);
+            }
+        }
+        // Only the letters a-z are counted; other characters are rare
+        int baseCount = Math.max(0, base.getPatterns().countContaining(ch));
+        if (!addedMatches.isEmpty() && random.nextInt(baseCount + addedMatches.size()) < addedMatches.size()) {
+            return addedMatches.get(random.nextInt(addedMatches.size()));
+        }
+
+        String word = base.getPatterns().randomContaining(ch, random, w -> !delta.containsKey(w));
+        return word != null || addedMatches.isEmpty()
+                ? word
+                : addedMatches.get(random.nextInt(addedMatches.size()));
+    }
+
+    /**
+     * Picks a random word of at least a length, weighted for a difficulty
+     * profile.
+     *
+     * Details: words added since the base was built have the default weight.
+     * If the base's sampler keeps hitting words the delta overrides, the
+     * word is picked uniformly instead.
+     *
+     * @param minLength  - The minimum length.
+     * @param random     - The source of randomness.
+     * @param difficulty - The profile.
+     * @return - The word, or null if there is none.
+     */
+    public String randomWithMinLength(int minLength, Random random, Difficulty difficulty) {
+        WeightedSampler sampler = base.getSampler(difficulty);
+        if (sampler == null) {
+            return randomWithMinLength(minLength, random);
+        }
+
+        int first = 0;
+        while (first < added.length && added[first].length() < minLength) {
+            first++;
+        }
+        int addedCount = added.length - first;
+        double addedWeight = addedCount * difficulty.weigh(WordSchema.DEFAULT_WEIGHT);
+        if (random.nextDouble() * (sampler.weightWithMinLength(minLength) + addedWeight) < addedWeight) {
+            return added[first + random.nextInt(addedCount)];
+        }
+
+        String word = sampler.randomWithMinLength(minLength, random, w -> !delta.containsKey(w));
+        return word != null ? word : randomWithMinLength(minLength, random);
+    }
+
+    /**
+     * Picks a random word containing a character, ignoring case, weighted
+     * for a difficulty profile. Characters other than a-z are sampled
+     * uniformly.
+     *
+     * @param ch         - The character.
+     * @param random     - The source of randomness.
+     * @param difficulty - The profile.
+     * @return - The word, or null if there is none.
+     */
+    public String randomContaining(char ch, Random random, Difficulty difficulty) {
+        WeightedSampler sampler = base.getSampler(difficulty);
+        double baseWeight = sampler == null ? -1 : sampler.weightContaining(ch);
+        if (baseWeight < 0) {
+            return randomContaining(ch, random);
+        }
+
+        List<String> addedMatches = new ArrayList<>();
+        for (String word : added) {
+            if (PatternIndex.containsIgnoreCase(word, ch)) {
+                addedMatches.add(word);
+            }
+        }
+        double addedWeight = addedMatches.size() * difficulty.weigh(WordSchema.DEFAULT_WEIGHT);
+        if (random.nextDouble() * (baseWeight + addedWeight) < addedWeight) {
+            return addedMatches.get(random.nextInt(addedMatches.size()));
+        }
+
+        String word = sampler.randomContaining(ch, random, w -> !delta.containsKey(w));
+        return word != null ? word : randomContaining(ch, random);
+    }
+}
@@ -0,0 +1,62 @@
+package DatabaseServer;
+
+import java.rmi.RemoteException;
+import java.rmi.registry.LocateRegistry;
+import java.rmi.registry.Registry;
+import java.rmi.server.UnicastRemoteObject;
+
+import GameServer.Constants;
+
+/**
+ * Command-line subscriber that prints the change feed of the primary
+ * DatabaseServer as it arrives.
+ *
+ * Usage: DictionaryWatcher [primaryHost]
+ */
+public class DictionaryWatcher extends UnicastRemoteObject implements DictionaryListener {
+    private final Database primary;
+
+    /**
+     * Constructs a DictionaryWatcher.
+     *
+     * @param primary - The primary database stub.
+     */
+    public DictionaryWatcher(Database primary) throws RemoteException {
+        super();
+        this.primary = primary;
+    }
+
+    /**
+     * Main method to run the watcher.
+     *
+     * @param args - Command-line arguments: [primaryHost].
+     */
+    public static void main(String[] args) {
+        try {
+            Registry registry = LocateRegistry.getRegistry(args.length > 0 ? args[0] : "localhost",
+                    Constants.WDBS_PORT);
+            Database primary = (Database) registry.lookup("DatabaseService");
+            DictionaryWatcher watcher = new DictionaryWatcher(primary);
+
+            long version = primary.getReplicationStatus().getPrimaryVersion();
+            primary.subscribe(watcher, version);
+            System.out.println("Watching word database changes from version " + version + "...");
+        } catch (Exception e) {
+            System.err.println("Watcher exception: " + e.toString());
+        }
+    }
+
+    @Override
+    public void onChanges(ChangeBatch batch) throws RemoteException {
+        if (batch.isResyncRequired()) {
+            // Nothing is cached, so skip ahead instead of reloading a snapshot
+            System.out.println("Fell behind; resuming from version " + batch.getLatestVersion());
+            primary.subscribe(this, batch.getLatestVersion());
+            return;
+        }
+
+        for (WordChange change : batch.getChanges()) {
+            System.out.println(change.getVersion() + " " + change.getOperation() + " " + change.getWord());
+        }
+    }
+}
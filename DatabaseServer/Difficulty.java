@@ -0,0 +1,48 @@
+package DatabaseServer;
+
+/**
+ * Difficulty profile of a game, selecting how random words are weighted.
+ *
+ * Each word has a weight in the word table (1 unless imported with one),
+ * typically its frequency in some corpus.
+ */
+public enum Difficulty {
+    /** Every word is equally likely. */
+    NORMAL,
+    /** Words are picked in proportion to their weight: common words. */
+    EASY,
+    /** Words are picked in inverse proportion to their weight: rare words. */
+    HARD;
+
+    /**
+     * Weighs a word for this profile.
+     *
+     * @param weight - The weight of the word in the word table; positive.
+     * @return - The relative probability of picking the word.
+     */
+    public double weigh(double weight) {
+        switch (this) {
+            case EASY:
+                return weight;
+            case HARD:
+                return 1 / weight;
+            default:
+                return 1;
+        }
+    }
+
+    /**
+     * Parses a profile name, ignoring case.
+     *
+     * @param name - The name, e.g. "hard".
+     * @return - The profile, or null if there is no such profile.
+     */
+    public static Difficulty parse(String name) {
+        for (Difficulty difficulty : values()) {
+            if (difficulty.name().equalsIgnoreCase(name.strip())) {
+                return difficulty;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,182 @@
+package DatabaseServer;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import GameServer.Constants;
+
+/**
+ * Group-commits the word mutations of a primary DatabaseImp.
+ *
+ * Callers queue their mutations and wait; a single flusher thread collects
+ * the mutations arriving within Constants.GROUP_COMMIT_INTERVAL_MS of the
+ * first one (up to Constants.GROUP_COMMIT_MAX_BATCH) and applies them in one
+ * transaction, so that many concurrent adds and removes share one commit
+ * instead of autocommitting each. The mutations of one call are queued as a
+ * unit that is never split across transactions, so a multi-word change is
+ * applied entirely or not at all. A caller returns once its mutations are
+ * committed, or fails after Constants.GROUP_COMMIT_TIMEOUT_MS.
+ */
+public class GroupCommitter {
+
+    /**
+     * The mutations of one call and the future completed when they are
+     * committed.
+     */
+    private static class PendingChange {
+        private final List<WordChange> changes = new ArrayList<>();
+        private final CompletableFuture<boolean[]> done = new CompletableFuture<>();
+
+        private PendingChange(WordChange.Operation operation, Collection<String> words) {
+            for (String word : words) {
+                this.changes.add(new WordChange(0, operation, word));
+            }
+        }
+    }
+
+    private final DatabaseImp database;
+    private final LinkedBlockingQueue<PendingChange> pending = new LinkedBlockingQueue<>();
+
+    /**
+     * Constructs a GroupCommitter and starts its flusher thread.
+     *
+     * @param database - The primary database to commit to.
+     */
+    public GroupCommitter(DatabaseImp database) {
+        this.database = database;
+
+        Thread flusher = new Thread(this::run, "group-commit");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Applies one mutation and waits for it to be committed.
+     *
+     * @param operation - Whether to add or remove the word.
+     * @param word      - The word.
+     * @return - true if the word table changed.
+     * @throws SQLException - if the transaction holding the mutation failed.
+     */
+    public boolean commit(WordChange.Operation operation, String word) throws SQLException {
+        return !commitAll(operation, List.of(word)).isEmpty();
+    }
+
+    /**
+     * Applies a mutation to several words in one transaction and waits for
+     * it to be committed.
+     *
+     * @param operation - Whether to add or remove the words.
+     * @param words     - The words.
+     * @return - The words that changed the word table.
+     * @throws SQLException - if the transaction holding the mutations failed.
+     */
+    public List<String> commitAll(WordChange.Operation operation, Collection<String> words) throws SQLException {
+        PendingChange change = new PendingChange(operation, words);
+        pending.add(change);
+
+        boolean[] wordChanged = await(change);
+        List<String> changed = new ArrayList<>();
+        for (int i = 0; i < wordChanged.length; i++) {
+            if (wordChanged[i]) {
+                changed.add(change.changes.get(i).getWord());
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Waits for queued mutations to be committed.
+     *
+     * @param change - The mutations.
+     * @return - Whether each mutation changed the word table.
+     * @throws SQLException - if the transaction holding the mutations failed
+     *                      or was not committed in time.
+     */
+    private static boolean[] await(PendingChange change) throws SQLException {
+        try {
+            return change.done.get(Constants.GROUP_COMMIT_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SQLException) {
+                throw (SQLException) e.getCause();
+            }
+            throw new SQLException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new SQLException(Constants.GROUP_COMMIT_TIMED_OUT);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for the word change to be committed.", e);
+        }
+    }
+
+    /**
+     * Runs the flusher: waits for a mutation, collects the mutations arriving
+     * during the flush interval, and commits them together. A call whose
+     * mutations would take the batch past its maximum size waits for the
+     * next batch, unless the batch is empty.
+     */
+    private void run() {
+        PendingChange carried = null;
+        while (true) {
+            List<PendingChange> batch = new ArrayList<>();
+            int size = 0;
+            try {
+                PendingChange next = carried != null ? carried : pending.take();
+                carried = null;
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Constants.GROUP_COMMIT_INTERVAL_MS);
+                while (next != null) {
+                    if (!batch.isEmpty() && size + next.changes.size() > Constants.GROUP_COMMIT_MAX_BATCH) {
+                        carried = next;
+                        break;
+                    }
+                    batch.add(next);
+                    size += next.changes.size();
+                    if (size >= Constants.GROUP_COMMIT_MAX_BATCH) {
+                        break;
+                    }
+                    next = pending.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                }
+            } catch (InterruptedException e) {
+                return;
+            }
+            flush(batch);
+        }
+    }
+
+    /**
+     * Commits a batch of mutations in one transaction and completes their
+     * futures. Any failure, errors included, fails the futures of the whole
+     * batch and leaves the flusher running.
+     *
+     * @param batch - The mutations.
+     */
+    private void flush(List<PendingChange> batch) {
+        List<WordChange> changes = new ArrayList<>();
+        for (PendingChange change : batch) {
+            changes.addAll(change.changes);
+        }
+
+        try {
+            boolean[] changed = database.applyInTransaction(changes);
+            int offset = 0;
+            for (PendingChange change : batch) {
+                boolean[] result = new boolean[change.changes.size()];
+                System.arraycopy(changed, offset, result, 0, result.length);
+                offset += result.length;
+                change.done.complete(result);
+            }
+        } catch (Throwable e) {
+            System.out.println("Could not commit " + changes.size() + " word changes: " + e);
+            for (PendingChange change : batch) {
+                change.done.completeExceptionally(e);
+            }
+        }
+    }
+}
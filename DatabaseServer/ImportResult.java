@@ -0,0 +1,78 @@
+package DatabaseServer;
+
+import java.io.Serializable;
+
+/**
+ * Summary of a bulk word import.
+ */
+public class ImportResult implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final long read;
+    private final long imported;
+    private final long duplicates;
+    private final long rejected;
+    private final long weighted;
+    private final long millis;
+
+    /**
+     * Constructs an ImportResult.
+     *
+     * @param read       - The number of records read from the file.
+     * @param imported   - The number of new words inserted.
+     * @param duplicates - The number of words already in the database or
+     *                   repeated in the file.
+     * @param rejected   - The number of records that were not valid words.
+     * @param weighted   - The number of words, new or existing, given a
+     *                   weight other than the default from the file.
+     * @param millis     - The duration of the import in milliseconds.
+     */
+    public ImportResult(long read, long imported, long duplicates, long rejected, long weighted, long millis) {
+        this.read = read;
+        this.imported = imported;
+        this.duplicates = duplicates;
+        this.rejected = rejected;
+        this.weighted = weighted;
+        this.millis = millis;
+    }
+
+    public long getRead() {
+        return this.read;
+    }
+
+    public long getImported() {
+        return this.imported;
+    }
+
+    public long getDuplicates() {
+        return this.duplicates;
+    }
+
+    public long getRejected() {
+        return this.rejected;
+    }
+
+    public long getWeighted() {
+        return this.weighted;
+    }
+
+    public long getMillis() {
+        return this.millis;
+    }
+
+    /**
+     * Gets the import rate.
+     *
+     * @return - The number of records read per second.
+     */
+    public long getRowsPerSecond() {
+        return this.read * 1000 / Math.max(1, this.millis);
+    }
+
+    @Override
+    public String toString() {
+        return "read " + this.read + ", imported " + this.imported + ", duplicates " + this.duplicates
+                + ", rejected " + this.rejected + ", weighted " + this.weighted + " in " + this.millis + " ms (" + getRowsPerSecond()
+                + " rows/sec)";
+    }
+}
@@ -0,0 +1,370 @@
+package DatabaseServer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+
+/**
+ * Immutable in-memory index answering positional pattern queries such as
+ * "?e??a??" (7-letter words with 'e' at position 2 and 'a' at position 5).
+ *
+ * Words are numbered in (length, word) order, so the words of each length
+ * form a contiguous range, which plays the role of the length bitmap. Within
+ * each length, there is one bitmap per (position, letter a-z) marking the
+ * words with that letter at that position, ignoring case. A query ANDs the
+ * bitmaps of its fixed letters 64 words at a time and stops as soon as a
+ * page is full, so a broad pattern never touches more of the index than the
+ * page needs. Pattern characters other than a-z are checked against the
+ * candidate words directly.
+ *
+ * The index also picks random words of a minimum length, from the contiguous
+ * range of those lengths, or containing a letter, from one bitmap per letter
+ * a-z over all words.
+ */
+public class PatternIndex {
+    public static final char WILDCARD = '?';
+
+    // Random picks tried before falling back to a scan
+    private static final int RANDOM_ATTEMPTS = 16;
+
+    private static final Comparator<String> ORDER = Comparator.comparingInt(String::length)
+            .thenComparing(Comparator.naturalOrder());
+
+    private final String[] words;
+    private final int[] lengthStart;
+    private final long[][][] letterBits;
+    private final long[][] containsBits;
+    private final int[] containsCounts;
+
+    /**
+     * Builds a PatternIndex.
+     *
+     * @param words - The words; each must appear once.
+     */
+    public PatternIndex(List<String> words) {
+        this.words = words.toArray(new String[0]);
+        Arrays.sort(this.words, ORDER);
+
+        int maxLength = this.words.length == 0 ? 0 : this.words[this.words.length - 1].length();
+        this.lengthStart = new int[maxLength + 2];
+        this.letterBits = new long[maxLength + 1][][];
+        int id = 0;
+        for (int length = 0; length <= maxLength; length++) {
+            lengthStart[length] = id;
+            int start = id;
+            while (id < this.words.length && this.words[id].length() == length) {
+                id++;
+            }
+
+            int bitmapLongs = (id - start + 63) / 64;
+            letterBits[length] = new long[length * 26][];
+            for (int bitmap = 0; bitmap < length * 26; bitmap++) {
+                letterBits[length][bitmap] = new long[bitmapLongs];
+            }
+            for (int i = start; i < id; i++) {
+                for (int position = 0; position < length; position++) {
+                    int letter = letterIndex(this.words[i].charAt(position));
+                    if (letter >= 0) {
+                        letterBits[length][position * 26 + letter][(i - start) >> 6] |= 1L << (i - start);
+                    }
+                }
+            }
+        }
+        lengthStart[maxLength + 1] = id;
+
+        this.containsBits = new long[26][(this.words.length + 63) / 64];
+        this.containsCounts = new int[26];
+        for (int i = 0; i < this.words.length; i++) {
+            for (int position = 0; position < this.words[i].length(); position++) {
+                int letter = letterIndex(this.words[i].charAt(position));
+                if (letter >= 0 && (containsBits[letter][i >> 6] & 1L << i) == 0) {
+                    containsBits[letter][i >> 6] |= 1L << i;
+                    containsCounts[letter]++;
+                }
+            }
+        }
+    }
+
+    public int size() {
+        return this.words.length;
+    }
+
+    public int getMaxLength() {
+        return this.lengthStart.length - 2;
+    }
+
+    /**
+     * Lists the words of a length.
+     *
+     * @param length - The length.
+     * @return - The words, in order; a view of the index.
+     */
+    public List<String> wordsOfLength(int length) {
+        if (length < 0 || length > getMaxLength()) {
+            return List.of();
+        }
+        return Arrays.asList(words).subList(lengthStart[length], lengthStart[length + 1]);
+    }
+
+    /**
+     * Lists the words containing a letter, ignoring case.
+     *
+     * @param letter - The letter, as an index 0-25 for a-z.
+     * @return - The words, in (length, word) order.
+     */
+    public List<String> wordsContaining(int letter) {
+        List<String> matches = new ArrayList<>(containsCounts[letter]);
+        long[] bitmap = containsBits[letter];
+        for (int block = 0; block < bitmap.length; block++) {
+            for (long bits = bitmap[block]; bits != 0; bits &= bits - 1) {
+                matches.add(words[(block << 6) + Long.numberOfTrailingZeros(bits)]);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Counts the words of at least a length.
+     *
+     * @param minLength - The minimum length.
+     * @return - The number of words.
+     */
+    public int countWithMinLength(int minLength) {
+        return this.words.length - lengthStart[Math.max(0, Math.min(minLength, lengthStart.length - 1))];
+    }
+
+    /**
+     * Counts the words containing a letter, ignoring case.
+     *
+     * @param letter - The letter.
+     * @return - The number of words, or -1 if the character is not a letter
+     *         a-z.
+     */
+    public int countContaining(char letter) {
+        int index = letterIndex(letter);
+        return index < 0 ? -1 : containsCounts[index];
+    }
+
+    /**
+     * Picks a random word of at least a length.
+     *
+     * Details: the words of those lengths form one range, so a uniform pick
+     * is one random index. Words rejected by the filter are retried a few
+     * times before the range is scanned from a random start.
+     *
+     * @param minLength - The minimum length.
+     * @param random    - The source of randomness.
+     * @param accept    - Filter the word must pass.
+     * @return - The word, or null if no accepted word is long enough.
+     */
+    public String randomWithMinLength(int minLength, Random random, Predicate<String> accept) {
+        int count = countWithMinLength(minLength);
+        if (count == 0) {
+            return null;
+        }
+        int start = this.words.length - count;
+        for (int attempt = 0; attempt < RANDOM_ATTEMPTS; attempt++) {
+            String word = words[start + random.nextInt(count)];
+            if (accept.test(word)) {
+                return word;
+            }
+        }
+
+        int offset = random.nextInt(count);
+        for (int i = 0; i < count; i++) {
+            String word = words[start + (offset + i) % count];
+            if (accept.test(word)) {
+                return word;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Picks a random word containing a character, ignoring case.
+     *
+     * Details: for a letter a-z, random indices are tried against the
+     * letter's bitmap a few times; failing that, the bitmap is scanned 64
+     * words at a time from a random start. Other characters are searched for
+     * in each word from a random start.
+     *
+     * @param ch     - The character.
+     * @param random - The source of randomness.
+     * @param accept - Filter the word must pass.
+     * @return - The word, or null if no accepted word contains the character.
+     */
+    public String randomContaining(char ch, Random random, Predicate<String> accept) {
+        if (this.words.length == 0) {
+            return null;
+        }
+        int letter = letterIndex(ch);
+        int offset = random.nextInt(this.words.length);
+        if (letter < 0) {
+            for (int i = 0; i < this.words.length; i++) {
+                String word = words[(offset + i) % this.words.length];
+                if (containsIgnoreCase(word, ch) && accept.test(word)) {
+                    return word;
+                }
+            }
+            return null;
+        }
+
+        long[] bitmap = containsBits[letter];
+        for (int attempt = 0; attempt < RANDOM_ATTEMPTS; attempt++) {
+            int id = random.nextInt(this.words.length);
+            if ((bitmap[id >> 6] & 1L << id) != 0 && accept.test(words[id])) {
+                return words[id];
+            }
+        }
+
+        // Scan the blocks from the one holding offset, wrapping around, and
+        // that block once more for the bits before offset
+        for (int step = 0; step <= bitmap.length; step++) {
+            int block = ((offset >> 6) + step) % bitmap.length;
+            long bits = bitmap[block];
+            if (step == 0) {
+                bits &= -1L << (offset & 63);
+            } else if (step == bitmap.length) {
+                bits &= ~(-1L << (offset & 63));
+            }
+            while (bits != 0) {
+                String word = words[(block << 6) + Long.numberOfTrailingZeros(bits)];
+                bits &= bits - 1;
+                if (accept.test(word)) {
+                    return word;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Finds the words matching a pattern, in (length, word) order.
+     *
+     * @param pattern - The pattern; '?' matches any character.
+     * @param after   - Only words after this one are returned, or null to
+     *                start from the first match.
+     * @param limit   - The maximum number of words to return.
+     * @param accept  - Filter applied to each match before it counts towards
+     *                the limit.
+     * @return - Up to limit matching words.
+     */
+    public List<String> match(String pattern, String after, int limit, Predicate<String> accept) {
+        List<String> matches = new ArrayList<>();
+        int length = pattern.length();
+        if (length >= letterBits.length || limit <= 0) {
+            return matches;
+        }
+
+        int base = lengthStart[length];
+        int count = lengthStart[length + 1] - base;
+        int first = 0;
+        if (after != null) {
+            first = Arrays.binarySearch(words, base, base + count, after, ORDER);
+            first = first >= 0 ? first + 1 - base : -first - 1 - base;
+        }
+
+        // Bitmaps of the fixed letters; other fixed characters are checked
+        // against each candidate
+        List<long[]> bitmaps = new ArrayList<>();
+        boolean verify = false;
+        for (int position = 0; position < length; position++) {
+            char ch = pattern.charAt(position);
+            if (ch == WILDCARD) {
+                continue;
+            }
+            int letter = letterIndex(ch);
+            if (letter >= 0) {
+                bitmaps.add(letterBits[length][position * 26 + letter]);
+            } else {
+                verify = true;
+            }
+        }
+
+        for (int block = first >> 6; block << 6 < count; block++) {
+            long bits = -1L;
+            if (block == first >> 6) {
+                bits &= -1L << (first & 63);
+            }
+            if ((block + 1) << 6 > count) {
+                bits &= -1L >>> (64 - (count & 63));
+            }
+            for (long[] bitmap : bitmaps) {
+                bits &= bitmap[block];
+            }
+
+            while (bits != 0) {
+                String word = words[base + (block << 6) + Long.numberOfTrailingZeros(bits)];
+                bits &= bits - 1;
+                if ((!verify || matches(pattern, word)) && accept.test(word)) {
+                    matches.add(word);
+                    if (matches.size() >= limit) {
+                        return matches;
+                    }
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Checks whether a word matches a pattern.
+     *
+     * @param pattern - The pattern; '?' matches any character.
+     * @param word    - The word.
+     * @return - true if the word has the pattern's length and matches each of
+     *         its fixed characters, ignoring case.
+     */
+    public static boolean matches(String pattern, String word) {
+        if (pattern.length() != word.length()) {
+            return false;
+        }
+        for (int i = 0; i < pattern.length(); i++) {
+            char ch = pattern.charAt(i);
+            if (ch != WILDCARD && Character.toLowerCase(ch) != Character.toLowerCase(word.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Compares words in the order matches are returned.
+     *
+     * @return - The (length, word) order.
+     */
+    public static Comparator<String> order() {
+        return ORDER;
+    }
+
+    /**
+     * Checks whether a word contains a character, ignoring case.
+     *
+     * @param word - The word.
+     * @param ch   - The character.
+     * @return - true if the word contains the character.
+     */
+    static boolean containsIgnoreCase(String word, char ch) {
+        ch = Character.toLowerCase(ch);
+        for (int i = 0; i < word.length(); i++) {
+            if (Character.toLowerCase(word.charAt(i)) == ch) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the index of a letter, ignoring case.
+     *
+     * @param ch - The character.
+     * @return - 0-25 for a-z, or -1 if the character is not a letter a-z.
+     */
+    static int letterIndex(char ch) {
+        ch = Character.toLowerCase(ch);
+        return ch >= 'a' && ch <= 'z' ? ch - 'a' : -1;
+    }
+}
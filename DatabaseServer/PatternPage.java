@@ -0,0 +1,34 @@
+package DatabaseServer;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * One page of the words matching a pattern.
+ */
+public class PatternPage implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final List<String> words;
+    private final String nextCursor;
+
+    /**
+     * Constructs a PatternPage.
+     *
+     * @param words      - The matching words on the page, in order.
+     * @param nextCursor - The cursor to pass to read the next page, or null
+     *                   if there are no more matches.
+     */
+    public PatternPage(List<String> words, String nextCursor) {
+        this.words = words;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<String> getWords() {
+        return this.words;
+    }
+
+    public String getNextCursor() {
+        return this.nextCursor;
+    }
+}
@@ -0,0 +1,153 @@
+package DatabaseServer;
+
+import java.rmi.registry.LocateRegistry;
+import java.rmi.registry.Registry;
+import java.util.ArrayList;
+import java.util.List;
+
+import GameServer.Constants;
+
+/**
+ * Keeps a read replica in sync with the primary DatabaseServer by replaying
+ * the primary's change log, in order, as it grows (long polling).
+ *
+ * When it first reaches the primary, and whenever the primary restarts or the
+ * replica falls out of the change log's retention, the replica reloads its
+ * whole word table from snapshot pages and follows the change log from the
+ * snapshot's version.
+ */
+public class ReplicaFollower implements Runnable {
+    private final DatabaseImp replica;
+    private final String primaryHost;
+    private Database primary;
+
+    private long epoch;
+    private volatile long appliedVersion;
+    private volatile long primaryVersion;
+    private volatile long lastSync;
+    private boolean synced;
+
+    /**
+     * Constructs a ReplicaFollower.
+     *
+     * @param replica     - The replica to keep in sync.
+     * @param primaryHost - The host running the primary DatabaseServer.
+     */
+    public ReplicaFollower(DatabaseImp replica, String primaryHost) {
+        this.replica = replica;
+        this.primaryHost = primaryHost;
+        this.lastSync = System.currentTimeMillis();
+        replica.setFollower(this);
+    }
+
+    /**
+     * Starts following the primary on a background thread.
+     */
+    public void start() {
+        Thread thread = new Thread(this, "replica-follower");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Polls the primary and applies its changes until the process exits.
+     */
+    @Override
+    public void run() {
+        while (true) {
+            try {
+                if (synced) {
+                    sync();
+                } else {
+                    resync();
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (Exception e) {
+                primary = null;
+                System.out.println("Could not sync with primary: " + e.getMessage());
+                try {
+                    Thread.sleep(Constants.REPLICA_POLL_MS);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the primary's stub, looking it up if necessary.
+     *
+     * @return - The primary's stub.
+     * @throws Exception - if the primary cannot be reached.
+     */
+    private Database primary() throws Exception {
+        if (primary == null) {
+            Registry registry = LocateRegistry.getRegistry(primaryHost, Constants.WDBS_PORT);
+            primary = (Database) registry.lookup("DatabaseService");
+        }
+        return primary;
+    }
+
+    /**
+     * Waits for the next batch of changes from the primary and applies it.
+     *
+     * @throws Exception - if the primary cannot be reached or a change cannot
+     *                   be applied.
+     */
+    private void sync() throws Exception {
+        ChangeBatch batch = primary().pollChanges(appliedVersion, Constants.REPLICA_BATCH_SIZE,
+                Constants.REPLICA_LONG_POLL_MS);
+        if (batch.getEpoch() != epoch || batch.isResyncRequired()) {
+            synced = false;
+            System.out.println("Replica fell out of sync with the primary; resyncing.");
+            return;
+        }
+
+        List<WordChange> changes = batch.getChanges();
+        if (!changes.isEmpty()) {
+            replica.applyInTransaction(changes);
+            appliedVersion = changes.get(changes.size() - 1).getVersion();
+        }
+        primaryVersion = batch.getLatestVersion();
+        lastSync = System.currentTimeMillis();
+    }
+
+    /**
+     * Reloads the replica's word table from a snapshot of the primary's.
+     *
+     * @throws Exception - if the primary cannot be reached or the word table
+     *                   cannot be replaced.
+     */
+    private void resync() throws Exception {
+        List<SnapshotPage> pages = new ArrayList<>();
+        SnapshotPage page = primary().snapshot(0, Constants.SNAPSHOT_PAGE_SIZE);
+        pages.add(page);
+        while (page.getWords().size() == Constants.SNAPSHOT_PAGE_SIZE) {
+            page = primary().snapshot(page.getLastRowid(), Constants.SNAPSHOT_PAGE_SIZE);
+            if (page.getEpoch() != pages.get(0).getEpoch()) {
+                return; // Primary restarted; start over
+            }
+            pages.add(page);
+        }
+        replica.replaceWords(pages);
+
+        epoch = pages.get(0).getEpoch();
+        appliedVersion = pages.get(0).getVersion();
+        primaryVersion = page.getVersion();
+        lastSync = System.currentTimeMillis();
+        synced = true;
+        System.out.println("Replica resynced from " + pages.size() + " snapshot pages at version " + appliedVersion);
+    }
+
+    /**
+     * Gets the replication metrics of the replica.
+     *
+     * @return - The replica's applied version, the primary's latest known
+     *         version, and the time since the last successful sync.
+     */
+    public ReplicationStatus getStatus() {
+        return new ReplicationStatus(true, appliedVersion, primaryVersion,
+                System.currentTimeMillis() - lastSync);
+    }
+}
@@ -0,0 +1,62 @@
+package DatabaseServer;
+
+import java.io.Serializable;
+
+/**
+ * Replication metrics of a DatabaseServer.
+ */
+public class ReplicationStatus implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final boolean replica;
+    private final long appliedVersion;
+    private final long primaryVersion;
+    private final long millisSinceSync;
+
+    /**
+     * Constructs a ReplicationStatus.
+     *
+     * @param replica         - true if the server is a read replica.
+     * @param appliedVersion  - The latest version applied by the server.
+     * @param primaryVersion  - The latest version known on the primary.
+     * @param millisSinceSync - Milliseconds since the replica last synced with
+     *                        the primary; 0 for the primary.
+     */
+    public ReplicationStatus(boolean replica, long appliedVersion, long primaryVersion, long millisSinceSync) {
+        this.replica = replica;
+        this.appliedVersion = appliedVersion;
+        this.primaryVersion = primaryVersion;
+        this.millisSinceSync = millisSinceSync;
+    }
+
+    public boolean isReplica() {
+        return this.replica;
+    }
+
+    public long getAppliedVersion() {
+        return this.appliedVersion;
+    }
+
+    public long getPrimaryVersion() {
+        return this.primaryVersion;
+    }
+
+    public long getMillisSinceSync() {
+        return this.millisSinceSync;
+    }
+
+    /**
+     * Gets the replication lag in versions.
+     *
+     * @return - The number of changes on the primary not yet applied.
+     */
+    public long getLag() {
+        return this.primaryVersion - this.appliedVersion;
+    }
+
+    @Override
+    public String toString() {
+        return (this.replica ? "replica" : "primary") + " version " + this.appliedVersion + ", lag "
+                + getLag() + " changes, last sync " + this.millisSinceSync + " ms ago";
+    }
+}
@@ -0,0 +1,224 @@
+package DatabaseServer;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import GameServer.Constants;
+
+/**
+ * Holds the current DictionarySnapshot of a DatabaseImp and moves it forward
+ * as the word table changes.
+ *
+ * Readers never lock: acquire reads the current snapshot and takes a
+ * reference to its base. Writers publish each committed batch of changes as
+ * a new snapshot, copying the delta; publishing is serialized, but never
+ * waits for a reader. The base is recompiled from the word table in the
+ * background Constants.DAWG_REBUILD_DELAY_MS after a change, or at once when
+ * the delta reaches Constants.SNAPSHOT_DELTA_LIMIT words, and swapped in with
+ * the delta entries it absorbed dropped. Bulk changes (imports and replica
+ * resyncs) rebuild the base before returning; until then readers keep the
+ * snapshot from before the change.
+ *
+ * Rebuilds read the word table through a connection of their own, with the
+ * database in WAL mode, so they see committed data only and do not hold up
+ * writers. DAWG files are named databaseFile.generation.dawg.
+ */
+public class SnapshotManager {
+    private final Connection c;
+    private final Path directory;
+    private final String baseName;
+    private final ScheduledExecutorService rebuilder;
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    private final Object rebuildLock = new Object();
+    private volatile DictionarySnapshot current;
+    private long generation;
+
+    /**
+     * Constructs a SnapshotManager and builds the first snapshot.
+     *
+     * @param databaseFile - The word database file, naming the DAWG files.
+     * @throws SQLException - if the word table cannot be read.
+     * @throws IOException  - if the first DAWG file cannot be written.
+     */
+    public SnapshotManager(String databaseFile) throws SQLException, IOException {
+        Path file = Paths.get(databaseFile).toAbsolutePath();
+        this.directory = file.getParent();
+        this.baseName = file.getFileName().toString();
+        this.c = DriverManager.getConnection("jdbc:sqlite:" + databaseFile);
+        try (Statement stmt = c.createStatement()) {
+            stmt.execute("PRAGMA journal_mode = WAL");
+        }
+
+        this.rebuilder = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "dawg-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+        deleteFiles();
+        this.current = new DictionarySnapshot(buildBase(0, null, null));
+    }
+
+    /**
+     * Acquires the current snapshot. The caller must close it when done,
+     * preferably with try-with-resources.
+     *
+     * @return - The snapshot.
+     */
+    public DictionarySnapshot acquire() {
+        while (true) {
+            DictionarySnapshot snapshot = this.current;
+            if (snapshot.tryAcquire()) {
+                return snapshot;
+            }
+            // The base was reclaimed after a newer snapshot was published
+        }
+    }
+
+    /**
+     * Gets the version of the current snapshot.
+     *
+     * @return - The version.
+     */
+    public long getVersion() {
+        return this.current.getVersion();
+    }
+
+    /**
+     * Publishes committed changes to single words.
+     *
+     * @param changes - The changes, each of which modified the word table, in
+     *                commit order; their versions are ignored.
+     */
+    public void publish(List<WordChange> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        int deltaSize;
+        synchronized (this) {
+            long version = current.getVersion();
+            List<WordChange> versioned = new ArrayList<>(changes.size());
+            for (WordChange change : changes) {
+                versioned.add(new WordChange(++version, change.getOperation(), change.getWord()));
+            }
+            current = current.withChanges(versioned);
+            deltaSize = current.getDeltaSize();
+        }
+        scheduleRebuild(deltaSize >= Constants.SNAPSHOT_DELTA_LIMIT ? 0 : Constants.DAWG_REBUILD_DELAY_MS);
+    }
+
+    /**
+     * Records a committed bulk change as one new version, rebuilding the base
+     * to include it. No single-word change may be published meanwhile.
+     *
+     * @throws SQLException - if the word table cannot be read.
+     * @throws IOException  - if the DAWG file cannot be written.
+     */
+    public void publishBulkChange() throws SQLException, IOException {
+        rebuild(true);
+    }
+
+    /**
+     * Schedules a rebuild unless one is already pending.
+     *
+     * @param delayMillis - The delay before the rebuild.
+     */
+    private void scheduleRebuild(long delayMillis) {
+        if (rebuildScheduled.compareAndSet(false, true)) {
+            rebuilder.schedule(() -> {
+                rebuildScheduled.set(false);
+                try {
+                    rebuild(false);
+                } catch (SQLException | IOException e) {
+                    System.out.println("Could not rebuild word DAWG: " + e.getMessage());
+                    scheduleRebuild(Constants.DAWG_REBUILD_DELAY_MS);
+                }
+            }, delayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Rebuilds the base from the word table and swaps it in.
+     *
+     * Details: the table is read after the version is taken, so the new base
+     * includes every change up to that version and possibly some later ones.
+     * Delta entries up to the version are dropped; later entries stay and
+     * still override the base. Sampling buckets that none of the absorbed
+     * words fall in are reused from the previous base, which is then
+     * released, to be reclaimed when its last reader is done.
+     *
+     * @param bulkChange - true to give the new base the next version, for a
+     *                   bulk change.
+     * @throws SQLException - if the word table cannot be read.
+     * @throws IOException  - if the DAWG file cannot be written.
+     */
+    private void rebuild(boolean bulkChange) throws SQLException, IOException {
+        synchronized (rebuildLock) {
+            long start = System.currentTimeMillis();
+            DictionarySnapshot latest = this.current;
+            DictionaryBase rebuilt = bulkChange
+                    ? buildBase(latest.getVersion() + 1, latest.getBase(), null)
+                    : buildBase(latest.getVersion(), latest.getBase(), latest.getChangedWords());
+            DictionaryBase previous;
+            synchronized (this) {
+                previous = current.getBase();
+                current = current.withBase(rebuilt);
+            }
+            previous.release();
+
+            WeightedSampler sampler = rebuilt.getSampler(Difficulty.EASY);
+            System.out.println("Rebuilt word DAWG at version " + rebuilt.getVersion() + ": "
+                    + rebuilt.getDawg().getWordCount() + " words"
+                    + (sampler == null ? ""
+                            : ", " + sampler.getRebuiltBuckets() + " of " + sampler.getBucketCount()
+                                    + " sampling buckets")
+                    + " in " + (System.currentTimeMillis() - start) + " ms");
+        }
+    }
+
+    /**
+     * Builds a base in a new generation file.
+     *
+     * @param version  - The version of the word table; every change up to it
+     *                 must be committed.
+     * @param previous - The base to reuse sampling buckets from, or null.
+     * @param changed  - The words changed since the previous base, or null.
+     * @return - The base.
+     * @throws SQLException - if the word table cannot be read.
+     * @throws IOException  - if the DAWG file cannot be written.
+     */
+    private DictionaryBase buildBase(long version, DictionaryBase previous, Set<String> changed)
+            throws SQLException, IOException {
+        Path file;
+        synchronized (this) {
+            file = directory.resolve(baseName + "." + (++generation) + ".dawg");
+        }
+        return DictionaryBase.build(c, file, version, previous, changed);
+    }
+
+    /**
+     * Deletes the DAWG files left by an earlier run.
+     */
+    private void deleteFiles() {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, baseName + ".*.dawg")) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            System.out.println("Could not clean up word DAWG files: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package DatabaseServer;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * One page of a snapshot of the word table, read in rowid order.
+ *
+ * A subscriber that must resync reads pages until one is not full, then
+ * follows the change log from the version of the first page. Changes made
+ * while the pages were read are replayed from the change log; since adding
+ * and removing words are idempotent, the result matches the primary.
+ */
+public class SnapshotPage implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final long epoch;
+    private final long version;
+    private final List<String> words;
+    private final List<Double> weights;
+    private final long lastRowid;
+
+    /**
+     * Constructs a SnapshotPage.
+     *
+     * @param epoch     - The epoch of the primary's change log.
+     * @param version   - The change log version the page includes.
+     * @param words     - The words on the page.
+     * @param weights   - The weight of each word.
+     * @param lastRowid - The rowid of the last word on the page, to pass when
+     *                  reading the next page.
+     */
+    public SnapshotPage(long epoch, long version, List<String> words, List<Double> weights, long lastRowid) {
+        this.epoch = epoch;
+        this.version = version;
+        this.words = words;
+        this.weights = weights;
+        this.lastRowid = lastRowid;
+    }
+
+    public long getEpoch() {
+        return this.epoch;
+    }
+
+    public long getVersion() {
+        return this.version;
+    }
+
+    public List<String> getWords() {
+        return this.words;
+    }
+
+    public List<Double> getWeights() {
+        return this.weights;
+    }
+
+    public long getLastRowid() {
+        return this.lastRowid;
+    }
+}
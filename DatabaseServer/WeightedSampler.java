@@ -0,0 +1,232 @@
+package DatabaseServer;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Immutable weighted sampler of random words for one Difficulty, with an
+ * AliasTable per bucket: one bucket per letter a-z (the words containing it)
+ * and one per word length.
+ *
+ * A word containing a letter is one alias sample in the letter's bucket. A
+ * word of at least a length first picks a length bucket in proportion to the
+ * buckets' total weights, by binary search over their suffix sums, then
+ * samples it. Buckets are rebuilt incrementally: a sampler built from a
+ * previous one reuses every bucket no changed word falls in.
+ */
+public class WeightedSampler {
+
+    // Weighted picks tried before giving up on words the caller rejects
+    private static final int RANDOM_ATTEMPTS = 16;
+
+    /**
+     * The words of one bucket and their alias table.
+     */
+    private static class Bucket {
+        private final String[] words;
+        private final AliasTable table;
+
+        private Bucket(String[] words, AliasTable table) {
+            this.words = words;
+            this.table = table;
+        }
+
+        private String sample(Random random) {
+            return words[table.sample(random)];
+        }
+    }
+
+    private final Difficulty difficulty;
+    private final Bucket[] letterBuckets;
+    private final Bucket[] lengthBuckets;
+    private final double[] weightFromLength;
+    private final int rebuiltBuckets;
+
+    private WeightedSampler(Difficulty difficulty, Bucket[] letterBuckets, Bucket[] lengthBuckets,
+            int rebuiltBuckets) {
+        this.difficulty = difficulty;
+        this.letterBuckets = letterBuckets;
+        this.lengthBuckets = lengthBuckets;
+        this.rebuiltBuckets = rebuiltBuckets;
+
+        // weightFromLength[l] is the total weight of the words of length l
+        // or more
+        this.weightFromLength = new double[lengthBuckets.length + 1];
+        for (int length = lengthBuckets.length - 1; length >= 0; length--) {
+            weightFromLength[length] = weightFromLength[length + 1]
+                    + (lengthBuckets[length] == null ? 0 : lengthBuckets[length].table.getTotalWeight());
+        }
+    }
+
+    /**
+     * Builds a sampler.
+     *
+     * @param difficulty - The profile weighing the words.
+     * @param index      - The words.
+     * @param weights    - The weight of each word that does not have the
+     *                   default weight.
+     * @param previous   - A sampler for the same profile to reuse buckets
+     *                   from, or null.
+     * @param changed    - The words added, removed or reweighted since the
+     *                   previous sampler was built, or null to rebuild every
+     *                   bucket.
+     * @return - The sampler.
+     */
+    public static WeightedSampler build(Difficulty difficulty, PatternIndex index, Map<String, Double> weights,
+            WeightedSampler previous, Set<String> changed) {
+        boolean reuse = previous != null && changed != null && previous.difficulty == difficulty;
+        boolean[] dirtyLetters = new boolean[26];
+        boolean[] dirtyLengths = new boolean[index.getMaxLength() + 1];
+        if (reuse) {
+            for (String word : changed) {
+                for (int i = 0; i < word.length(); i++) {
+                    int letter = PatternIndex.letterIndex(word.charAt(i));
+                    if (letter >= 0) {
+                        dirtyLetters[letter] = true;
+                    }
+                }
+                if (word.length() < dirtyLengths.length) {
+                    dirtyLengths[word.length()] = true;
+                }
+            }
+        }
+
+        int rebuilt = 0;
+        Bucket[] letterBuckets = new Bucket[26];
+        for (int letter = 0; letter < 26; letter++) {
+            if (reuse && !dirtyLetters[letter]) {
+                letterBuckets[letter] = previous.letterBuckets[letter];
+            } else {
+                letterBuckets[letter] = bucket(difficulty, index.wordsContaining(letter), weights);
+                rebuilt++;
+            }
+        }
+        Bucket[] lengthBuckets = new Bucket[index.getMaxLength() + 1];
+        for (int length = 0; length < lengthBuckets.length; length++) {
+            if (reuse && !dirtyLengths[length] && length < previous.lengthBuckets.length) {
+                lengthBuckets[length] = previous.lengthBuckets[length];
+            } else {
+                lengthBuckets[length] = bucket(difficulty, index.wordsOfLength(length), weights);
+                rebuilt++;
+            }
+        }
+        return new WeightedSampler(difficulty, letterBuckets, lengthBuckets, rebuilt);
+    }
+
+    /**
+     * Builds the bucket of a list of words.
+     *
+     * @return - The bucket, or null if the list is empty.
+     */
+    private static Bucket bucket(Difficulty difficulty, List<String> words, Map<String, Double> weights) {
+        if (words.isEmpty()) {
+            return null;
+        }
+        double[] weighed = new double[words.size()];
+        for (int i = 0; i < weighed.length; i++) {
+            weighed[i] = difficulty.weigh(weights.getOrDefault(words.get(i), WordSchema.DEFAULT_WEIGHT));
+        }
+        return new Bucket(words.toArray(new String[0]), new AliasTable(weighed));
+    }
+
+    /**
+     * Gets the number of buckets built rather than reused.
+     *
+     * @return - The number of buckets.
+     */
+    public int getRebuiltBuckets() {
+        return this.rebuiltBuckets;
+    }
+
+    public int getBucketCount() {
+        return this.letterBuckets.length + this.lengthBuckets.length;
+    }
+
+    /**
+     * Gets the total weight of the words of at least a length.
+     *
+     * @param minLength - The minimum length.
+     * @return - The total weight.
+     */
+    public double weightWithMinLength(int minLength) {
+        return minLength >= lengthBuckets.length ? 0 : weightFromLength[Math.max(0, minLength)];
+    }
+
+    /**
+     * Gets the total weight of the words containing a letter, ignoring case.
+     *
+     * @param letter - The letter.
+     * @return - The total weight, or -1 if the character is not a letter a-z.
+     */
+    public double weightContaining(char letter) {
+        int index = PatternIndex.letterIndex(letter);
+        if (index < 0) {
+            return -1;
+        }
+        return letterBuckets[index] == null ? 0 : letterBuckets[index].table.getTotalWeight();
+    }
+
+    /**
+     * Picks a weighted random word of at least a length.
+     *
+     * @param minLength - The minimum length.
+     * @param random    - The source of randomness.
+     * @param accept    - Filter the word must pass.
+     * @return - The word, or null if none was accepted after a few attempts.
+     */
+    public String randomWithMinLength(int minLength, Random random, Predicate<String> accept) {
+        minLength = Math.max(0, minLength);
+        double total = weightWithMinLength(minLength);
+        if (total <= 0) {
+            return null;
+        }
+        for (int attempt = 0; attempt < RANDOM_ATTEMPTS; attempt++) {
+            // The bucket of length l covers [weightFromLength[l + 1],
+            // weightFromLength[l]); suffix sums decrease with l
+            double target = random.nextDouble() * total;
+            int low = minLength;
+            int high = lengthBuckets.length - 1;
+            while (low < high) {
+                int mid = (low + high + 1) >>> 1;
+                if (weightFromLength[mid] > target) {
+                    low = mid;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            if (lengthBuckets[low] == null) {
+                continue; // Rounding at the edge of an empty bucket
+            }
+            String word = lengthBuckets[low].sample(random);
+            if (accept.test(word)) {
+                return word;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Picks a weighted random word containing a letter, ignoring case.
+     *
+     * @param letter - The letter; must be a-z.
+     * @param random - The source of randomness.
+     * @param accept - Filter the word must pass.
+     * @return - The word, or null if none was accepted after a few attempts.
+     */
+    public String randomContaining(char letter, Random random, Predicate<String> accept) {
+        int index = PatternIndex.letterIndex(letter);
+        if (index < 0 || letterBuckets[index] == null) {
+            return null;
+        }
+        for (int attempt = 0; attempt < RANDOM_ATTEMPTS; attempt++) {
+            String word = letterBuckets[index].sample(random);
+            if (accept.test(word)) {
+                return word;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,61 @@
+package DatabaseServer;
+
+import java.io.Serializable;
+
+/**
+ * Represents one change to the word table, as recorded in the ChangeLog.
+ */
+public class WordChange implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The kind of change.
+     */
+    public enum Operation {
+        ADD, REMOVE
+    }
+
+    private final long version;
+    private final Operation operation;
+    private final String word;
+
+    /**
+     * Constructs a WordChange.
+     *
+     * @param version   - The version of the dictionary after this change.
+     * @param operation - Whether the word was added or removed.
+     * @param word      - The word.
+     */
+    public WordChange(long version, Operation operation, String word) {
+        this.version = version;
+        this.operation = operation;
+        this.word = word;
+    }
+
+    /**
+     * Gets the version of the dictionary after this change.
+     *
+     * @return - The version.
+     */
+    public long getVersion() {
+        return this.version;
+    }
+
+    /**
+     * Gets whether the word was added or removed.
+     *
+     * @return - The operation.
+     */
+    public Operation getOperation() {
+        return this.operation;
+    }
+
+    /**
+     * Gets the word that was added or removed.
+     *
+     * @return - The word.
+     */
+    public String getWord() {
+        return this.word;
+    }
+}
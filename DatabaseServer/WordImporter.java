@@ -0,0 +1,364 @@
+package DatabaseServer;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.rmi.registry.LocateRegistry;
+import java.rmi.registry.Registry;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVPrinter;
+import org.apache.commons.csv.QuoteMode;
+
+import GameServer.Constants;
+
+/**
+ * Streams words between the word table and CSV or text files.
+ *
+ * Files ending in ".csv" are read and written as CSV with the word in the
+ * first column and optionally its weight in the second; exports start with a
+ * "word","weight" header row, which is skipped if a file starts with exactly
+ * that row. Any other file has one word per line. Files are
+ * streamed, so their size is not limited by memory.
+ *
+ * Imported words are trimmed and Unicode-normalized (NFC), keeping their case.
+ * Empty records and records containing whitespace or control characters are
+ * rejected, as are weights that are not positive numbers. Words already in the
+ * table, or repeated in the file, are skipped, except that a weight in the
+ * file replaces the weight of a word already in the table. Words are
+ * inserted Constants.IMPORT_BATCH_SIZE per transaction; if the
+ * import fails, the batches already committed are kept.
+ *
+ * Usage:
+ * WordImporter import file [databaseFile] - import into a stopped database
+ * WordImporter export file [databaseFile] - export the word table
+ * WordImporter remote-import file - import a file in the primary's import
+ * directory (Constants.IMPORT_DIRECTORY) through the running primary
+ */
+public class WordImporter {
+    private static final CSVFormat EXPORT_FORMAT = CSVFormat.DEFAULT.builder().setQuoteMode(QuoteMode.ALL).build();
+    // Header row of exported CSV files
+    private static final String[] CSV_HEADER = { "word", "weight" };
+
+    private final Connection c;
+
+    private long read;
+    private long imported;
+    private long duplicates;
+    private long rejected;
+    private long weighted;
+
+    /**
+     * Constructs a WordImporter.
+     *
+     * @param c - The connection to the word database; its schema must be
+     *          current.
+     */
+    public WordImporter(Connection c) {
+        this.c = c;
+    }
+
+    /**
+     * Main method to run the importer.
+     *
+     * @param args - Command-line arguments: import|export|remote-import file
+     *             [databaseFile].
+     */
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: WordImporter import|export|remote-import file [databaseFile]");
+            return;
+        }
+
+        try {
+            if (args[0].equals("remote-import")) {
+                Registry registry = LocateRegistry.getRegistry("localhost", Constants.WDBS_PORT);
+                Database database = (Database) registry.lookup("DatabaseService");
+                System.out.println("Imported " + database.importWords(args[1]));
+                return;
+            }
+
+            String databaseFile = args.length > 2 ? args[2] : Constants.WORD_DATABASE_FILE;
+            try (Connection c = DriverManager.getConnection("jdbc:sqlite:" + databaseFile)) {
+                WordSchema.migrate(c);
+                WordImporter importer = new WordImporter(c);
+                if (args[0].equals("import")) {
+                    System.out.println("Imported " + importer.importFile(args[1], word -> {
+                    }));
+                } else if (args[0].equals("export")) {
+                    System.out.println("Exported " + importer.exportFile(args[1]) + " words.");
+                } else {
+                    System.err.println("Unknown command: " + args[0]);
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Word import failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Imports the words of a file into the word table.
+     *
+     * @param path       - The path of the CSV or text file.
+     * @param onInserted - Called with each word inserted, after its batch is
+     *                   committed.
+     * @return - The summary of the import.
+     * @throws IOException  - if the file cannot be read.
+     * @throws SQLException - if a batch cannot be inserted; it is rolled back.
+     */
+    public ImportResult importFile(String path, Consumer<String> onInserted) throws IOException, SQLException {
+        long start = System.currentTimeMillis();
+        long nextProgress = Constants.IMPORT_PROGRESS_ROWS;
+        boolean csv = isCsv(path);
+        read = imported = duplicates = rejected = weighted = 0;
+
+        boolean autoCommit = c.getAutoCommit();
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(path), StandardCharsets.UTF_8);
+                Stream<String[]> records = records(reader, path);
+                PreparedStatement insert = c.prepareStatement(
+                        "INSERT OR IGNORE INTO word (word, length, letters, weight) VALUES (?, ?, ?, ?)");
+                PreparedStatement reweigh = c.prepareStatement(
+                        "UPDATE word SET weight = ? WHERE word = ? AND weight != ?")) {
+            c.setAutoCommit(false);
+
+            // Words to insert, with their weight from the file or null
+            Map<String, Double> batch = new LinkedHashMap<>();
+            Iterator<String[]> iterator = records.iterator();
+            while (iterator.hasNext()) {
+                String[] record = iterator.next();
+                if (read == 0 && csv && Arrays.equals(record, CSV_HEADER)) {
+                    continue;
+                }
+                String word = normalize(record[0]);
+                Double weight = record.length > 1 && !record[1].isBlank() ? parseWeight(record[1]) : null;
+                read++;
+                if (word == null || (weight != null && weight.isNaN())) {
+                    rejected++;
+                } else if (batch.containsKey(word)) {
+                    duplicates++;
+                } else {
+                    batch.put(word, weight);
+                }
+
+                if (batch.size() >= Constants.IMPORT_BATCH_SIZE || !iterator.hasNext()) {
+                    insertBatch(insert, reweigh, batch, onInserted);
+                    batch.clear();
+                }
+                if (read >= nextProgress) {
+                    System.out.println("Read " + read + " rows (" + rate(read, start) + " rows/sec)");
+                    nextProgress += Constants.IMPORT_PROGRESS_ROWS;
+                }
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            c.setAutoCommit(autoCommit);
+        }
+        return new ImportResult(read, imported, duplicates, rejected, weighted, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Inserts a batch of words in one transaction, and updates the weights of
+     * those already in the table.
+     *
+     * @param insert     - The insert statement.
+     * @param reweigh    - The weight update statement.
+     * @param batch      - The words to insert, with their weight or null.
+     * @param onInserted - Called with each word inserted.
+     * @throws SQLException - if the batch cannot be inserted; it is rolled
+     *                      back.
+     */
+    private void insertBatch(PreparedStatement insert, PreparedStatement reweigh, Map<String, Double> batch,
+            Consumer<String> onInserted) throws SQLException {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        List<String> words = new ArrayList<>(batch.keySet());
+        int[] counts;
+        long reweighted = 0;
+        try {
+            for (String word : words) {
+                Double weight = batch.get(word);
+                insert.setString(1, word);
+                insert.setInt(2, word.length());
+                insert.setInt(3, WordSchema.letterMask(word));
+                insert.setDouble(4, weight == null ? WordSchema.DEFAULT_WEIGHT : weight);
+                insert.addBatch();
+            }
+            counts = insert.executeBatch();
+
+            for (int i = 0; i < words.size(); i++) {
+                Double weight = batch.get(words.get(i));
+                if (counts[i] == 0 && weight != null) {
+                    reweigh.setDouble(1, weight);
+                    reweigh.setString(2, words.get(i));
+                    reweigh.setDouble(3, weight);
+                    reweigh.addBatch();
+                }
+            }
+            for (int count : reweigh.executeBatch()) {
+                reweighted += count;
+            }
+            c.commit();
+        } catch (SQLException e) {
+            c.rollback();
+            throw e;
+        }
+
+        weighted += reweighted;
+        for (int i = 0; i < words.size(); i++) {
+            if (counts[i] > 0) {
+                imported++;
+                onInserted.accept(words.get(i));
+                Double weight = batch.get(words.get(i));
+                if (weight != null && weight != WordSchema.DEFAULT_WEIGHT) {
+                    weighted++;
+                }
+            } else {
+                duplicates++;
+            }
+        }
+    }
+
+    /**
+     * Exports the word table to a file, in rowid order. CSV files include the
+     * weight of each word.
+     *
+     * @param path - The path of the CSV or text file to write.
+     * @return - The number of words exported.
+     * @throws IOException  - if the file cannot be written.
+     * @throws SQLException - if the word table cannot be read.
+     */
+    public long exportFile(String path) throws IOException, SQLException {
+        long start = System.currentTimeMillis();
+        long count = 0;
+
+        try (BufferedWriter writer = Files.newBufferedWriter(Paths.get(path), StandardCharsets.UTF_8);
+                CSVPrinter printer = isCsv(path) ? new CSVPrinter(writer, EXPORT_FORMAT) : null;
+                Statement stmt = c.createStatement()) {
+            stmt.setFetchSize(Constants.IMPORT_BATCH_SIZE);
+            if (printer != null) {
+                printer.printRecord((Object[]) CSV_HEADER);
+            }
+            try (ResultSet rs = stmt.executeQuery("SELECT word, weight FROM word ORDER BY rowid")) {
+                while (rs.next()) {
+                    writeWord(printer, writer, rs.getString(1), rs.getDouble(2));
+                    if (++count % Constants.IMPORT_PROGRESS_ROWS == 0) {
+                        System.out.println("Wrote " + count + " rows (" + rate(count, start) + " rows/sec)");
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Writes one word to an export file.
+     *
+     * @param printer - The CSV printer, or null for a text file.
+     * @param writer  - The underlying writer.
+     * @param word    - The word.
+     * @param weight  - The weight of the word.
+     * @throws IOException - if the word cannot be written.
+     */
+    private static void writeWord(CSVPrinter printer, Writer writer, String word, double weight)
+            throws IOException {
+        if (printer != null) {
+            printer.printRecord(word, weight);
+        } else {
+            writer.write(word);
+            writer.write('\n');
+        }
+    }
+
+    /**
+     * Opens a lazy stream of the raw records of a file.
+     *
+     * @param reader - The reader of the file.
+     * @param path   - The path of the file, used to choose the format.
+     * @return - The fields of each non-empty record: the word, then the
+     *         weight if the record has one.
+     * @throws IOException - if the file cannot be parsed.
+     */
+    private static Stream<String[]> records(BufferedReader reader, String path) throws IOException {
+        if (!isCsv(path)) {
+            return reader.lines().map(line -> new String[] { line });
+        }
+
+        CSVParser parser = CSVFormat.DEFAULT.parse(reader);
+        return parser.stream().filter(record -> record.size() > 0)
+                .map(record -> record.values())
+                .onClose(() -> {
+                    try {
+                        parser.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    /**
+     * Normalizes a raw record into a word.
+     *
+     * @param raw - The raw record.
+     * @return - The word, or null if the record is not a valid word.
+     */
+    public static String normalize(String raw) {
+        String word = Normalizer.normalize(raw.replace("\uFEFF", "").trim(), Normalizer.Form.NFC);
+        if (word.isEmpty()) {
+            return null;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            char ch = word.charAt(i);
+            if (Character.isWhitespace(ch) || Character.isISOControl(ch)) {
+                return null;
+            }
+        }
+        return word;
+    }
+
+    /**
+     * Parses the weight field of a record.
+     *
+     * @param raw - The raw field.
+     * @return - The weight, or NaN if it is not a positive finite number.
+     */
+    static double parseWeight(String raw) {
+        try {
+            double weight = Double.parseDouble(raw.strip());
+            return weight > 0 && !Double.isInfinite(weight) ? weight : Double.NaN;
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    private static boolean isCsv(String path) {
+        return path.toLowerCase().endsWith(".csv");
+    }
+
+    private static long rate(long rows, long start) {
+        return rows * 1000 / Math.max(1, System.currentTimeMillis() - start);
+    }
+}
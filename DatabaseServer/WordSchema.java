@@ -0,0 +1,120 @@
+package DatabaseServer;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Creates and migrates the schema of the word database.
+ *
+ * The schema version is kept in SQLite's user_version pragma. Version 0 is the
+ * original single-column table; version 1 adds:
+ *
+ * - length: the length of the word, indexed (with the implicit rowid) so a
+ * random word of a given length can be found by a single index seek;
+ * - letters: a 26-bit mask of the letters a-z the word contains (case
+ * insensitive), so a scan along rowid can test a word for a letter without
+ * LIKE.
+ *
+ * Version 2 adds weight: the relative frequency of the word, positive and
+ * DEFAULT_WEIGHT unless imported with one, which the Difficulty profiles use
+ * to weight random words.
+ */
+public class WordSchema {
+    public static final int VERSION = 2;
+    public static final double DEFAULT_WEIGHT = 1;
+
+    /**
+     * Brings a word database up to the current schema version, creating the
+     * word table if it does not exist.
+     *
+     * @param c - The connection to the word database.
+     * @throws SQLException - if the migration fails; it is rolled back.
+     */
+    public static void migrate(Connection c) throws SQLException {
+        try (Statement stmt = c.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS word (word TEXT PRIMARY KEY)");
+
+            int version;
+            try (ResultSet rs = stmt.executeQuery("PRAGMA user_version")) {
+                version = rs.next() ? rs.getInt(1) : 0;
+            }
+            if (version >= VERSION) {
+                return;
+            }
+
+            System.out.println("Migrating word database to schema version " + VERSION + "...");
+            boolean autoCommit = c.getAutoCommit();
+            c.setAutoCommit(false);
+            try {
+                if (version < 1) {
+                    migrateToVersion1(c, stmt);
+                }
+                if (version < 2) {
+                    stmt.executeUpdate("ALTER TABLE word ADD COLUMN weight REAL NOT NULL DEFAULT " + DEFAULT_WEIGHT);
+                }
+                stmt.executeUpdate("PRAGMA user_version = " + VERSION);
+                c.commit();
+            } catch (SQLException e) {
+                c.rollback();
+                throw e;
+            } finally {
+                c.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    /**
+     * Adds and backfills the length and letters columns and their index.
+     *
+     * @param c    - The connection to the word database.
+     * @param stmt - A statement on the connection.
+     * @throws SQLException - if the migration fails.
+     */
+    private static void migrateToVersion1(Connection c, Statement stmt) throws SQLException {
+        stmt.executeUpdate("ALTER TABLE word ADD COLUMN length INTEGER");
+        stmt.executeUpdate("ALTER TABLE word ADD COLUMN letters INTEGER");
+
+        try (ResultSet rs = stmt.executeQuery("SELECT rowid, word FROM word");
+                PreparedStatement update = c.prepareStatement(
+                        "UPDATE word SET length = ?, letters = ? WHERE rowid = ?")) {
+            while (rs.next()) {
+                String word = rs.getString(2);
+                update.setInt(1, word.length());
+                update.setInt(2, letterMask(word));
+                update.setLong(3, rs.getLong(1));
+                update.addBatch();
+            }
+            update.executeBatch();
+        }
+
+        stmt.executeUpdate("CREATE INDEX IF NOT EXISTS word_length ON word (length)");
+    }
+
+    /**
+     * Computes the mask of the letters a-z contained in a word, ignoring case.
+     *
+     * @param word - The word.
+     * @return - A mask with bit i set if the word contains the letter 'a' + i.
+     */
+    public static int letterMask(String word) {
+        int mask = 0;
+        for (int i = 0; i < word.length(); i++) {
+            mask |= letterBit(word.charAt(i));
+        }
+        return mask;
+    }
+
+    /**
+     * Gets the mask bit of a letter, ignoring case.
+     *
+     * @param letter - The letter.
+     * @return - The letter's bit, or 0 if it is not a letter a-z.
+     */
+    public static int letterBit(char letter) {
+        letter = Character.toLowerCase(letter);
+        return letter >= 'a' && letter <= 'z' ? 1 << (letter - 'a') : 0;
+    }
+}
@@ -0,0 +1,66 @@
+package GameServer;
+
+import java.rmi.registry.LocateRegistry;
+import java.rmi.registry.Registry;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Command-line query of a game server's live gameplay analytics.
+ *
+ * Prints the top k keys of a stream over the last windowMinutes minutes
+ * (default 10 over 60). With "all" as the stream, prints every stream; with
+ * "throttled", prints the requests refused by the rate and concurrency
+ * limits since the server started.
+ *
+ * Usage: AnalyticsTool stream|all|throttled [k] [windowMinutes] [host] [port]
+ */
+public class AnalyticsTool {
+
+    /**
+     * Main method to run the query.
+     *
+     * @param args - Command-line arguments: stream|all|throttled [k]
+     *             [windowMinutes] [host] [port].
+     */
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.err.println("Usage: AnalyticsTool stream|all|throttled [k] [windowMinutes] [host] [port]");
+            System.err.println("Streams: " + Arrays.toString(GameAnalytics.Stream.values()));
+            return;
+        }
+
+        try {
+            int k = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+            long windowMs = (args.length > 2 ? Long.parseLong(args[2]) : 60) * 60000;
+            Registry registry = LocateRegistry.getRegistry(args.length > 3 ? args[3] : "localhost",
+                    args.length > 4 ? Integer.parseInt(args[4]) : Constants.GAME_SERVER_PORT);
+            GameAnalytics analytics = (GameAnalytics) registry.lookup("Analytics");
+
+            if (args[0].equalsIgnoreCase("throttled")) {
+                System.out.println("Throttled requests:");
+                for (Map.Entry<String, Long> entry : analytics.getThrottledCalls().entrySet()) {
+                    System.out.printf("  %-20s %d%n", entry.getKey(), entry.getValue());
+                }
+                return;
+            }
+
+            GameAnalytics.Stream[] streams = args[0].equalsIgnoreCase("all")
+                    ? GameAnalytics.Stream.values()
+                    : new GameAnalytics.Stream[] { GameAnalytics.Stream.valueOf(args[0].toUpperCase(Locale.ROOT)) };
+            for (GameAnalytics.Stream stream : streams) {
+                List<HeavyHitter> top = analytics.top(stream, k, windowMs);
+                System.out.println(stream + ":");
+                for (HeavyHitter hitter : top) {
+                    System.out.printf("  %-20s %d%n", hitter.getKey(), hitter.getCount());
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println("Invalid argument: " + e.getMessage());
+        } catch (Exception e) {
+            System.err.println("Analytics exception: " + e.toString());
+        }
+    }
+}
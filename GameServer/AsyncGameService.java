@@ -0,0 +1,1140 @@
+package GameServer;
+
+import java.rmi.ConnectException;
+import java.rmi.ConnectIOException;
+import java.rmi.NoSuchObjectException;
+import java.rmi.RemoteException;
+import java.rmi.ServerException;
+import java.rmi.UnknownHostException;
+import java.sql.SQLException;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import DatabaseServer.Difficulty;
+import DatabaseServer.WordImporter;
+import UserAccountServer.ActiveGameData;
+import UserAccountServer.GameState;
+import UserAccountServer.LeaderboardEntry;
+import UserAccountServer.Puzzle;
+import UserAccountServer.PuzzleSolution;
+import UserAccountServer.ShardMap;
+import UserAccountServer.UserAccountService;
+import UserAccountServer.UserData;
+
+/**
+ * Asynchronous facade over the game operations.
+ *
+ * Every operation returns a CompletableFuture and runs its calls to the user
+ * account microservice and the word database microservice on virtual threads,
+ * so independent requests (heartbeats, saves, word queries) overlap instead of
+ * each holding an RMI thread while it waits. Games started, guesses, wins,
+ * losses and dictionary changes are recorded in the EventLog, and guesses,
+ * game results and word lookups are counted by GameAnalyticsImpl. Shared
+ * puzzle rooms are kept by a RoomManager.
+ *
+ * The daily puzzle is generated once per day by whichever game server is
+ * asked for it first, saved by the user account shard owning its id, and
+ * shared by every player's game as an interned PuzzleSolution. The solution
+ * a client sends along with its user data is only for display: before a
+ * request uses a shared puzzle, the puzzle is resolved against the interned
+ * solution (see resolveSharedPuzzle).
+ */
+public class AsyncGameService {
+
+    private static final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final DownstreamServices downstream;
+    private final EventLog events;
+    private final GameAnalyticsImpl analytics;
+    private final RoomManager rooms = new RoomManager();
+    // Shared solutions being fetched or generated, by id
+    private final ConcurrentHashMap<String, CompletableFuture<PuzzleSolution>> pendingSolutions =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Constructs an AsyncGameService.
+     *
+     * @param downstream - The shared stubs for the downstream microservices.
+     * @param events     - The log to record game events in.
+     * @param analytics  - The gameplay analytics to count guesses, results and
+     *                   word lookups in.
+     */
+    public AsyncGameService(DownstreamServices downstream, EventLog events, GameAnalyticsImpl analytics) {
+        this.downstream = downstream;
+        this.events = events;
+        this.analytics = analytics;
+    }
+
+    /**
+     * Remote call that may throw any exception; used to run blocking calls on
+     * the virtual thread executor.
+     */
+    @FunctionalInterface
+    private interface RemoteCall<T> {
+        T call() throws Exception;
+    }
+
+    /**
+     * Runs a blocking call on a virtual thread.
+     *
+     * @param call - The call to run.
+     * @return - A future completed with the call's result, or exceptionally with
+     *         the exception it threw.
+     */
+    private static <T> CompletableFuture<T> supply(RemoteCall<T> call) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        executor.execute(() -> {
+            try {
+                future.complete(call.call());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Waits for a future and surfaces its failure as a RemoteException, so the
+     * synchronous RMI methods can adapt the asynchronous API.
+     *
+     * @param future - The future to wait for.
+     * @return - The result of the future.
+     * @throws RemoteException - the original RemoteException if the operation
+     *                         failed with one, otherwise a RemoteException
+     *                         wrapping the failure.
+     */
+    public static <T> T await(CompletableFuture<T> future) throws RemoteException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RemoteException("Interrupted while waiting for game operation.", e);
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        }
+    }
+
+    /**
+     * Converts the cause of a failed future into a RemoteException.
+     *
+     * @param cause - The failure.
+     * @return - The RemoteException to throw to the client.
+     */
+    private static RemoteException unwrap(Throwable cause) {
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof RemoteException) {
+            return (RemoteException) cause;
+        }
+        return new RemoteException(cause.getMessage(), cause);
+    }
+
+    /**
+     * Converts the failure of a word database call into the RemoteException
+     * to throw to the client.
+     *
+     * Details: errors that carry their own message are passed on as they are:
+     * refusals by the GuardedDatabase (breaker open, deadline missed, too
+     * many calls in flight) and errors raised by the microservice itself,
+     * e.g. a write sent to a read-only replica, which RMI delivers wrapped in
+     * a ServerException. A failed link or a SQL error is reported as
+     * CANT_COMMUNICATE_WDBS. The failure is logged here rather than passed
+     * on as the cause, since the client takes "Connection refused" in a
+     * message to mean the game server itself is down.
+     *
+     * @param e - The failure.
+     * @return - The RemoteException to throw to the client.
+     */
+    private static RemoteException wordDatabaseError(Exception e) {
+        if (e instanceof ServerException && e.getCause() instanceof RemoteException) {
+            return (RemoteException) e.getCause();
+        }
+        if (e.getClass() == RemoteException.class && e.getCause() == null) {
+            return (RemoteException) e;
+        }
+        System.out.println(Constants.CANT_COMMUNICATE_WDBS + " " + e);
+        return new RemoteException(Constants.CANT_COMMUNICATE_WDBS);
+    }
+
+    /**
+     * Call made through the UserAccountService stub.
+     */
+    @FunctionalInterface
+    private interface AccountCall<T> {
+        T call(UserAccountService service) throws RemoteException;
+    }
+
+    /**
+     * Makes a call through the shared UserAccountService stub of the shard
+     * that owns a user.
+     *
+     * @param username - The user the call is about.
+     * @param call     - The call to make.
+     * @return - The result of the call.
+     * @throws RemoteException - if the call fails and is not retried, or fails
+     *                         with a fresh stub as well.
+     */
+    private <T> T callAccountService(String username, AccountCall<T> call) throws RemoteException {
+        return callAccountService(downstream.getShardMap().ownerOf(username), call, true);
+    }
+
+    /**
+     * Makes a call through the shared UserAccountService stub of a shard,
+     * retrying it if it never reached the shard.
+     *
+     * @param shard - The user account shard to call.
+     * @param call  - The call to make.
+     * @return - The result of the call.
+     * @throws RemoteException - if the call fails and is not retried, or fails
+     *                         with a fresh stub as well.
+     */
+    private <T> T callAccountService(ShardMap.Shard shard, AccountCall<T> call) throws RemoteException {
+        return callAccountService(shard, call, true);
+    }
+
+    /**
+     * Makes a call through the shared UserAccountService stub of a shard. If
+     * the call fails other than with an error from the shard itself, the stub
+     * is looked up again, in case the user account microservice was
+     * restarted. The call is then retried once if it may be and it provably
+     * never reached the shard, so a call that ran but lost its reply is not
+     * made twice.
+     *
+     * @param shard - The user account shard to call.
+     * @param call  - The call to make.
+     * @param retry - Whether the call may be retried.
+     * @return - The result of the call.
+     * @throws RemoteException - if the call fails and is not retried, or fails
+     *                         with a fresh stub as well.
+     */
+    private <T> T callAccountService(ShardMap.Shard shard, AccountCall<T> call, boolean retry)
+            throws RemoteException {
+        UserAccountService service = downstream.userAccountService(shard);
+        try {
+            return call.call(service);
+        } catch (ServerException e) {
+            throw e;
+        } catch (RemoteException e) {
+            downstream.resetUserAccountService(shard, service);
+            if (!retry || !isNotDelivered(e)) {
+                throw e;
+            }
+            return call.call(downstream.userAccountService(shard));
+        }
+    }
+
+    /**
+     * Checks whether a failed call provably never reached the remote object:
+     * the connection could not be made or the object is no longer exported.
+     *
+     * @param e - The exception the call failed with.
+     * @return - true if the call was not delivered.
+     */
+    private static boolean isNotDelivered(RemoteException e) {
+        return e instanceof ConnectException || e instanceof ConnectIOException
+                || e instanceof NoSuchObjectException || e instanceof UnknownHostException;
+    }
+
+    /**
+     * Attempts to log a user in via the UserAccountService.
+     *
+     * @param username - The username to log in.
+     * @return - A future completed with 1 if the user is registered and was not
+     *         logged in, or 2 if the user was not registered and is now
+     *         registered and logged in. Completes exceptionally if the user is
+     *         already logged in.
+     */
+    public CompletableFuture<Integer> login(String username) {
+        return supply(() -> {
+            int loginResult;
+            try {
+                // Not retried: a login that ran but lost its reply would
+                // otherwise be refused as a duplicate of itself
+                loginResult = callAccountService(downstream.getShardMap().ownerOf(username),
+                        service -> service.login(username.trim()), false);
+            } catch (Exception e) {
+                throw new RemoteException(Constants.CANT_COMMUNICATE_UAS, e);
+            }
+            if (loginResult == 0) {
+                throw new RemoteException(Constants.DUPLICATE_LOGIN);
+            }
+            return loginResult;
+        });
+    }
+
+    /**
+     * Fetches the user data associated with the specified username.
+     *
+     * @param username - The username for which to fetch user data.
+     * @return - A future completed with the UserData for the username.
+     */
+    public CompletableFuture<UserData> loadUserData(String username) {
+        return supply(() -> {
+            try {
+                return new UserData(callAccountService(username, service -> service.load(username)));
+            } catch (Exception e) {
+                throw new RemoteException(Constants.CANT_COMMUNICATE_UAS, e);
+            }
+        }).thenCompose(this::resolveSharedPuzzle);
+    }
+
+    /**
+     * Attaches its shared solution to the puzzle of a game loaded from a save
+     * file or sent by a client, replacing any solution that is not the one
+     * interned by this game server. A game whose solution no longer exists is
+     * dropped.
+     *
+     * @param userData - The user data just loaded or received.
+     * @return - A future completed with the user data once resolved.
+     */
+    private CompletableFuture<UserData> resolveSharedPuzzle(UserData userData) {
+        GameState gameState = userData.getGameState();
+        Puzzle puzzle = gameState.getPuzzle();
+        if (puzzle == null || !puzzle.isShared()
+                || (puzzle.getSolution() != null
+                        && puzzle.getSolution() == PuzzleSolution.find(puzzle.getSharedId()))) {
+            return CompletableFuture.completedFuture(userData);
+        }
+        return sharedSolution(puzzle.getSharedId()).thenApply(solution -> {
+            if (solution != null) {
+                gameState.resolve(solution);
+            } else {
+                System.err.println("Dropping game of '" + userData.getUsername() + "': shared puzzle "
+                        + puzzle.getSharedId() + " not found.");
+                gameState.resetPuzzle();
+                gameState.setState(Constants.IDLE_STATE);
+            }
+            return userData;
+        });
+    }
+
+    /**
+     * Gets the id of the current daily puzzle: the date in
+     * Constants.DAILY_PUZZLE_ZONE, rolling over at
+     * Constants.DAILY_PUZZLE_ROLLOVER.
+     *
+     * @return - The id, as yyyy-mm-dd.
+     */
+    private static String dailyPuzzleId() {
+        int rollover = LocalTime.parse(Constants.DAILY_PUZZLE_ROLLOVER).toSecondOfDay();
+        return ZonedDateTime.now(ZoneId.of(Constants.DAILY_PUZZLE_ZONE)).minusSeconds(rollover).toLocalDate()
+                .toString();
+    }
+
+    /**
+     * Gets a shared solution: from this process if it has been interned,
+     * otherwise from the user account shard owning its id. Concurrent
+     * requests for the same id share one fetch.
+     *
+     * @param puzzleId - The id of the puzzle.
+     * @return - A future completed with the interned solution, or null if it
+     *         does not exist.
+     */
+    private CompletableFuture<PuzzleSolution> sharedSolution(String puzzleId) {
+        PuzzleSolution interned = PuzzleSolution.find(puzzleId);
+        if (interned != null) {
+            return CompletableFuture.completedFuture(interned);
+        }
+        CompletableFuture<PuzzleSolution> pending = pendingSolutions.computeIfAbsent(puzzleId,
+                id -> supply(() -> fetchSharedSolution(id)));
+        pending.whenComplete((solution, e) -> pendingSolutions.remove(puzzleId, pending));
+        return pending;
+    }
+
+    /**
+     * Fetches a shared solution from the user account shard owning its id.
+     * If it is today's daily puzzle and the shard does not have it yet, it
+     * is generated and saved there; should another game server save one
+     * first, that one is used instead.
+     *
+     * @param puzzleId - The id of the puzzle.
+     * @return - The interned solution, or null if it does not exist.
+     * @throws RemoteException - if the shard cannot be reached or the puzzle
+     *                         cannot be generated.
+     */
+    private PuzzleSolution fetchSharedSolution(String puzzleId) throws RemoteException {
+        String text = callAccountService(puzzleId, service -> service.loadSharedPuzzle(puzzleId));
+        if (text == null) {
+            if (!puzzleId.equals(dailyPuzzleId())) {
+                return null;
+            }
+            String[] words = generateWordList(Constants.DAILY_PUZZLE_WORD_COUNT, Difficulty.NORMAL);
+            String generated = PuzzleSolution.generate(puzzleId, words).toText();
+            text = callAccountService(puzzleId, service -> service.saveSharedPuzzle(puzzleId, generated));
+        }
+        return PuzzleSolution.fromText(puzzleId, text).intern();
+    }
+
+    /**
+     * Saves game data associated with the specified UserData.
+     *
+     * @param userData - The UserData containing the game data to save.
+     * @return - A future completed once the data has been saved.
+     */
+    public CompletableFuture<Void> saveGame(UserData userData) {
+        String username = userData.getUsername();
+        String userDataString = userData.getUserDataString();
+        return supply(() -> {
+            int saveResult;
+            try {
+                saveResult = callAccountService(username, service -> service.save(username, userDataString));
+            } catch (Exception e) {
+                throw new RemoteException(Constants.COULD_NOT_SAVE, e);
+            }
+            if (saveResult == 0) {
+                throw new RemoteException(Constants.COULD_NOT_SAVE);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Logs out the specified user.
+     *
+     * @param username - The username of the user to log out.
+     * @return - A future completed once the user has been logged out.
+     */
+    public CompletableFuture<Void> logout(String username) {
+        return supply(() -> {
+            int logoutResult;
+            try {
+                logoutResult = callAccountService(username, service -> service.logout(username.trim()));
+            } catch (Exception e) {
+                throw new RemoteException(Constants.CANT_COMMUNICATE_UAS, e);
+            }
+            if (logoutResult == 0) {
+                throw new RemoteException("Failed to log out user: " + username);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Forwards the heartbeat signals for a batch of users to the UAS, with one
+     * call per user account shard.
+     *
+     * @param usernames - The usernames of the users sending heartbeats.
+     * @return - A future completed once every shard has recorded the
+     *         heartbeats of its users.
+     */
+    public CompletableFuture<Void> heartbeats(Collection<String> usernames) {
+        ShardMap shardMap = downstream.getShardMap();
+        Map<ShardMap.Shard, List<String>> batches = new HashMap<>();
+        for (String username : usernames) {
+            batches.computeIfAbsent(shardMap.ownerOf(username), shard -> new ArrayList<>()).add(username);
+        }
+
+        List<CompletableFuture<Void>> calls = new ArrayList<>();
+        for (Map.Entry<ShardMap.Shard, List<String>> batch : batches.entrySet()) {
+            calls.add(supply(() -> {
+                try {
+                    callAccountService(batch.getKey(), service -> {
+                        service.validateHeartbeats(batch.getValue());
+                        return null;
+                    });
+                } catch (Exception e) {
+                    throw new RemoteException(Constants.CANT_COMMUNICATE_UAS, e);
+                }
+                return null;
+            }));
+        }
+        return CompletableFuture.allOf(calls.toArray(new CompletableFuture<?>[0]));
+    }
+
+    /**
+     * Builds the leaderboard from every user account shard: the top users of
+     * each shard are merged, and the user's rank is one more than the number
+     * of users with a higher score on all shards. The shards are called in
+     * parallel.
+     *
+     * @param userData - The UserData of the user asking.
+     * @param count    - The number of users to list, from 1 to
+     *                 Constants.LEADERBOARD_MAX_COUNT.
+     * @return - A future completed with the leaderboard, formatted for
+     *         display.
+     */
+    public CompletableFuture<String> leaderboard(UserData userData, int count) {
+        if (count < 1 || count > Constants.LEADERBOARD_MAX_COUNT) {
+            return CompletableFuture.failedFuture(new RemoteException(Constants.INVALID_LEADERBOARD_COUNT));
+        }
+        int score = userData.getScore();
+
+        List<CompletableFuture<List<LeaderboardEntry>>> tops = new ArrayList<>();
+        List<CompletableFuture<Integer>> higher = new ArrayList<>();
+        for (ShardMap.Shard shard : downstream.getShardMap().getShards()) {
+            tops.add(supply(() -> callLeaderboard(shard, service -> service.getTopScores(count))));
+            higher.add(supply(() -> callLeaderboard(shard, service -> service.countHigherScores(score))));
+        }
+
+        List<CompletableFuture<?>> calls = new ArrayList<>(tops);
+        calls.addAll(higher);
+        return CompletableFuture.allOf(calls.toArray(new CompletableFuture<?>[0])).thenApply(ignored -> {
+            List<LeaderboardEntry> entries = new ArrayList<>();
+            for (CompletableFuture<List<LeaderboardEntry>> top : tops) {
+                entries.addAll(top.join());
+            }
+            entries.sort(Comparator.comparingInt(LeaderboardEntry::getScore).reversed()
+                    .thenComparing(LeaderboardEntry::getUsername));
+            int rank = 1;
+            for (CompletableFuture<Integer> shardHigher : higher) {
+                rank += shardHigher.join();
+            }
+
+            StringBuilder leaderboard = new StringBuilder("\nLeaderboard:\n");
+            for (int i = 0; i < Math.min(count, entries.size()); i++) {
+                LeaderboardEntry entry = entries.get(i);
+                leaderboard.append(String.format("%3d. %-20s %d%n", i + 1, entry.getUsername(), entry.getScore()));
+            }
+            leaderboard.append("Your rank: ").append(rank).append(" (score ").append(score).append(")");
+            return leaderboard.toString();
+        });
+    }
+
+    /**
+     * Makes a leaderboard call on a user account shard.
+     *
+     * @param shard - The user account shard to call.
+     * @param call  - The call to make.
+     * @return - The result of the call.
+     * @throws RemoteException - if the shard cannot be reached.
+     */
+    private <T> T callLeaderboard(ShardMap.Shard shard, AccountCall<T> call) throws RemoteException {
+        try {
+            return callAccountService(shard, call);
+        } catch (Exception e) {
+            throw new RemoteException(Constants.CANT_COMMUNICATE_UAS, e);
+        }
+    }
+
+    /**
+     * Processes user input and performs actions based on the input.
+     *
+     * Details: user input interpreted as command-argument 2-tuple,
+     * separated by a ';'. E.g., Add;dog. New Game takes an optional third
+     * field, the difficulty profile. E.g., New Game;5;hard.
+     *
+     * @param userData - The UserData object representing the user's data.
+     * @param input    - The user input to process.
+     * @return - A future completed with the updated UserData object once the
+     *         command has been executed and the user data saved.
+     */
+    public CompletableFuture<UserData> processUserInput(UserData userData, String input) {
+        String[] tokenizedInput = input.split(";");
+        if (tokenizedInput.length <= 1)
+            return CompletableFuture.failedFuture(new RemoteException(Constants.INVALID_COMMAND_SYNTAX));
+
+        String command = tokenizedInput[0];
+        String argument = tokenizedInput[1];
+        String option = tokenizedInput.length > 2 ? tokenizedInput[2] : null;
+
+        // Add and Remove change only the game state, which is usually idle
+        // already; the user data is saved only if it actually changed
+        boolean dictionaryCommand = command.equals("Add") || command.equals("Remove");
+        String previousState = userData.getGameState().getState();
+
+        return resolveSharedPuzzle(userData)
+                .thenCompose(resolved -> processCommand(userData, command, argument, option))
+                .thenCompose(ignored -> dictionaryCommand
+                        && previousState.equals(userData.getGameState().getState())
+                                ? CompletableFuture.<Void>completedFuture(null)
+                                : saveGame(userData))
+                .thenApply(ignored -> userData);
+    }
+
+    /**
+     * Splits the argument of an Add or Remove command into words, normalized
+     * as the word importer does.
+     *
+     * @param argument - The comma-separated words.
+     * @return - The non-empty words, normalized.
+     * @throws RemoteException - if there are more than
+     *                         Constants.MAX_WORD_LIST_SIZE words or one is
+     *                         not a valid word.
+     */
+    private static List<String> parseWordList(String argument) throws RemoteException {
+        List<String> words = new ArrayList<>();
+        for (String raw : argument.split(",")) {
+            if (raw.isBlank()) {
+                continue;
+            }
+            String word = WordImporter.normalize(raw);
+            if (word == null) {
+                throw new RemoteException(Constants.INVALID_WORD);
+            }
+            if (words.size() == Constants.MAX_WORD_LIST_SIZE) {
+                throw new RemoteException(Constants.WORD_LIST_TOO_LONG);
+            }
+            words.add(word);
+        }
+        return words;
+    }
+
+    /**
+     * Executes a specific game command.
+     *
+     * Details: word database calls go through the circuit breaker of the
+     * shared DownstreamServices, which reconnects on its own; a failed call
+     * is reported to the client caller as a RemoteException.
+     *
+     * @param userData - The UserData object representing the user's data.
+     * @param command  - The command to execute.
+     * @param argument - The argument associated with the command.
+     * @param option   - The optional third field of the input, or null.
+     * @return - A future completed once the command has been executed.
+     */
+    private CompletableFuture<Void> processCommand(UserData userData, String command, String argument,
+            String option) {
+        switch (command) {
+            // Add words to database; argument is one or more comma-separated
+            // words
+            case "Add": {
+                List<String> words;
+                try {
+                    words = parseWordList(argument);
+                } catch (RemoteException e) {
+                    return CompletableFuture.failedFuture(e);
+                }
+                return supply(() -> {
+                    try {
+                        // Only the words the table did not hold yet are
+                        // recorded as added
+                        List<String> added = words.isEmpty() ? List.of()
+                                : downstream.database().addWords(words);
+                        for (String word : added) {
+                            events.record(EventLog.Type.WORD_ADDED, userData.getUsername(), 0, 0, word);
+                        }
+                        userData.getGameState().setState(Constants.IDLE_STATE);
+                    } catch (RemoteException e) {
+                        throw wordDatabaseError(e);
+                    }
+                    return null;
+                });
+            }
+            // Remove words from database; argument is one or more
+            // comma-separated words
+            case "Remove": {
+                List<String> words;
+                try {
+                    words = parseWordList(argument);
+                } catch (RemoteException e) {
+                    return CompletableFuture.failedFuture(e);
+                }
+                return supply(() -> {
+                    try {
+                        // Only the words the table held are recorded as
+                        // removed
+                        List<String> removed = words.isEmpty() ? List.of()
+                                : downstream.database().removeWords(words);
+                        for (String word : removed) {
+                            events.record(EventLog.Type.WORD_REMOVED, userData.getUsername(), 0, 0, word);
+                        }
+                        userData.getGameState().setState(Constants.IDLE_STATE);
+                    } catch (RemoteException | SQLException e) {
+                        throw wordDatabaseError(e);
+                    }
+                    return null;
+                });
+            }
+            // Start new game with specified word count
+            // Argument must be an integer string from 2-15, inclusive; option
+            // is the difficulty profile (normal if omitted)
+            case "New Game": {
+                return processNewGame(userData, argument, option);
+            }
+            // Play today's daily puzzle; argument may be any non-empty string
+            case "Daily": {
+                return processDailyGame(userData);
+            }
+            // Continue existing game; argument may be any non-empty string
+            case "Continue": {
+                if (userData.getGameState().getPuzzle() != null) {
+                    userData.getGameState().setState(Constants.PLAY_STATE);
+                    return CompletableFuture.completedFuture(null);
+                }
+                return CompletableFuture.failedFuture(new RemoteException(Constants.NO_EXISTING_GAME));
+            }
+            default: {
+                return CompletableFuture.failedFuture(new RemoteException(Constants.INVALID_COMMAND_SYNTAX));
+            }
+        }
+    }
+
+    /**
+     * Processes the initiation of a new game with the specified word count.
+     *
+     * @param userData - The UserData object representing the user's data.
+     * @param argument - The argument specifying the word count for the new game.
+     * @param option   - The name of the difficulty profile, or null for
+     *                 normal.
+     * @return - A future completed once the new game has been generated.
+     */
+    private CompletableFuture<Void> processNewGame(UserData userData, String argument, String option) {
+        int wordCount;
+        Difficulty difficulty;
+        try {
+            wordCount = parseWordCount(argument);
+            difficulty = parseDifficulty(option);
+        } catch (RemoteException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        return createNewGame(userData, wordCount, difficulty)
+                .thenRun(() -> {
+                    userData.getGameState().setState(Constants.PLAY_STATE);
+                    events.record(EventLog.Type.GAME_STARTED, userData.getUsername(), wordCount,
+                            userData.getGameState().getAttempts(), difficulty.name());
+                });
+    }
+
+    /**
+     * Parses the word count argument of a new game or room.
+     *
+     * @param argument - The word count, as entered.
+     * @return - The word count.
+     * @throws RemoteException - if it is not a number from 2 to
+     *                         Constants.MAX_WORD_COUNT.
+     */
+    private static int parseWordCount(String argument) throws RemoteException {
+        int wordCount;
+        try {
+            wordCount = Integer.parseInt(argument.strip());
+        } catch (NumberFormatException e) {
+            throw new RemoteException(Constants.INVALID_WORD_COUNT);
+        }
+        if (wordCount < 2 || wordCount > Constants.MAX_WORD_COUNT) {
+            throw new RemoteException(Constants.WORD_COUNT_NOT_IN_RANGE);
+        }
+        return wordCount;
+    }
+
+    /**
+     * Parses the difficulty option of a new game or room.
+     *
+     * @param option - The name of the difficulty profile, or null for normal.
+     * @return - The difficulty.
+     * @throws RemoteException - if it is not a difficulty profile.
+     */
+    private static Difficulty parseDifficulty(String option) throws RemoteException {
+        Difficulty difficulty = option == null ? Difficulty.NORMAL : Difficulty.parse(option);
+        if (difficulty == null) {
+            throw new RemoteException(Constants.INVALID_DIFFICULTY);
+        }
+        return difficulty;
+    }
+
+    /**
+     * Starts a game of today's daily puzzle, or continues it if it is the
+     * game under way.
+     *
+     * @param userData - The UserData object representing the user's data.
+     * @return - A future completed once the game has been started.
+     */
+    private CompletableFuture<Void> processDailyGame(UserData userData) {
+        String puzzleId = dailyPuzzleId();
+        GameState current = userData.getGameState();
+        if (current.getPuzzle() != null && puzzleId.equals(current.getPuzzle().getSharedId())) {
+            current.setState(Constants.PLAY_STATE);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return sharedSolution(puzzleId).thenAccept(solution -> {
+            if (solution == null) {
+                throw new CompletionException(new RemoteException(Constants.SHARED_PUZZLE_UNAVAILABLE));
+            }
+            int attempts = attemptsFor(solution.getWords());
+            userData.setGameState(new GameState(attempts, solution));
+            events.record(EventLog.Type.GAME_STARTED, userData.getUsername(), solution.getWords().length,
+                    attempts, "DAILY " + puzzleId);
+        });
+    }
+
+    /**
+     * Create a new game by requesting a stem word and a list of (valid) leaf words
+     * from the word database microservice, then save/update the user data.
+     *
+     * Details: leaves are generated as follows:
+     *
+     * 1. A set of random, unique indices in the stem are selected
+     * to determine where to connect the leaves from
+     * 2. Leaves are fetched - choose a word that has at least 1 character
+     * matching the stem's character at the specified index
+     * 3. Each leaf is inserted at a random connecting index, starting
+     * with the leaf that has the least matches possible
+     * 4. Each leaf's matches is updated and sorted by count
+     * 5. Repeat step 3-4 until all leaves are inserted
+     *
+     * E.g.
+     * -The stem is cat
+     * -The word count is 3 --> 2 leaves needed
+     * -Connecting leaf indices (randomly) chosen are: 0, 2 --> 'c', 't'
+     * -Leaves generated are: cute, soccer
+     * -Soccer may only be inserted at index 0, cute may be inserted at 0 or 2
+     * -Soccer is inserted first, which 'c' in soccer to connect to stem with
+     * is randomly chosen
+     * -Soccer is inserted at index 0, cute may now only be inserted at 2
+     *
+     * If it is somehow impossible to generate a valid crossword puzzle
+     * from the chosen stem due to insufficient matching leaves, a new stem
+     * will be selected.
+     *
+     * @param userData   - The UserData object representing the user's data.
+     * @param wordCount  - Number of words in the crossword puzzle.
+     * @param difficulty - The difficulty profile weighting the words.
+     * @return - A future completed once the game has been generated and saved.
+     */
+    private CompletableFuture<Void> createNewGame(UserData userData, int wordCount, Difficulty difficulty) {
+        return supply(() -> generateWordList(wordCount, difficulty))
+                .thenCompose(words -> {
+                    userData.setGameState(new GameState(attemptsFor(words), words));
+                    return saveGame(userData);
+                });
+    }
+
+    /**
+     * Gets the number of attempts for a puzzle: either twice the word count,
+     * or the maximum word count allowed, whichever is less.
+     *
+     * @param words - The puzzle words.
+     * @return - The number of attempts.
+     */
+    private static int attemptsFor(String[] words) {
+        return Math.min(words.length * 2, Constants.MAX_WORD_COUNT);
+    }
+
+    /**
+     * Generates a list of words for a crossword puzzle, by requesting a stem word
+     * and a list of (valid) leaf words from the word database microservice.
+     *
+     * Details: if it is somehow impossible to generate a valid crossword puzzle
+     * from the chosen stem due to insufficient matching leaves, a new stem will
+     * be selected, up to Constants.MAX_PUZZLE_ATTEMPTS stems in all.
+     *
+     * @param wordCount  - Number of words in the crossword puzzle.
+     * @param difficulty - The difficulty profile weighting the words.
+     * @return an array of strings representing the generated words for the
+     *         crossword puzzle.
+     * @throws RemoteException - if there is an issue with remote communication
+     *                         in fetching the stem or a leaf, or no stem gave
+     *                         a valid puzzle.
+     */
+    private String[] generateWordList(int wordCount, Difficulty difficulty) throws RemoteException {
+        for (int attempt = 0; attempt < Constants.MAX_PUZZLE_ATTEMPTS; attempt++) {
+            ArrayList<String> wordsList = new ArrayList<>();
+            String stem = fetchStem(wordCount - 1, difficulty);
+            wordsList.add(stem);
+
+            ArrayList<Integer> leafIndicesList = generateLeafIndices(wordCount, stem);
+            if (populateLeaves(leafIndicesList, stem, wordsList, difficulty)) {
+                return wordsList.toArray(new String[0]);
+            }
+        }
+        throw new RemoteException(Constants.PUZZLE_GENERATION_FAILED);
+    }
+
+    /**
+     * Fetches the stem with a specified minimum length from the database.
+     *
+     * @param minimumLength - Minimum stem length.
+     * @param difficulty    - The difficulty profile weighting the stem.
+     * @return - The stem fetched from the database.
+     * @throws RemoteException - if there is an issue with remote communication in
+     *                         fetching the stem.
+     */
+    private String fetchStem(int minimumLength, Difficulty difficulty) throws RemoteException {
+        if (minimumLength == 1)
+            minimumLength++;
+
+        try {
+            return downstream.database().randomWordLength(minimumLength, difficulty);
+        } catch (RemoteException | SQLException e) {
+            throw wordDatabaseError(e);
+        }
+    }
+
+    /**
+     * Generates random leaf indices based on the given word count and stem.
+     *
+     * @param wordCount - The number of words in the puzzle.
+     * @param stem      - The stem string used for generating leaf indices.
+     * @return - An ArrayList containing randomly generated leaf indices.
+     */
+    private static ArrayList<Integer> generateLeafIndices(int wordCount, String stem) {
+        Set<Integer> leafIndices = new HashSet<>();
+        while (leafIndices.size() < wordCount - 1) {
+            leafIndices.add(new Random().nextInt(stem.length()));
+        }
+        return new ArrayList<>(leafIndices);
+    }
+
+    /**
+     * Insert leaves of a crossword puzzle.
+     *
+     * Details: the first candidate for every leaf is fetched concurrently; a
+     * leaf is only re-fetched (sequentially) if its candidate duplicates a word
+     * already in the list. Insufficient matching leaves is determined when
+     * either of the following scenarios occur:
+     *
+     * 1. Leaf fetched is empty - no matching leaf possible.
+     * 2. The word database microservice returns 5 consecutive leaves - matching
+     * leaves exist but are insufficient.
+     *
+     * @param leafIndicesList - An ArrayList containing randomly generated leaf
+     *                        indices.
+     * @param stem            - The stem string used for generating leaf indices.
+     * @param wordsList       - An Arraylist containing the stem and leaves.
+     * @param difficulty      - The difficulty profile weighting the leaves.
+     * @return - A boolean indicating if it possible to generate a valid list of
+     *         unique leaves for the given stem.
+     * @throws RemoteException - if there is an issue with remote communication in
+     *                         fetching a leaf.
+     */
+    private boolean populateLeaves(ArrayList<Integer> leafIndicesList, String stem,
+            ArrayList<String> wordsList, Difficulty difficulty) throws RemoteException {
+
+        List<CompletableFuture<String>> candidates = new ArrayList<>();
+        for (int i = 0; i < leafIndicesList.size(); i++) {
+            char connectingCharacter = stem.charAt(leafIndicesList.get(i).intValue());
+            candidates.add(supply(() -> fetchLeaf(connectingCharacter, difficulty)));
+        }
+
+        for (int i = 0; i < leafIndicesList.size(); i++) {
+            char connectingCharacter = stem.charAt(leafIndicesList.get(i).intValue());
+            String leaf = await(candidates.get(i));
+            int consecutiveDuplicateLeaf = 1;
+
+            while (true) {
+                // Can't create crossword puzzle, exit and return 'unsuccesful' flag
+                if (consecutiveDuplicateLeaf > 5 || leaf.equals("")) {
+                    return false;
+                }
+                if (!wordsList.contains(leaf)) {
+                    break;
+                }
+                leaf = fetchLeaf(connectingCharacter, difficulty);
+                consecutiveDuplicateLeaf++;
+            }
+
+            wordsList.add(leaf);
+        }
+        return true;
+    }
+
+    /**
+     * Fetches the leaf associated with the specified matching character from the
+     * database.
+     *
+     * @param matchingCharacter - The character to match against in the leaf.
+     * @param difficulty        - The difficulty profile weighting the leaf.
+     * @return - The leaf fetched from the database.
+     * @throws RemoteException - if there is an issue with remote communication in
+     *                         fetching the leaf.
+     */
+    private String fetchLeaf(char matchingCharacter, Difficulty difficulty) throws RemoteException {
+        try {
+            return downstream.database().randomWord(matchingCharacter, difficulty);
+        } catch (RemoteException | SQLException e) {
+            throw wordDatabaseError(e);
+        }
+    }
+
+    /**
+     * Processes a word query to check if the word is in the database or the puzzle
+     * word list.
+     *
+     * @param userData - The UserData object representing the user's data.
+     * @param input    - The word query input to process.
+     * @return - A future completed with a message indicating whether the word is
+     *         found in the database or the puzzle word list.
+     */
+    public CompletableFuture<String> processWordQuery(UserData userData, String input) {
+        analytics.recordQuery(input);
+        return resolveSharedPuzzle(userData).thenCompose(resolved -> supply(() -> {
+            boolean found = false;
+
+            // Check if input in database first
+            try {
+                found = downstream.database().checkWord(input);
+            } catch (RemoteException | SQLException e) {
+                throw wordDatabaseError(e);
+            }
+
+            if (found)
+                return "\nThe word: " + input + " is in the database.";
+
+            // Check if input in word list used to construct puzzle, in case of
+            // unfortunate delete timing (i.e., user created a game with a specific
+            // word, but then another user deleted said word after)
+
+            String[] words = userData.getGameState().getWords();
+            for (int i = 0; i < words.length; i++) {
+                if (words[i].equals(input)) {
+                    return "\nThe word: " + input + " is in the database.";
+                }
+            }
+
+            return "\nThe word: " + input + " is not in the database.";
+        }));
+    }
+
+    /**
+     * Processes a user's guess for the puzzle.
+     *
+     * Details: a guess only touches the puzzle carried in the user data, so
+     * once a shared puzzle has been resolved (at once if its solution is
+     * interned) it is evaluated on the calling thread.
+     *
+     * @param userData - The UserData object representing the user's data.
+     * @param input    - The user's guess input to process.
+     * @return - A future completed with an ActiveGameData object containing
+     *         updated user data and game status indicating whether game is
+     *         ongoing.
+     */
+    public CompletableFuture<ActiveGameData> processPuzzleGuess(UserData userData, String input) {
+        return resolveSharedPuzzle(userData).thenApply(resolved -> {
+            if (userData.getGameState().getPuzzle() == null) {
+                throw new CompletionException(new RemoteException(Constants.SHARED_PUZZLE_UNAVAILABLE));
+            }
+            return evaluateGuess(userData, input);
+        });
+    }
+
+    /**
+     * Applies a guess to the puzzle carried in the user data.
+     *
+     * @param userData - The UserData object representing the user's data.
+     * @param input    - The user's guess input to process.
+     * @return - An ActiveGameData object containing updated user data and
+     *         game status indicating whether game is ongoing.
+     */
+    private ActiveGameData evaluateGuess(UserData userData, String input) {
+        String message = "";
+        GameState gameState = userData.getGameState();
+        analytics.recordGuess(input, gameState.getGuessCount() == 0);
+        gameState.appendNewGuess(input);
+
+        int hiddenCells = gameState.getPuzzle().countHiddenCells();
+        boolean successfulGuess = gameState.getPuzzle().updatePuzzleGrid(input);
+        gameState.decrementAttempts();
+        events.record(EventLog.Type.GUESS, userData.getUsername(), successfulGuess ? 1 : 0,
+                hiddenCells - gameState.getPuzzle().countHiddenCells(), input);
+        if (successfulGuess) {
+            message = "\n*Successful guess: '" + input + "'. Puzzle updated.";
+        } else {
+            message = "\n*Unsuccessful guess: '" + input + "'.";
+        }
+
+        // Check victory condition
+        if (gameState.getPuzzle().checkPuzzleSolved()) {
+            gameState.setState(Constants.IDLE_STATE);
+            message += "\nYou win!";
+            userData.incrementScore();
+            events.record(EventLog.Type.WIN, userData.getUsername(), userData.getScore(),
+                    gameState.getAttempts(), null);
+            analytics.recordGameEnd(gameState);
+            return new ActiveGameData(userData, false, message);
+        }
+
+        // Check defeat condition
+        if (gameState.getAttempts() == 0) {
+            gameState.setState(Constants.IDLE_STATE);
+            message += "\nYou lose!";
+            events.record(EventLog.Type.LOSS, userData.getUsername(), userData.getScore(), 0, null);
+            analytics.recordGameEnd(gameState);
+            return new ActiveGameData(userData, false, message);
+        }
+        return new ActiveGameData(userData, true, message);
+    }
+
+    /**
+     * Opens a shared puzzle room.
+     *
+     * @param username - The user opening the room.
+     * @param argument - The word count, as entered.
+     * @param option   - The name of the difficulty profile, or null for
+     *                 normal.
+     * @return - A future completed with the id of the new room.
+     */
+    public CompletableFuture<String> createRoom(String username, String argument, String option) {
+        int wordCount;
+        Difficulty difficulty;
+        try {
+            wordCount = parseWordCount(argument);
+            difficulty = parseDifficulty(option);
+        } catch (RemoteException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        return supply(() -> {
+            String[] words = generateWordList(wordCount, difficulty);
+            GameRoom room = rooms.create(words, attemptsFor(words));
+            events.record(EventLog.Type.GAME_STARTED, username, wordCount, attemptsFor(words),
+                    difficulty.name() + " room " + room.getId());
+            return room.getId();
+        });
+    }
+
+    /**
+     * Joins a shared puzzle room.
+     *
+     * @param username - The user joining.
+     * @param roomId   - The room id.
+     * @param listener - The listener to push the room's updates to.
+     * @return - The current state of the room.
+     * @throws RemoteException - if there is no such room or it is full.
+     */
+    public RoomUpdate joinRoom(String username, String roomId, RoomListener listener) throws RemoteException {
+        return rooms.get(roomId).join(username, listener);
+    }
+
+    /**
+     * Applies a guess to a shared puzzle room.
+     *
+     * Details: like processPuzzleGuess, the guess only touches memory, so it
+     * is evaluated on the calling thread and returned as a completed future.
+     * The other members see it in the room's next coalesced update.
+     *
+     * @param username - The user guessing.
+     * @param roomId   - The room id.
+     * @param input    - The letter or word guessed.
+     * @return - A future completed with a message for the user, or failed if
+     *         there is no such room, the user is not a member, the game is
+     *         over or the guess was already made.
+     */
+    public CompletableFuture<String> roomGuess(String username, String roomId, String input) {
+        try {
+            String message = rooms.get(roomId).guess(username, input);
+            analytics.recordGuess(input, false);
+            return CompletableFuture.completedFuture(message);
+        } catch (RemoteException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Leaves a shared puzzle room.
+     *
+     * @param username - The user leaving.
+     * @param roomId   - The room id.
+     * @throws RemoteException - if there is no such room.
+     */
+    public void leaveRoom(String username, String roomId) throws RemoteException {
+        rooms.get(roomId).leave(username);
+    }
+}
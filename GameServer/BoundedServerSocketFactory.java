@@ -0,0 +1,190 @@
+package GameServer;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.rmi.server.RMIServerSocketFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * RMI server socket factory that bounds the connections of a service.
+ *
+ * RMI serves each connection on a thread of its own, so the number of open
+ * connections is the number of RMI threads, and the depth of the queue of
+ * calls the service has taken on. A connection accepted while maxConnections
+ * are open is closed at once, which the caller sees as a RemoteException.
+ * Connections that stay idle for idleTimeoutMillis between calls are closed,
+ * in place of RMI's two-hour default. Accepted sockets have TCP_NODELAY set
+ * and a buffered input stream, which RMI reads directly.
+ *
+ * Every server socket created by one factory shares its limit and counters,
+ * so a service exports all its objects, and its registry, with one factory.
+ */
+public class BoundedServerSocketFactory implements RMIServerSocketFactory {
+
+    // Minimum interval between two log lines about rejected connections
+    private static final long REJECT_LOG_INTERVAL_MS = 1000;
+
+    private final String name;
+    private final int maxConnections;
+    private final int backlog;
+    private final int idleTimeoutMillis;
+    private final int bufferSize;
+
+    private final AtomicInteger open = new AtomicInteger();
+    private final AtomicInteger peak = new AtomicInteger();
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private volatile long lastRejectLog;
+
+    /**
+     * Constructs a BoundedServerSocketFactory.
+     *
+     * @param name              - The name of the service, for logging.
+     * @param maxConnections    - The maximum number of open connections.
+     * @param backlog           - The length of the queue of connections not
+     *                          yet accepted.
+     * @param idleTimeoutMillis - The time a connection may wait for its next
+     *                          call.
+     * @param bufferSize        - The input buffer size of each connection.
+     */
+    public BoundedServerSocketFactory(String name, int maxConnections, int backlog, int idleTimeoutMillis,
+            int bufferSize) {
+        this.name = name;
+        this.maxConnections = maxConnections;
+        this.backlog = backlog;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.bufferSize = bufferSize;
+    }
+
+    @Override
+    public ServerSocket createServerSocket(int port) throws IOException {
+        return new BoundedServerSocket(port);
+    }
+
+    /**
+     * Gets the number of connections open now.
+     *
+     * @return - The number of connections.
+     */
+    public int getOpenConnections() {
+        return this.open.get();
+    }
+
+    public int getPeakConnections() {
+        return this.peak.get();
+    }
+
+    public long getAcceptedConnections() {
+        return this.accepted.get();
+    }
+
+    /**
+     * Gets the number of connections closed on accept because the limit was
+     * reached.
+     *
+     * @return - The number of connections.
+     */
+    public long getRejectedConnections() {
+        return this.rejected.get();
+    }
+
+    @Override
+    public String toString() {
+        return name + " connections: " + open.get() + " open (peak " + peak.get() + ", limit " + maxConnections
+                + "), " + accepted.get() + " accepted, " + rejected.get() + " rejected";
+    }
+
+    /**
+     * Server socket that admits connections up to the factory's limit.
+     */
+    private class BoundedServerSocket extends ServerSocket {
+
+        private BoundedServerSocket(int port) throws IOException {
+            super(port, backlog);
+        }
+
+        @Override
+        public Socket accept() throws IOException {
+            while (true) {
+                BoundedSocket socket = new BoundedSocket();
+                implAccept(socket);
+                if (!socket.admit()) {
+                    socket.close();
+                    rejected();
+                    continue;
+                }
+                accepted.incrementAndGet();
+                socket.setTcpNoDelay(true);
+                socket.setSoTimeout(idleTimeoutMillis);
+                return socket;
+            }
+        }
+    }
+
+    /**
+     * Counts a rejected connection, logging at most once per interval.
+     */
+    private void rejected() {
+        rejected.incrementAndGet();
+        long now = System.currentTimeMillis();
+        if (now - lastRejectLog >= REJECT_LOG_INTERVAL_MS) {
+            lastRejectLog = now;
+            System.out.println("Connection limit reached; " + this);
+        }
+    }
+
+    /**
+     * Accepted connection, counted as open until it is closed.
+     */
+    private class BoundedSocket extends Socket {
+        private final AtomicBoolean counted = new AtomicBoolean();
+        private InputStream in;
+
+        /**
+         * Counts the connection as open unless the limit is reached.
+         *
+         * @return - true if the connection was admitted.
+         */
+        private boolean admit() {
+            int count = open.incrementAndGet();
+            if (count > maxConnections) {
+                open.decrementAndGet();
+                return false;
+            }
+            counted.set(true);
+            peak.accumulateAndGet(count, Math::max);
+            return true;
+        }
+
+        @Override
+        public synchronized InputStream getInputStream() throws IOException {
+            if (in == null) {
+                in = new BufferedInputStream(super.getInputStream(), bufferSize);
+            }
+            return in;
+        }
+
+        /**
+         * Sets the read timeout, capped at the idle timeout; RMI sets its own
+         * after accepting the connection.
+         */
+        @Override
+        public synchronized void setSoTimeout(int timeout) throws SocketException {
+            super.setSoTimeout(timeout == 0 ? idleTimeoutMillis : Math.min(timeout, idleTimeoutMillis));
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            if (counted.compareAndSet(true, false)) {
+                open.decrementAndGet();
+            }
+            super.close();
+        }
+    }
+}
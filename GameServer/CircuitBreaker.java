@@ -0,0 +1,162 @@
+package GameServer;
+
+import java.rmi.RemoteException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Circuit breaker guarding the link to a downstream microservice.
+ *
+ * The breaker starts closed and lets every call through. After a number of
+ * consecutive link failures it opens: calls are then refused at once, without
+ * touching the link, for an open interval drawn at random between half and
+ * all of the current backoff. The first call after the interval is let
+ * through as the only probe (half-open); if it succeeds the breaker closes,
+ * otherwise it opens again with the backoff doubled, up to a maximum.
+ *
+ * Callers report the outcome of every admitted call with recordSuccess or
+ * recordFailure. Only failures of the link itself should be reported as
+ * failures; an error returned by the service shows the link is working.
+ * Each Admission is tagged with the breaker's generation, which changes on
+ * every change of state, and outcomes of calls admitted in an earlier
+ * generation are ignored: a slow call admitted before the breaker opened
+ * cannot close it without a probe.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    /**
+     * A call let through by the breaker, whose outcome is to be reported.
+     */
+    public static final class Admission {
+        private final long generation;
+        private final boolean probe;
+
+        private Admission(long generation, boolean probe) {
+            this.generation = generation;
+            this.probe = probe;
+        }
+
+        /**
+         * Checks whether the call is the probe of a half-open breaker, which
+         * should re-establish the link before using it.
+         *
+         * @return - true if the call is the probe.
+         */
+        public boolean isProbe() {
+            return this.probe;
+        }
+    }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private final String rejectMessage;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long backoffMillis;
+    private long openUntil;
+    private long rejected;
+    private long generation;
+
+    /**
+     * Constructs a closed CircuitBreaker.
+     *
+     * @param name                 - The name of the link, for logging.
+     * @param failureThreshold     - The number of consecutive failures that
+     *                             opens the breaker.
+     * @param initialBackoffMillis - The backoff after the breaker first opens.
+     * @param maxBackoffMillis     - The maximum backoff.
+     * @param rejectMessage        - The message of the exception thrown for
+     *                             refused calls.
+     */
+    public CircuitBreaker(String name, int failureThreshold, long initialBackoffMillis, long maxBackoffMillis,
+            String rejectMessage) {
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.rejectMessage = rejectMessage;
+        this.backoffMillis = initialBackoffMillis;
+    }
+
+    /**
+     * Admits a call, or refuses it if the breaker is open or a probe is
+     * already in flight.
+     *
+     * @return - The admission, to report the outcome of the call with.
+     * @throws RemoteException - if the call is refused.
+     */
+    public synchronized Admission admit() throws RemoteException {
+        if (state == State.CLOSED) {
+            return new Admission(generation, false);
+        }
+        if (state == State.OPEN && System.currentTimeMillis() >= openUntil) {
+            state = State.HALF_OPEN;
+            generation++;
+            return new Admission(generation, true);
+        }
+        rejected++;
+        throw new RemoteException(rejectMessage);
+    }
+
+    /**
+     * Records that an admitted call reached the service, closing the breaker
+     * if it was the probe.
+     *
+     * @param admission - The admission of the call.
+     */
+    public synchronized void recordSuccess(Admission admission) {
+        if (admission.generation != generation) {
+            return;
+        }
+        consecutiveFailures = 0;
+        if (state == State.HALF_OPEN) {
+            System.out.println(name + " circuit closed after " + rejected + " calls refused");
+            state = State.CLOSED;
+            generation++;
+            backoffMillis = initialBackoffMillis;
+            rejected = 0;
+        }
+    }
+
+    /**
+     * Records that an admitted call failed on the link, opening the breaker if
+     * it was the probe or the failure threshold is reached.
+     *
+     * @param admission - The admission of the call.
+     */
+    public synchronized void recordFailure(Admission admission) {
+        if (admission.generation != generation) {
+            return;
+        }
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN) {
+            backoffMillis = Math.min(backoffMillis * 2, maxBackoffMillis);
+            open();
+        } else if (state == State.CLOSED && consecutiveFailures >= failureThreshold) {
+            open();
+        }
+    }
+
+    /**
+     * Opens the breaker for a jittered interval, so that game servers that
+     * lost the link together do not all probe it together.
+     */
+    private void open() {
+        long interval = backoffMillis / 2 + ThreadLocalRandom.current().nextLong(backoffMillis / 2 + 1);
+        state = State.OPEN;
+        generation++;
+        openUntil = System.currentTimeMillis() + interval;
+        System.out.println(name + " circuit open for " + interval + " ms after "
+                + consecutiveFailures + " consecutive failures");
+    }
+
+    public synchronized State getState() {
+        return this.state;
+    }
+}
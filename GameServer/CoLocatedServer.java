@@ -0,0 +1,57 @@
+package GameServer;
+
+import java.rmi.registry.Registry;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import DatabaseServer.DatabaseImp;
+import UserAccountServer.ShardMap;
+import UserAccountServer.UserAccountServer;
+import UserAccountServer.UserAccountService;
+
+/**
+ * Starts the word database, a user account service for every shard and the
+ * game server in one JVM, for small installs.
+ *
+ * The game server calls the database and user account implementations
+ * directly, without RMI. Only the client-facing registry on
+ * Constants.GAME_SERVER_PORT and the word database registry on
+ * Constants.WDBS_PORT are exported, the latter for the tools that use it
+ * (WordImporter remote-import, DictionaryWatcher and read replicas).
+ */
+public class CoLocatedServer {
+
+    /**
+     * Main method to start the co-located services.
+     *
+     * @param args - Command-line arguments (not used).
+     */
+    public static void main(String[] args) {
+        try {
+            long start = System.currentTimeMillis();
+
+            DatabaseImp database = new DatabaseImp();
+            ServiceSockets.WORD_DATABASE.createRegistry(Constants.WDBS_PORT).rebind("DatabaseService", database);
+
+            ShardMap shardMap = ShardMap.load();
+            Map<String, UserAccountService> userAccountServices = new LinkedHashMap<>();
+            for (ShardMap.Shard shard : shardMap.getShards()) {
+                userAccountServices.put(shard.getId(), new UserAccountServer(shard.getDataDirectory()));
+            }
+
+            ServerFactoryImp serverObject = new ServerFactoryImp(
+                    new DownstreamServices(shardMap, database, userAccountServices));
+            Registry registry = ServiceSockets.GAME_SERVER.createRegistry(Constants.GAME_SERVER_PORT);
+            serverObject.enableWarmRestart(registry, Constants.GAME_SERVER_PORT);
+            registry.rebind("Server", serverObject);
+            registry.rebind("Analytics", serverObject.getAnalytics());
+
+            System.out.println("Co-located server with " + userAccountServices.size()
+                    + " user account shard(s) listening for incoming requests (started in "
+                    + (System.currentTimeMillis() - start) + " ms)...");
+        } catch (Exception e) {
+            System.err.println("Exception: " + e.toString());
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package GameServer;
+
+import java.rmi.RemoteException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounds the calls in flight to a downstream microservice from one game
+ * server, across all its users.
+ *
+ * A call takes a permit before it starts and gives it back when it ends. A
+ * call that cannot get a permit within admitWaitMillis is refused with a
+ * RemoteException, so a slow service sees a fixed load and the callers of a
+ * saturated one fail fast instead of queueing behind it.
+ */
+public class ConcurrencyLimiter {
+
+    // Minimum interval between two log lines about rejected calls
+    private static final long REJECT_LOG_INTERVAL_MS = 1000;
+
+    private final String name;
+    private final int maxConcurrent;
+    private final long admitWaitMillis;
+    private final String rejectMessage;
+    private final Semaphore permits;
+
+    private final AtomicLong admitted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private volatile long lastRejectLog;
+
+    /**
+     * Constructs a ConcurrencyLimiter.
+     *
+     * @param name            - The name of the service, for logging.
+     * @param maxConcurrent   - The maximum number of calls in flight.
+     * @param admitWaitMillis - The time a call may wait for a permit.
+     * @param rejectMessage   - The message of the exception thrown for
+     *                        refused calls.
+     */
+    public ConcurrencyLimiter(String name, int maxConcurrent, long admitWaitMillis, String rejectMessage) {
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.admitWaitMillis = admitWaitMillis;
+        this.rejectMessage = rejectMessage;
+        this.permits = new Semaphore(maxConcurrent);
+    }
+
+    /**
+     * Takes a permit for a call, which must be given back with release.
+     *
+     * @throws RemoteException - if no permit was freed in time.
+     */
+    public void acquire() throws RemoteException {
+        try {
+            if (permits.tryAcquire(admitWaitMillis, TimeUnit.MILLISECONDS)) {
+                admitted.incrementAndGet();
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RemoteException("Interrupted while waiting for " + name + ".", e);
+        }
+
+        rejected.incrementAndGet();
+        long now = System.currentTimeMillis();
+        if (now - lastRejectLog >= REJECT_LOG_INTERVAL_MS) {
+            lastRejectLog = now;
+            System.out.println("Concurrency limit reached; " + this);
+        }
+        throw new RemoteException(rejectMessage);
+    }
+
+    /**
+     * Gives back the permit of a call that has ended.
+     */
+    public void release() {
+        permits.release();
+    }
+
+    /**
+     * Gets the number of calls in flight now.
+     *
+     * @return - The number of calls.
+     */
+    public int getInFlight() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    public long getAdmittedCalls() {
+        return this.admitted.get();
+    }
+
+    public long getRejectedCalls() {
+        return this.rejected.get();
+    }
+
+    @Override
+    public String toString() {
+        return name + " calls: " + getInFlight() + " in flight (limit " + maxConcurrent + "), "
+                + admitted.get() + " admitted, " + rejected.get() + " rejected";
+    }
+}
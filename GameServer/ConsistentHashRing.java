@@ -0,0 +1,141 @@
+package GameServer;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * A consistent hash ring mapping keys (e.g. usernames) to nodes.
+ *
+ * Each node is placed on the ring at a number of pseudo-random points
+ * ("virtual nodes"); a key belongs to the first node point at or after the
+ * key's hash, wrapping around. Adding or removing a node therefore only moves
+ * the keys between that node's points and their predecessors, roughly 1/N of
+ * all keys.
+ *
+ * @param <T> - The type of the value associated with each node.
+ */
+public class ConsistentHashRing<T> {
+    private final int virtualNodes;
+    private final TreeMap<Long, String> ring = new TreeMap<>();
+    private final Map<String, T> nodes = new HashMap<>();
+
+    /**
+     * Constructs an empty ring.
+     *
+     * @param virtualNodes - Number of points each node occupies on the ring.
+     */
+    public ConsistentHashRing(int virtualNodes) {
+        this.virtualNodes = virtualNodes;
+    }
+
+    /**
+     * Adds a node to the ring, replacing the value of an existing node with the
+     * same id.
+     *
+     * @param nodeId - The unique id of the node.
+     * @param value  - The value associated with the node.
+     */
+    public synchronized void add(String nodeId, T value) {
+        if (nodes.put(nodeId, value) == null) {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.put(hash(nodeId + "#" + i), nodeId);
+            }
+        }
+    }
+
+    /**
+     * Removes a node from the ring.
+     *
+     * @param nodeId - The id of the node to remove.
+     * @return - The value of the removed node, or null if it was not on the ring.
+     */
+    public synchronized T remove(String nodeId) {
+        T value = nodes.remove(nodeId);
+        if (value != null) {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.remove(hash(nodeId + "#" + i), nodeId);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Gets the id of the node that owns a key.
+     *
+     * @param key - The key to look up.
+     * @return - The id of the owning node, or null if the ring is empty.
+     */
+    public synchronized String getNodeId(String key) {
+        if (ring.isEmpty()) {
+            return null;
+        }
+        SortedMap<Long, String> tail = ring.tailMap(hash(key));
+        return tail.isEmpty() ? ring.firstEntry().getValue() : tail.get(tail.firstKey());
+    }
+
+    /**
+     * Gets the value of the node that owns a key.
+     *
+     * @param key - The key to look up.
+     * @return - The value of the owning node, or null if the ring is empty.
+     */
+    public synchronized T get(String key) {
+        String nodeId = getNodeId(key);
+        return nodeId == null ? null : nodes.get(nodeId);
+    }
+
+    /**
+     * Gets the value of a node by id.
+     *
+     * @param nodeId - The id of the node.
+     * @return - The value of the node, or null if it is not on the ring.
+     */
+    public synchronized T getNode(String nodeId) {
+        return nodes.get(nodeId);
+    }
+
+    /**
+     * Gets the ids of all nodes on the ring.
+     *
+     * @return - A copy of the node ids.
+     */
+    public synchronized List<String> getNodeIds() {
+        return new ArrayList<>(nodes.keySet());
+    }
+
+    /**
+     * Gets the number of nodes on the ring.
+     *
+     * @return - The number of nodes.
+     */
+    public synchronized int size() {
+        return nodes.size();
+    }
+
+    /**
+     * Hashes a string to a position on the ring, using the first 8 bytes of its
+     * MD5 digest so that positions are spread evenly.
+     *
+     * @param key - The string to hash.
+     * @return - The position on the ring.
+     */
+    public static long hash(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(key.getBytes(StandardCharsets.UTF_8));
+            long hash = 0;
+            for (int i = 0; i < 8; i++) {
+                hash = (hash << 8) | (digest[i] & 0xff);
+            }
+            return hash;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -7,11 +7,195 @@ public class Constants {
 
         public static final String USER_DATA_DIRECTORY = "./UserData/";
 
+        // Optional list of user account shards; see UserAccountServer.ShardMap
+        public static final String SHARD_MAP_FILE = "./shards.txt";
+
+        public static final String WORD_DATABASE_FILE = "./DatabaseServer/data/wordDatabase.db";
+
+        // Bulk word import: words are inserted IMPORT_BATCH_SIZE per
+        // transaction, with progress reported every IMPORT_PROGRESS_ROWS.
+        // Imports through the running primary only read files in its
+        // IMPORT_DIRECTORY.
+        public static final int IMPORT_BATCH_SIZE = 50000;
+        public static final int IMPORT_PROGRESS_ROWS = 100000;
+        public static final String IMPORT_DIRECTORY = "./DatabaseServer/imports/";
+
+        // Word adds and removes arriving within GROUP_COMMIT_INTERVAL_MS of
+        // each other are committed in one transaction; callers give up after
+        // GROUP_COMMIT_TIMEOUT_MS.
+        public static final long GROUP_COMMIT_INTERVAL_MS = 5;
+        public static final int GROUP_COMMIT_MAX_BATCH = 1000;
+        public static final long GROUP_COMMIT_TIMEOUT_MS = 30000;
+
+        // Optional list of read-only word database replicas, one "host port"
+        // per line. Replicas long-poll the primary's change log and retry
+        // every REPLICA_POLL_MS if it cannot be reached.
+        public static final String REPLICA_LIST_FILE = "./replicas.txt";
+        public static final long REPLICA_POLL_MS = 500;
+        public static final long REPLICA_LONG_POLL_MS = 1000;
+        public static final int REPLICA_BATCH_SIZE = 1000;
+        public static final long REPLICA_RETRY_MS = 5000;
+
+        // RMI connections. Each service closes connections beyond its
+        // *_MAX_CONNECTIONS as soon as it accepts them, queues up to
+        // SOCKET_BACKLOG not yet accepted, and closes connections idle for
+        // SOCKET_IDLE_TIMEOUT_MS. Callers connect within
+        // SOCKET_CONNECT_TIMEOUT_MS and wait for a reply for at most the
+        // service's *_CALL_TIMEOUT_MS (0 = no limit, for word imports).
+        public static final int SOCKET_BACKLOG = 128;
+        public static final int SOCKET_IDLE_TIMEOUT_MS = 60000;
+        public static final int SOCKET_CONNECT_TIMEOUT_MS = 3000;
+        public static final int SOCKET_BUFFER_SIZE = 16384;
+        public static final int GAME_SERVER_MAX_CONNECTIONS = 2048;
+        public static final int GAME_SERVER_CALL_TIMEOUT_MS = 60000;
+        public static final int UAS_MAX_CONNECTIONS = 512;
+        public static final int UAS_CALL_TIMEOUT_MS = 30000;
+        public static final int WDBS_MAX_CONNECTIONS = 512;
+        public static final int WDBS_SOCKET_CALL_TIMEOUT_MS = 0;
+
+        // Game server calls to the word database are abandoned after
+        // WDBS_CALL_TIMEOUT_MS. WDBS_BREAKER_FAILURES consecutive failed
+        // calls open the circuit breaker: calls then fail at once for a
+        // jittered interval, starting at WDBS_BREAKER_OPEN_MS and doubling
+        // up to WDBS_BREAKER_MAX_OPEN_MS while the probe after each interval
+        // keeps failing.
+        public static final long WDBS_CALL_TIMEOUT_MS = 3000;
+        public static final int WDBS_BREAKER_FAILURES = 5;
+        public static final long WDBS_BREAKER_OPEN_MS = 1000;
+        public static final long WDBS_BREAKER_MAX_OPEN_MS = 30000;
+
+        // At most WDBS_MAX_CONCURRENT_CALLS calls to the word database are in
+        // flight from one game server (long polls and imports excepted); a
+        // call that cannot start within WDBS_ADMIT_WAIT_MS is refused.
+        public static final int WDBS_MAX_CONCURRENT_CALLS = 32;
+        public static final long WDBS_ADMIT_WAIT_MS = 50;
+
+        // Per-user rate limits at the game server, as token buckets: each
+        // class of request may burst up to *_RATE_BURST requests, refilled at
+        // *_RATE_PER_SECOND. Buckets left full are swept every
+        // RATE_LIMIT_SWEEP_MS.
+        public static final int COMMAND_RATE_BURST = 10;
+        public static final double COMMAND_RATE_PER_SECOND = 2;
+        public static final int QUERY_RATE_BURST = 20;
+        public static final double QUERY_RATE_PER_SECOND = 5;
+        public static final int GUESS_RATE_BURST = 20;
+        public static final double GUESS_RATE_PER_SECOND = 5;
+        public static final int SAVE_RATE_BURST = 40;
+        public static final double SAVE_RATE_PER_SECOND = 10;
+        public static final int LOGIN_RATE_BURST = 5;
+        public static final double LOGIN_RATE_PER_SECOND = 0.5;
+        public static final long RATE_LIMIT_SWEEP_MS = 60000;
+
+        // Change feed of the primary word database. Subscribers more than
+        // CHANGE_LOG_RETENTION changes behind resync from snapshot pages of
+        // SNAPSHOT_PAGE_SIZE words.
+        public static final int CHANGE_LOG_RETENTION = 100000;
+        public static final int CHANGE_FEED_BATCH_SIZE = 1000;
+        public static final long CHANGE_FEED_MAX_WAIT_MS = 30000;
+        public static final int SNAPSHOT_PAGE_SIZE = 5000;
+
+        // The memory-mapped word DAWG of the dictionary snapshot is rebuilt
+        // DAWG_REBUILD_DELAY_MS after the word table changes, or at once when
+        // SNAPSHOT_DELTA_LIMIT words have changed since the last rebuild.
+        public static final long DAWG_REBUILD_DELAY_MS = 2000;
+        public static final int SNAPSHOT_DELTA_LIMIT = 10000;
+        public static final int MAX_PATTERN_PAGE_SIZE = 1000;
+
         public static final int MAX_WORD_COUNT = 15;
+        // Words one Add or Remove command may carry
+        public static final int MAX_WORD_LIST_SIZE = 100;
+        // Stems tried before giving up on generating a puzzle
+        public static final int MAX_PUZZLE_ATTEMPTS = 10;
+
+        // Game server session limits. A session with no request (heartbeats
+        // included) for the idle timeout is closed.
+        public static final int MAX_SESSIONS = 1000;
+        public static final long SESSION_IDLE_TIMEOUT_MS = 15000;
+        public static final int SESSION_RESPONSE_CACHE_SIZE = 32;
+
+        // The UAS logs out users whose heartbeat it has not seen for one
+        // monitor interval. Clients beat every CLIENT_HEARTBEAT_INTERVAL_MS,
+        // and the game server forwards the heartbeats of all its active users
+        // to the UAS in one batch per tick, so a beat can reach the UAS up to
+        // one client interval plus one tick after the previous one. That sum
+        // must be shorter than the monitor interval (checked at startup by
+        // HeartbeatAggregator).
+        public static final long UAS_HEARTBEAT_INTERVAL_MS = 8000;
+        public static final long CLIENT_HEARTBEAT_INTERVAL_MS = 5000;
+        public static final long HEARTBEAT_TICK_MS = 1000;
+
+        // Warm restart. On shutdown, each user account shard writes its login
+        // leases to LEASE_SNAPSHOT_FILE in its data directory, and each game
+        // server its sessions to SESSION_SNAPSHOT_FILE (named by registry
+        // port); they are restored on start-up if at most
+        // WARM_RESTART_MAX_AGE_MS old.
+        public static final String LEASE_SNAPSHOT_FILE = "leases.snapshot";
+        public static final String SESSION_SNAPSHOT_FILE = "./sessions-%d.snapshot";
+        public static final long WARM_RESTART_MAX_AGE_MS = 60000;
+
+        // Leaderboard. Each user account shard writes its users' scores to
+        // LEADERBOARD_FILE in its data directory at most every
+        // LEADERBOARD_FLUSH_MS; clients ask for at most LEADERBOARD_MAX_COUNT
+        // users. Scores from LEADERBOARD_INDEXED_SCORES up share the top slot
+        // of the rank index, so its size does not depend on the scores saved.
+        public static final String LEADERBOARD_FILE = "leaderboard.dat";
+        public static final long LEADERBOARD_FLUSH_MS = 5000;
+        public static final int LEADERBOARD_MAX_COUNT = 100;
+        public static final int LEADERBOARD_INDEXED_SCORES = 1 << 16;
+
+        // Game event log. Events are queued in a ring of EVENT_LOG_CAPACITY
+        // (rounded down to a power of two) and written to segments of about
+        // EVENT_LOG_SEGMENT_BYTES in EVENT_LOG_DIRECTORY, keeping the newest
+        // EVENT_LOG_MAX_SEGMENTS.
+        public static final String EVENT_LOG_DIRECTORY = "./events/";
+        public static final int EVENT_LOG_CAPACITY = 65536;
+        public static final long EVENT_LOG_SEGMENT_BYTES = 16 * 1024 * 1024;
+        public static final int EVENT_LOG_MAX_SEGMENTS = 64;
+        public static final long EVENT_LOG_IDLE_PARK_NS = 1000000;
+        public static final long EVENT_LOG_CLOSE_TIMEOUT_MS = 5000;
+
+        // Gameplay analytics. Streams are counted in ANALYTICS_BUCKETS buckets
+        // of ANALYTICS_BUCKET_MS, each a count-min sketch of
+        // ANALYTICS_SKETCH_DEPTH x ANALYTICS_SKETCH_WIDTH counters and
+        // ANALYTICS_HEAVY_HITTERS Space-Saving counters.
+        public static final long ANALYTICS_BUCKET_MS = 60000;
+        public static final int ANALYTICS_BUCKETS = 60;
+        public static final int ANALYTICS_SKETCH_WIDTH = 1024;
+        public static final int ANALYTICS_SKETCH_DEPTH = 4;
+        public static final int ANALYTICS_HEAVY_HITTERS = 128;
+        public static final int ANALYTICS_MAX_K = 100;
+
+        // Daily puzzle. One puzzle of DAILY_PUZZLE_WORD_COUNT words is shared by
+        // all players each day, rolling over at DAILY_PUZZLE_ROLLOVER in
+        // DAILY_PUZZLE_ZONE. Its solution is kept in the data directory of the
+        // user account shard owning its id (the date) as
+        // <id>SHARED_PUZZLE_EXTENSION; each process keeps the
+        // SHARED_SOLUTIONS_KEPT newest solutions in memory.
+        public static final int DAILY_PUZZLE_WORD_COUNT = 6;
+        public static final String DAILY_PUZZLE_ROLLOVER = "00:00";
+        public static final String DAILY_PUZZLE_ZONE = "UTC";
+        public static final String SHARED_PUZZLE_EXTENSION = ".puzzle";
+        public static final int SHARED_SOLUTIONS_KEPT = 8;
+
+        // Shared puzzle rooms. Changes to a room are pushed to its members at
+        // most every ROOM_COALESCE_MS, listing up to ROOM_MAX_EVENTS_PER_UPDATE
+        // events. Rooms with no members for ROOM_IDLE_TIMEOUT_MS are closed.
+        public static final long ROOM_COALESCE_MS = 20;
+        public static final int ROOM_MAX_EVENTS_PER_UPDATE = 32;
+        public static final int ROOM_MAX_MEMBERS = 500;
+        public static final int MAX_ROOMS = 1000;
+        public static final long ROOM_IDLE_TIMEOUT_MS = 300000;
+
+        // Game server scale-out. Nodes renew their registration with the router
+        // every ROUTER_RENEW_MS and are dropped if they miss ROUTER_LEASE_MS.
+        public static final int RING_VIRTUAL_NODES = 128;
+        public static final long ROUTER_LEASE_MS = 10000;
+        public static final long ROUTER_RENEW_MS = 3000;
 
         // Various key codes to faciliate user menu navigation
         public static final String EXIT_CODE = "*Exit*";
         public static final String SAVE_CODE = "*Save*";
+        public static final String LEAVE_CODE = "*Leave*";
 
         // Regex to prevent user from guessing strings with '+', '-', or '.'
         public static final String NO_SPECIAL_CHAR_REGEX = ".*[+\\-\\.].*";
@@ -23,10 +207,14 @@ public class Constants {
          */
         public static final String USER_MENU = "\nEnter a command from the list below " +
                         "(each command must adhere to the specified syntax - CASE SENSITIVE):\n" +
-                        "Add;WordName              //Add a word to the database.\n" +
-                        "Remove;WordName           //Remove a word from the database.\n" +
-                        "New Game;x                //Start a new game with x words.\n" +
+                        "Add;Word1,Word2,...       //Add words to the database.\n" +
+                        "Remove;Word1,Word2,...    //Remove words from the database.\n" +
+                        "New Game;x[;easy|hard]    //Start a new game with x words (common or rare words).\n" +
                         "Continue;*                //Continue existing game.\n" +
+                        "Daily;*                   //Play today's daily puzzle, shared by all players.\n" +
+                        "Leaderboard;x             //Show the x highest scores and your rank.\n" +
+                        "New Room;x[;easy|hard]    //Open a shared puzzle room with x words.\n" +
+                        "Join Room;RoomId          //Join a shared puzzle room.\n" +
                         "*Exit*                    //Exit Game.";
 
         public static final String GAME_MENU = "\nEnter a command from the list below " +
@@ -36,6 +224,12 @@ public class Constants {
                         "?WordName                 //Check if word exists in database.\n" +
                         "*Save*                    //Save and return to main menu.";
 
+        public static final String ROOM_MENU = "\nEnter a command from the list below " +
+                        "(each command must adhere to the specified syntax - CASE SENSITIVE):\n" +
+                        "Letter                    //Guess a letter for the room.\n" +
+                        "WordName                  //Guess a word for the room.\n" +
+                        "*Leave*                   //Leave the room and return to main menu.";
+
         public static final String IDLE_STATE = "Idle";
         public static final String PLAY_STATE = "Play";
 
@@ -43,9 +237,23 @@ public class Constants {
         public static final String SOCKET_ERROR_OPEN_WORD = "Could not create socket to word database microservice.";
         public static final String CANT_COMMUNICATE_UAS = "Error, could not contact user account microservice.";
         public static final String CANT_COMMUNICATE_WDBS = "Could not contact word database microservice.";
+        public static final String WDBS_UNAVAILABLE = "Word database microservice unavailable. Try again shortly.";
+        public static final String WDBS_TIMEOUT = "Word database microservice did not respond in time.";
+        public static final String WDBS_BUSY = "Word database microservice is busy. Try again shortly.";
+        public static final String RATE_LIMITED = "Too many %s requests. Try again in %d ms.";
+        public static final String IMPORT_FAILED = "Could not import words: ";
+        public static final String IMPORT_OUTSIDE_DIRECTORY = "Only files in the import directory can be imported.";
+        public static final String NOT_PRIMARY = "The change feed is only served by the primary word database.";
+        public static final String GROUP_COMMIT_TIMED_OUT = "The word change was not committed in time; it may still be applied.";
+        public static final String READ_ONLY_REPLICA = "Word database replica is read-only.";
+        public static final String NO_GAME_SERVER = "No game server available.";
+        public static final String NOT_CONNECTED = "Not connected to a game server. Log in first.";
 
         // Error messages regarding user login
         public static final String DUPLICATE_LOGIN = "User already logged in.";
+        public static final String SERVER_FULL = "Game server has reached its session limit. Try again later.";
+        public static final String SESSION_EXPIRED = "Session expired. Please reconnect.";
+        public static final String NOT_SESSION_USER = "Requests can only be made for the user logged in on this session.";
 
         // Error messages regarding loading user data
         public static final String CANT_CREATE_USER_FILE = "Could not create user data file.";
@@ -55,5 +263,20 @@ public class Constants {
         public static final String INVALID_COMMAND_SYNTAX = "Invalid command syntax. Try again.";
         public static final String WORD_COUNT_NOT_IN_RANGE = "Word count argument exceeds allowed range.";
         public static final String INVALID_WORD_COUNT = "Word count argument is not a number.";
+        public static final String INVALID_DIFFICULTY = "Difficulty must be normal, easy or hard.";
+        public static final String WORD_LIST_TOO_LONG = "At most " + MAX_WORD_LIST_SIZE
+                        + " words can be added or removed at once.";
+        public static final String INVALID_WORD = "Words cannot contain spaces or control characters.";
         public static final String NO_EXISTING_GAME = "No existing game found.";
+        public static final String INVALID_LEADERBOARD_COUNT = "Leaderboard size must be a number from 1 to "
+                        + LEADERBOARD_MAX_COUNT + ".";
+        public static final String INVALID_PUZZLE_ID = "Invalid shared puzzle id.";
+        public static final String SHARED_PUZZLE_UNAVAILABLE = "That shared puzzle is no longer available.";
+        public static final String NO_SUCH_ROOM = "No such room.";
+        public static final String ROOM_FULL = "Room is full.";
+        public static final String ROOM_FINISHED = "The room's game is over.";
+        public static final String NOT_IN_ROOM = "You are not in that room.";
+        public static final String ALREADY_GUESSED = "Already guessed in this room.";
+        public static final String TOO_MANY_ROOMS = "Game server has reached its room limit. Try again later.";
+        public static final String PUZZLE_GENERATION_FAILED = "Could not generate a puzzle with that word count. Try fewer words.";
 }
\ No newline at end of file
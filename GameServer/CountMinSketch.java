@@ -0,0 +1,87 @@
+package GameServer;
+
+import java.util.Arrays;
+
+/**
+ * Count-min sketch: approximate counts of strings in fixed memory.
+ *
+ * Each of the depth rows hashes a key to one of width counters; adding a key
+ * increments its counter in every row, and its estimate is the smallest of
+ * them. Estimates are never below the true count, and exceed it by at most
+ * e/width of the total count with probability 1 - e^-depth. In particular an
+ * estimate of 0 means the key was never added.
+ */
+public class CountMinSketch {
+    private final int width;
+    private final int depth;
+    private final long[] counters;
+
+    /**
+     * Constructs an empty CountMinSketch.
+     *
+     * @param width - The number of counters per row; rounded up to a power of
+     *              two.
+     * @param depth - The number of rows.
+     */
+    public CountMinSketch(int width, int depth) {
+        this.width = Integer.highestOneBit(Math.max(1, width - 1)) << 1;
+        this.depth = depth;
+        this.counters = new long[this.width * depth];
+    }
+
+    /**
+     * Adds to the count of a key.
+     *
+     * @param key   - The key.
+     * @param count - The amount to add.
+     */
+    public void add(String key, long count) {
+        long hash = hash(key);
+        for (int row = 0; row < depth; row++) {
+            counters[index(hash, row)] += count;
+        }
+    }
+
+    /**
+     * Estimates the count of a key.
+     *
+     * @param key - The key.
+     * @return - The estimate; at least the true count.
+     */
+    public long estimate(String key) {
+        long hash = hash(key);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters[index(hash, row)]);
+        }
+        return estimate;
+    }
+
+    /**
+     * Resets every count to 0.
+     */
+    public void clear() {
+        Arrays.fill(counters, 0);
+    }
+
+    // Row hashes are derived from two halves of one 64-bit hash
+    // (Kirsch-Mitzenmacher), so a key is hashed once per operation
+    private int index(long hash, int row) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        return row * width + ((h1 + row * h2) & (width - 1));
+    }
+
+    private static long hash(String key) {
+        // 64-bit FNV-1a followed by a murmur finalizer
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,219 @@
+package GameServer;
+
+import java.io.IOException;
+import java.rmi.NotBoundException;
+import java.rmi.RemoteException;
+import java.rmi.registry.LocateRegistry;
+import java.rmi.registry.Registry;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import UserAccountServer.ShardMap;
+import UserAccountServer.UserAccountService;
+
+import DatabaseServer.Database;
+
+/**
+ * Holds the stubs for the user account and word database microservices,
+ * shared by every session on the game server.
+ *
+ * There is one UserAccountService stub per user account shard in the
+ * ShardMap. Each stub is looked up once and reused until a call through it
+ * fails, at which point the caller resets it and the next call looks it up
+ * again.
+ *
+ * Word database calls go through a GuardedDatabase, whose CircuitBreaker
+ * decides when the Database stubs are looked up again, and whose
+ * ConcurrencyLimiter bounds the calls in flight.
+ *
+ * In a co-located deployment (see CoLocatedServer) the services are the
+ * implementations themselves, in the same JVM: calls go straight to them,
+ * without RMI, the breaker or the concurrency limit, and nothing is ever
+ * looked up.
+ */
+public class DownstreamServices {
+    private final ShardMap shardMap;
+    private final ConcurrentHashMap<String, UserAccountService> userAccountServices = new ConcurrentHashMap<>();
+    private final GuardedDatabase guardedDatabase;
+    private final boolean coLocated;
+    private volatile Database database;
+
+    /**
+     * Constructs a DownstreamServices.
+     *
+     * @param shardMap - The map of user account shards.
+     */
+    public DownstreamServices(ShardMap shardMap) {
+        this.shardMap = shardMap;
+        this.coLocated = false;
+        this.guardedDatabase = new GuardedDatabase(this, new CircuitBreaker("Word database",
+                Constants.WDBS_BREAKER_FAILURES, Constants.WDBS_BREAKER_OPEN_MS,
+                Constants.WDBS_BREAKER_MAX_OPEN_MS, Constants.WDBS_UNAVAILABLE),
+                new ConcurrencyLimiter("Word database", Constants.WDBS_MAX_CONCURRENT_CALLS,
+                        Constants.WDBS_ADMIT_WAIT_MS, Constants.WDBS_BUSY));
+    }
+
+    /**
+     * Constructs a DownstreamServices over in-process implementations.
+     *
+     * @param shardMap            - The map of user account shards.
+     * @param database            - The word database.
+     * @param userAccountServices - The user account service of every shard,
+     *                            keyed by shard id.
+     */
+    public DownstreamServices(ShardMap shardMap, Database database,
+            Map<String, UserAccountService> userAccountServices) {
+        this.shardMap = shardMap;
+        this.coLocated = true;
+        this.guardedDatabase = null;
+        this.database = database;
+        this.userAccountServices.putAll(userAccountServices);
+    }
+
+    /**
+     * Gets the map of user account shards.
+     *
+     * @return - The shard map.
+     */
+    public ShardMap getShardMap() {
+        return this.shardMap;
+    }
+
+    /**
+     * Gets the shared UserAccountService stub of a shard, looking it up if
+     * necessary.
+     *
+     * @param shard - The user account shard.
+     * @return - The UserAccountService stub.
+     * @throws RemoteException - if the user account microservice cannot be
+     *                         reached.
+     */
+    public UserAccountService userAccountService(ShardMap.Shard shard) throws RemoteException {
+        UserAccountService service = userAccountServices.get(shard.getId());
+        if (service == null) {
+            service = (UserAccountService) lookup(shard.getHost(), shard.getPort(), "UserAccountService",
+                    Constants.CANT_COMMUNICATE_UAS);
+            UserAccountService existing = userAccountServices.putIfAbsent(shard.getId(), service);
+            if (existing != null) {
+                service = existing;
+            }
+        }
+        return service;
+    }
+
+    /**
+     * Discards a UserAccountService stub that failed, unless it has already
+     * been replaced.
+     *
+     * @param shard - The user account shard.
+     * @param stale - The stub that failed.
+     */
+    public void resetUserAccountService(ShardMap.Shard shard, UserAccountService stale) {
+        if (coLocated) {
+            return;
+        }
+        userAccountServices.remove(shard.getId(), stale);
+    }
+
+    /**
+     * Gets the shared Database, which guards every call with the word
+     * database circuit breaker and a deadline, or the in-process database
+     * if co-located.
+     *
+     * @return - The Database.
+     */
+    public Database database() {
+        return coLocated ? this.database : this.guardedDatabase;
+    }
+
+    /**
+     * Gets the limit on calls in flight to the word database.
+     *
+     * @return - The limiter, or null if co-located.
+     */
+    public ConcurrencyLimiter getDatabaseLimiter() {
+        return coLocated ? null : this.guardedDatabase.getLimiter();
+    }
+
+    /**
+     * Gets the Database stubs, looking them up if this has not been done yet.
+     * Used by the GuardedDatabase; other callers should use database().
+     *
+     * @return - A ReplicatedDatabase over the stubs.
+     * @throws RemoteException - if the primary word database microservice
+     *                         cannot be reached.
+     */
+    Database connectedDatabase() throws RemoteException {
+        Database service = this.database;
+        if (service == null) {
+            synchronized (this) {
+                service = this.database;
+                if (service == null) {
+                    service = reconnectDatabase();
+                }
+            }
+        }
+        return service;
+    }
+
+    /**
+     * Looks up the Database stubs again, replacing the shared ones.
+     *
+     * Details: the primary and every replica listed in
+     * Constants.REPLICA_LIST_FILE are looked up; replicas that cannot be
+     * reached are left out until the next reconnect. Co-located services are
+     * kept as they are.
+     *
+     * @return - A ReplicatedDatabase over the new stubs.
+     * @throws RemoteException - if the primary word database microservice
+     *                         cannot be reached.
+     */
+    public synchronized Database reconnectDatabase() throws RemoteException {
+        if (coLocated) {
+            return this.database;
+        }
+        Database primary = (Database) lookup("localhost", Constants.WDBS_PORT, "DatabaseService",
+                Constants.CANT_COMMUNICATE_WDBS);
+
+        Map<String, Database> replicas = new LinkedHashMap<>();
+        try {
+            for (String[] address : ReplicatedDatabase.loadReplicaAddresses()) {
+                try {
+                    replicas.put(address[0] + ":" + address[1], (Database) lookup(address[0],
+                            Integer.parseInt(address[1]), "DatabaseService", Constants.CANT_COMMUNICATE_WDBS));
+                } catch (RemoteException | RuntimeException e) {
+                    System.out.println("Word database replica " + String.join(" ", address) + " offline");
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("Could not read word database replica list: " + e.getMessage());
+        }
+
+        this.database = new ReplicatedDatabase(primary, replicas);
+        System.out.println("Connected to Database (" + replicas.size() + " replicas)");
+        return this.database;
+    }
+
+    /**
+     * Looks up a remote object in the registry on the given host and port.
+     *
+     * @param host         - The registry host.
+     * @param port         - The registry port.
+     * @param name         - The name the object is bound under.
+     * @param errorMessage - The message to report if the lookup fails.
+     * @return - The stub for the remote object.
+     * @throws RemoteException - if the registry or object cannot be reached.
+     */
+    private static Object lookup(String host, int port, String name, String errorMessage)
+            throws RemoteException {
+        try {
+            Registry registry = LocateRegistry.getRegistry(host, port);
+            return registry.lookup(name);
+        } catch (RemoteException e) {
+            throw new RemoteException(errorMessage, e);
+        } catch (NotBoundException e) {
+            throw new RemoteException(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package GameServer;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Append-only binary log of game events (games started, guesses, wins and
+ * losses, words added and removed), for offline analysis with
+ * EventLogReader.
+ *
+ * Recording an event never blocks and never does I/O: request threads claim
+ * a slot in a fixed ring buffer of Constants.EVENT_LOG_CAPACITY events with
+ * a compare-and-set, fill it in and publish it. A single writer thread
+ * drains the ring in order into the current segment file, and flushes it
+ * whenever the ring is empty. If the writer falls a whole ring behind, new
+ * events are dropped and counted rather than holding up requests.
+ *
+ * Segments are named events-<startMillis>-<n>.log; a new segment is started
+ * when the current one reaches Constants.EVENT_LOG_SEGMENT_BYTES, and the
+ * oldest are deleted beyond Constants.EVENT_LOG_MAX_SEGMENTS. Each segment
+ * starts with FILE_MAGIC and FILE_VERSION, followed by records of: type
+ * (byte), time (long, ms since the epoch), username (UTF), two ints whose
+ * meaning depends on the type, and text (UTF).
+ */
+public class EventLog {
+    public static final int FILE_MAGIC = 0x47455654; // "GEVT"
+    public static final int FILE_VERSION = 1;
+
+    /**
+     * The kinds of game event, with the meaning of their fields.
+     */
+    public enum Type {
+        // value1 = word count, value2 = attempts, text = difficulty
+        GAME_STARTED,
+        // value1 = 1 for a hit and 0 for a miss, value2 = cells revealed,
+        // text = the guess
+        GUESS,
+        // value1 = score after the game, value2 = attempts left
+        WIN,
+        // value1 = score, value2 = attempts left (0)
+        LOSS,
+        // text = the word
+        WORD_ADDED,
+        // text = the word
+        WORD_REMOVED;
+
+        private static final Type[] VALUES = values();
+
+        /**
+         * Gets the type recorded with a code.
+         *
+         * @param code - The code (the ordinal).
+         * @return - The type, or null if the code is unknown.
+         */
+        public static Type fromCode(int code) {
+            return code >= 0 && code < VALUES.length ? VALUES[code] : null;
+        }
+    }
+
+    /**
+     * A ring buffer slot. Its fields are written by the producer that claimed
+     * it before it stores the slot's sequence number, and read by the writer
+     * after it sees that number.
+     */
+    private static final class Slot {
+        private volatile long sequence = -1;
+        private Type type;
+        private long time;
+        private String username;
+        private int value1;
+        private int value2;
+        private String text;
+    }
+
+    private final Path directory;
+    private final Slot[] ring;
+    private final int mask;
+    // Next sequence number to claim, and next to be written
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread writer;
+    private volatile boolean closed;
+
+    private final String segmentPrefix;
+    private int segmentNumber;
+    private DataOutputStream segment;
+
+    /**
+     * Constructs an EventLog writing to a directory, and starts its writer
+     * thread.
+     *
+     * @param directory - The directory for the segment files; created if
+     *                  missing.
+     */
+    public EventLog(Path directory) {
+        this.directory = directory;
+        int capacity = Integer.highestOneBit(Math.max(2, Constants.EVENT_LOG_CAPACITY));
+        this.ring = new Slot[capacity];
+        for (int i = 0; i < capacity; i++) {
+            this.ring[i] = new Slot();
+        }
+        this.mask = capacity - 1;
+        this.segmentPrefix = "events-" + System.currentTimeMillis() + "-";
+
+        this.writer = new Thread(this::drain, "event-log-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close, "event-log-close"));
+    }
+
+    /**
+     * Records an event. Never blocks; the event is dropped if the ring is
+     * full or the log is closed.
+     *
+     * @param type     - The type of event.
+     * @param username - The user the event is about.
+     * @param value1   - The first value (see Type).
+     * @param value2   - The second value (see Type).
+     * @param text     - The text (see Type), or null.
+     * @return - true if the event was recorded, false if it was dropped.
+     */
+    public boolean record(Type type, String username, int value1, int value2, String text) {
+        long sequence;
+        do {
+            sequence = claimed.get();
+            if (closed || sequence - written.get() >= ring.length) {
+                dropped.incrementAndGet();
+                return false;
+            }
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+
+        Slot slot = ring[(int) sequence & mask];
+        slot.type = type;
+        slot.time = System.currentTimeMillis();
+        slot.username = username;
+        slot.value1 = value1;
+        slot.value2 = value2;
+        slot.text = text;
+        slot.sequence = sequence;
+        return true;
+    }
+
+    /**
+     * Gets the number of events dropped because the ring was full.
+     *
+     * @return - The number of dropped events.
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Writes the events in the ring until the log is closed and drained; run
+     * by the writer thread.
+     */
+    private void drain() {
+        long next = written.get();
+        boolean unflushed = false;
+        while (true) {
+            Slot slot = ring[(int) next & mask];
+            if (slot.sequence != next) {
+                // The ring is empty, or the next event is still being filled in
+                if (next == claimed.get() && closed) {
+                    break;
+                }
+                if (unflushed) {
+                    flushSegment();
+                    unflushed = false;
+                }
+                LockSupport.parkNanos(Constants.EVENT_LOG_IDLE_PARK_NS);
+                continue;
+            }
+            writeRecord(slot);
+            unflushed = true;
+            slot.username = null;
+            slot.text = null;
+            written.lazySet(++next);
+        }
+        closeSegment();
+    }
+
+    /**
+     * Writes one event to the current segment, starting a new segment if
+     * needed. An event that cannot be written is counted as dropped.
+     *
+     * @param slot - The slot holding the event.
+     */
+    private void writeRecord(Slot slot) {
+        try {
+            if (segment == null || segment.size() >= Constants.EVENT_LOG_SEGMENT_BYTES) {
+                rollSegment();
+            }
+            segment.writeByte(slot.type.ordinal());
+            segment.writeLong(slot.time);
+            segment.writeUTF(slot.username == null ? "" : slot.username);
+            segment.writeInt(slot.value1);
+            segment.writeInt(slot.value2);
+            segment.writeUTF(slot.text == null ? "" : slot.text);
+        } catch (IOException e) {
+            dropped.incrementAndGet();
+            System.out.println("Could not write event log: " + e.getMessage());
+            closeSegment();
+        }
+    }
+
+    /**
+     * Closes the current segment, starts the next one and deletes the oldest
+     * segments beyond the limit.
+     *
+     * @throws IOException - if the new segment cannot be created.
+     */
+    private void rollSegment() throws IOException {
+        closeSegment();
+        Files.createDirectories(directory);
+        Path file = directory.resolve(segmentPrefix + (segmentNumber++) + ".log");
+        segment = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file),
+                Constants.SOCKET_BUFFER_SIZE));
+        segment.writeInt(FILE_MAGIC);
+        segment.writeInt(FILE_VERSION);
+
+        File[] segments = directory.toFile().listFiles(
+                (dir, name) -> name.startsWith("events-") && name.endsWith(".log"));
+        if (segments != null && segments.length > Constants.EVENT_LOG_MAX_SEGMENTS) {
+            Arrays.sort(segments, Comparator.comparingLong(File::lastModified).thenComparing(File::getName));
+            for (int i = 0; i < segments.length - Constants.EVENT_LOG_MAX_SEGMENTS; i++) {
+                if (!segments[i].toPath().equals(file)) {
+                    segments[i].delete();
+                }
+            }
+        }
+    }
+
+    private void flushSegment() {
+        if (segment != null) {
+            try {
+                segment.flush();
+            } catch (IOException e) {
+                System.out.println("Could not flush event log: " + e.getMessage());
+            }
+        }
+    }
+
+    private void closeSegment() {
+        if (segment != null) {
+            try {
+                segment.close();
+            } catch (IOException e) {
+                System.out.println("Could not close event log: " + e.getMessage());
+            }
+            segment = null;
+        }
+    }
+
+    /**
+     * Stops recording events and waits for the writer to write the events
+     * already recorded; run on shutdown.
+     */
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            writer.join(Constants.EVENT_LOG_CLOSE_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (dropped.get() > 0) {
+            System.out.println("Event log dropped " + dropped.get() + " events.");
+        }
+    }
+}
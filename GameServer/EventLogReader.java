@@ -0,0 +1,173 @@
+package GameServer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+
+/**
+ * Converts game event log segments (see EventLog) to CSV for offline
+ * analysis.
+ *
+ * The CSV has one row per event, with columns time (ISO-8601), event,
+ * username, word_count, attempts, hit, cells_revealed, score and text; each
+ * event fills the columns that apply to it. Segments are read in the order
+ * they were written. A segment cut short by a crash is read up to its last
+ * complete event.
+ *
+ * Usage: EventLogReader output.csv [directory|segment...] (default
+ * Constants.EVENT_LOG_DIRECTORY)
+ */
+public class EventLogReader {
+    private static final String[] HEADER = { "time", "event", "username", "word_count", "attempts", "hit",
+            "cells_revealed", "score", "text" };
+
+    /**
+     * Main method to run the reader.
+     *
+     * @param args - Command-line arguments: output.csv [directory|segment...].
+     */
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.err.println("Usage: EventLogReader output.csv [directory|segment...]");
+            return;
+        }
+
+        try {
+            List<Path> segments = new ArrayList<>();
+            if (args.length == 1) {
+                segments.addAll(listSegments(Paths.get(Constants.EVENT_LOG_DIRECTORY)));
+            }
+            for (int i = 1; i < args.length; i++) {
+                Path path = Paths.get(args[i]);
+                if (Files.isDirectory(path)) {
+                    segments.addAll(listSegments(path));
+                } else {
+                    segments.add(path);
+                }
+            }
+
+            long events = 0;
+            try (BufferedWriter writer = Files.newBufferedWriter(Paths.get(args[0]), StandardCharsets.UTF_8);
+                    CSVPrinter printer = new CSVPrinter(writer, CSVFormat.DEFAULT.builder().setHeader(HEADER).build())) {
+                for (Path segment : segments) {
+                    events += convert(segment, printer);
+                }
+            }
+            System.out.println("Wrote " + events + " events from " + segments.size() + " segments to " + args[0]);
+        } catch (IOException e) {
+            System.err.println("Could not convert event log: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Lists the segments in a directory in the order they were written: by
+     * start time of the writing process, then by number.
+     *
+     * @param directory - The event log directory.
+     * @return - The segments.
+     * @throws IOException - if the directory cannot be listed.
+     */
+    private static List<Path> listSegments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> segmentOrder(file) != null)
+                    .sorted(Comparator.<Path>comparingLong(file -> segmentOrder(file)[0])
+                            .thenComparingLong(file -> segmentOrder(file)[1]))
+                    .toList();
+        }
+    }
+
+    /**
+     * Parses the start time and number from a segment's name,
+     * events-startMillis-n.log.
+     *
+     * @param file - The file.
+     * @return - The start time and number, or null if the file is not a
+     *         segment.
+     */
+    private static long[] segmentOrder(Path file) {
+        String[] parts = file.getFileName().toString().split("[-.]");
+        if (parts.length != 4 || !parts[0].equals("events") || !parts[3].equals("log")) {
+            return null;
+        }
+        try {
+            return new long[] { Long.parseLong(parts[1]), Long.parseLong(parts[2]) };
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Writes the events of one segment as CSV rows.
+     *
+     * @param segment - The segment file.
+     * @param printer - The CSV output.
+     * @return - The number of events written.
+     * @throws IOException - if the segment cannot be read or is not a segment.
+     */
+    private static long convert(Path segment, CSVPrinter printer) throws IOException {
+        long events = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(segment)))) {
+            if (in.readInt() != EventLog.FILE_MAGIC || in.readInt() != EventLog.FILE_VERSION) {
+                throw new IOException(segment + " is not an event log segment of version " + EventLog.FILE_VERSION);
+            }
+            while (true) {
+                int code = in.read();
+                if (code < 0) {
+                    break;
+                }
+                EventLog.Type type = EventLog.Type.fromCode(code);
+                if (type == null) {
+                    throw new IOException(segment + " has an unknown event type " + code);
+                }
+                long time = in.readLong();
+                String username = in.readUTF();
+                int value1 = in.readInt();
+                int value2 = in.readInt();
+                String text = in.readUTF();
+                printRow(printer, type, time, username, value1, value2, text);
+                events++;
+            }
+        } catch (EOFException e) {
+            System.out.println(segment + " ends with an incomplete event; skipped it.");
+        }
+        return events;
+    }
+
+    private static void printRow(CSVPrinter printer, EventLog.Type type, long time, String username, int value1,
+            int value2, String text) throws IOException {
+        Object wordCount = null, attempts = null, hit = null, cellsRevealed = null, score = null;
+        switch (type) {
+            case GAME_STARTED:
+                wordCount = value1;
+                attempts = value2;
+                break;
+            case GUESS:
+                hit = value1;
+                cellsRevealed = value2;
+                break;
+            case WIN:
+            case LOSS:
+                score = value1;
+                attempts = value2;
+                break;
+            default:
+                break;
+        }
+        printer.printRecord(Instant.ofEpochMilli(time), type, username, wordCount, attempts, hit, cellsRevealed,
+                score, text);
+    }
+}
@@ -0,0 +1,55 @@
+package GameServer;
+
+import java.rmi.Remote;
+import java.rmi.RemoteException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Live gameplay analytics of a game server, bound as "Analytics" in its
+ * registry. Counts are approximate (see SlidingTopK) but never below the
+ * true counts, and are kept for up to Constants.ANALYTICS_BUCKETS buckets of
+ * Constants.ANALYTICS_BUCKET_MS.
+ */
+public interface GameAnalytics extends Remote {
+
+    /**
+     * The gameplay streams that are counted.
+     */
+    enum Stream {
+        // Word guesses
+        GUESSED_WORDS,
+        // Letters guessed as the opening guess of a game
+        FIRST_LETTERS,
+        // Words looked up in the word database during games
+        QUERIED_WORDS,
+        // Puzzle words revealed by the end of a game
+        SOLVED_WORDS,
+        // Puzzle words still hidden at the end of a lost game
+        UNSOLVED_WORDS,
+        // UNSOLVED_WORDS that were not solved in any game in the window
+        NEVER_SOLVED_WORDS
+    }
+
+    /**
+     * Gets the most frequent keys of a stream over a window ending now.
+     *
+     * @param stream   - The stream.
+     * @param k        - The maximum number of keys, at most
+     *                 Constants.ANALYTICS_MAX_K.
+     * @param windowMs - The window length, rounded up to whole buckets.
+     * @return - The keys and their estimated counts, most frequent first.
+     * @throws RemoteException - if there is an issue with remote communication.
+     */
+    List<HeavyHitter> top(Stream stream, int k, long windowMs) throws RemoteException;
+
+    /**
+     * Gets the number of requests refused since the game server started:
+     * per class of request over the per-user rate limits, and as
+     * "DATABASE_BUSY" over the limit on word database calls in flight.
+     *
+     * @return - The counts, by name.
+     * @throws RemoteException - if there is an issue with remote communication.
+     */
+    Map<String, Long> getThrottledCalls() throws RemoteException;
+}
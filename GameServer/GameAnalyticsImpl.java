@@ -0,0 +1,100 @@
+package GameServer;
+
+import java.rmi.RemoteException;
+import java.rmi.server.UnicastRemoteObject;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import UserAccountServer.GameState;
+
+/**
+ * Counts gameplay streams for GameAnalytics as games are played: guesses
+ * and game results from processPuzzleGuess, and word lookups from
+ * processWordQuery. Each stream is a SlidingTopK, so memory is fixed however
+ * many requests are counted. Keys are counted in lower case. Throttled
+ * requests are read from the game server's limiters.
+ */
+public class GameAnalyticsImpl extends UnicastRemoteObject implements GameAnalytics {
+    private final Map<Stream, SlidingTopK> streams = new EnumMap<>(Stream.class);
+    private final RateLimiter rateLimiter;
+    private final ConcurrencyLimiter databaseLimiter;
+
+    /**
+     * Constructs a GameAnalyticsImpl with empty streams.
+     *
+     * @param rateLimiter     - The per-user rate limits of the game server.
+     * @param databaseLimiter - The limit on word database calls in flight,
+     *                        or null if there is none.
+     * @throws RemoteException - if the object cannot be exported.
+     */
+    public GameAnalyticsImpl(RateLimiter rateLimiter, ConcurrencyLimiter databaseLimiter) throws RemoteException {
+        super(0, ServiceSockets.GAME_SERVER.client(), ServiceSockets.GAME_SERVER.server());
+        this.rateLimiter = rateLimiter;
+        this.databaseLimiter = databaseLimiter;
+        for (Stream stream : Stream.values()) {
+            if (stream != Stream.NEVER_SOLVED_WORDS) {
+                streams.put(stream, new SlidingTopK());
+            }
+        }
+    }
+
+    /**
+     * Counts a puzzle guess.
+     *
+     * @param guess   - The guess.
+     * @param opening - true if it is the first guess of the game.
+     */
+    public void recordGuess(String guess, boolean opening) {
+        if (guess.length() > 1) {
+            streams.get(Stream.GUESSED_WORDS).add(guess.toLowerCase(Locale.ROOT));
+        } else if (opening) {
+            streams.get(Stream.FIRST_LETTERS).add(guess.toLowerCase(Locale.ROOT));
+        }
+    }
+
+    /**
+     * Counts a word looked up during a game.
+     *
+     * @param word - The word.
+     */
+    public void recordQuery(String word) {
+        streams.get(Stream.QUERIED_WORDS).add(word.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Counts the words of a finished game as solved or unsolved.
+     *
+     * @param gameState - The state of the game that just ended.
+     */
+    public void recordGameEnd(GameState gameState) {
+        for (String word : gameState.getWords()) {
+            boolean solved = gameState.getPuzzle().isWordRevealed(word);
+            streams.get(solved ? Stream.SOLVED_WORDS : Stream.UNSOLVED_WORDS).add(word.toLowerCase(Locale.ROOT));
+        }
+    }
+
+    @Override
+    public List<HeavyHitter> top(Stream stream, int k, long windowMs) throws RemoteException {
+        int count = Math.max(0, Math.min(k, Constants.ANALYTICS_MAX_K));
+        if (stream == Stream.NEVER_SOLVED_WORDS) {
+            // A count-min estimate of 0 is exact: the word was never solved
+            SlidingTopK solved = streams.get(Stream.SOLVED_WORDS);
+            return streams.get(Stream.UNSOLVED_WORDS).top(count, windowMs,
+                    word -> solved.estimate(word, windowMs) == 0);
+        }
+        return streams.get(stream).top(count, windowMs, word -> true);
+    }
+
+    @Override
+    public Map<String, Long> getThrottledCalls() throws RemoteException {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (RateLimiter.Operation operation : RateLimiter.Operation.values()) {
+            counts.put(operation.name(), rateLimiter.getThrottled(operation));
+        }
+        counts.put("DATABASE_BUSY", databaseLimiter == null ? 0 : databaseLimiter.getRejectedCalls());
+        return counts;
+    }
+}
@@ -0,0 +1,284 @@
+package GameServer;
+
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import UserAccountServer.Puzzle;
+
+/**
+ * A puzzle shared by the members of a room, who guess together against one
+ * pool of attempts.
+ *
+ * Details: changes to the room (guesses, joins and leaves) are not pushed one
+ * by one. The first change after an update schedules a flush
+ * Constants.ROOM_COALESCE_MS later, and every change until then goes into
+ * that one RoomUpdate, so a burst of guesses costs each member one callback.
+ * Each member has its own mailbox and delivery thread: an update offered
+ * while the previous one is still being delivered is merged into the one
+ * waiting (see RoomUpdate.followedBy), so a slow member receives fewer,
+ * larger updates and never holds up the room or the other members. A member
+ * whose listener cannot be reached or fails is dropped.
+ */
+public class GameRoom {
+    private final String id;
+    private final String[] words;
+    private final Puzzle puzzle;
+    private final ScheduledExecutorService flusher;
+    private final ConcurrentHashMap<String, Member> members = new ConcurrentHashMap<>();
+
+    // Guarded by this
+    private final Set<String> guesses = new HashSet<>();
+    private final List<String> pendingEvents = new ArrayList<>();
+    private int pendingSkipped;
+    private boolean flushScheduled;
+    private int attempts;
+    private long version;
+    private String result;
+
+    private volatile long lastActive = System.currentTimeMillis();
+
+    /**
+     * A member of the room and its mailbox.
+     */
+    private class Member {
+        private final String username;
+        private final RoomListener listener;
+
+        // Guarded by this
+        private RoomUpdate waiting;
+        private boolean delivering;
+
+        Member(String username, RoomListener listener) {
+            this.username = username;
+            this.listener = listener;
+        }
+
+        /**
+         * Queues an update, starting a delivery thread unless one is running.
+         *
+         * @param update - The update.
+         */
+        void offer(RoomUpdate update) {
+            synchronized (this) {
+                waiting = waiting == null ? update : waiting.followedBy(update);
+                if (delivering) {
+                    return;
+                }
+                delivering = true;
+            }
+            Thread.ofVirtual().name("room-" + id + "-" + username).start(this::deliver);
+        }
+
+        /**
+         * Delivers updates until the mailbox is empty.
+         */
+        private void deliver() {
+            while (true) {
+                RoomUpdate update;
+                synchronized (this) {
+                    update = waiting;
+                    waiting = null;
+                    if (update == null) {
+                        delivering = false;
+                        return;
+                    }
+                }
+                try {
+                    listener.onRoomUpdate(update);
+                } catch (RemoteException | RuntimeException e) {
+                    // A listener that fails in any way gets no more updates,
+                    // so it is dropped rather than left with delivering set
+                    System.err.println("Dropping room " + id + " member " + username + ": " + e);
+                    leave(username, this);
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Constructs a GameRoom.
+     *
+     * @param id       - The room id.
+     * @param words    - The puzzle words, stem first.
+     * @param attempts - The attempts shared by the members.
+     * @param flusher  - The scheduler to run the coalesced flushes on.
+     */
+    public GameRoom(String id, String[] words, int attempts, ScheduledExecutorService flusher) {
+        this.id = id;
+        this.words = words;
+        this.puzzle = new Puzzle(words);
+        this.attempts = attempts;
+        this.flusher = flusher;
+    }
+
+    public String getId() {
+        return this.id;
+    }
+
+    /**
+     * Adds a member, replacing the listener if the user is already a member.
+     *
+     * @param username - The username.
+     * @param listener - The listener to push updates to.
+     * @return - The current state of the room.
+     * @throws RemoteException - if the room is full.
+     */
+    public RoomUpdate join(String username, RoomListener listener) throws RemoteException {
+        synchronized (this) {
+            if (!members.containsKey(username) && members.size() >= Constants.ROOM_MAX_MEMBERS) {
+                throw new RemoteException(Constants.ROOM_FULL);
+            }
+            members.put(username, new Member(username, listener));
+            addEvent(username + " joined.");
+            return snapshot(List.of(), 0);
+        }
+    }
+
+    /**
+     * Removes a member.
+     *
+     * @param username - The username.
+     * @return - true if the user was a member, false otherwise.
+     */
+    public boolean leave(String username) {
+        return leave(username, null);
+    }
+
+    /**
+     * Removes a member, if it is still the given one.
+     *
+     * @param username - The username.
+     * @param member   - The member to remove, or null for any.
+     * @return - true if a member was removed, false otherwise.
+     */
+    private boolean leave(String username, Member member) {
+        synchronized (this) {
+            boolean removed = member == null ? members.remove(username) != null : members.remove(username, member);
+            if (removed) {
+                addEvent(username + " left.");
+            }
+            return removed;
+        }
+    }
+
+    /**
+     * Applies a member's guess to the shared puzzle.
+     *
+     * @param username - The username.
+     * @param input    - The letter or word guessed.
+     * @return - A message for the member who guessed.
+     * @throws RemoteException - if the user is not a member, the game is over
+     *                         or the guess was already made in this room.
+     */
+    public synchronized String guess(String username, String input) throws RemoteException {
+        if (!members.containsKey(username)) {
+            throw new RemoteException(Constants.NOT_IN_ROOM);
+        }
+        if (result != null) {
+            throw new RemoteException(Constants.ROOM_FINISHED);
+        }
+        String guess = input.toLowerCase(Locale.ROOT);
+        if (!guesses.add(guess)) {
+            throw new RemoteException(Constants.ALREADY_GUESSED);
+        }
+
+        int hiddenCells = puzzle.countHiddenCells();
+        boolean successfulGuess = puzzle.updatePuzzleGrid(guess);
+        int revealed = hiddenCells - puzzle.countHiddenCells();
+        attempts--;
+
+        String message;
+        if (successfulGuess) {
+            message = "\n*Successful guess: '" + guess + "'. Puzzle updated.";
+            addEvent(username + " guessed '" + guess + "' (" + revealed + " cells revealed).");
+        } else {
+            message = "\n*Unsuccessful guess: '" + guess + "'.";
+            addEvent(username + " guessed '" + guess + "' (miss).");
+        }
+
+        if (puzzle.checkPuzzleSolved()) {
+            result = "Solved by the room! Last word from " + username + ".";
+        } else if (attempts == 0) {
+            result = "Out of attempts. The words were: " + String.join(", ", words) + ".";
+        }
+        return message;
+    }
+
+    /**
+     * Checks whether the room's game is over.
+     *
+     * @return - true if the puzzle is solved or out of attempts.
+     */
+    public synchronized boolean isFinished() {
+        return result != null;
+    }
+
+    /**
+     * Checks whether the room has had no members for longer than a timeout.
+     *
+     * @param now       - The current time in ms.
+     * @param timeoutMs - The timeout in ms.
+     * @return - true if the room is empty and idle.
+     */
+    public boolean isIdle(long now, long timeoutMs) {
+        return members.isEmpty() && now - lastActive > timeoutMs;
+    }
+
+    /**
+     * Records a change and schedules a flush if none is pending. Must be
+     * called holding the lock.
+     *
+     * @param event - The description of the change.
+     */
+    private void addEvent(String event) {
+        version++;
+        lastActive = System.currentTimeMillis();
+        if (pendingEvents.size() < Constants.ROOM_MAX_EVENTS_PER_UPDATE) {
+            pendingEvents.add(event);
+        } else {
+            pendingSkipped++;
+        }
+        if (!flushScheduled) {
+            flushScheduled = true;
+            flusher.schedule(this::flush, Constants.ROOM_COALESCE_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Builds one update from the changes since the last flush and offers it
+     * to every member.
+     */
+    private void flush() {
+        RoomUpdate update;
+        synchronized (this) {
+            flushScheduled = false;
+            update = snapshot(new ArrayList<>(pendingEvents), pendingSkipped);
+            pendingEvents.clear();
+            pendingSkipped = 0;
+        }
+        for (Member member : members.values()) {
+            member.offer(update);
+        }
+    }
+
+    /**
+     * Builds an update with the current state of the room. Must be called
+     * holding the lock.
+     *
+     * @param events  - The events to list.
+     * @param skipped - The number of events not listed.
+     * @return - The update.
+     */
+    private RoomUpdate snapshot(List<String> events, int skipped) {
+        return new RoomUpdate(id, version, puzzle.getPuzzleString(), attempts, members.size(), events, skipped,
+                result);
+    }
+}
@@ -0,0 +1,40 @@
+package GameServer;
+
+import java.rmi.Remote;
+import java.rmi.RemoteException;
+
+/**
+ * The GameRouter interface defines the remote methods of the router that
+ * spreads users over several game server nodes.
+ */
+public interface GameRouter extends Remote {
+
+    /**
+     * Registers a game server node, or renews its registration. A node that
+     * does not renew its registration within Constants.ROUTER_LEASE_MS is
+     * removed.
+     *
+     * @param nodeId  - The unique id of the node.
+     * @param factory - The node's ServerFactory.
+     * @throws RemoteException - if there is an issue with remote communication.
+     */
+    void registerNode(String nodeId, ServerFactory factory) throws RemoteException;
+
+    /**
+     * Removes a game server node. New sessions for the node's users are routed
+     * to the remaining nodes.
+     *
+     * @param nodeId - The id of the node to remove.
+     * @throws RemoteException - if there is an issue with remote communication.
+     */
+    void unregisterNode(String nodeId) throws RemoteException;
+
+    /**
+     * Gets the ServerFactory of the node that serves a user.
+     *
+     * @param username - The username to route.
+     * @return - The ServerFactory of the user's node.
+     * @throws RemoteException - if no node is registered.
+     */
+    ServerFactory route(String username) throws RemoteException;
+}
@@ -0,0 +1,146 @@
+package GameServer;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Represents one client's session with the game server.
+ *
+ * A session is opened when the client obtains a ServerInterface from the
+ * ServerFactory, is bound to a username once the client logs in, and is
+ * closed on logout or when the client stops sending requests.
+ */
+public class GameSession {
+    private final long id;
+    private volatile String username;
+    private volatile long lastSeen;
+
+    // Responses to the most recent requests, keyed by sequence number, so that
+    // retried requests are answered without being executed twice
+    private final Map<Integer, Object> responses = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Object> eldest) {
+            return size() > Constants.SESSION_RESPONSE_CACHE_SIZE;
+        }
+    };
+
+    // The last save made on this session. Saves share sequence numbers with
+    // other requests, so they are not recorded with the responses
+    private int lastSaveSequence;
+    private String lastSaveData;
+
+    /**
+     * Constructs a GameSession with the given id.
+     *
+     * @param id - The session id.
+     */
+    public GameSession(long id) {
+        this.id = id;
+        touch();
+    }
+
+    /**
+     * Gets the session id.
+     *
+     * @return - The session id.
+     */
+    public long getId() {
+        return this.id;
+    }
+
+    /**
+     * Gets the username bound to this session.
+     *
+     * @return - The username, or null if the client has not logged in yet.
+     */
+    public String getUsername() {
+        return this.username;
+    }
+
+    /**
+     * Binds a username to this session.
+     *
+     * @param username - The username of the logged in user.
+     */
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    /**
+     * Records activity on this session.
+     */
+    public void touch() {
+        this.lastSeen = System.currentTimeMillis();
+    }
+
+    /**
+     * Gets the time of the last request on this session.
+     *
+     * @return - The time of the last request, in milliseconds since the epoch.
+     */
+    public long getLastSeen() {
+        return this.lastSeen;
+    }
+
+    /**
+     * Checks whether a response has been recorded for a sequence number.
+     *
+     * @param sequence - The request sequence number.
+     * @return - true if a response was recorded, false otherwise.
+     */
+    public synchronized boolean hasResponse(int sequence) {
+        return this.responses.containsKey(sequence);
+    }
+
+    /**
+     * Gets the response recorded for a sequence number.
+     *
+     * @param sequence - The request sequence number.
+     * @return - The recorded response, or null if none was recorded.
+     */
+    public synchronized Object getResponse(int sequence) {
+        return this.responses.get(sequence);
+    }
+
+    /**
+     * Records the response to a request.
+     *
+     * @param sequence - The request sequence number.
+     * @param response - The response sent to the client.
+     */
+    public synchronized void putResponse(int sequence, Object response) {
+        this.responses.put(sequence, response);
+    }
+
+    /**
+     * Checks whether a save repeats the last save made on this session: the
+     * same sequence number and the same user data.
+     *
+     * @param sequence - The request sequence number.
+     * @param data     - The user data to save, as written to the save file.
+     * @return - true if the save was already made, false otherwise.
+     */
+    public synchronized boolean isLastSave(int sequence, String data) {
+        return this.lastSaveData != null && this.lastSaveSequence == sequence && this.lastSaveData.equals(data);
+    }
+
+    /**
+     * Records a save made on this session.
+     *
+     * @param sequence - The request sequence number.
+     * @param data     - The user data saved, as written to the save file.
+     */
+    public synchronized void putLastSave(int sequence, String data) {
+        this.lastSaveSequence = sequence;
+        this.lastSaveData = data;
+    }
+
+    /**
+     * Gets the recorded responses.
+     *
+     * @return - A copy of the recorded responses, oldest first.
+     */
+    public synchronized Map<Integer, Object> getResponses() {
+        return new LinkedHashMap<>(this.responses);
+    }
+}
@@ -0,0 +1,326 @@
+package GameServer;
+
+import java.rmi.RemoteException;
+import java.rmi.ServerError;
+import java.rmi.ServerException;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import DatabaseServer.ChangeBatch;
+import DatabaseServer.Database;
+import DatabaseServer.DictionaryListener;
+import DatabaseServer.Difficulty;
+import DatabaseServer.ImportResult;
+import DatabaseServer.PatternPage;
+import DatabaseServer.ReplicationStatus;
+import DatabaseServer.SnapshotPage;
+
+/**
+ * Local Database that makes every call to the word database microservice
+ * through a ConcurrencyLimiter and a CircuitBreaker, with a deadline.
+ *
+ * Each call runs on a virtual thread and is abandoned once it has run for
+ * Constants.WDBS_CALL_TIMEOUT_MS; the caller gets a RemoteException instead of
+ * waiting on a dead link. Timeouts and communication failures count against
+ * the breaker, errors raised by the microservice itself do not. While the
+ * breaker is open calls fail at once, and the stubs are only looked up again
+ * by the probe call, so a failing database costs one registry lookup per open
+ * interval rather than one per call.
+ *
+ * A call holds its ConcurrencyLimiter permit until it has ended, even once
+ * abandoned, so calls stuck on a slow database count against the limit.
+ * Imports and long polls are made outside the limit: they are rare, and a
+ * long poll would hold a permit for the whole wait.
+ */
+public class GuardedDatabase implements Database {
+
+    private static final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * Call made through a Database stub.
+     */
+    @FunctionalInterface
+    private interface DatabaseCall<T> {
+        T call(Database database) throws RemoteException, SQLException;
+    }
+
+    /**
+     * Guarded call of a method that does not declare SQLException.
+     */
+    @FunctionalInterface
+    private interface GuardedCall<T> {
+        T call() throws RemoteException, SQLException;
+    }
+
+    private final DownstreamServices downstream;
+    private final CircuitBreaker breaker;
+    private final ConcurrencyLimiter limiter;
+
+    /**
+     * Constructs a GuardedDatabase.
+     *
+     * @param downstream - The shared stubs, from which the Database stub is
+     *                   taken for each call.
+     * @param breaker    - The breaker guarding the word database link.
+     * @param limiter    - The limit on calls in flight to the word database.
+     */
+    public GuardedDatabase(DownstreamServices downstream, CircuitBreaker breaker, ConcurrencyLimiter limiter) {
+        this.downstream = downstream;
+        this.breaker = breaker;
+        this.limiter = limiter;
+    }
+
+    /**
+     * Makes a call with the default deadline, within the concurrency limit.
+     */
+    private <T> T call(DatabaseCall<T> call) throws RemoteException, SQLException {
+        return call(Constants.WDBS_CALL_TIMEOUT_MS, true, call);
+    }
+
+    /**
+     * Makes a call through the breaker.
+     *
+     * @param timeoutMillis - The deadline of the call, or 0 for none.
+     * @param limited       - true if the call counts against the
+     *                      concurrency limit.
+     * @param call          - The call.
+     * @return - The result of the call.
+     * @throws RemoteException - if the limiter or breaker refused the call,
+     *                         the call missed its deadline, or the call
+     *                         failed.
+     * @throws SQLException    - if the call failed with one.
+     */
+    private <T> T call(long timeoutMillis, boolean limited, DatabaseCall<T> call)
+            throws RemoteException, SQLException {
+        if (limited) {
+            limiter.acquire();
+        }
+        CircuitBreaker.Admission admission;
+        try {
+            admission = breaker.admit();
+        } catch (RemoteException | RuntimeException e) {
+            if (limited) {
+                limiter.release();
+            }
+            throw e;
+        }
+        // Claimed by the call when it starts, or by the caller if it gives
+        // up first, so that the permit is released exactly once
+        AtomicBoolean claimed = new AtomicBoolean();
+        Future<T> future = executor.submit(() -> {
+            if (!claimed.compareAndSet(false, true)) {
+                return null;
+            }
+            try {
+                return call.call(admission.isProbe()
+                        ? downstream.reconnectDatabase()
+                        : downstream.connectedDatabase());
+            } finally {
+                if (limited) {
+                    limiter.release();
+                }
+            }
+        });
+        try {
+            T result = timeoutMillis > 0 ? future.get(timeoutMillis, TimeUnit.MILLISECONDS) : future.get();
+            breaker.recordSuccess(admission);
+            return result;
+        } catch (TimeoutException e) {
+            abandon(future, claimed, limited);
+            breaker.recordFailure(admission);
+            throw new RemoteException(Constants.WDBS_TIMEOUT);
+        } catch (InterruptedException e) {
+            abandon(future, claimed, limited);
+            if (admission.isProbe()) {
+                // A probe must not leave the breaker half-open
+                breaker.recordFailure(admission);
+            }
+            Thread.currentThread().interrupt();
+            throw new RemoteException("Interrupted while waiting for word database.", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (isLinkFailure(cause)) {
+                breaker.recordFailure(admission);
+            } else {
+                breaker.recordSuccess(admission);
+            }
+            if (cause instanceof RemoteException) {
+                throw (RemoteException) cause;
+            }
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            }
+            throw new RemoteException(cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * Cancels a call the caller no longer waits for. If it has not started,
+     * it never will, and its permit is released here.
+     *
+     * @param future  - The call.
+     * @param claimed - Set once the call has started or been abandoned.
+     * @param limited - true if the call holds a permit.
+     */
+    private void abandon(Future<?> future, AtomicBoolean claimed, boolean limited) {
+        if (claimed.compareAndSet(false, true) && limited) {
+            limiter.release();
+        }
+        future.cancel(true);
+    }
+
+    /**
+     * Checks whether a call failed to reach the microservice, rather than
+     * being answered with an error. RMI wraps exceptions thrown by the remote
+     * method in ServerException or ServerError.
+     *
+     * @param cause - The failure of the call.
+     * @return - true if the link failed.
+     */
+    private static boolean isLinkFailure(Throwable cause) {
+        return cause instanceof RemoteException
+                && !(cause instanceof ServerException)
+                && !(cause instanceof ServerError);
+    }
+
+    public CircuitBreaker getBreaker() {
+        return this.breaker;
+    }
+
+    public ConcurrencyLimiter getLimiter() {
+        return this.limiter;
+    }
+
+    @Override
+    public Boolean checkWord(String word) throws RemoteException, SQLException {
+        return call(database -> database.checkWord(word));
+    }
+
+    @Override
+    public String randomWord(char a) throws RemoteException, SQLException {
+        return call(database -> database.randomWord(a));
+    }
+
+    @Override
+    public String randomWordLength(int a) throws RemoteException, SQLException {
+        return call(database -> database.randomWordLength(a));
+    }
+
+    @Override
+    public String randomWord(char a, Difficulty difficulty) throws RemoteException, SQLException {
+        return call(database -> database.randomWord(a, difficulty));
+    }
+
+    @Override
+    public String randomWordLength(int a, Difficulty difficulty) throws RemoteException, SQLException {
+        return call(database -> database.randomWordLength(a, difficulty));
+    }
+
+    @Override
+    public List<String> wordsWithPrefix(String prefix, int limit) throws RemoteException, SQLException {
+        return call(database -> database.wordsWithPrefix(prefix, limit));
+    }
+
+    @Override
+    public PatternPage matchPattern(String pattern, int limit) throws RemoteException, SQLException {
+        return call(database -> database.matchPattern(pattern, limit));
+    }
+
+    @Override
+    public PatternPage matchPattern(String pattern, String after, int limit) throws RemoteException, SQLException {
+        return call(database -> database.matchPattern(pattern, after, limit));
+    }
+
+    @Override
+    public void addWord(String word) throws RemoteException {
+        noSql(() -> call(database -> {
+            database.addWord(word);
+            return null;
+        }));
+    }
+
+    @Override
+    public void removeWord(String word) throws RemoteException, SQLException {
+        call(database -> {
+            database.removeWord(word);
+            return null;
+        });
+    }
+
+    @Override
+    public List<String> addWords(Collection<String> words) throws RemoteException {
+        return noSql(() -> call(database -> database.addWords(words)));
+    }
+
+    @Override
+    public List<String> removeWords(Collection<String> words) throws RemoteException, SQLException {
+        return call(database -> database.removeWords(words));
+    }
+
+    @Override
+    public ImportResult importWords(String path) throws RemoteException {
+        // Imports run as long as the file takes; only the breaker applies
+        return noSql(() -> call(0, false, database -> database.importWords(path)));
+    }
+
+    @Override
+    public ChangeBatch changesSince(long version, int maxChanges) throws RemoteException {
+        return noSql(() -> call(database -> database.changesSince(version, maxChanges)));
+    }
+
+    @Override
+    public ChangeBatch pollChanges(long version, int maxChanges, long waitMillis) throws RemoteException {
+        return noSql(() -> call(waitMillis + Constants.WDBS_CALL_TIMEOUT_MS, false,
+                database -> database.pollChanges(version, maxChanges, waitMillis)));
+    }
+
+    @Override
+    public SnapshotPage snapshot(long afterRowid, int maxWords) throws RemoteException {
+        return noSql(() -> call(database -> database.snapshot(afterRowid, maxWords)));
+    }
+
+    @Override
+    public void subscribe(DictionaryListener listener, long fromVersion) throws RemoteException {
+        noSql(() -> call(database -> {
+            database.subscribe(listener, fromVersion);
+            return null;
+        }));
+    }
+
+    @Override
+    public void unsubscribe(DictionaryListener listener) throws RemoteException {
+        noSql(() -> call(database -> {
+            database.unsubscribe(listener);
+            return null;
+        }));
+    }
+
+    @Override
+    public ReplicationStatus getReplicationStatus() throws RemoteException {
+        return noSql(() -> call(database -> database.getReplicationStatus()));
+    }
+
+    /**
+     * Makes a guarded call of a Database method that cannot throw
+     * SQLException, adapting its signature.
+     *
+     * @param call - The guarded call.
+     * @return - The result of the call.
+     * @throws RemoteException - if the call failed.
+     */
+    private static <T> T noSql(GuardedCall<T> call) throws RemoteException {
+        try {
+            return call.call();
+        } catch (SQLException e) {
+            throw new RemoteException(e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package GameServer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Forwards user heartbeats from the game server to the UAS in batches.
+ *
+ * Any request on a session counts as a heartbeat for its user. Once per
+ * Constants.HEARTBEAT_TICK_MS, the usernames of all sessions that saw a
+ * request since the previous tick are sent to the UAS in a single
+ * validateHeartbeats call, so heartbeat traffic to the UAS does not grow with
+ * the number of users. The tick delays a beat by up to one tick on its way
+ * to the UAS, so the aggregator refuses to start unless a client beat plus a
+ * tick fits in the UAS monitor interval.
+ */
+public class HeartbeatAggregator {
+    private final SessionManager sessions;
+    private final AsyncGameService game;
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "heartbeat-aggregator");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private long lastTick;
+
+    /**
+     * Constructs a HeartbeatAggregator and starts forwarding heartbeats.
+     *
+     * @param sessions - The sessions whose users' heartbeats are forwarded.
+     * @param game     - The game service used to reach the UAS.
+     */
+    public HeartbeatAggregator(SessionManager sessions, AsyncGameService game) {
+        if (Constants.CLIENT_HEARTBEAT_INTERVAL_MS + Constants.HEARTBEAT_TICK_MS
+                >= Constants.UAS_HEARTBEAT_INTERVAL_MS) {
+            throw new IllegalStateException("Heartbeats would reach the UAS up to "
+                    + (Constants.CLIENT_HEARTBEAT_INTERVAL_MS + Constants.HEARTBEAT_TICK_MS)
+                    + " ms apart, but it logs users out after " + Constants.UAS_HEARTBEAT_INTERVAL_MS + " ms.");
+        }
+        this.sessions = sessions;
+        this.game = game;
+        this.lastTick = System.currentTimeMillis();
+        ticker.scheduleAtFixedRate(this::tick, Constants.HEARTBEAT_TICK_MS, Constants.HEARTBEAT_TICK_MS,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Sends the heartbeats of the users active since the previous tick.
+     */
+    private void tick() {
+        long since = this.lastTick;
+        this.lastTick = System.currentTimeMillis();
+
+        List<String> activeUsers = new ArrayList<>();
+        for (GameSession session : sessions.getSessions()) {
+            if (session.getUsername() != null && session.getLastSeen() >= since) {
+                activeUsers.add(session.getUsername());
+            }
+        }
+        if (activeUsers.isEmpty()) {
+            return;
+        }
+
+        game.heartbeats(activeUsers).exceptionally(e -> {
+            System.out.println(Constants.CANT_COMMUNICATE_UAS);
+            return null;
+        });
+    }
+}
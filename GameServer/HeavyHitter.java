@@ -0,0 +1,43 @@
+package GameServer;
+
+import java.io.Serializable;
+
+/**
+ * A frequent key of a gameplay stream and its estimated count, as returned by
+ * GameAnalytics.
+ */
+public class HeavyHitter implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final String key;
+    private final long count;
+
+    /**
+     * Constructs a HeavyHitter.
+     *
+     * @param key   - The key (a word or letter).
+     * @param count - The estimated count; at least the true count.
+     */
+    public HeavyHitter(String key, long count) {
+        this.key = key;
+        this.count = count;
+    }
+
+    /**
+     * Gets the key.
+     *
+     * @return - The key.
+     */
+    public String getKey() {
+        return this.key;
+    }
+
+    /**
+     * Gets the estimated count.
+     *
+     * @return - The estimated count.
+     */
+    public long getCount() {
+        return this.count;
+    }
+}
@@ -0,0 +1,216 @@
+package GameServer;
+
+import java.rmi.RemoteException;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-user rate limits of a game server.
+ *
+ * Each user has a token bucket for each class of request (see Operation):
+ * the bucket holds up to the burst of the class, every request takes a
+ * token, and tokens come back at the rate of the class. A request that finds
+ * the bucket empty is refused at once with a RemoteException telling how
+ * long until the next token, without touching the downstream services.
+ * Buckets are created on a user's first request, and swept once they have
+ * refilled, so idle users cost nothing.
+ */
+public class RateLimiter {
+
+    // Minimum interval between two log lines about throttled requests
+    private static final long THROTTLE_LOG_INTERVAL_MS = 1000;
+
+    /**
+     * The classes of request, each with its own limits.
+     */
+    public enum Operation {
+        // Menu commands: new games, word list changes, rooms
+        COMMAND(Constants.COMMAND_RATE_BURST, Constants.COMMAND_RATE_PER_SECOND),
+        // Word lookups, the leaderboard and loading user data
+        QUERY(Constants.QUERY_RATE_BURST, Constants.QUERY_RATE_PER_SECOND),
+        // Puzzle guesses, alone or in rooms
+        GUESS(Constants.GUESS_RATE_BURST, Constants.GUESS_RATE_PER_SECOND),
+        // Saves of the game under way
+        SAVE(Constants.SAVE_RATE_BURST, Constants.SAVE_RATE_PER_SECOND),
+        // Logins, each a user account call that may register an account
+        LOGIN(Constants.LOGIN_RATE_BURST, Constants.LOGIN_RATE_PER_SECOND);
+
+        private final int burst;
+        private final double nanosPerToken;
+
+        Operation(int burst, double perSecond) {
+            this.burst = burst;
+            this.nanosPerToken = 1e9 / perSecond;
+        }
+    }
+
+    /**
+     * The bucket of one user for one class of request. Only used inside a
+     * compute of the user's entry in the map of buckets, which serializes
+     * every access to it.
+     */
+    private static class Bucket {
+        private final Operation operation;
+
+        private double tokens;
+        private long refilledAt;
+
+        Bucket(Operation operation, long now) {
+            this.operation = operation;
+            this.tokens = operation.burst;
+            this.refilledAt = now;
+        }
+
+        /**
+         * Takes a token if there is one.
+         *
+         * @param now - The current time in ns.
+         * @return - 0 if a token was taken, otherwise the time until the
+         *         next token in ns.
+         */
+        long take(long now) {
+            refill(now);
+            if (tokens >= 1) {
+                tokens--;
+                return 0;
+            }
+            return (long) Math.ceil((1 - tokens) * operation.nanosPerToken);
+        }
+
+        /**
+         * Checks whether the bucket has refilled, so it can be dropped.
+         *
+         * @param now - The current time in ns.
+         * @return - true if the bucket is full.
+         */
+        boolean isFull(long now) {
+            refill(now);
+            return tokens >= operation.burst;
+        }
+
+        private void refill(long now) {
+            tokens = Math.min(operation.burst, tokens + (now - refilledAt) / operation.nanosPerToken);
+            refilledAt = now;
+        }
+    }
+
+    private final ConcurrentHashMap<String, Bucket[]> buckets = new ConcurrentHashMap<>();
+    private final Map<Operation, AtomicLong> throttled = new EnumMap<>(Operation.class);
+    private volatile long lastThrottleLog;
+
+    /**
+     * Constructs a RateLimiter and starts the sweeper of full buckets.
+     */
+    public RateLimiter() {
+        for (Operation operation : Operation.values()) {
+            throttled.put(operation, new AtomicLong());
+        }
+        ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rate-limit-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleAtFixedRate(this::sweep, Constants.RATE_LIMIT_SWEEP_MS, Constants.RATE_LIMIT_SWEEP_MS,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Takes a token from a user's bucket for a class of request.
+     *
+     * @param key       - The user, or the session for requests made before
+     *                  logging in.
+     * @param operation - The class of request.
+     * @throws RemoteException - if the bucket is empty.
+     */
+    public void acquire(String key, Operation operation) throws RemoteException {
+        long now = System.nanoTime();
+        long[] waitNanos = new long[1];
+        // The token is taken within the compute, so the sweeper cannot drop
+        // the buckets between looking them up and taking from them
+        buckets.compute(key, (k, userBuckets) -> {
+            if (userBuckets == null) {
+                userBuckets = new Bucket[Operation.values().length];
+            }
+            Bucket bucket = userBuckets[operation.ordinal()];
+            if (bucket == null) {
+                bucket = new Bucket(operation, now);
+                userBuckets[operation.ordinal()] = bucket;
+            }
+            waitNanos[0] = bucket.take(now);
+            return userBuckets;
+        });
+
+        if (waitNanos[0] > 0) {
+            throttled(key, operation);
+            throw new RemoteException(String.format(Constants.RATE_LIMITED,
+                    operation.name().toLowerCase(Locale.ROOT), TimeUnit.NANOSECONDS.toMillis(waitNanos[0]) + 1));
+        }
+    }
+
+    /**
+     * Counts a throttled request, logging at most once per interval.
+     *
+     * @param key       - The user.
+     * @param operation - The class of request.
+     */
+    private void throttled(String key, Operation operation) {
+        throttled.get(operation).incrementAndGet();
+        long now = System.currentTimeMillis();
+        if (now - lastThrottleLog >= THROTTLE_LOG_INTERVAL_MS) {
+            lastThrottleLog = now;
+            System.out.println("Rate limit reached by " + key + " (" + operation + "); " + this);
+        }
+    }
+
+    /**
+     * Drops the buckets of users whose buckets have all refilled. Each user
+     * is checked and removed in one compute, atomically with acquire.
+     */
+    private void sweep() {
+        long now = System.nanoTime();
+        for (String key : buckets.keySet()) {
+            buckets.computeIfPresent(key, (k, userBuckets) -> isIdle(userBuckets, now) ? null : userBuckets);
+        }
+    }
+
+    /**
+     * Checks whether all of a user's buckets have refilled.
+     *
+     * @param userBuckets - The user's buckets, by operation.
+     * @param now         - The current time in ns.
+     * @return - true if every bucket is full.
+     */
+    private static boolean isIdle(Bucket[] userBuckets, long now) {
+        for (Bucket bucket : userBuckets) {
+            if (bucket != null && !bucket.isFull(now)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets the number of requests throttled since the server started.
+     *
+     * @param operation - The class of request.
+     * @return - The number of requests.
+     */
+    public long getThrottled(Operation operation) {
+        return throttled.get(operation).get();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder summary = new StringBuilder("Throttled requests:");
+        for (Operation operation : Operation.values()) {
+            summary.append(' ').append(operation).append('=').append(getThrottled(operation));
+        }
+        return summary.append(", ").append(buckets.size()).append(" users tracked").toString();
+    }
+}
@@ -0,0 +1,261 @@
+package GameServer;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.rmi.RemoteException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import DatabaseServer.ChangeBatch;
+import DatabaseServer.Database;
+import DatabaseServer.DictionaryListener;
+import DatabaseServer.Difficulty;
+import DatabaseServer.ImportResult;
+import DatabaseServer.PatternPage;
+import DatabaseServer.ReplicationStatus;
+import DatabaseServer.SnapshotPage;
+
+/**
+ * Local Database that spreads reads over the word database read replicas and
+ * sends writes to the primary.
+ *
+ * Each read goes to the replica with the fewest requests outstanding from this
+ * game server. A replica whose call fails is skipped for
+ * Constants.REPLICA_RETRY_MS and the read is retried on the primary. Without
+ * replicas, every call goes to the primary.
+ */
+public class ReplicatedDatabase implements Database {
+
+    /**
+     * A database endpoint and the number of requests outstanding on it.
+     */
+    private static class Endpoint {
+        private final String address;
+        private final Database database;
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private volatile long downUntil;
+
+        private Endpoint(String address, Database database) {
+            this.address = address;
+            this.database = database;
+        }
+    }
+
+    /**
+     * Call made through a Database stub.
+     */
+    @FunctionalInterface
+    private interface DatabaseCall<T> {
+        T call(Database database) throws RemoteException, SQLException;
+    }
+
+    private final Database primary;
+    private final List<Endpoint> replicas = new ArrayList<>();
+
+    /**
+     * Constructs a ReplicatedDatabase.
+     *
+     * @param primary  - The primary database stub.
+     * @param replicas - The replica stubs, keyed by "host:port" address.
+     */
+    public ReplicatedDatabase(Database primary, Map<String, Database> replicas) {
+        this.primary = primary;
+        for (Map.Entry<String, Database> replica : replicas.entrySet()) {
+            this.replicas.add(new Endpoint(replica.getKey(), replica.getValue()));
+        }
+    }
+
+    /**
+     * Loads the replica addresses from Constants.REPLICA_LIST_FILE.
+     *
+     * @return - The "host port" pairs of the replicas; empty if the file does
+     *         not exist.
+     * @throws IOException - if the file exists but cannot be read.
+     */
+    public static List<String[]> loadReplicaAddresses() throws IOException {
+        List<String[]> addresses = new ArrayList<>();
+        File file = new File(Constants.REPLICA_LIST_FILE);
+        if (!file.exists()) {
+            return addresses;
+        }
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (!line.isEmpty() && !line.startsWith("#")) {
+                    addresses.add(line.split("\\s+"));
+                }
+            }
+        }
+        return addresses;
+    }
+
+    /**
+     * Picks the available replica with the fewest outstanding requests,
+     * breaking ties at random.
+     *
+     * @return - The replica, or null if none is available.
+     */
+    private Endpoint pickReplica() {
+        long now = System.currentTimeMillis();
+        Endpoint best = null;
+        int ties = 0;
+        for (Endpoint replica : replicas) {
+            if (replica.downUntil > now) {
+                continue;
+            }
+            int outstanding = replica.outstanding.get();
+            if (best == null || outstanding < best.outstanding.get()) {
+                best = replica;
+                ties = 1;
+            } else if (outstanding == best.outstanding.get()
+                    && ThreadLocalRandom.current().nextInt(++ties) == 0) {
+                best = replica;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Makes a read call on a replica, falling back to the primary.
+     *
+     * @param call - The read call.
+     * @return - The result of the call.
+     */
+    private <T> T read(DatabaseCall<T> call) throws RemoteException, SQLException {
+        Endpoint replica = pickReplica();
+        if (replica != null) {
+            replica.outstanding.incrementAndGet();
+            try {
+                return call.call(replica.database);
+            } catch (RemoteException e) {
+                replica.downUntil = System.currentTimeMillis() + Constants.REPLICA_RETRY_MS;
+                System.out.println("Replica " + replica.address + " unavailable: " + e.getMessage());
+            } finally {
+                replica.outstanding.decrementAndGet();
+            }
+        }
+        return call.call(primary);
+    }
+
+    @Override
+    public Boolean checkWord(String word) throws RemoteException, SQLException {
+        return read(database -> database.checkWord(word));
+    }
+
+    @Override
+    public String randomWord(char a) throws RemoteException, SQLException {
+        return read(database -> database.randomWord(a));
+    }
+
+    @Override
+    public String randomWordLength(int a) throws RemoteException, SQLException {
+        return read(database -> database.randomWordLength(a));
+    }
+
+    @Override
+    public String randomWord(char a, Difficulty difficulty) throws RemoteException, SQLException {
+        return read(database -> database.randomWord(a, difficulty));
+    }
+
+    @Override
+    public String randomWordLength(int a, Difficulty difficulty) throws RemoteException, SQLException {
+        return read(database -> database.randomWordLength(a, difficulty));
+    }
+
+    @Override
+    public List<String> wordsWithPrefix(String prefix, int limit) throws RemoteException, SQLException {
+        return read(database -> database.wordsWithPrefix(prefix, limit));
+    }
+
+    @Override
+    public PatternPage matchPattern(String pattern, int limit) throws RemoteException, SQLException {
+        return read(database -> database.matchPattern(pattern, limit));
+    }
+
+    @Override
+    public PatternPage matchPattern(String pattern, String after, int limit) throws RemoteException, SQLException {
+        return read(database -> database.matchPattern(pattern, after, limit));
+    }
+
+    @Override
+    public void addWord(String word) throws RemoteException {
+        primary.addWord(word);
+    }
+
+    @Override
+    public void removeWord(String word) throws RemoteException, SQLException {
+        primary.removeWord(word);
+    }
+
+    @Override
+    public List<String> addWords(Collection<String> words) throws RemoteException {
+        return primary.addWords(words);
+    }
+
+    @Override
+    public List<String> removeWords(Collection<String> words) throws RemoteException, SQLException {
+        return primary.removeWords(words);
+    }
+
+    @Override
+    public ImportResult importWords(String path) throws RemoteException {
+        return primary.importWords(path);
+    }
+
+    @Override
+    public ChangeBatch changesSince(long version, int maxChanges) throws RemoteException {
+        return primary.changesSince(version, maxChanges);
+    }
+
+    @Override
+    public ChangeBatch pollChanges(long version, int maxChanges, long waitMillis) throws RemoteException {
+        return primary.pollChanges(version, maxChanges, waitMillis);
+    }
+
+    @Override
+    public SnapshotPage snapshot(long afterRowid, int maxWords) throws RemoteException {
+        return primary.snapshot(afterRowid, maxWords);
+    }
+
+    @Override
+    public void subscribe(DictionaryListener listener, long fromVersion) throws RemoteException {
+        primary.subscribe(listener, fromVersion);
+    }
+
+    @Override
+    public void unsubscribe(DictionaryListener listener) throws RemoteException {
+        primary.unsubscribe(listener);
+    }
+
+    @Override
+    public ReplicationStatus getReplicationStatus() throws RemoteException {
+        return primary.getReplicationStatus();
+    }
+
+    /**
+     * Gets the replication metrics of every replica, including their lag
+     * behind the primary.
+     *
+     * @return - One line per replica with its address and status.
+     */
+    public List<String> getReplicaStatuses() {
+        List<String> statuses = new ArrayList<>();
+        for (Endpoint replica : replicas) {
+            try {
+                statuses.add(replica.address + ": " + replica.database.getReplicationStatus()
+                        + ", " + replica.outstanding.get() + " outstanding");
+            } catch (RemoteException e) {
+                statuses.add(replica.address + ": unavailable");
+            }
+        }
+        return statuses;
+    }
+}
@@ -0,0 +1,21 @@
+package GameServer;
+
+import java.rmi.Remote;
+import java.rmi.RemoteException;
+
+/**
+ * Remote callback through which a client receives the updates of a shared
+ * puzzle room it has joined.
+ */
+public interface RoomListener extends Remote {
+
+    /**
+     * Receives the state of the room after one or more changes, with the
+     * changes made since the previous update.
+     *
+     * @param update - The room update.
+     * @throws RemoteException - if the listener cannot be reached; the member
+     *                         is then dropped from the room.
+     */
+    void onRoomUpdate(RoomUpdate update) throws RemoteException;
+}
@@ -0,0 +1,95 @@
+package GameServer;
+
+import java.rmi.RemoteException;
+import java.security.SecureRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks the shared puzzle rooms of a game server.
+ *
+ * Rooms are named by short random ids that players pass around to join.
+ * One scheduler thread runs the coalesced flushes of every room (the
+ * callbacks themselves run on the members' delivery threads), and closes
+ * rooms left with no members for Constants.ROOM_IDLE_TIMEOUT_MS.
+ */
+public class RoomManager {
+    // Room ids leave out letters and digits that are easily confused
+    private static final String ID_ALPHABET = "ABCDEFGHJKLMNPQRSTUVWXYZ23456789";
+    private static final int ID_LENGTH = 6;
+
+    private final ConcurrentHashMap<String, GameRoom> rooms = new ConcurrentHashMap<>();
+    private final SecureRandom idGenerator = new SecureRandom();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "room-scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Constructs a RoomManager and starts the idle room sweeper.
+     */
+    public RoomManager() {
+        long period = Constants.ROOM_IDLE_TIMEOUT_MS / 2;
+        scheduler.scheduleAtFixedRate(this::closeIdleRooms, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Opens a new room.
+     *
+     * @param words    - The puzzle words, stem first.
+     * @param attempts - The attempts shared by the members.
+     * @return - The new room.
+     * @throws RemoteException - if the maximum number of rooms is reached.
+     */
+    public GameRoom create(String[] words, int attempts) throws RemoteException {
+        if (rooms.size() >= Constants.MAX_ROOMS) {
+            throw new RemoteException(Constants.TOO_MANY_ROOMS);
+        }
+
+        while (true) {
+            GameRoom room = new GameRoom(generateId(), words, attempts, scheduler);
+            if (rooms.putIfAbsent(room.getId(), room) == null) {
+                return room;
+            }
+        }
+    }
+
+    /**
+     * Gets a room by id.
+     *
+     * @param roomId - The room id, in any case.
+     * @return - The room.
+     * @throws RemoteException - if there is no such room.
+     */
+    public GameRoom get(String roomId) throws RemoteException {
+        GameRoom room = roomId == null ? null : rooms.get(roomId.strip().toUpperCase());
+        if (room == null) {
+            throw new RemoteException(Constants.NO_SUCH_ROOM);
+        }
+        return room;
+    }
+
+    /**
+     * Generates a random room id.
+     *
+     * @return - The id.
+     */
+    private String generateId() {
+        char[] id = new char[ID_LENGTH];
+        for (int i = 0; i < id.length; i++) {
+            id[i] = ID_ALPHABET.charAt(idGenerator.nextInt(ID_ALPHABET.length()));
+        }
+        return new String(id);
+    }
+
+    /**
+     * Closes the rooms that have had no members for the idle timeout.
+     */
+    private void closeIdleRooms() {
+        long now = System.currentTimeMillis();
+        rooms.values().removeIf(room -> room.isIdle(now, Constants.ROOM_IDLE_TIMEOUT_MS));
+    }
+}
@@ -0,0 +1,109 @@
+package GameServer;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The state of a shared puzzle room as pushed to its members: the puzzle
+ * grid, the attempts left, the number of members and the result once the
+ * game is over, together with the events (guesses, joins and leaves) since
+ * the previous update. At most Constants.ROOM_MAX_EVENTS_PER_UPDATE events
+ * are listed; the rest are only counted.
+ */
+public class RoomUpdate implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final String roomId;
+    private final long version;
+    private final String puzzle;
+    private final int attempts;
+    private final int memberCount;
+    private final List<String> events;
+    private final int skippedEvents;
+    private final String result;
+
+    /**
+     * Constructs a RoomUpdate.
+     *
+     * @param roomId        - The room id.
+     * @param version       - The number of changes made to the room so far.
+     * @param puzzle        - The puzzle grid, as displayed to players.
+     * @param attempts      - The attempts left.
+     * @param memberCount   - The number of members.
+     * @param events        - The events since the previous update.
+     * @param skippedEvents - The number of further events not listed.
+     * @param result        - The result of the game, or null while it is on.
+     */
+    public RoomUpdate(String roomId, long version, String puzzle, int attempts, int memberCount,
+            List<String> events, int skippedEvents, String result) {
+        this.roomId = roomId;
+        this.version = version;
+        this.puzzle = puzzle;
+        this.attempts = attempts;
+        this.memberCount = memberCount;
+        this.events = events;
+        this.skippedEvents = skippedEvents;
+        this.result = result;
+    }
+
+    /**
+     * Combines this update with the next one, for a member that has not
+     * received this one yet: the state of the next one, with the events of
+     * both.
+     *
+     * @param next - The next update.
+     * @return - The combined update.
+     */
+    public RoomUpdate followedBy(RoomUpdate next) {
+        List<String> combined = new ArrayList<>(this.events);
+        int skipped = this.skippedEvents + next.skippedEvents;
+        for (String event : next.events) {
+            if (combined.size() < Constants.ROOM_MAX_EVENTS_PER_UPDATE) {
+                combined.add(event);
+            } else {
+                skipped++;
+            }
+        }
+        return new RoomUpdate(next.roomId, next.version, next.puzzle, next.attempts, next.memberCount, combined,
+                skipped, next.result);
+    }
+
+    public String getRoomId() {
+        return this.roomId;
+    }
+
+    public long getVersion() {
+        return this.version;
+    }
+
+    public String getPuzzle() {
+        return this.puzzle;
+    }
+
+    public int getAttempts() {
+        return this.attempts;
+    }
+
+    public int getMemberCount() {
+        return this.memberCount;
+    }
+
+    public List<String> getEvents() {
+        return Collections.unmodifiableList(this.events);
+    }
+
+    public int getSkippedEvents() {
+        return this.skippedEvents;
+    }
+
+    /**
+     * Gets the result of the game.
+     *
+     * @return - The result, or null while the game is on.
+     */
+    public String getResult() {
+        return this.result;
+    }
+}
@@ -0,0 +1,111 @@
+package GameServer;
+
+import java.rmi.RemoteException;
+
+import UserAccountServer.UserData;
+import UserAccountServer.ActiveGameData;
+
+/**
+ * Client-side ServerInterface that connects to the game server node owning
+ * the user, as chosen by the GameRouter.
+ *
+ * The node is resolved when the client first checks a username; if the client
+ * retries with another username, a session is opened on that user's node
+ * instead. Every other call is forwarded to the current session.
+ */
+public class RoutedServerInterface implements ServerInterface {
+    private final GameRouter router;
+    private String username;
+    private ServerInterface server;
+
+    /**
+     * Constructs a RoutedServerInterface.
+     *
+     * @param router - The router that assigns users to game server nodes.
+     */
+    public RoutedServerInterface(GameRouter router) {
+        this.router = router;
+    }
+
+    /**
+     * Gets the session on the node serving the current user.
+     *
+     * @return - The current session.
+     * @throws RemoteException - if no user has been checked yet.
+     */
+    private ServerInterface server() throws RemoteException {
+        if (server == null) {
+            throw new RemoteException(Constants.NOT_CONNECTED);
+        }
+        return server;
+    }
+
+    @Override
+    public synchronized int checkValidUser(String username, int sequence) throws RemoteException {
+        if (server == null || !username.trim().equals(this.username)) {
+            server = router.route(username).createServer(sequence);
+            this.username = username.trim();
+        }
+        return server.checkValidUser(username, sequence);
+    }
+
+    @Override
+    public UserData validateUserData(String username, int sequence) throws RemoteException {
+        return server().validateUserData(username, sequence);
+    }
+
+    @Override
+    public void saveGame(UserData userData, int sequence) throws RemoteException {
+        server().saveGame(userData, sequence);
+    }
+
+    @Override
+    public void logoutUser(String username, int sequence) throws RemoteException {
+        server().logoutUser(username, sequence);
+    }
+
+    @Override
+    public void validateHeartbeat(String username) throws RemoteException {
+        server().validateHeartbeat(username);
+    }
+
+    @Override
+    public UserData processUserInput(UserData userData, String input, int sequence) throws RemoteException {
+        return server().processUserInput(userData, input, sequence);
+    }
+
+    @Override
+    public String processWordQuery(UserData userData, String input, int sequence) throws RemoteException {
+        return server().processWordQuery(userData, input, sequence);
+    }
+
+    @Override
+    public ActiveGameData processPuzzleGuess(UserData userData, String input, int sequence) throws RemoteException {
+        return server().processPuzzleGuess(userData, input, sequence);
+    }
+
+    @Override
+    public String getLeaderboard(UserData userData, int count) throws RemoteException {
+        return server().getLeaderboard(userData, count);
+    }
+
+    @Override
+    public String createRoom(String wordCount, String option, int sequence) throws RemoteException {
+        return server().createRoom(wordCount, option, sequence);
+    }
+
+    @Override
+    public RoomUpdate joinRoom(String roomId, RoomListener listener) throws RemoteException {
+        return server().joinRoom(roomId, listener);
+    }
+
+    @Override
+    public String roomGuess(String roomId, String input, int sequence) throws RemoteException {
+        return server().roomGuess(roomId, input, sequence);
+    }
+
+    @Override
+    public void leaveRoom(String roomId) throws RemoteException {
+        server().leaveRoom(roomId);
+    }
+}
@@ -0,0 +1,95 @@
+package GameServer;
+
+import java.rmi.RemoteException;
+import java.rmi.registry.Registry;
+import java.rmi.server.UnicastRemoteObject;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Routes users to game server nodes by consistent hashing of the username.
+ *
+ * The router is bound as "Router" in the registry on
+ * Constants.GAME_SERVER_PORT, where clients look it up. Game server nodes
+ * register themselves and renew their registration periodically; a node that
+ * leaves (or stops renewing) only moves its own share of users to other nodes.
+ */
+public class RouterServer extends UnicastRemoteObject implements GameRouter {
+
+    private final ConsistentHashRing<ServerFactory> ring = new ConsistentHashRing<>(Constants.RING_VIRTUAL_NODES);
+    private final Map<String, Long> leases = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService leaseMonitor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "router-lease-monitor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Main method to start the router.
+     *
+     * @param args - Command-line arguments (not used).
+     */
+    public static void main(String[] args) {
+        try {
+            Registry registry = ServiceSockets.GAME_SERVER.createRegistry(Constants.GAME_SERVER_PORT);
+            registry.rebind("Router", new RouterServer());
+            System.out.println("Router is running...");
+        } catch (Exception e) {
+            System.err.println("Exception: " + e.toString());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Constructs a RouterServer with no nodes and starts the lease monitor.
+     *
+     * @throws RemoteException - if there is an issue with remote communication.
+     */
+    public RouterServer() throws RemoteException {
+        super(0, ServiceSockets.GAME_SERVER.client(), ServiceSockets.GAME_SERVER.server());
+        leaseMonitor.scheduleAtFixedRate(this::expireLeases, Constants.ROUTER_LEASE_MS,
+                Constants.ROUTER_LEASE_MS / 2, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void registerNode(String nodeId, ServerFactory factory) throws RemoteException {
+        if (leases.put(nodeId, System.currentTimeMillis()) == null) {
+            System.out.println("Node '" + nodeId + "' joined.");
+        }
+        ring.add(nodeId, factory);
+    }
+
+    @Override
+    public void unregisterNode(String nodeId) throws RemoteException {
+        leases.remove(nodeId);
+        if (ring.remove(nodeId) != null) {
+            System.out.println("Node '" + nodeId + "' left.");
+        }
+    }
+
+    @Override
+    public ServerFactory route(String username) throws RemoteException {
+        ServerFactory factory = ring.get(username.trim());
+        if (factory == null) {
+            throw new RemoteException(Constants.NO_GAME_SERVER);
+        }
+        return factory;
+    }
+
+    /**
+     * Removes every node whose registration has not been renewed within the
+     * lease period.
+     */
+    private void expireLeases() {
+        long cutoff = System.currentTimeMillis() - Constants.ROUTER_LEASE_MS;
+        for (Map.Entry<String, Long> lease : leases.entrySet()) {
+            if (lease.getValue() < cutoff && leases.remove(lease.getKey(), lease.getValue())) {
+                ring.remove(lease.getKey());
+                System.out.println("Node '" + lease.getKey() + "' removed due to expired lease.");
+            }
+        }
+    }
+}
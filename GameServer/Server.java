@@ -2,6 +2,9 @@ package GameServer;
 
 import java.rmi.registry.Registry;
 import java.rmi.registry.LocateRegistry;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * The Server class contains the main method to start the server.
@@ -11,17 +14,75 @@ public class Server {
     /**
      * Main method to start the server.
      *
-     * @param args - Command-line arguments (not used).
+     * Details: with no arguments, the server runs standalone and binds its
+     * ServerFactory as "Server" on Constants.GAME_SERVER_PORT. With arguments
+     * "nodeId port [routerHost]", it runs as one node of a scaled-out
+     * deployment: it binds its ServerFactory on the given port and registers
+     * with the RouterServer on routerHost (default localhost).
+     *
+     * @param args - Command-line arguments: [nodeId port [routerHost]].
      */
     public static void main(String args[]) {
         try {
             ServerFactoryImp serverObject = new ServerFactoryImp();
-            Registry registry = LocateRegistry.createRegistry(Constants.GAME_SERVER_PORT);
-            registry.rebind("Server", serverObject);
+            if (args.length < 2) {
+                Registry registry = ServiceSockets.GAME_SERVER.createRegistry(Constants.GAME_SERVER_PORT);
+                serverObject.enableWarmRestart(registry, Constants.GAME_SERVER_PORT);
+                registry.rebind("Server", serverObject);
+                registry.rebind("Analytics", serverObject.getAnalytics());
+            } else {
+                String nodeId = args[0];
+                int port = Integer.parseInt(args[1]);
+                Registry registry = ServiceSockets.GAME_SERVER.createRegistry(port);
+                serverObject.enableWarmRestart(registry, port);
+                registry.rebind("Server", serverObject);
+                registry.rebind("Analytics", serverObject.getAnalytics());
+                joinRouter(nodeId, args.length > 2 ? args[2] : "localhost", serverObject);
+            }
             System.out.println("Listening for incoming requests...");
         } catch (Exception e) {
             System.err.println("Exception: " + e.toString());
             e.printStackTrace();
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Registers this node with the router, renews the registration every
+     * Constants.ROUTER_RENEW_MS, and unregisters on shutdown.
+     *
+     * @param nodeId       - The unique id of this node.
+     * @param routerHost   - The host running the RouterServer.
+     * @param serverObject - This node's ServerFactory.
+     */
+    private static void joinRouter(String nodeId, String routerHost, ServerFactory serverObject) {
+        ScheduledExecutorService renewer = Executors.newSingleThreadScheduledExecutor();
+        renewer.scheduleAtFixedRate(() -> {
+            try {
+                router(routerHost).registerNode(nodeId, serverObject);
+            } catch (Exception e) {
+                System.out.println("Could not register with router: " + e.getMessage());
+            }
+        }, 0, Constants.ROUTER_RENEW_MS, TimeUnit.MILLISECONDS);
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            renewer.shutdownNow();
+            try {
+                router(routerHost).unregisterNode(nodeId);
+            } catch (Exception e) {
+                System.out.println("Could not unregister from router: " + e.getMessage());
+            }
+        }));
+    }
+
+    /**
+     * Looks up the router.
+     *
+     * @param routerHost - The host running the RouterServer.
+     * @return - The GameRouter stub.
+     * @throws Exception - if the router cannot be reached.
+     */
+    private static GameRouter router(String routerHost) throws Exception {
+        Registry registry = LocateRegistry.getRegistry(routerHost, Constants.GAME_SERVER_PORT);
+        return (GameRouter) registry.lookup("Router");
+    }
+}
@@ -5,4 +5,14 @@ import java.rmi.RemoteException;
 
 public interface ServerFactory extends Remote {
     ServerInterface createServer(int sequence) throws RemoteException;
-}
\ No newline at end of file
+
+    /**
+     * Gets the session endpoint of this game server for an open session, so a
+     * SessionHandle issued before the server restarted can carry on.
+     *
+     * @param sessionId - The session id.
+     * @return - The session endpoint.
+     * @throws RemoteException - if the session does not exist or has expired.
+     */
+    SessionEndpoint resumeSession(long sessionId) throws RemoteException;
+}
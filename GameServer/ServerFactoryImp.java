@@ -1,19 +1,116 @@
 package GameServer;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.rmi.RemoteException;
+import java.rmi.registry.Registry;
 import java.rmi.server.UnicastRemoteObject;
 
+import UserAccountServer.ShardMap;
+
 /**
  *
- * This generates game servers to deliver to clients.
+ * This opens game sessions to deliver to clients.
+ *
+ * Every session is served by the same exported ServerInterfaceImpl; clients
+ * receive a SessionHandle that identifies their session to it.
+ *
+ * With warm restart enabled, the open sessions are saved on shutdown and
+ * restored by the next process on the same port, and the SessionHandles
+ * carry the registry stub they need to find the new endpoint.
  */
 public class ServerFactoryImp extends UnicastRemoteObject implements ServerFactory {
+    private final SessionManager sessions;
+    private final ServerInterfaceImpl endpoint;
+    private final GameAnalyticsImpl analytics;
+    private volatile Registry registry;
+
     protected ServerFactoryImp() throws RemoteException {
-        super();
+        this(loadDownstream());
+    }
+
+    /**
+     * Constructs a ServerFactoryImp over the given downstream services.
+     *
+     * @param downstream - The stubs or in-process implementations of the
+     *                   downstream microservices.
+     * @throws RemoteException - if there is an issue with remote communication.
+     */
+    protected ServerFactoryImp(DownstreamServices downstream) throws RemoteException {
+        super(0, ServiceSockets.GAME_SERVER.client(), ServiceSockets.GAME_SERVER.server());
+        try {
+            downstream.connectedDatabase();
+        } catch (Exception e) {
+            System.out.println("Database offline");
+        }
+
+        RateLimiter rateLimiter = new RateLimiter();
+        this.analytics = new GameAnalyticsImpl(rateLimiter, downstream.getDatabaseLimiter());
+        AsyncGameService game = new AsyncGameService(downstream,
+                new EventLog(Paths.get(Constants.EVENT_LOG_DIRECTORY)), this.analytics);
+        this.sessions = new SessionManager();
+        this.endpoint = new ServerInterfaceImpl(this.sessions, game, rateLimiter);
+        new HeartbeatAggregator(this.sessions, game);
+    }
+
+    /**
+     * Creates the DownstreamServices that look up the microservices over RMI.
+     *
+     * @return - The DownstreamServices.
+     * @throws RemoteException - if the user account shard map cannot be loaded.
+     */
+    private static DownstreamServices loadDownstream() throws RemoteException {
+        try {
+            return new DownstreamServices(ShardMap.load());
+        } catch (IOException e) {
+            throw new RemoteException("Could not load user account shard map.", e);
+        }
+    }
+
+    /**
+     * Restores the sessions saved by the previous game server on this port,
+     * and saves the open sessions when this one shuts down.
+     *
+     * @param registry - The registry this ServerFactory is bound in as
+     *                 "Server", through which clients resume their sessions.
+     * @param port     - The registry port.
+     */
+    public void enableWarmRestart(Registry registry, int port) {
+        Path file = Paths.get(String.format(Constants.SESSION_SNAPSHOT_FILE, port));
+        int restored = sessions.restore(file);
+        if (restored > 0) {
+            System.out.println("Restored " + restored + " sessions from " + file);
+        }
+        this.registry = registry;
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                System.out.println("Saved " + sessions.writeSnapshot(file) + " sessions to " + file);
+            } catch (IOException e) {
+                System.out.println("Could not save sessions: " + e.getMessage());
+            }
+        }, "session-snapshot"));
+    }
+
+    /**
+     * Gets the gameplay analytics of this game server, to bind in its
+     * registry.
+     *
+     * @return - The analytics.
+     */
+    public GameAnalytics getAnalytics() {
+        return this.analytics;
     }
 
     @Override
     public ServerInterface createServer(int sequence) throws RemoteException {
-        return new ServerInterfaceImpl(sequence);
+        return new SessionHandle(endpoint, sessions.open().getId(), registry);
+    }
+
+    @Override
+    public SessionEndpoint resumeSession(long sessionId) throws RemoteException {
+        sessions.get(sessionId);
+        return endpoint;
     }
-}
\ No newline at end of file
+}
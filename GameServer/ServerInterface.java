@@ -54,9 +54,9 @@ public interface ServerInterface extends Remote {
     /**
      * Validates the heartbeat signal for the specified user with the User Account
      * Server (UAS).
-     * This method sends a heartbeat signal to the UAS for the specified user to
-     * indicate
-     * the continued activity of the user.
+     * This method signals the continued activity of the specified user. Any other
+     * request from the user also counts as a heartbeat; the game server forwards
+     * heartbeats to the UAS in batches.
      *
      * @param username The username of the user for whom the heartbeat signal is
      *                 validated.
@@ -103,4 +103,64 @@ public interface ServerInterface extends Remote {
      *                         processing the guess.
      */
     ActiveGameData processPuzzleGuess(UserData userData, String input, int sequence) throws RemoteException;
-}
\ No newline at end of file
+
+    /**
+     * Gets the leaderboard: the users with the highest scores across all user
+     * account shards, and the rank of the calling user's score.
+     *
+     * @param userData - The UserData object representing the user's data.
+     * @param count    - The number of users to list, from 1 to
+     *                 Constants.LEADERBOARD_MAX_COUNT.
+     * @return - The leaderboard, formatted for display.
+     * @throws RemoteException - if there is an issue with remote communication or
+     *                         the count is out of range.
+     */
+    String getLeaderboard(UserData userData, int count) throws RemoteException;
+
+    /**
+     * Opens a shared puzzle room, which other users join by its id.
+     *
+     * @param wordCount - The word count, as entered.
+     * @param option    - The name of the difficulty profile, or null for
+     *                  normal.
+     * @return - The id of the new room.
+     * @throws RemoteException - if there is an issue with remote communication,
+     *                         the arguments are invalid or the server has
+     *                         reached its room limit.
+     */
+    String createRoom(String wordCount, String option, int sequence) throws RemoteException;
+
+    /**
+     * Joins a shared puzzle room. Changes to the room are pushed to the
+     * listener until the user leaves the room or the listener cannot be
+     * reached. Joining again replaces the listener.
+     *
+     * @param roomId   - The room id.
+     * @param listener - The listener to push the room's updates to.
+     * @return - The current state of the room.
+     * @throws RemoteException - if there is an issue with remote communication,
+     *                         there is no such room or it is full.
+     */
+    RoomUpdate joinRoom(String roomId, RoomListener listener) throws RemoteException;
+
+    /**
+     * Guesses a letter or word in a shared puzzle room.
+     *
+     * @param roomId - The room id.
+     * @param input  - The letter or word guessed.
+     * @return - A message indicating whether the guess revealed anything.
+     * @throws RemoteException - if there is an issue with remote communication,
+     *                         the user is not in the room, its game is over
+     *                         or the guess was already made there.
+     */
+    String roomGuess(String roomId, String input, int sequence) throws RemoteException;
+
+    /**
+     * Leaves a shared puzzle room.
+     *
+     * @param roomId - The room id.
+     * @throws RemoteException - if there is an issue with remote communication
+     *                         or there is no such room.
+     */
+    void leaveRoom(String roomId) throws RemoteException;
+}
@@ -1,67 +1,99 @@
 package GameServer;
 
-import java.rmi.NotBoundException;
 import java.rmi.RemoteException;
-import java.rmi.registry.LocateRegistry;
-import java.rmi.registry.Registry;
 import java.rmi.server.UnicastRemoteObject;
-import java.sql.SQLException;
-import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.Random;
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
-import UserAccountServer.UserAccountService;
+import GameServer.RateLimiter.Operation;
 import UserAccountServer.UserData;
 import UserAccountServer.ActiveGameData;
-import UserAccountServer.GameState;
-
-import DatabaseServer.Database;
 
 /**
- * The ServerInterfaceImpl class implements the ServerInterface.
+ * The ServerInterfaceImpl class implements the game server's single exported
+ * SessionEndpoint, shared by every client session.
+ *
+ * Each remote method is a thin synchronous adapter over AsyncGameService,
+ * which performs the downstream calls on virtual threads. Responses are
+ * recorded per session by sequence number so that retried requests are not
+ * executed twice.
+ *
+ * Requests are rate limited per user and class of request by a RateLimiter.
+ * A retry answered from the recorded responses, or a save repeating the
+ * session's last one, takes no token. Logins are limited per session, as
+ * each one may register an account. Heartbeats, logging out and leaving a
+ * room are never limited, so a throttled user can always leave cleanly.
  */
-public class ServerInterfaceImpl extends UnicastRemoteObject implements ServerInterface {
-
-    private static Database database;
-    private ConcurrentHashMap<Integer, Object> idempotancyMap = new ConcurrentHashMap<>();
+public class ServerInterfaceImpl extends UnicastRemoteObject implements SessionEndpoint {
 
-    private static int sequence;
+    private final AsyncGameService game;
+    private final SessionManager sessions;
+    private final RateLimiter rateLimiter;
 
     /**
      * Constructs a ServerInterfaceImpl object.
      *
+     * @param sessions    - The manager of the client sessions.
+     * @param game        - The game service that executes the requests.
+     * @param rateLimiter - The per-user rate limits.
      * @throws RemoteException - if there is an issue with remote communication.
      */
-    public ServerInterfaceImpl(int seq) throws RemoteException {
-        super();
-        sequence = seq;
+    public ServerInterfaceImpl(SessionManager sessions, AsyncGameService game, RateLimiter rateLimiter)
+            throws RemoteException {
+        super(0, ServiceSockets.GAME_SERVER.client(), ServiceSockets.GAME_SERVER.server());
+        this.sessions = sessions;
+        this.game = game;
+        this.rateLimiter = rateLimiter;
+    }
 
-        try {
-            connectToDatabase();
-        } catch (Exception e) {
-            System.out.println("Database offline");
-        }
+    /**
+     * Takes a token for a request from the rate limit of the session's user,
+     * or of the session itself if no user has logged in on it.
+     *
+     * @param session   - The calling client's session.
+     * @param operation - The class of request.
+     * @throws RemoteException - if the user is over the limit.
+     */
+    private void throttle(GameSession session, Operation operation) throws RemoteException {
+        String username = session.getUsername();
+        rateLimiter.acquire(username != null ? username : sessionKey(session), operation);
     }
 
     /**
-     * Establishes a connection to the remote database service.
+     * Gets the rate limit key of a session itself, whoever logged in on it.
      *
-     * @throws RemoteException - if there is an issue with remote
-     *                         communication while attempting to connect to
-     *                         the database.
+     * @param session - The client's session.
+     * @return - The key.
      */
-    public static void connectToDatabase() throws RemoteException {
-        try {
-            Registry registry = LocateRegistry.getRegistry("localhost", Constants.WDBS_PORT);
-            database = (Database) registry.lookup("DatabaseService");
-            System.out.println("Connected to Database");
-        } catch (RemoteException e) {
-            throw new RemoteException(Constants.CANT_COMMUNICATE_WDBS, e);
-        } catch (NotBoundException e) {
-            throw new RemoteException(e.getMessage());
+    private static String sessionKey(GameSession session) {
+        return "#" + session.getId();
+    }
+
+    /**
+     * Executes a request at most once per session and sequence number. A
+     * request that was already answered gets the recorded response; any
+     * other is first checked against the rate limit of its class.
+     *
+     * @param session   - The calling client's session.
+     * @param seq       - The request sequence number.
+     * @param limit     - The class of request, or null if not limited.
+     * @param operation - Starts the request.
+     * @return - The response to the request.
+     * @throws RemoteException - if the user is over the limit or the request
+     *                         fails.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T idempotent(GameSession session, int seq, Operation limit,
+            Supplier<CompletableFuture<T>> operation) throws RemoteException {
+        if (session.hasResponse(seq)) {
+            return (T) session.getResponse(seq);
+        }
+        if (limit != null) {
+            throttle(session, limit);
         }
+        T response = AsyncGameService.await(operation.get());
+        session.putResponse(seq, response);
+        return response;
     }
 
     /**
@@ -75,121 +107,91 @@ public class ServerInterfaceImpl extends UnicastRemoteObject implements ServerIn
      *         - 0 if the user is already logged in.
      * @throws RemoteException - if there is an issue with remote communication.
      */
-    public int checkValidUser(String username, int seq) throws RemoteException {
-
-        if (!idempotancyMap.containsKey(seq)) {
-            try {
-                Registry registry = LocateRegistry.getRegistry("localhost", Constants.UAS_PORT);
-                UserAccountService userAccountService = (UserAccountService) registry.lookup("UserAccountService");
-                int loginResult = userAccountService.login(username.trim());
-
-                if (loginResult == 0) {
-                    throw new RemoteException(Constants.DUPLICATE_LOGIN);
-                } else
-                    idempotancyMap.put(seq, loginResult);
-                return loginResult;
-            } catch (Exception e) {
-                throw new RemoteException(Constants.CANT_COMMUNICATE_UAS, e);
-            }
-        }
-
-        else {
-
-            return (int) idempotancyMap.get(seq);
+    public int checkValidUser(long sessionId, String username, int seq) throws RemoteException {
+        GameSession session = sessions.get(sessionId);
+        // Throttled under the session, not the user, so a client cannot get
+        // fresh tokens by trying fresh names
+        if (!session.hasResponse(seq)) {
+            rateLimiter.acquire(sessionKey(session), Operation.LOGIN);
         }
+        int loginResult = idempotent(session, seq, null, () -> game.login(username));
+        session.setUsername(username.trim());
+        return loginResult;
     }
 
     /**
      * Fetches and validates user data associated with the specified username.
      *
-     * @param username - The username for which to validate user data.
+     * @param username - The username for which to validate user data; must
+     *                 be the user logged in on the session.
      * @return - The UserData associated with the specified username.
-     * @throws RemoteException - if there is an issue with remote communication.
+     * @throws RemoteException - if there is an issue with remote communication
+     *                         or the username is not the session's.
      */
-    public UserData validateUserData(String username, int seq) throws RemoteException {
-
-        if (!idempotancyMap.containsKey(seq)) {
-            try {
-                Registry registry = LocateRegistry.getRegistry("localhost", Constants.UAS_PORT);
-                UserAccountService userAccountService = (UserAccountService) registry.lookup("UserAccountService");
-                String userDataString = userAccountService.load(username);
-                UserData userData = new UserData(userDataString);
-                idempotancyMap.put(seq, userData);
-                return userData;
-            } catch (Exception e) {
-                throw new RemoteException(Constants.CANT_COMMUNICATE_UAS, e);
-            }
-        } else {
-            return (UserData) idempotancyMap.get(seq);
-        }
-
+    public UserData validateUserData(long sessionId, String username, int seq) throws RemoteException {
+        GameSession session = sessions.get(sessionId);
+        String sessionUser = sessionUser(session, username);
+        return idempotent(session, seq, Operation.QUERY, () -> game.loadUserData(sessionUser));
     }
 
     /**
-     * Saves game data associated with the specified UserData.
+     * Saves game data associated with the specified UserData. A save that
+     * repeats the session's last one (a retransmit) is not made again.
      *
      * @param userData - The UserData containing the game data to save.
-     * @param sequence
+     * @param sequence - The request sequence number.
      * @throws RemoteException - if there is an issue with remote communication or
      *                         saving the game data.
      */
-    public void saveGame(UserData userData, int sequence) throws RemoteException {
-        try {
-            Registry registry = LocateRegistry.getRegistry("localhost", Constants.UAS_PORT);
-            UserAccountService userAccountService = (UserAccountService) registry.lookup("UserAccountService");
-            int saveResult = userAccountService.save(userData.getUsername(), userData.getUserDataString());
-
-            if (saveResult == 0) {
-                throw new RemoteException(Constants.COULD_NOT_SAVE);
-            }
-        } catch (Exception e) {
-            throw new RemoteException(Constants.COULD_NOT_SAVE, e);
+    public void saveGame(long sessionId, UserData userData, int sequence) throws RemoteException {
+        GameSession session = sessions.get(sessionId);
+        sessionUser(session, userData);
+        String userDataString = userData.getUserDataString();
+        if (session.isLastSave(sequence, userDataString)) {
+            return;
         }
+        throttle(session, Operation.SAVE);
+        AsyncGameService.await(game.saveGame(userData));
+        session.putLastSave(sequence, userDataString);
     }
 
     /**
-     * Logs out the specified user.
+     * Logs out the user of the session and closes the session. Logging out of
+     * a session that is already closed has no effect.
      *
-     * @param username - The username of the user to log out.
-     * @throws RemoteException - if there is an issue with remote communication or
-     *                         logging out the user.
+     * @param username - The username of the user to log out; must be the
+     *                 user logged in on the session.
+     * @throws RemoteException - if there is an issue with remote communication,
+     *                         logging out the user, or the username is not
+     *                         the session's.
      */
-    public void logoutUser(String username, int seq) throws RemoteException {
-
-        try {
-            Registry registry = LocateRegistry.getRegistry("localhost", Constants.UAS_PORT);
-            UserAccountService userAccountService = (UserAccountService) registry.lookup("UserAccountService");
-            int logoutResult = userAccountService.logout(username.trim());
-
-            if (logoutResult == 0) {
-                throw new RemoteException("Failed to log out user: " + username);
-            }
-        } catch (Exception e) {
-            throw new RemoteException(Constants.CANT_COMMUNICATE_UAS, e);
+    public void logoutUser(long sessionId, String username, int seq) throws RemoteException {
+        GameSession session = sessions.find(sessionId);
+        if (session == null) {
+            return;
         }
-
+        if (session.getUsername() == null) {
+            sessions.close(sessionId);
+            return;
+        }
+        String sessionUser = sessionUser(session, username);
+        sessions.close(sessionId);
+        AsyncGameService.await(game.logout(sessionUser));
     }
 
     /**
-     * Validates the heartbeat signal for the specified user with the User Account
-     * Server (UAS).
-     * This method sends a heartbeat signal to the UAS for the specified user to
-     * indicate
-     * the continued activity of the user.
+     * Records a heartbeat signal for the specified user.
+     *
+     * Details: any request on a session counts as a heartbeat, so this only
+     * records activity on the session; the HeartbeatAggregator forwards the
+     * heartbeats of all active users to the UAS in one batch per tick.
      *
      * @param username The username of the user for whom the heartbeat signal is
      *                 validated.
-     * @throws RemoteException If an error occurs during remote communication with
-     *                         the UAS.
+     * @throws RemoteException If the session has expired.
      */
-    public void validateHeartbeat(String username) throws RemoteException {
-        try {
-            Registry registry = LocateRegistry.getRegistry("localhost", Constants.UAS_PORT);
-            UserAccountService userAccountService = (UserAccountService) registry.lookup("UserAccountService");
-            userAccountService.validateHeartbeat(username);
-        } catch (Exception e) {
-            throw new RemoteException(Constants.CANT_COMMUNICATE_UAS, e);
-        }
+    public void validateHeartbeat(long sessionId, String username) throws RemoteException {
+        sessions.get(sessionId);
     }
 
     /**
@@ -204,375 +206,166 @@ public class ServerInterfaceImpl extends UnicastRemoteObject implements ServerIn
      * @throws RemoteException - if there is an issue with remote communication or
      *                         processing the input.
      */
-    public UserData processUserInput(UserData userData, String input, int seq)
+    public UserData processUserInput(long sessionId, UserData userData, String input, int seq)
             throws RemoteException {
-
-        if (!idempotancyMap.containsKey(seq)) {
-            String[] tokenizedInput = input.split(";");
-            if (tokenizedInput.length <= 1)
-                throw new RemoteException(Constants.INVALID_COMMAND_SYNTAX);
-
-            String command = tokenizedInput[0];
-            String argument = tokenizedInput[1];
-
-            processCommand(userData, command, argument);
-            saveGame(userData, sequence);
-            return userData;
-        }
-        else
-            return (UserData) idempotancyMap.get(seq);
+        GameSession session = sessions.get(sessionId);
+        sessionUser(session, userData);
+        return idempotent(session, seq, Operation.COMMAND, () -> game.processUserInput(userData, input));
     }
 
     /**
-     * Executes a specific game command.
+     * Processes a word query to check if the word is in the database or the puzzle
+     * word list.
      *
-     * Details: if the word database microservice cannot be reached,
-     * will attempt to reconnect 1 more time before throwing a RemoteException
-     * to the client caller.
-     * 
-     * 
      * @param userData - The UserData object representing the user's data.
-     * @param command  - The command to execute.
-     * @param argument - The argument associated with the command.
-     * @throws RemoteException - if there is an issue with remote communication.
+     * @param input    - The word query input to process.
+     * @return - A message indicating whether the word is found in the database or
+     *         the puzzle word list.
+     * @throws RemoteException - if there is an issue with remote communication or
+     *                         processing the query.
      */
-    private void processCommand(UserData userData, String command, String argument)
+    public String processWordQuery(long sessionId, UserData userData, String input, int seq)
             throws RemoteException {
-        switch (command) {
-            // Add word to database
-            case "Add": {
-                try {
-                    database.addWord(argument);
-                    userData.getGameState().setState(Constants.IDLE_STATE);
-                } catch (RemoteException e) {
-                    reconnectDatabase(e);
-                }
-                break;
-            }
-            // Remove word from database
-            case "Remove": {
-                try {
-                    database.removeWord(argument);
-                    userData.getGameState().setState(Constants.IDLE_STATE);
-                } catch (RemoteException | SQLException e) {
-                    reconnectDatabase(e);
-                }
-                break;
-            }
-            // Start new game with specified word count
-            // Argument must be an integer string from 2-15, inclusive
-            case "New Game": {
-                processNewGame(userData, argument);
-                break;
-            }
-            // Continue existing game; argument may be any non-empty string
-            case "Continue": {
-                if (userData.getGameState().getPuzzle() != null) {
-                    userData.getGameState().setState(Constants.PLAY_STATE);
-                    break;
-                }
-                throw new RemoteException(Constants.NO_EXISTING_GAME);
-            }
-            default: {
-                throw new RemoteException(Constants.INVALID_COMMAND_SYNTAX);
-            }
-        }
-    }
-
-    /**
-     * Attempts to reconnect to the database in case of a communication error.
-     *
-     * @param exception - The exception that triggered the reconnection attempt.
-     * @throws RemoteException - if there is an issue with remote communication
-     *                         while attempting to reconnect.
-     */
-    private static void reconnectDatabase(Exception exception) throws RemoteException {
-        try {
-            connectToDatabase();
-        } catch (RemoteException e) {
-            throw new RemoteException(e.getMessage(), exception);
-        }
+        GameSession session = sessions.get(sessionId);
+        sessionUser(session, userData);
+        return idempotent(session, seq, Operation.QUERY, () -> game.processWordQuery(userData, input));
     }
 
     /**
-     * Processes the initiation of a new game with the specified word count.
+     * Processes a user's guess for the puzzle.
      *
      * @param userData - The UserData object representing the user's data.
-     * @param argument - The argument specifying the word count for the new game.
-     * @throws RemoteException - if there is an issue with remote communication
-     *                         while attempting to generate the new game.
+     * @param input    - The user's guess input to process.
+     * @return - An ActiveGameData object containing updated user data and game
+     *         status indicating whether game is ongoing.
+     * @throws RemoteException - if there is an issue with remote communication or
+     *                         processing the guess.
      */
-    private void processNewGame(UserData userData, String argument)
+    public ActiveGameData processPuzzleGuess(long sessionId, UserData userData, String input, int seq)
             throws RemoteException {
-        try {
-            int wordCount = Integer.parseInt(argument.strip());
-            if (wordCount < 2 || wordCount > Constants.MAX_WORD_COUNT) {
-                throw new RemoteException(Constants.WORD_COUNT_NOT_IN_RANGE);
-            }
-
-            createNewGame(userData, wordCount);
-            userData.getGameState().setState(Constants.PLAY_STATE);
-        } catch (NumberFormatException e) {
-            throw new RemoteException(Constants.INVALID_WORD_COUNT);
-        }
+        GameSession session = sessions.get(sessionId);
+        sessionUser(session, userData);
+        return idempotent(session, seq, Operation.GUESS, () -> game.processPuzzleGuess(userData, input));
     }
 
     /**
-     * Create a new game by requesting a stem word and a list of (valid) leaf words
-     * from the word database microservice, then save/update the user data.
-     * 
-     * Details: leaves are generated as follows:
-     * 
-     * 1. A set of random, unique indices in the stem are selected
-     * to determine where to connect the leaves from
-     * 2. Leaves are fetched - choose a word that has at least 1 character
-     * matching the stem's character at the specified index
-     * 3. Each leaf is inserted at a random connecting index, starting
-     * with the leaf that has the least matches possible
-     * 4. Each leaf's matches is updated and sorted by count
-     * 5. Repeat step 3-4 until all leaves are inserted
-     * 
-     * E.g.
-     * -The stem is cat
-     * -The word count is 3 --> 2 leaves needed
-     * -Connecting leaf indices (randomly) chosen are: 0, 2 --> 'c', 't'
-     * -Leaves generated are: cute, soccer
-     * -Soccer may only be inserted at index 0, cute may be inserted at 0 or 2
-     * -Soccer is inserted first, which 'c' in soccer to connect to stem with
-     * is randomly chosen
-     * -Soccer is inserted at index 0, cute may now only be inserted at 2
-     * 
-     * If it is somehow impossible to generate a valid crossword puzzle
-     * from the chosen stem due to insufficient matching leaves, a new stem
-     * will be selected.
-     * 
-     * @param userData  - The UserData object representing the user's data.
-     * @param wordCount - Number of words in the crossword puzzle.
+     * Gets the leaderboard across all user account shards. The leaderboard
+     * changes nothing, so it is not recorded for retries.
+     *
+     * @param userData - The UserData object representing the user's data.
+     * @param count    - The number of users to list.
+     * @return - The leaderboard, formatted for display.
      * @throws RemoteException - if there is an issue with remote communication or
-     *                         saving the game data.
+     *                         the count is out of range.
      */
-    private void createNewGame(UserData userData, int wordCount)
-            throws RemoteException {
-        String words[] = generateWordList(wordCount);
-
-        // Number of attempts is either twice the word count, or the maximum
-        // word count allowed, whichever is less
-        int attempts = Math.min(words.length * 2, Constants.MAX_WORD_COUNT);
-
-        userData.setGameState(new GameState(attempts, words));
-        saveGame(userData, sequence);
+    public String getLeaderboard(long sessionId, UserData userData, int count) throws RemoteException {
+        GameSession session = sessions.get(sessionId);
+        sessionUser(session, userData);
+        throttle(session, Operation.QUERY);
+        return AsyncGameService.await(game.leaderboard(userData, count));
     }
 
     /**
-     * Generates a list of words for a crossword puzzle, by requesting a stem word
-     * and a list of (valid) leaf words from the word database microservice.
-     * 
-     * Details: if it is somehow impossible to generate a valid crossword puzzle
-     * from the chosen stem due to insufficient matching leaves, a new stem will
-     * be selected until a valid puzzle can be generated.
-     * 
-     * @param wordCount - Number of words in the crossword puzzle.
-     * @return an array of strings representing the generated words for the
-     *         crossword puzzle.
-     * @throws RemoteException - if there is an issue with remote communication
-     *                         in fetching the stem or a leaf.
+     * Gets the user logged in on a session.
+     *
+     * @param session - The calling client's session.
+     * @return - The username.
+     * @throws RemoteException - if no user has logged in on the session.
      */
-    private static String[] generateWordList(int wordCount) throws RemoteException {
-        while (true) {
-            ArrayList<String> wordsList = new ArrayList<>();
-            String stem = fetchStem(wordCount - 1);
-            wordsList.add(stem);
-
-            ArrayList<Integer> leafIndicesList = generateLeafIndices(wordCount, stem);
-            if (populateLeaves(leafIndicesList, stem, wordsList)) {
-                return wordsList.toArray(new String[0]);
-            }
+    private static String username(GameSession session) throws RemoteException {
+        String username = session.getUsername();
+        if (username == null) {
+            throw new RemoteException(Constants.NOT_CONNECTED);
         }
+        return username;
     }
 
     /**
-     * Fetches the stem with a specified minimum length from the database.
+     * Checks that a request names the user logged in on its session.
      *
-     * @param minimumLength - Minimum stem length.
-     * @return - The stem fetched from the database.
-     * @throws RemoteException - if there is an issue with remote communication in
-     *                         fetching the stem.
+     * @param session  - The calling client's session.
+     * @param username - The username the request names.
+     * @return - The session's username.
+     * @throws RemoteException - if no user has logged in on the session or
+     *                         the request names another user.
      */
-    private static String fetchStem(int minimumLength) throws RemoteException {
-        if (minimumLength == 1)
-            minimumLength++;
-
-        try {
-            return database.randomWordLength(minimumLength);
-        } catch (RemoteException | SQLException e) {
-            throw new RemoteException(Constants.CANT_COMMUNICATE_WDBS);
+    private static String sessionUser(GameSession session, String username) throws RemoteException {
+        String sessionUser = username(session);
+        if (username == null || !sessionUser.equals(username.trim())) {
+            throw new RemoteException(Constants.NOT_SESSION_USER);
         }
+        return sessionUser;
     }
 
     /**
-     * Generates random leaf indices based on the given word count and stem.
+     * Checks that the user data sent with a request is that of the user
+     * logged in on its session.
      *
-     * @param wordCount - The number of words in the puzzle.
-     * @param stem      - The stem string used for generating leaf indices.
-     * @return - An ArrayList containing randomly generated leaf indices.
+     * @param session  - The calling client's session.
+     * @param userData - The user data the request carries.
+     * @throws RemoteException - if no user has logged in on the session or
+     *                         the data is another user's.
      */
-    private static ArrayList<Integer> generateLeafIndices(int wordCount, String stem) {
-        Set<Integer> leafIndices = new HashSet<>();
-        while (leafIndices.size() < wordCount - 1) {
-            leafIndices.add(new Random().nextInt(stem.length()));
-        }
-        return new ArrayList<>(leafIndices);
+    private static void sessionUser(GameSession session, UserData userData) throws RemoteException {
+        sessionUser(session, userData == null ? null : userData.getUsername());
     }
 
     /**
-     * Insert leaves of a crossword puzzle.
-     * 
-     * Details: insufficient matching leaves is determined when either of the
-     * following scenarios occur:
-     * 
-     * 1. Leaf fetched is empty - no matching leaf possible.
-     * 2. The word database microservice returns 5 consecutive leaves - matching
-     * leaves exist but are insufficient.
-     * 
-     * @param leafIndicesList - An ArrayList containing randomly generated leaf
-     *                        indices.
-     * @param stem            - The stem string used for generating leaf indices.
-     * @param wordsList       - An Arraylist containing the stem and leaves.
-     * @return - A boolean indicating if it possible to generate a valid list of
-     *         unique leaves for the given stem.
-     * @throws RemoteException - if there is an issue with remote communication in
-     *                         fetching a leaf.
+     * Opens a shared puzzle room.
+     *
+     * @param wordCount - The word count, as entered.
+     * @param option    - The name of the difficulty profile, or null for
+     *                  normal.
+     * @return - The id of the new room.
+     * @throws RemoteException - if there is an issue with remote communication,
+     *                         the arguments are invalid or the server has
+     *                         reached its room limit.
      */
-    private static boolean populateLeaves(ArrayList<Integer> leafIndicesList, String stem,
-            ArrayList<String> wordsList) throws RemoteException {
-
-        String leaf = "";
-        int consecutiveDuplicateLeaf = 0;
-
-        for (int i = 0; i < leafIndicesList.size(); i++) {
-            int index = leafIndicesList.get(i).intValue();
-            char connectingCharacter = stem.toCharArray()[index];
-
-            do {
-                leaf = fetchLeaf(connectingCharacter);
-                consecutiveDuplicateLeaf++;
-
-                // Can't create crossword puzzle, exit and return 'unsuccesful' flag
-                if (consecutiveDuplicateLeaf > 5 || leaf.equals("")) {
-                    return false;
-                }
-            } while (wordsList.contains(leaf));
-
-            wordsList.add(leaf);
-            consecutiveDuplicateLeaf = 0;
-        }
-        return true;
+    public String createRoom(long sessionId, String wordCount, String option, int seq) throws RemoteException {
+        GameSession session = sessions.get(sessionId);
+        String username = username(session);
+        return idempotent(session, seq, Operation.COMMAND, () -> game.createRoom(username, wordCount, option));
     }
 
     /**
-     * Fetches the leaf associated with the specified matching character from the
-     * database.
+     * Joins a shared puzzle room. Joining again only replaces the listener,
+     * so it is not recorded for retries.
      *
-     * @param matchingCharacter - The character to match against in the leaf.
-     * @return - The leaf fetched from the database.
-     * @throws RemoteException - if there is an issue with remote communication in
-     *                         fetching the leaf.
+     * @param roomId   - The room id.
+     * @param listener - The listener to push the room's updates to.
+     * @return - The current state of the room.
+     * @throws RemoteException - if there is no such room or it is full.
      */
-    private static String fetchLeaf(char matchingCharacter) throws RemoteException {
-        try {
-            return database.randomWord(matchingCharacter);
-        } catch (RemoteException | SQLException e) {
-            throw new RemoteException(Constants.CANT_COMMUNICATE_WDBS);
-        }
+    public RoomUpdate joinRoom(long sessionId, String roomId, RoomListener listener) throws RemoteException {
+        GameSession session = sessions.get(sessionId);
+        String username = username(session);
+        throttle(session, Operation.COMMAND);
+        return game.joinRoom(username, roomId, listener);
     }
 
     /**
-     * Processes a word query to check if the word is in the database or the puzzle
-     * word list.
+     * Guesses a letter or word in a shared puzzle room.
      *
-     * @param userData - The UserData object representing the user's data.
-     * @param input    - The word query input to process.
-     * @return - A message indicating whether the word is found in the database or
-     *         the puzzle word list.
-     * @throws RemoteException - if there is an issue with remote communication or
-     *                         processing the query.
+     * @param roomId - The room id.
+     * @param input  - The letter or word guessed.
+     * @return - A message indicating whether the guess revealed anything.
+     * @throws RemoteException - if the user is not in the room, its game is
+     *                         over or the guess was already made there.
      */
-    public String processWordQuery(UserData userData, String input, int seq) throws RemoteException {
-
-        if (!idempotancyMap.containsKey(seq)) {
-            boolean found = false;
-
-            // Check if input in database first
-            try {
-                found = database.checkWord(input);
-            } catch (RemoteException | SQLException e) {
-                throw new RemoteException(Constants.CANT_COMMUNICATE_WDBS);
-            }
-
-            if (found)
-                return "\nThe word: " + input + " is in the database.";
-
-            // Check if input in word list used to construct puzzle, in case of
-            // unfortunate delete timing (i.e., user created a game with a specific
-            // word, but then another user deleted said word after)
-
-            String[] words = userData.getGameState().getWords();
-            for (int i = 0; i < words.length; i++) {
-                if (words[i].equals(input)) {
-                    return "\nThe word: " + input + " is in the database.";
-                }
-            }
-
-            return "\nThe word: " + input + " is not in the database.";
-        }
-
-        return (String) idempotancyMap.get(seq);
+    public String roomGuess(long sessionId, String roomId, String input, int seq) throws RemoteException {
+        GameSession session = sessions.get(sessionId);
+        String username = username(session);
+        return idempotent(session, seq, Operation.GUESS, () -> game.roomGuess(username, roomId, input));
     }
 
     /**
-     * Processes a user's guess for the puzzle.
+     * Leaves a shared puzzle room. Leaving twice has no effect, so it is not
+     * recorded for retries.
      *
-     * @param userData - The UserData object representing the user's data.
-     * @param input    - The user's guess input to process.
-     * @return - An ActiveGameData object containing updated user data and game
-     *         status indicating whether game is ongoing.
-     * @throws RemoteException - if there is an issue with remote communication or
-     *                         processing the guess.
+     * @param roomId - The room id.
+     * @throws RemoteException - if there is no such room.
      */
-    public ActiveGameData processPuzzleGuess(UserData userData, String input, int seq) throws RemoteException {
-
-        if (!idempotancyMap.containsKey(seq)) {
-            String message = "";
-            GameState gameState = userData.getGameState();
-            gameState.appendNewGuess(input);
-
-            boolean successfulGuess = gameState.getPuzzle().updatePuzzleGrid(input);
-            gameState.decrementAttempts();
-            if (successfulGuess) {
-                message = "\n*Successful guess: '" + input + "'. Puzzle updated.";
-            } else {
-                message = "\n*Unsuccessful guess: '" + input + "'.";
-            }
-
-            // Check victory condition
-            if (gameState.getPuzzle().checkPuzzleSolved()) {
-                gameState.setState(Constants.IDLE_STATE);
-                message += "\nYou win!";
-                userData.incrementScore();
-                sequence++;
-                return new ActiveGameData(userData, false, message);
-
-            }
-
-            // Check defeat condition
-            if (gameState.getAttempts() == 0) {
-                gameState.setState(Constants.IDLE_STATE);
-                message += "\nYou lose!";
-                sequence++;
-                return new ActiveGameData(userData, false, message);
-            }
-            return new ActiveGameData(userData, true, message);
-        }
-        return (ActiveGameData) idempotancyMap.get(seq);
+    public void leaveRoom(long sessionId, String roomId) throws RemoteException {
+        game.leaveRoom(username(sessions.get(sessionId)), roomId);
     }
 }
@@ -0,0 +1,56 @@
+package GameServer;
+
+import java.rmi.RemoteException;
+import java.rmi.registry.LocateRegistry;
+import java.rmi.registry.Registry;
+
+/**
+ * The RMI socket factories of one service: a BoundedServerSocketFactory for
+ * its exported objects and registry, and the TimeoutClientSocketFactory its
+ * stubs carry to callers. Configured per service in Constants.
+ */
+public class ServiceSockets {
+    public static final ServiceSockets GAME_SERVER = new ServiceSockets("Game server",
+            Constants.GAME_SERVER_MAX_CONNECTIONS, Constants.GAME_SERVER_CALL_TIMEOUT_MS);
+    public static final ServiceSockets USER_ACCOUNTS = new ServiceSockets("User account",
+            Constants.UAS_MAX_CONNECTIONS, Constants.UAS_CALL_TIMEOUT_MS);
+    public static final ServiceSockets WORD_DATABASE = new ServiceSockets("Word database",
+            Constants.WDBS_MAX_CONNECTIONS, Constants.WDBS_SOCKET_CALL_TIMEOUT_MS);
+
+    private final BoundedServerSocketFactory server;
+    private final TimeoutClientSocketFactory client;
+
+    /**
+     * Constructs the socket factories of a service.
+     *
+     * @param name              - The name of the service.
+     * @param maxConnections    - The maximum number of open connections.
+     * @param callTimeoutMillis - The time callers allow for a call, or 0 for
+     *                          no limit.
+     */
+    private ServiceSockets(String name, int maxConnections, int callTimeoutMillis) {
+        this.server = new BoundedServerSocketFactory(name, maxConnections, Constants.SOCKET_BACKLOG,
+                Constants.SOCKET_IDLE_TIMEOUT_MS, Constants.SOCKET_BUFFER_SIZE);
+        this.client = new TimeoutClientSocketFactory(Constants.SOCKET_CONNECT_TIMEOUT_MS, callTimeoutMillis);
+    }
+
+    public BoundedServerSocketFactory server() {
+        return this.server;
+    }
+
+    public TimeoutClientSocketFactory client() {
+        return this.client;
+    }
+
+    /**
+     * Creates the service's registry on a port, with the service's socket
+     * factories.
+     *
+     * @param port - The registry port.
+     * @return - The registry.
+     * @throws RemoteException - if the registry cannot be created.
+     */
+    public Registry createRegistry(int port) throws RemoteException {
+        return LocateRegistry.createRegistry(port, client, server);
+    }
+}
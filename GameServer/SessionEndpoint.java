@@ -0,0 +1,84 @@
+package GameServer;
+
+import java.rmi.Remote;
+import java.rmi.RemoteException;
+
+import UserAccountServer.UserData;
+import UserAccountServer.ActiveGameData;
+
+/**
+ * The SessionEndpoint interface is the single remote endpoint exported by the
+ * game server. Each method mirrors a ServerInterface method, with the id of the
+ * calling client's session as the first parameter.
+ *
+ * Clients do not use this interface directly; ServerFactory.createServer hands
+ * them a SessionHandle that supplies the session id.
+ */
+public interface SessionEndpoint extends Remote {
+
+    /**
+     * @see ServerInterface#checkValidUser(String, int)
+     */
+    int checkValidUser(long sessionId, String username, int sequence) throws RemoteException;
+
+    /**
+     * @see ServerInterface#validateUserData(String, int)
+     */
+    UserData validateUserData(long sessionId, String username, int sequence) throws RemoteException;
+
+    /**
+     * @see ServerInterface#saveGame(UserData, int)
+     */
+    void saveGame(long sessionId, UserData userData, int sequence) throws RemoteException;
+
+    /**
+     * @see ServerInterface#logoutUser(String, int)
+     */
+    void logoutUser(long sessionId, String username, int sequence) throws RemoteException;
+
+    /**
+     * @see ServerInterface#validateHeartbeat(String)
+     */
+    void validateHeartbeat(long sessionId, String username) throws RemoteException;
+
+    /**
+     * @see ServerInterface#processUserInput(UserData, String, int)
+     */
+    UserData processUserInput(long sessionId, UserData userData, String input, int sequence) throws RemoteException;
+
+    /**
+     * @see ServerInterface#processWordQuery(UserData, String, int)
+     */
+    String processWordQuery(long sessionId, UserData userData, String input, int sequence) throws RemoteException;
+
+    /**
+     * @see ServerInterface#processPuzzleGuess(UserData, String, int)
+     */
+    ActiveGameData processPuzzleGuess(long sessionId, UserData userData, String input, int sequence)
+            throws RemoteException;
+
+    /**
+     * @see ServerInterface#getLeaderboard(UserData, int)
+     */
+    String getLeaderboard(long sessionId, UserData userData, int count) throws RemoteException;
+
+    /**
+     * @see ServerInterface#createRoom(String, String, int)
+     */
+    String createRoom(long sessionId, String wordCount, String option, int sequence) throws RemoteException;
+
+    /**
+     * @see ServerInterface#joinRoom(String, RoomListener)
+     */
+    RoomUpdate joinRoom(long sessionId, String roomId, RoomListener listener) throws RemoteException;
+
+    /**
+     * @see ServerInterface#roomGuess(String, String, int)
+     */
+    String roomGuess(long sessionId, String roomId, String input, int sequence) throws RemoteException;
+
+    /**
+     * @see ServerInterface#leaveRoom(String)
+     */
+    void leaveRoom(long sessionId, String roomId) throws RemoteException;
+}
@@ -0,0 +1,181 @@
+package GameServer;
+
+import java.io.Serializable;
+import java.rmi.ConnectException;
+import java.rmi.ConnectIOException;
+import java.rmi.NoSuchObjectException;
+import java.rmi.NotBoundException;
+import java.rmi.RemoteException;
+import java.rmi.ServerException;
+import java.rmi.registry.Registry;
+
+import UserAccountServer.UserData;
+import UserAccountServer.ActiveGameData;
+
+/**
+ * Client-side handle to a game session.
+ *
+ * The handle is passed to the client by value. It holds the stub of the game
+ * server's single SessionEndpoint and the id of the session it was issued
+ * for, and forwards every ServerInterface call to the endpoint with that id.
+ *
+ * If the game server restarted with warm restart enabled, the endpoint stub
+ * is stale, since the new process exports a new endpoint. A call that cannot
+ * reach the endpoint then looks up the ServerFactory in the game server's
+ * registry, which keeps its port, resumes the session there and is retried
+ * once. The retry is safe: the call never reached the server, and the
+ * restored session still answers repeated sequence numbers from its cache.
+ */
+public class SessionHandle implements ServerInterface, Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final long sessionId;
+    private final Registry registry;
+    private volatile SessionEndpoint endpoint;
+
+    /**
+     * A call on the session endpoint.
+     */
+    @FunctionalInterface
+    private interface EndpointCall<T> {
+        T call(SessionEndpoint endpoint) throws RemoteException;
+    }
+
+    /**
+     * Constructs a SessionHandle for the given session.
+     *
+     * @param endpoint  - The game server's exported session endpoint.
+     * @param sessionId - The id of the session this handle belongs to.
+     * @param registry  - The game server's registry, to resume the session in
+     *                  after a restart, or null if it cannot be resumed.
+     */
+    public SessionHandle(SessionEndpoint endpoint, long sessionId, Registry registry) {
+        this.endpoint = endpoint;
+        this.sessionId = sessionId;
+        this.registry = registry;
+    }
+
+    /**
+     * Makes a call on the session endpoint, resuming the session if the
+     * endpoint is gone.
+     *
+     * @param call - The call.
+     * @return - The result of the call.
+     * @throws RemoteException - if the call fails, or the endpoint is gone and
+     *                         the session cannot be resumed.
+     */
+    private <T> T invoke(EndpointCall<T> call) throws RemoteException {
+        SessionEndpoint current = this.endpoint;
+        try {
+            return call.call(current);
+        } catch (NoSuchObjectException | ConnectException | ConnectIOException e) {
+            return call.call(resume(current, e));
+        }
+    }
+
+    /**
+     * Resumes the session on the game server's current endpoint.
+     *
+     * @param stale - The endpoint that could not be reached.
+     * @param cause - The failure to reach it.
+     * @return - The current endpoint.
+     * @throws RemoteException - if the session cannot be resumed.
+     */
+    private synchronized SessionEndpoint resume(SessionEndpoint stale, RemoteException cause)
+            throws RemoteException {
+        if (this.endpoint != stale) {
+            // Another thread already resumed the session
+            return this.endpoint;
+        }
+        if (this.registry == null) {
+            throw cause;
+        }
+        try {
+            this.endpoint = ((ServerFactory) this.registry.lookup("Server")).resumeSession(sessionId);
+            return this.endpoint;
+        } catch (ServerException e) {
+            // The restarted server no longer has the session
+            throw e;
+        } catch (NotBoundException | RemoteException e) {
+            cause.addSuppressed(e);
+            throw cause;
+        }
+    }
+
+    @Override
+    public int checkValidUser(String username, int sequence) throws RemoteException {
+        return invoke(endpoint -> endpoint.checkValidUser(sessionId, username, sequence));
+    }
+
+    @Override
+    public UserData validateUserData(String username, int sequence) throws RemoteException {
+        return invoke(endpoint -> endpoint.validateUserData(sessionId, username, sequence));
+    }
+
+    @Override
+    public void saveGame(UserData userData, int sequence) throws RemoteException {
+        invoke(endpoint -> {
+            endpoint.saveGame(sessionId, userData, sequence);
+            return null;
+        });
+    }
+
+    @Override
+    public void logoutUser(String username, int sequence) throws RemoteException {
+        invoke(endpoint -> {
+            endpoint.logoutUser(sessionId, username, sequence);
+            return null;
+        });
+    }
+
+    @Override
+    public void validateHeartbeat(String username) throws RemoteException {
+        invoke(endpoint -> {
+            endpoint.validateHeartbeat(sessionId, username);
+            return null;
+        });
+    }
+
+    @Override
+    public UserData processUserInput(UserData userData, String input, int sequence) throws RemoteException {
+        return invoke(endpoint -> endpoint.processUserInput(sessionId, userData, input, sequence));
+    }
+
+    @Override
+    public String processWordQuery(UserData userData, String input, int sequence) throws RemoteException {
+        return invoke(endpoint -> endpoint.processWordQuery(sessionId, userData, input, sequence));
+    }
+
+    @Override
+    public ActiveGameData processPuzzleGuess(UserData userData, String input, int sequence) throws RemoteException {
+        return invoke(endpoint -> endpoint.processPuzzleGuess(sessionId, userData, input, sequence));
+    }
+
+    @Override
+    public String getLeaderboard(UserData userData, int count) throws RemoteException {
+        return invoke(endpoint -> endpoint.getLeaderboard(sessionId, userData, count));
+    }
+
+    @Override
+    public String createRoom(String wordCount, String option, int sequence) throws RemoteException {
+        return invoke(endpoint -> endpoint.createRoom(sessionId, wordCount, option, sequence));
+    }
+
+    @Override
+    public RoomUpdate joinRoom(String roomId, RoomListener listener) throws RemoteException {
+        return invoke(endpoint -> endpoint.joinRoom(sessionId, roomId, listener));
+    }
+
+    @Override
+    public String roomGuess(String roomId, String input, int sequence) throws RemoteException {
+        return invoke(endpoint -> endpoint.roomGuess(sessionId, roomId, input, sequence));
+    }
+
+    @Override
+    public void leaveRoom(String roomId) throws RemoteException {
+        invoke(endpoint -> {
+            endpoint.leaveRoom(sessionId, roomId);
+            return null;
+        });
+    }
+}
@@ -0,0 +1,186 @@
+package GameServer;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.rmi.RemoteException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Manages the lifecycle of client sessions on the game server.
+ *
+ * Sessions are plain objects; the only exported remote object is the shared
+ * SessionEndpoint, so opening and closing a session costs no export or
+ * registry lookup. Sessions that see no request (including heartbeats) for
+ * Constants.SESSION_IDLE_TIMEOUT_MS are expired by a background sweeper.
+ *
+ * For warm restarts, the open sessions can be written to a snapshot and
+ * restored from it by the next game server process.
+ */
+public class SessionManager {
+    // Version of the session snapshot format
+    private static final int SESSION_SNAPSHOT_VERSION = 1;
+
+    private final ConcurrentHashMap<Long, GameSession> sessions = new ConcurrentHashMap<>();
+    private final SecureRandom idGenerator = new SecureRandom();
+    private final ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "session-sweeper");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Constructs a SessionManager and starts the idle session sweeper.
+     */
+    public SessionManager() {
+        long period = Constants.SESSION_IDLE_TIMEOUT_MS / 2;
+        sweeper.scheduleAtFixedRate(this::expireIdleSessions, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Opens a new session.
+     *
+     * @return - The new session.
+     * @throws RemoteException - if the maximum number of sessions is reached.
+     */
+    public GameSession open() throws RemoteException {
+        if (sessions.size() >= Constants.MAX_SESSIONS) {
+            throw new RemoteException(Constants.SERVER_FULL);
+        }
+
+        while (true) {
+            GameSession session = new GameSession(idGenerator.nextLong());
+            if (sessions.putIfAbsent(session.getId(), session) == null) {
+                return session;
+            }
+        }
+    }
+
+    /**
+     * Gets an open session and records activity on it.
+     *
+     * @param sessionId - The session id.
+     * @return - The session.
+     * @throws RemoteException - if the session does not exist or has expired.
+     */
+    public GameSession get(long sessionId) throws RemoteException {
+        GameSession session = sessions.get(sessionId);
+        if (session == null) {
+            throw new RemoteException(Constants.SESSION_EXPIRED);
+        }
+        session.touch();
+        return session;
+    }
+
+    /**
+     * Gets an open session without recording activity on it.
+     *
+     * @param sessionId - The session id.
+     * @return - The session, or null if it does not exist or has expired.
+     */
+    public GameSession find(long sessionId) {
+        return sessions.get(sessionId);
+    }
+
+    /**
+     * Closes a session.
+     *
+     * @param sessionId - The session id.
+     */
+    public void close(long sessionId) {
+        sessions.remove(sessionId);
+    }
+
+    /**
+     * Gets all open sessions.
+     *
+     * @return - A live view of the open sessions.
+     */
+    public Collection<GameSession> getSessions() {
+        return sessions.values();
+    }
+
+    /**
+     * Writes the open sessions to a snapshot: the id and username of each,
+     * and its recorded responses, so that requests retried across the
+     * restart are still answered only once.
+     *
+     * @param file - The snapshot file.
+     * @return - The number of sessions written.
+     * @throws IOException - if the snapshot cannot be written.
+     */
+    public int writeSnapshot(Path file) throws IOException {
+        List<GameSession> open = new ArrayList<>(sessions.values());
+        SnapshotFile.write(file, SESSION_SNAPSHOT_VERSION, out -> {
+            out.writeInt(open.size());
+            for (GameSession session : open) {
+                out.writeLong(session.getId());
+                out.writeObject(session.getUsername());
+                Map<Integer, Object> responses = session.getResponses();
+                out.writeInt(responses.size());
+                for (Map.Entry<Integer, Object> response : responses.entrySet()) {
+                    out.writeInt(response.getKey());
+                    out.writeObject(response.getValue());
+                }
+            }
+        });
+        return open.size();
+    }
+
+    /**
+     * Restores the sessions of a snapshot written by writeSnapshot. Restored
+     * sessions count as active now, since their clients could not reach the
+     * server while it restarted.
+     *
+     * @param file - The snapshot file.
+     * @return - The number of sessions restored.
+     */
+    public int restore(Path file) {
+        List<GameSession> restored = SnapshotFile.read(file, SESSION_SNAPSHOT_VERSION, in -> {
+            int count = in.readInt();
+            List<GameSession> snapshot = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                GameSession session = new GameSession(in.readLong());
+                session.setUsername((String) in.readObject());
+                int responseCount = in.readInt();
+                for (int j = 0; j < responseCount; j++) {
+                    session.putResponse(in.readInt(), in.readObject());
+                }
+                snapshot.add(session);
+            }
+            return snapshot;
+        });
+        if (restored == null) {
+            return 0;
+        }
+        for (GameSession session : restored) {
+            sessions.putIfAbsent(session.getId(), session);
+        }
+        return restored.size();
+    }
+
+    /**
+     * Closes every session that has been idle for longer than the timeout.
+     */
+    private void expireIdleSessions() {
+        long cutoff = System.currentTimeMillis() - Constants.SESSION_IDLE_TIMEOUT_MS;
+        Iterator<GameSession> iterator = sessions.values().iterator();
+        while (iterator.hasNext()) {
+            GameSession session = iterator.next();
+            if (session.getLastSeen() < cutoff) {
+                iterator.remove();
+                if (session.getUsername() != null) {
+                    System.out.println("Session for '" + session.getUsername() + "' expired.");
+                }
+            }
+        }
+    }
+}
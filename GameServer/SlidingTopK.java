@@ -0,0 +1,133 @@
+package GameServer;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Approximate most frequent strings of a stream over a sliding window, in
+ * fixed memory.
+ *
+ * Time is cut into buckets of Constants.ANALYTICS_BUCKET_MS, and the last
+ * Constants.ANALYTICS_BUCKETS of them are kept in a ring, each with a
+ * CountMinSketch of its counts and a SpaceSaving summary of its heavy
+ * hitters; a bucket is cleared and reused when its time comes round again.
+ * A query over a window merges the buckets it spans: the candidates are the
+ * heavy hitters of any of them, and a candidate's count is the sum of its
+ * sketch estimates, which is never below its true count in the window.
+ */
+public class SlidingTopK {
+
+    private static final class Bucket {
+        private final CountMinSketch sketch = new CountMinSketch(Constants.ANALYTICS_SKETCH_WIDTH,
+                Constants.ANALYTICS_SKETCH_DEPTH);
+        private final SpaceSaving heavyHitters = new SpaceSaving(Constants.ANALYTICS_HEAVY_HITTERS);
+        private long epoch = -1;
+    }
+
+    private final Bucket[] buckets = new Bucket[Constants.ANALYTICS_BUCKETS];
+
+    /**
+     * Constructs an empty SlidingTopK.
+     */
+    public SlidingTopK() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new Bucket();
+        }
+    }
+
+    /**
+     * Counts one occurrence of a key now.
+     *
+     * @param key - The key.
+     */
+    public synchronized void add(String key) {
+        Bucket bucket = current(System.currentTimeMillis() / Constants.ANALYTICS_BUCKET_MS);
+        bucket.sketch.add(key, 1);
+        bucket.heavyHitters.add(key, 1);
+    }
+
+    /**
+     * Estimates the count of a key over a window ending now.
+     *
+     * @param key      - The key.
+     * @param windowMs - The window length, rounded up to whole buckets.
+     * @return - The estimate; at least the true count.
+     */
+    public synchronized long estimate(String key, long windowMs) {
+        long estimate = 0;
+        for (Bucket bucket : window(windowMs)) {
+            estimate += bucket.sketch.estimate(key);
+        }
+        return estimate;
+    }
+
+    /**
+     * Gets the most frequent keys over a window ending now.
+     *
+     * @param k        - The maximum number of keys.
+     * @param windowMs - The window length, rounded up to whole buckets.
+     * @param filter   - Selects the keys to consider.
+     * @return - The keys and their estimated counts, most frequent first.
+     */
+    public synchronized List<HeavyHitter> top(int k, long windowMs, Predicate<String> filter) {
+        List<Bucket> window = window(windowMs);
+        Set<String> candidates = new HashSet<>();
+        for (Bucket bucket : window) {
+            candidates.addAll(bucket.heavyHitters.keys());
+        }
+
+        List<HeavyHitter> top = new ArrayList<>();
+        for (String key : candidates) {
+            if (filter.test(key)) {
+                long count = 0;
+                for (Bucket bucket : window) {
+                    count += bucket.sketch.estimate(key);
+                }
+                top.add(new HeavyHitter(key, count));
+            }
+        }
+        top.sort(Comparator.comparingLong(HeavyHitter::getCount).reversed().thenComparing(HeavyHitter::getKey));
+        return top.size() > k ? new ArrayList<>(top.subList(0, k)) : top;
+    }
+
+    /**
+     * Gets the bucket of an epoch, clearing it if it held an older epoch.
+     *
+     * @param epoch - The bucket number since the Unix epoch.
+     * @return - The bucket.
+     */
+    private Bucket current(long epoch) {
+        Bucket bucket = buckets[(int) (epoch % buckets.length)];
+        if (bucket.epoch != epoch) {
+            bucket.sketch.clear();
+            bucket.heavyHitters.clear();
+            bucket.epoch = epoch;
+        }
+        return bucket;
+    }
+
+    /**
+     * Gets the buckets of a window ending now.
+     *
+     * @param windowMs - The window length, rounded up to whole buckets and
+     *                 limited to the ring.
+     * @return - The buckets holding counts from the window.
+     */
+    private List<Bucket> window(long windowMs) {
+        long now = System.currentTimeMillis() / Constants.ANALYTICS_BUCKET_MS;
+        long span = Math.max(1, Math.min(buckets.length,
+                (windowMs + Constants.ANALYTICS_BUCKET_MS - 1) / Constants.ANALYTICS_BUCKET_MS));
+        List<Bucket> window = new ArrayList<>((int) span);
+        for (long epoch = now - span + 1; epoch <= now; epoch++) {
+            Bucket bucket = buckets[(int) (epoch % buckets.length)];
+            if (bucket.epoch == epoch) {
+                window.add(bucket);
+            }
+        }
+        return window;
+    }
+}
@@ -0,0 +1,96 @@
+package GameServer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Snapshot of in-memory state written on shutdown and restored on the next
+ * start-up, for warm restarts.
+ *
+ * A snapshot starts with its format version and the time it was written. It
+ * is written to a temporary file that is then moved into place, so a crash
+ * while writing never leaves a partial snapshot. A snapshot is read at most
+ * once: it is deleted when read, and ignored if it is older than
+ * Constants.WARM_RESTART_MAX_AGE_MS, since the state it holds (logins,
+ * sessions) would have expired meanwhile.
+ */
+public class SnapshotFile {
+
+    /**
+     * Writes the body of a snapshot.
+     */
+    @FunctionalInterface
+    public interface Writer {
+        void write(ObjectOutputStream out) throws IOException;
+    }
+
+    /**
+     * Reads the body of a snapshot.
+     */
+    @FunctionalInterface
+    public interface Reader<T> {
+        T read(ObjectInputStream in) throws IOException, ClassNotFoundException;
+    }
+
+    /**
+     * Writes a snapshot.
+     *
+     * @param file    - The snapshot file.
+     * @param version - The format version of the body.
+     * @param writer  - Writes the body.
+     * @throws IOException - if the snapshot cannot be written.
+     */
+    public static void write(Path file, int version, Writer writer) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (ObjectOutputStream out = new ObjectOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            out.writeInt(version);
+            out.writeLong(System.currentTimeMillis());
+            writer.write(out);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads and deletes a snapshot.
+     *
+     * @param file    - The snapshot file.
+     * @param version - The expected format version of the body.
+     * @param reader  - Reads the body.
+     * @return - The body, or null if there is no snapshot, or it is stale,
+     *         of another version or unreadable.
+     */
+    public static <T> T read(Path file, int version, Reader<T> reader) {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            int fileVersion = in.readInt();
+            long age = System.currentTimeMillis() - in.readLong();
+            if (fileVersion != version) {
+                System.out.println("Ignoring snapshot " + file + " of version " + fileVersion);
+                return null;
+            }
+            if (age > Constants.WARM_RESTART_MAX_AGE_MS) {
+                System.out.println("Ignoring snapshot " + file + " written " + age / 1000 + " s ago");
+                return null;
+            }
+            return reader.read(in);
+        } catch (IOException | ClassNotFoundException | RuntimeException e) {
+            System.out.println("Could not read snapshot " + file + ": " + e);
+            return null;
+        } finally {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                System.out.println("Could not delete snapshot " + file + ": " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package GameServer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving summary: the most frequent strings of a stream, in a fixed
+ * number of counters.
+ *
+ * A key that is monitored has its counter incremented. A new key takes over
+ * the counter with the lowest count, keeping that count as its possible
+ * overcount. Any key occurring more than total/capacity times is guaranteed
+ * to be monitored. The counters form a min-heap indexed by key, so each
+ * update takes O(log capacity).
+ */
+public class SpaceSaving {
+    private final String[] keys;
+    private final long[] counts;
+    private final Map<String, Integer> positions;
+    private int size;
+
+    /**
+     * Constructs an empty SpaceSaving summary.
+     *
+     * @param capacity - The number of counters.
+     */
+    public SpaceSaving(int capacity) {
+        this.keys = new String[capacity];
+        this.counts = new long[capacity];
+        this.positions = new HashMap<>(capacity * 2);
+    }
+
+    /**
+     * Adds to the count of a key.
+     *
+     * @param key   - The key.
+     * @param count - The amount to add.
+     */
+    public void add(String key, long count) {
+        Integer position = positions.get(key);
+        if (position != null) {
+            counts[position] += count;
+            siftDown(position);
+        } else if (size < keys.length) {
+            keys[size] = key;
+            counts[size] = count;
+            positions.put(key, size);
+            siftUp(size++);
+        } else {
+            // Replace the key with the lowest count
+            positions.remove(keys[0]);
+            keys[0] = key;
+            counts[0] += count;
+            positions.put(key, 0);
+            siftDown(0);
+        }
+    }
+
+    /**
+     * Gets the monitored keys.
+     *
+     * @return - The keys, in no particular order.
+     */
+    public List<String> keys() {
+        List<String> monitored = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            monitored.add(keys[i]);
+        }
+        return monitored;
+    }
+
+    /**
+     * Forgets every key.
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            keys[i] = null;
+        }
+        positions.clear();
+        size = 0;
+    }
+
+    private void siftUp(int position) {
+        while (position > 0) {
+            int parent = (position - 1) / 2;
+            if (counts[parent] <= counts[position]) {
+                return;
+            }
+            swap(position, parent);
+            position = parent;
+        }
+    }
+
+    private void siftDown(int position) {
+        while (true) {
+            int smallest = position;
+            int left = 2 * position + 1;
+            int right = left + 1;
+            if (left < size && counts[left] < counts[smallest]) {
+                smallest = left;
+            }
+            if (right < size && counts[right] < counts[smallest]) {
+                smallest = right;
+            }
+            if (smallest == position) {
+                return;
+            }
+            swap(position, smallest);
+            position = smallest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        String key = keys[a];
+        keys[a] = keys[b];
+        keys[b] = key;
+        long count = counts[a];
+        counts[a] = counts[b];
+        counts[b] = count;
+        positions.put(keys[a], a);
+        positions.put(keys[b], b);
+    }
+}
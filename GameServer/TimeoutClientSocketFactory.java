@@ -0,0 +1,66 @@
+package GameServer;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.rmi.server.RMIClientSocketFactory;
+
+/**
+ * RMI client socket factory with connect and read timeouts.
+ *
+ * The factory travels inside the stubs of the objects exported with it, so
+ * every caller of a service uses that service's timeouts. RMI keeps the read
+ * timeout of the socket for the life of the connection, so it bounds how
+ * long a call may take; 0 leaves calls unbounded. Sockets have TCP_NODELAY
+ * set, as RMI's default ones do.
+ */
+public class TimeoutClientSocketFactory implements RMIClientSocketFactory, Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final int connectTimeoutMillis;
+    private final int readTimeoutMillis;
+
+    /**
+     * Constructs a TimeoutClientSocketFactory.
+     *
+     * @param connectTimeoutMillis - The time allowed to connect.
+     * @param readTimeoutMillis    - The time allowed for a call, or 0 for no
+     *                             limit.
+     */
+    public TimeoutClientSocketFactory(int connectTimeoutMillis, int readTimeoutMillis) {
+        this.connectTimeoutMillis = connectTimeoutMillis;
+        this.readTimeoutMillis = readTimeoutMillis;
+    }
+
+    @Override
+    public Socket createSocket(String host, int port) throws IOException {
+        Socket socket = new Socket();
+        try {
+            socket.setTcpNoDelay(true);
+            socket.setKeepAlive(true);
+            socket.connect(new InetSocketAddress(host, port), connectTimeoutMillis);
+            socket.setSoTimeout(readTimeoutMillis);
+            return socket;
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    // RMI pools connections per endpoint and factory, so equal factories
+    // must compare equal
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof TimeoutClientSocketFactory)) {
+            return false;
+        }
+        TimeoutClientSocketFactory factory = (TimeoutClientSocketFactory) other;
+        return connectTimeoutMillis == factory.connectTimeoutMillis && readTimeoutMillis == factory.readTimeoutMillis;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * connectTimeoutMillis + readTimeoutMillis;
+    }
+}
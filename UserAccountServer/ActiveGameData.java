@@ -1,16 +1,31 @@
 package UserAccountServer;
 
-import java.io.Serializable;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 
 /**
  * The ActiveGameData class represents data associated with an active game
  * session.
  */
-public class ActiveGameData implements Serializable {
+public class ActiveGameData implements Externalizable {
+    private static final long serialVersionUID = 1L;
+
+    // Version of the wire encoding
+    private static final int ENCODING_VERSION = 1;
+
     private UserData userData;
     private boolean gameStatus;
     private String message;
 
+    /**
+     * Constructs an empty ActiveGameData; used by deserialization only.
+     */
+    public ActiveGameData() {
+    }
+
     /**
      * Constructs an ActiveGameData object with the specified user data, game
      * status, and message.
@@ -69,4 +84,47 @@ public class ActiveGameData implements Serializable {
     public void setMessage(String message) {
         this.message = message;
     }
-}
\ No newline at end of file
+
+    /**
+     * Writes the game data in the compact wire encoding, with the user data
+     * inline.
+     *
+     * @param out - The stream to write to.
+     * @throws IOException - if the stream cannot be written.
+     */
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        out.writeByte(ENCODING_VERSION);
+        out.writeBoolean(this.gameStatus);
+        out.writeBoolean(this.message != null);
+        if (this.message != null) {
+            out.writeUTF(this.message);
+        }
+        out.writeBoolean(this.userData != null);
+        if (this.userData != null) {
+            this.userData.writeExternal(out);
+        }
+    }
+
+    /**
+     * Reads game data written by writeExternal.
+     *
+     * @param in - The stream to read from.
+     * @throws IOException - if the stream cannot be read or holds an unknown
+     *                     encoding.
+     */
+    @Override
+    public void readExternal(ObjectInput in) throws IOException {
+        int version = in.readUnsignedByte();
+        if (version != ENCODING_VERSION) {
+            throw new InvalidObjectException("Unsupported ActiveGameData encoding version " + version);
+        }
+        this.gameStatus = in.readBoolean();
+        this.message = in.readBoolean() ? in.readUTF() : null;
+        this.userData = null;
+        if (in.readBoolean()) {
+            this.userData = new UserData();
+            this.userData.readExternal(in);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package UserAccountServer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+/**
+ * Measures the size and speed of the wire encoding of the game data, as
+ * written by RMI: one object stream per argument or result.
+ *
+ * Plays a game of guesses and reports, per guess, the bytes of the UserData
+ * sent with processPuzzleGuess and of the ActiveGameData it returns, then
+ * the encode and decode throughput of the ActiveGameData.
+ *
+ * Usage: java UserAccountServer.EncodingBenchmark [iterations]
+ */
+public class EncodingBenchmark {
+
+    private static final String[] WORDS = { "encyclopedia", "yearly", "cinema", "payload", "pedal", "copy",
+            "ladder", "idea", "nylon", "acrylic", "opera", "dice" };
+    private static final String[] GUESSES = { "e", "a", "o", "i", "n", "yearly", "l", "c", "copy", "d",
+            "pedal", "r", "s", "t", "cinema", "p", "idea", "y", "u", "m" };
+
+    public static void main(String[] args) throws Exception {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+
+        UserData userData = new UserData("benchmark", true);
+        GameState gameState = new GameState(WORDS.length * 2, WORDS.clone());
+        userData.setGameState(gameState);
+        System.out.println("Puzzle: " + WORDS.length + " words, " + WORDS[0].length() + " rows");
+
+        long requestBytes = 0;
+        long responseBytes = 0;
+        ActiveGameData response = null;
+        for (String guess : GUESSES) {
+            int request = encode(userData).length;
+            gameState.appendNewGuess(guess);
+            gameState.getPuzzle().updatePuzzleGrid(guess);
+            gameState.decrementAttempts();
+            response = new ActiveGameData(userData, true, "\n*Successful guess: '" + guess + "'. Puzzle updated.");
+            int size = encode(response).length;
+            requestBytes += request;
+            responseBytes += size;
+        }
+        System.out.printf("Per guess: %d bytes sent, %d bytes returned (text save format %d bytes)%n",
+                requestBytes / GUESSES.length, responseBytes / GUESSES.length,
+                userData.getUserDataString().length());
+
+        // Warm up, then time
+        byte[] encoded = encode(response);
+        for (int i = 0; i < iterations / 10; i++) {
+            decode(encode(response));
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            encoded = encode(response);
+        }
+        long encodeNanos = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            decode(encoded);
+        }
+        long decodeNanos = System.nanoTime() - start;
+        System.out.printf("Encode: %.0f ns, decode: %.0f ns per ActiveGameData%n",
+                (double) encodeNanos / iterations, (double) decodeNanos / iterations);
+    }
+
+    private static byte[] encode(Object object) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(object);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Object decode(byte[] bytes) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readObject();
+        }
+    }
+}
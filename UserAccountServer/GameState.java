@@ -6,8 +6,23 @@ import GameServer.Constants;
 
 /**
  * Represents the state of the game.
+ *
+ * The wire encoding (see writeExternal) sends the guesses made so far
+ * without the unused slots of the guesses array.
+ *
+ * A game of a shared puzzle (see Puzzle) saves only the id of the shared
+ * solution, the guesses and the mask of revealed cells; its words are those
+ * of the solution.
  */
-public class GameState implements Serializable {
+public class GameState implements Externalizable {
+    private static final long serialVersionUID = 1L;
+
+    // Version of the wire encoding
+    private static final int ENCODING_VERSION = 1;
+    private static final int HAS_WORDS = 1;
+    private static final int HAS_GUESSES = 2;
+    private static final int HAS_PUZZLE = 4;
+
     private String state;
     private int attempts;
     private String[] words;
@@ -15,7 +30,8 @@ public class GameState implements Serializable {
     private Puzzle puzzle;
 
     /**
-     * Constructs a game state with an idle state.
+     * Constructs a game state with an idle state; also used by
+     * deserialization.
      */
     public GameState() {
         this.state = Constants.IDLE_STATE;
@@ -36,6 +52,20 @@ public class GameState implements Serializable {
         this.puzzle = new Puzzle(this.words);
     }
 
+    /**
+     * Constructs a game state with a play state, for a shared puzzle.
+     *
+     * @param attempts - The number of attempts.
+     * @param solution - The shared solution.
+     */
+    public GameState(int attempts, PuzzleSolution solution) {
+        this.state = Constants.PLAY_STATE;
+        this.attempts = attempts;
+        this.words = solution.getWords();
+        this.guesses = new String[this.words.length * 2];
+        this.puzzle = new Puzzle(solution);
+    }
+
     /**
      * Constructs a game state from serialized data.
      * 
@@ -52,6 +82,19 @@ public class GameState implements Serializable {
         } else {
             this.attempts = Integer.parseInt(lines[1].split(";")[1]);
 
+            // Shared puzzle: id, guesses and revealed cells
+            if (lines[2].startsWith("Shared;")) {
+                String[] currentGuesses = lines[3].split(";").length > 1 ? lines[3].split(";")[1].split(",")
+                        : new String[0];
+                this.guesses = new String[currentGuesses.length + this.attempts];
+                System.arraycopy(currentGuesses, 0, this.guesses, 0, currentGuesses.length);
+                this.puzzle = Puzzle.fromSharedSave(lines[2].split(";")[1], lines[4].split(";", 2)[1]);
+                if (this.puzzle.getSolution() != null) {
+                    this.words = this.puzzle.getSolution().getWords();
+                }
+                return;
+            }
+
             String wordsData = lines[2].split(";")[1];
             this.words = wordsData.split(",");
 
@@ -147,6 +190,19 @@ public class GameState implements Serializable {
         return true;
     }
 
+    /**
+     * Counts the guesses made by the player in this game.
+     *
+     * @return - The number of guesses.
+     */
+    public int getGuessCount() {
+        int count = 0;
+        while (count < this.guesses.length && this.guesses[count] != null) {
+            count++;
+        }
+        return count;
+    }
+
     /**
      * Appends a new guess to the list of guesses made by the player.
      *
@@ -170,6 +226,17 @@ public class GameState implements Serializable {
         return this.puzzle;
     }
 
+    /**
+     * Attaches the shared solution to the puzzle of a game loaded from a
+     * save file.
+     *
+     * @param solution - The solution with the puzzle's id.
+     */
+    public void resolve(PuzzleSolution solution) {
+        this.puzzle.resolve(solution);
+        this.words = solution.getWords();
+    }
+
     /**
      * Reset puzzle to null after a completed game.
      */
@@ -187,7 +254,16 @@ public class GameState implements Serializable {
 
         stringBuilder.append("State;").append(this.state).append("\n");
 
-        if (this.puzzle != null) {
+        if (this.puzzle != null && this.puzzle.isShared()) {
+            stringBuilder.append("Attempts;").append(this.attempts).append("\n");
+            stringBuilder.append("Shared;").append(this.puzzle.getSharedId()).append("\n");
+            stringBuilder.append("Guesses;");
+            for (int i = 0; i < this.guesses.length && this.guesses[i] != null; i++) {
+                stringBuilder.append(i > 0 ? "," : "").append(this.guesses[i]);
+            }
+            stringBuilder.append("\n");
+            stringBuilder.append("Mask;").append(this.puzzle.getRevealedMask()).append("\n");
+        } else if (this.puzzle != null) {
             stringBuilder.append("Attempts;").append(this.attempts).append("\n");
 
             stringBuilder.append("Words;");
@@ -215,4 +291,82 @@ public class GameState implements Serializable {
         String gameStateString = stringBuilder.toString();
         return gameStateString;
     }
-}
\ No newline at end of file
+
+    /**
+     * Writes the game state in the compact wire encoding.
+     *
+     * @param out - The stream to write to.
+     * @throws IOException - if the stream cannot be written.
+     */
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        out.writeByte(ENCODING_VERSION);
+        out.writeUTF(this.state);
+        // The words of a shared puzzle come with its solution
+        boolean sendWords = this.words != null && (this.puzzle == null || !this.puzzle.isShared());
+        out.writeByte((sendWords ? HAS_WORDS : 0) | (this.guesses != null ? HAS_GUESSES : 0)
+                | (this.puzzle != null ? HAS_PUZZLE : 0));
+        out.writeInt(this.attempts);
+        if (sendWords) {
+            out.writeShort(this.words.length);
+            for (String word : this.words) {
+                out.writeUTF(word);
+            }
+        }
+        if (this.guesses != null) {
+            int count = 0;
+            while (count < this.guesses.length && this.guesses[count] != null) {
+                count++;
+            }
+            out.writeShort(this.guesses.length);
+            out.writeShort(count);
+            for (int i = 0; i < count; i++) {
+                out.writeUTF(this.guesses[i]);
+            }
+        }
+        if (this.puzzle != null) {
+            this.puzzle.writeExternal(out);
+        }
+    }
+
+    /**
+     * Reads a game state written by writeExternal.
+     *
+     * @param in - The stream to read from.
+     * @throws IOException - if the stream cannot be read or holds an unknown
+     *                     encoding.
+     */
+    @Override
+    public void readExternal(ObjectInput in) throws IOException {
+        int version = in.readUnsignedByte();
+        if (version != ENCODING_VERSION) {
+            throw new InvalidObjectException("Unsupported GameState encoding version " + version);
+        }
+        this.state = in.readUTF();
+        int flags = in.readUnsignedByte();
+        this.attempts = in.readInt();
+        this.words = null;
+        if ((flags & HAS_WORDS) != 0) {
+            this.words = new String[in.readUnsignedShort()];
+            for (int i = 0; i < this.words.length; i++) {
+                this.words[i] = in.readUTF();
+            }
+        }
+        this.guesses = null;
+        if ((flags & HAS_GUESSES) != 0) {
+            this.guesses = new String[in.readUnsignedShort()];
+            int count = in.readUnsignedShort();
+            for (int i = 0; i < count; i++) {
+                this.guesses[i] = in.readUTF();
+            }
+        }
+        this.puzzle = null;
+        if ((flags & HAS_PUZZLE) != 0) {
+            this.puzzle = new Puzzle();
+            this.puzzle.readExternal(in);
+            if (this.words == null && this.puzzle.getSolution() != null) {
+                this.words = this.puzzle.getSolution().getWords();
+            }
+        }
+    }
+}
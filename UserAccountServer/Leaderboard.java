@@ -0,0 +1,313 @@
+package UserAccountServer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import GameServer.Constants;
+
+/**
+ * The scores of one user account shard's users, ranked.
+ *
+ * A Fenwick tree over scores counts the users at or below each score, so the
+ * rank of a score is found in O(log s), s being the highest score; the tree
+ * doubles when a higher score arrives. Scores of
+ * Constants.LEADERBOARD_INDEXED_SCORES and up all share the tree's top slot,
+ * which bounds its size whatever the saved user data holds; the rare ranks
+ * among them are counted from the buckets. The users with each score are
+ * kept in a sorted map of buckets, from which the top N are read in
+ * O(log n + N).
+ * Scores are updated as user data is saved.
+ *
+ * The scores are persisted to Constants.LEADERBOARD_FILE in the data
+ * directory when they change, at most every Constants.LEADERBOARD_FLUSH_MS,
+ * so a restart does not parse every user file. The file is only trusted if
+ * it lists exactly the users whose files are in the directory and is newer
+ * than all of them; otherwise the scores are read from the user files again.
+ */
+public class Leaderboard {
+    // Version of the leaderboard file format
+    private static final int FILE_VERSION = 1;
+
+    private final Path file;
+    private final Map<String, Integer> scores = new HashMap<>();
+    private final TreeMap<Integer, TreeSet<String>> buckets = new TreeMap<>();
+    // Fenwick tree: tree[i] counts the users with a score in (i - lowbit(i), i],
+    // scores being shifted by one
+    private int[] tree = new int[64];
+    private boolean dirty;
+
+    /**
+     * Loads the leaderboard of a data directory, from the leaderboard file if
+     * it is up to date, otherwise from the user files.
+     *
+     * @param dataDirectory - The directory holding the user data files.
+     */
+    public Leaderboard(String dataDirectory) {
+        this.file = new File(dataDirectory, Constants.LEADERBOARD_FILE).toPath();
+
+        Map<String, File> userFiles = new HashMap<>();
+        long newest = 0;
+        File[] files = new File(dataDirectory).listFiles();
+        if (files != null) {
+            for (File userFile : files) {
+                if (userFile.isFile() && userFile.getName().endsWith(".txt")) {
+                    userFiles.put(userFile.getName().replace(".txt", ""), userFile);
+                    newest = Math.max(newest, userFile.lastModified());
+                }
+            }
+        }
+
+        Map<String, Integer> saved = readFile(newest);
+        if (saved != null && saved.keySet().equals(userFiles.keySet())) {
+            saved.forEach(this::put);
+            return;
+        }
+
+        for (Map.Entry<String, File> userFile : userFiles.entrySet()) {
+            int score = readScore(userFile.getValue());
+            if (score >= 0) {
+                put(userFile.getKey(), score);
+            }
+        }
+        this.dirty = true;
+        System.out.println("Rebuilt leaderboard of " + scores.size() + " users from " + dataDirectory);
+    }
+
+    /**
+     * Reads the leaderboard file.
+     *
+     * @param newestUserFile - The modification time of the newest user file.
+     * @return - The scores by username, or null if there is no file, or it is
+     *         older than a user file, of another version or unreadable.
+     */
+    private Map<String, Integer> readFile(long newestUserFile) {
+        File leaderboardFile = this.file.toFile();
+        if (!leaderboardFile.isFile() || leaderboardFile.lastModified() <= newestUserFile) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(this.file)))) {
+            if (in.readInt() != FILE_VERSION) {
+                return null;
+            }
+            int count = in.readInt();
+            Map<String, Integer> saved = new HashMap<>(count * 2);
+            for (int i = 0; i < count; i++) {
+                saved.put(in.readUTF(), in.readInt());
+            }
+            return saved;
+        } catch (IOException e) {
+            System.out.println("Could not read leaderboard file " + this.file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Reads the score from a user data file.
+     *
+     * @param userFile - The user data file.
+     * @return - The score, or -1 if the file has none.
+     */
+    private static int readScore(File userFile) {
+        try (BufferedReader reader = new BufferedReader(new FileReader(userFile))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("Score;")) {
+                    return Integer.parseInt(line.substring("Score;".length()).trim());
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            System.out.println("Could not read score of " + userFile + ": " + e.getMessage());
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the score from a user data string, as saved by the game server.
+     *
+     * @param data - The user data string.
+     * @return - The score, or -1 if the data has none.
+     */
+    public static int parseScore(String data) {
+        int start = data.indexOf("Score;");
+        if (start < 0) {
+            return -1;
+        }
+        start += "Score;".length();
+        int end = data.indexOf('\n', start);
+        try {
+            return Integer.parseInt(data.substring(start, end < 0 ? data.length() : end).trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Records a user's score.
+     *
+     * @param username - The username.
+     * @param score    - The user's score; negative scores are ignored.
+     */
+    public synchronized void update(String username, int score) {
+        if (score < 0) {
+            return;
+        }
+        Integer previous = scores.get(username);
+        if (previous != null && previous == score) {
+            return;
+        }
+        if (previous != null) {
+            remove(username, previous);
+        }
+        put(username, score);
+        this.dirty = true;
+    }
+
+    /**
+     * Gets the users with the highest scores, highest first; users with equal
+     * scores are in username order.
+     *
+     * @param count - The maximum number of users.
+     * @return - The users and their scores.
+     */
+    public synchronized List<LeaderboardEntry> top(int count) {
+        List<LeaderboardEntry> top = new ArrayList<>(Math.min(count, scores.size()));
+        for (Map.Entry<Integer, TreeSet<String>> bucket : buckets.descendingMap().entrySet()) {
+            for (String username : bucket.getValue()) {
+                if (top.size() == count) {
+                    return top;
+                }
+                top.add(new LeaderboardEntry(username, bucket.getKey()));
+            }
+        }
+        return top;
+    }
+
+    /**
+     * Counts the users with a higher score than the given one.
+     *
+     * @param score - The score.
+     * @return - The number of users with a higher score.
+     */
+    public synchronized int countHigher(int score) {
+        if (score < 0) {
+            return scores.size();
+        }
+        if (score >= Constants.LEADERBOARD_INDEXED_SCORES) {
+            int higher = 0;
+            for (TreeSet<String> bucket : buckets.tailMap(score, false).values()) {
+                higher += bucket.size();
+            }
+            return higher;
+        }
+        // Users at or below the score: prefix sum over shifted scores 1..score+1
+        int atOrBelow = 0;
+        for (int i = Math.min(score + 1, tree.length - 1); i > 0; i -= i & -i) {
+            atOrBelow += tree[i];
+        }
+        return scores.size() - atOrBelow;
+    }
+
+    /**
+     * Writes the scores to the leaderboard file if they changed since the
+     * last write. The file is written to a temporary file and moved into
+     * place.
+     */
+    public void flush() {
+        Map<String, Integer> snapshot;
+        synchronized (this) {
+            if (!dirty) {
+                return;
+            }
+            snapshot = new LinkedHashMap<>(scores);
+            dirty = false;
+        }
+
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                out.writeInt(FILE_VERSION);
+                out.writeInt(snapshot.size());
+                for (Map.Entry<String, Integer> entry : snapshot.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    out.writeInt(entry.getValue());
+                }
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            synchronized (this) {
+                dirty = true;
+            }
+            System.out.println("Could not write leaderboard file " + file + ": " + e.getMessage());
+        }
+    }
+
+    private void put(String username, int score) {
+        scores.put(username, score);
+        buckets.computeIfAbsent(score, s -> new TreeSet<>()).add(username);
+        add(score, 1);
+    }
+
+    private void remove(String username, int score) {
+        scores.remove(username);
+        TreeSet<String> bucket = buckets.get(score);
+        bucket.remove(username);
+        if (bucket.isEmpty()) {
+            buckets.remove(score);
+        }
+        add(score, -1);
+    }
+
+    /**
+     * Adds to the count of users with a score, growing the tree to cover it.
+     *
+     * @param score - The score.
+     * @param delta - The change in the number of users with the score.
+     */
+    private void add(int score, int delta) {
+        score = Math.min(score, Constants.LEADERBOARD_INDEXED_SCORES);
+        if (score + 1 >= tree.length) {
+            int length = tree.length;
+            while (score + 1 >= length) {
+                length *= 2;
+            }
+            // The tree's nodes depend on its length only through their
+            // ranges, so copying the counts and filling the new power-of-two
+            // root keeps the existing nodes valid
+            int[] grown = Arrays.copyOf(tree, length);
+            for (int i = tree.length; i < length; i *= 2) {
+                grown[i] = total(i - 1, grown);
+            }
+            tree = grown;
+        }
+        for (int i = score + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    private static int total(int index, int[] tree) {
+        int sum = 0;
+        for (int i = index; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,42 @@
+package UserAccountServer;
+
+import java.io.Serializable;
+
+/**
+ * A user and their score, as listed on the leaderboard.
+ */
+public class LeaderboardEntry implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final String username;
+    private final int score;
+
+    /**
+     * Constructs a LeaderboardEntry.
+     *
+     * @param username - The username.
+     * @param score    - The user's score.
+     */
+    public LeaderboardEntry(String username, int score) {
+        this.username = username;
+        this.score = score;
+    }
+
+    /**
+     * Gets the username.
+     *
+     * @return - The username.
+     */
+    public String getUsername() {
+        return this.username;
+    }
+
+    /**
+     * Gets the user's score.
+     *
+     * @return - The score.
+     */
+    public int getScore() {
+        return this.score;
+    }
+}
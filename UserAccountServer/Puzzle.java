@@ -1,15 +1,43 @@
 package UserAccountServer;
 
-import java.io.Serializable;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HexFormat;
 import java.util.Random;
 
 /**
  * Represents a puzzle with a stem, dimensions, and two 2D char grids.
+ *
+ * The wire encoding (see writeExternal) packs the solution grid as one byte
+ * per cell and the puzzle grid as one bit per cell, telling whether the
+ * cell is revealed; every hidden cell of the puzzle grid is a '-'. Puzzles
+ * that do not fit this form, e.g. loaded from a damaged save file, are sent
+ * row by row instead.
+ *
+ * A shared puzzle (e.g. the daily puzzle) has no grids of its own: it
+ * references an immutable PuzzleSolution by id and keeps only a bit mask of
+ * the cells the player has revealed, in memory, on the wire and in save
+ * files. A shared puzzle loaded from a save file is unresolved (it only has
+ * the id) until resolve is called with its solution, and cannot be played
+ * before then.
  */
-public class Puzzle implements Serializable {
+public class Puzzle implements Externalizable {
+    private static final long serialVersionUID = 1L;
+
+    // Version of the wire encoding
+    private static final int ENCODING_VERSION = 1;
+    private static final int MASKED_GRIDS = 0;
+    private static final int GRID_ROWS = 1;
+    private static final int SHARED_MASK = 2;
+
     private String stem;
 
     // Puzzle height and width (i.e., rows/columns, respectively)
@@ -24,6 +52,21 @@ public class Puzzle implements Serializable {
     private char[][] puzzleGrid;
     private char[][] solutionGrid;
 
+    /**
+     * A shared puzzle has the id of its solution, the solution once resolved
+     * (solutionGrid is then the solution's grid, and puzzleGrid is null) and
+     * the revealed cells, by index row * (columns - 1) + column.
+     */
+    private String sharedId;
+    private PuzzleSolution solution;
+    private BitSet revealed;
+
+    /**
+     * Constructs an empty Puzzle; used by deserialization and fromSharedSave only.
+     */
+    public Puzzle() {
+    }
+
     /**
      * Constructs a Puzzle object with the given words.
      * 
@@ -45,6 +88,37 @@ public class Puzzle implements Serializable {
         initializePuzzleGrid();
     }
 
+    /**
+     * Constructs a shared puzzle with no cells revealed.
+     *
+     * @param solution - The shared solution.
+     */
+    public Puzzle(PuzzleSolution solution) {
+        this.sharedId = solution.getId();
+        this.revealed = new BitSet();
+        resolve(solution);
+    }
+
+    /**
+     * Creates a shared puzzle from a save file, resolved at once if this
+     * process has interned its solution.
+     *
+     * @param sharedId     - The id of the shared solution.
+     * @param revealedMask - The revealed cells, as written by
+     *                     getRevealedMask.
+     * @return - The puzzle.
+     */
+    public static Puzzle fromSharedSave(String sharedId, String revealedMask) {
+        Puzzle puzzle = new Puzzle();
+        puzzle.sharedId = sharedId;
+        puzzle.revealed = BitSet.valueOf(HexFormat.of().parseHex(revealedMask.strip()));
+        PuzzleSolution interned = PuzzleSolution.find(sharedId);
+        if (interned != null) {
+            puzzle.resolve(interned);
+        }
+        return puzzle;
+    }
+
     /**
      * Constructs a Puzzle object with the given stem and puzzle data.
      * 
@@ -288,7 +362,7 @@ public class Puzzle implements Serializable {
             for (int i = 0; i < this.rows; i++) {
                 for (int j = 0; j < this.columns; j++) {
                     if (this.solutionGrid[i][j] == inputArray[0]) {
-                        this.puzzleGrid[i][j] = inputArray[0];
+                        reveal(i, j);
                         updated = true;
                     }
                 }
@@ -297,7 +371,7 @@ public class Puzzle implements Serializable {
             // Multiple character input - stem match
             if (input.equals(this.stem)) {
                 for (int i = 0; i < this.rows; i++) {
-                    this.puzzleGrid[i][(this.columns - 2) / 2] = inputArray[i];
+                    reveal(i, (this.columns - 2) / 2);
                 }
                 return true;
             }
@@ -307,7 +381,9 @@ public class Puzzle implements Serializable {
                 String leaf = new String(this.solutionGrid[i])
                         .replaceAll("[.+]", "");
                 if (leaf.equals(input)) {
-                    this.puzzleGrid[i] = this.solutionGrid[i];
+                    for (int j = 0; j < this.columns; j++) {
+                        reveal(i, j);
+                    }
                     return true;
                 }
             }
@@ -322,16 +398,162 @@ public class Puzzle implements Serializable {
      * @return - true if the puzzle is solved, false otherwise.
      */
     public boolean checkPuzzleSolved() {
+        if (this.sharedId != null) {
+            return countHiddenCells() == 0;
+        }
         return (gridToString(this.puzzleGrid).equals(gridToString(this.solutionGrid)));
     }
 
+    /**
+     * Checks whether one of the puzzle's words is fully revealed: the stem's
+     * column, or a leaf's row.
+     *
+     * @param word - The word, in any case.
+     * @return - true if the word is in the puzzle and fully revealed, false
+     *         otherwise.
+     */
+    public boolean isWordRevealed(String word) {
+        if (word.equalsIgnoreCase(this.stem)) {
+            int stemColumn = (this.columns - 2) / 2;
+            for (int i = 0; i < this.rows; i++) {
+                if (!isRevealed(i, stemColumn)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        for (int i = 0; i < this.rows; i++) {
+            String leaf = new String(this.solutionGrid[i]).replaceAll("[.+]", "");
+            if (leaf.equalsIgnoreCase(word)) {
+                if (this.sharedId == null) {
+                    return Arrays.equals(this.puzzleGrid[i], this.solutionGrid[i]);
+                }
+                for (int j = 0; j < this.columns; j++) {
+                    if (!isRevealed(i, j)) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Counts the cells of the puzzle not yet revealed.
+     *
+     * @return - The number of cells that differ from the solution.
+     */
+    public int countHiddenCells() {
+        int hidden = 0;
+        for (int i = 0; i < this.rows; i++) {
+            for (int j = 0; j < this.columns; j++) {
+                if (!isRevealed(i, j)) {
+                    hidden++;
+                }
+            }
+        }
+        return hidden;
+    }
+
     /**
      * Exports the puzzle as a string.
      * 
      * @return - The string representation of the puzzle grid.
      */
     public String getPuzzleString() {
-        return gridToString(this.puzzleGrid);
+        if (this.sharedId == null) {
+            return gridToString(this.puzzleGrid);
+        }
+        StringBuilder stringBuilder = new StringBuilder();
+        for (int i = 0; i < this.rows; i++) {
+            for (int j = 0; j < this.columns; j++) {
+                stringBuilder.append(isRevealed(i, j) ? this.solutionGrid[i][j] : '-');
+            }
+            stringBuilder.append("\n");
+        }
+        return stringBuilder.toString();
+    }
+
+    /**
+     * Checks whether a cell is shown to the player: a revealed word
+     * character, or a '.' or '+'.
+     *
+     * @param row    - The row.
+     * @param column - The column.
+     * @return - true if the cell is shown as in the solution.
+     */
+    private boolean isRevealed(int row, int column) {
+        if (this.sharedId == null) {
+            return this.puzzleGrid[row][column] == this.solutionGrid[row][column];
+        }
+        char cell = this.solutionGrid[row][column];
+        return cell == '.' || cell == '+' || this.revealed.get(row * (this.columns - 1) + column);
+    }
+
+    /**
+     * Reveals a cell to the player.
+     *
+     * @param row    - The row.
+     * @param column - The column.
+     */
+    private void reveal(int row, int column) {
+        if (this.sharedId == null) {
+            this.puzzleGrid[row][column] = this.solutionGrid[row][column];
+        } else if (this.solutionGrid[row][column] != '.' && this.solutionGrid[row][column] != '+') {
+            this.revealed.set(row * (this.columns - 1) + column);
+        }
+    }
+
+    /**
+     * Checks whether this is a shared puzzle.
+     *
+     * @return - true if the puzzle references a shared solution.
+     */
+    public boolean isShared() {
+        return this.sharedId != null;
+    }
+
+    /**
+     * Gets the id of the shared solution.
+     *
+     * @return - The id, or null if the puzzle is not shared.
+     */
+    public String getSharedId() {
+        return this.sharedId;
+    }
+
+    /**
+     * Gets the shared solution.
+     *
+     * @return - The solution, or null if the puzzle is not shared or not yet
+     *         resolved.
+     */
+    public PuzzleSolution getSolution() {
+        return this.solution;
+    }
+
+    /**
+     * Attaches the shared solution to a shared puzzle.
+     *
+     * @param solution - The solution with the puzzle's id.
+     */
+    public void resolve(PuzzleSolution solution) {
+        this.solution = solution;
+        this.stem = solution.getWords()[0];
+        this.rows = solution.getRows();
+        this.columns = solution.getColumns();
+        this.solutionGrid = solution.grid;
+        this.puzzleGrid = null;
+    }
+
+    /**
+     * Exports the revealed cells of a shared puzzle for a save file.
+     *
+     * @return - The revealed cells, as hex digits.
+     */
+    public String getRevealedMask() {
+        return HexFormat.of().formatHex(this.revealed.toByteArray());
     }
 
     /**
@@ -356,4 +578,166 @@ public class Puzzle implements Serializable {
         }
         return stringBuilder.toString();
     }
-}
\ No newline at end of file
+
+    /**
+     * Writes the puzzle in the compact wire encoding.
+     *
+     * @param out - The stream to write to.
+     * @throws IOException - if the stream cannot be written.
+     */
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        out.writeByte(ENCODING_VERSION);
+        out.writeUTF(this.stem == null ? "" : this.stem);
+        if (this.sharedId != null) {
+            // The solution is sent only once resolved, for display; the game
+            // server resolves puzzles it receives against its own solutions
+            out.writeByte(SHARED_MASK);
+            out.writeBoolean(this.solution != null);
+            if (this.solution != null) {
+                this.solution.writeTo(out);
+            } else {
+                out.writeUTF(this.sharedId);
+            }
+            byte[] mask = this.revealed.toByteArray();
+            out.writeShort(mask.length);
+            out.write(mask);
+            return;
+        }
+        if (!canMaskGrids()) {
+            out.writeByte(GRID_ROWS);
+            writeRows(out, this.puzzleGrid);
+            out.writeBoolean(this.solutionGrid != null);
+            if (this.solutionGrid != null) {
+                writeRows(out, this.solutionGrid);
+            }
+            return;
+        }
+
+        // The last column is always '+' and is left out
+        int width = this.columns - 1;
+        byte[] cells = new byte[this.rows * width];
+        byte[] revealed = new byte[(cells.length + 7) / 8];
+        for (int i = 0; i < this.rows; i++) {
+            for (int j = 0; j < width; j++) {
+                int cell = i * width + j;
+                cells[cell] = (byte) this.solutionGrid[i][j];
+                if (this.puzzleGrid[i][j] == this.solutionGrid[i][j]) {
+                    revealed[cell >> 3] |= (byte) (1 << (cell & 7));
+                }
+            }
+        }
+        out.writeByte(MASKED_GRIDS);
+        out.writeShort(this.rows);
+        out.writeShort(this.columns);
+        out.write(cells);
+        out.write(revealed);
+    }
+
+    /**
+     * Reads a puzzle written by writeExternal.
+     *
+     * @param in - The stream to read from.
+     * @throws IOException - if the stream cannot be read or holds an unknown
+     *                     encoding.
+     */
+    @Override
+    public void readExternal(ObjectInput in) throws IOException {
+        int version = in.readUnsignedByte();
+        if (version != ENCODING_VERSION) {
+            throw new InvalidObjectException("Unsupported Puzzle encoding version " + version);
+        }
+        this.stem = in.readUTF();
+        int encoding = in.readUnsignedByte();
+        if (encoding == SHARED_MASK) {
+            PuzzleSolution shared;
+            if (in.readBoolean()) {
+                shared = PuzzleSolution.readFrom(in);
+                this.sharedId = shared.getId();
+            } else {
+                this.sharedId = in.readUTF();
+                shared = PuzzleSolution.find(this.sharedId);
+            }
+            byte[] mask = new byte[in.readUnsignedShort()];
+            in.readFully(mask);
+            this.revealed = BitSet.valueOf(mask);
+            if (shared != null) {
+                resolve(shared);
+            }
+            return;
+        }
+        if (encoding == GRID_ROWS) {
+            this.puzzleGrid = readRows(in);
+            this.solutionGrid = in.readBoolean() ? readRows(in) : null;
+            this.rows = this.puzzleGrid.length;
+            this.columns = this.rows == 0 ? 0 : this.puzzleGrid[0].length;
+            return;
+        }
+        if (encoding != MASKED_GRIDS) {
+            throw new InvalidObjectException("Unsupported Puzzle grid encoding " + encoding);
+        }
+
+        this.rows = in.readUnsignedShort();
+        this.columns = in.readUnsignedShort();
+        int width = this.columns - 1;
+        byte[] cells = new byte[this.rows * width];
+        byte[] revealed = new byte[(cells.length + 7) / 8];
+        in.readFully(cells);
+        in.readFully(revealed);
+        this.puzzleGrid = new char[this.rows][this.columns];
+        this.solutionGrid = new char[this.rows][this.columns];
+        for (int i = 0; i < this.rows; i++) {
+            for (int j = 0; j < width; j++) {
+                int cell = i * width + j;
+                char solution = (char) (cells[cell] & 0xff);
+                this.solutionGrid[i][j] = solution;
+                this.puzzleGrid[i][j] = (revealed[cell >> 3] & (1 << (cell & 7))) != 0 ? solution : '-';
+            }
+            this.solutionGrid[i][width] = '+';
+            this.puzzleGrid[i][width] = '+';
+        }
+    }
+
+    /**
+     * Checks whether the grids fit the masked wire encoding: both grids are
+     * rows x columns, every row ends in '+', every solution character fits in
+     * a byte and every cell of the puzzle grid is either revealed or '-'.
+     *
+     * @return - true if the grids can be masked.
+     */
+    private boolean canMaskGrids() {
+        if (this.solutionGrid == null || this.columns < 1 || this.rows > 0xffff || this.columns > 0xffff
+                || this.puzzleGrid.length != this.rows || this.solutionGrid.length != this.rows) {
+            return false;
+        }
+        for (int i = 0; i < this.rows; i++) {
+            char[] puzzleRow = this.puzzleGrid[i];
+            char[] solutionRow = this.solutionGrid[i];
+            if (puzzleRow.length != this.columns || solutionRow.length != this.columns
+                    || puzzleRow[this.columns - 1] != '+' || solutionRow[this.columns - 1] != '+') {
+                return false;
+            }
+            for (int j = 0; j < this.columns - 1; j++) {
+                if (solutionRow[j] > 0xff || (puzzleRow[j] != solutionRow[j] && puzzleRow[j] != '-')) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static void writeRows(ObjectOutput out, char[][] grid) throws IOException {
+        out.writeShort(grid.length);
+        for (char[] row : grid) {
+            out.writeUTF(new String(row));
+        }
+    }
+
+    private static char[][] readRows(ObjectInput in) throws IOException {
+        char[][] grid = new char[in.readUnsignedShort()][];
+        for (int i = 0; i < grid.length; i++) {
+            grid[i] = in.readUTF().toCharArray();
+        }
+        return grid;
+    }
+}
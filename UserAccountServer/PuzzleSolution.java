@@ -0,0 +1,205 @@
+package UserAccountServer;
+
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import GameServer.Constants;
+
+/**
+ * The solved layout of a puzzle that many players share, e.g. the daily
+ * puzzle, referenced by id.
+ *
+ * A PuzzleSolution is immutable. The game server interns the solutions it
+ * fetches from the user account shards (see intern), so every Puzzle of the
+ * same id shares one grid and one word list, and a player's Puzzle only adds
+ * a mask of the cells it has revealed. Solutions read from the wire are
+ * never interned: they may come from a client, and the interned solutions
+ * are what the game server trusts.
+ * The newest Constants.SHARED_SOLUTIONS_KEPT ids are kept; ids are compared
+ * as strings, so date ids (yyyy-mm-dd) keep the latest days.
+ */
+public class PuzzleSolution {
+    private static final ConcurrentSkipListMap<String, PuzzleSolution> interned = new ConcurrentSkipListMap<>();
+
+    private final String id;
+    private final String[] words;
+    private final int rows;
+    private final int columns;
+    // Never modified after construction
+    final char[][] grid;
+
+    /**
+     * Constructs a PuzzleSolution.
+     *
+     * @param id    - The id of the puzzle.
+     * @param words - The puzzle words, stem first.
+     * @param grid  - The solution grid; taken over, not copied.
+     */
+    private PuzzleSolution(String id, String[] words, char[][] grid) {
+        this.id = id;
+        this.words = words;
+        this.grid = grid;
+        this.rows = grid.length;
+        this.columns = this.rows == 0 ? 0 : grid[0].length;
+    }
+
+    /**
+     * Lays out a new puzzle from a list of words.
+     *
+     * @param id    - The id of the puzzle.
+     * @param words - The puzzle words, stem first.
+     * @return - The solution.
+     */
+    public static PuzzleSolution generate(String id, String[] words) {
+        String[] lowerCase = words.clone();
+        Puzzle puzzle = new Puzzle(lowerCase);
+        return new PuzzleSolution(id, lowerCase, toGrid(puzzle.getSolutionString()));
+    }
+
+    /**
+     * Parses a solution written by toText.
+     *
+     * @param id   - The id of the puzzle.
+     * @param text - The text.
+     * @return - The solution.
+     * @throws IllegalArgumentException - if the text is not a solution.
+     */
+    public static PuzzleSolution fromText(String id, String text) {
+        String[] lines = text.split("\n", 2);
+        if (!lines[0].startsWith("Words;") || lines.length < 2) {
+            throw new IllegalArgumentException("Not a puzzle solution: " + id);
+        }
+        return new PuzzleSolution(id, lines[0].substring("Words;".length()).split(","), toGrid(lines[1]));
+    }
+
+    /**
+     * Converts the rows of a grid, one per line, into a grid.
+     *
+     * @param gridString - The rows.
+     * @return - The grid.
+     */
+    private static char[][] toGrid(String gridString) {
+        String[] lines = gridString.trim().split("\n");
+        char[][] grid = new char[lines.length][];
+        for (int i = 0; i < lines.length; i++) {
+            grid[i] = lines[i].toCharArray();
+        }
+        return grid;
+    }
+
+    /**
+     * Exports the solution as text: the words, then the grid.
+     *
+     * @return - The text.
+     */
+    public String toText() {
+        StringBuilder stringBuilder = new StringBuilder("Words;").append(String.join(",", this.words)).append("\n");
+        for (char[] row : this.grid) {
+            stringBuilder.append(row).append("\n");
+        }
+        return stringBuilder.toString();
+    }
+
+    /**
+     * Gets the interned solution equal to this one: the first solution of
+     * this id seen by the process, which this one becomes if there was none.
+     *
+     * @return - The interned solution.
+     */
+    public PuzzleSolution intern() {
+        PuzzleSolution existing = interned.putIfAbsent(this.id, this);
+        while (interned.size() > Constants.SHARED_SOLUTIONS_KEPT) {
+            interned.pollFirstEntry();
+        }
+        return existing != null ? existing : this;
+    }
+
+    /**
+     * Finds an interned solution.
+     *
+     * @param id - The id of the puzzle.
+     * @return - The solution, or null if this process has not seen it.
+     */
+    public static PuzzleSolution find(String id) {
+        return interned.get(id);
+    }
+
+    public String getId() {
+        return this.id;
+    }
+
+    /**
+     * Gets the puzzle words, stem first. The array is shared and must not be
+     * modified.
+     *
+     * @return - The words.
+     */
+    public String[] getWords() {
+        return this.words;
+    }
+
+    public int getRows() {
+        return this.rows;
+    }
+
+    public int getColumns() {
+        return this.columns;
+    }
+
+    /**
+     * Writes the solution in the compact wire encoding: the words, then one
+     * byte per cell, leaving out the last column (always '+').
+     *
+     * @param out - The stream to write to.
+     * @throws IOException - if the stream cannot be written.
+     */
+    void writeTo(ObjectOutput out) throws IOException {
+        out.writeUTF(this.id);
+        out.writeShort(this.words.length);
+        for (String word : this.words) {
+            out.writeUTF(word);
+        }
+        out.writeShort(this.rows);
+        out.writeShort(this.columns);
+        for (char[] row : this.grid) {
+            for (int j = 0; j < this.columns - 1; j++) {
+                out.writeByte(row[j]);
+            }
+        }
+    }
+
+    /**
+     * Reads a solution written by writeTo. The solution is not interned.
+     *
+     * @param in - The stream to read from.
+     * @return - The interned solution of the id if there is one, otherwise
+     *         the solution read.
+     * @throws IOException - if the stream cannot be read.
+     */
+    static PuzzleSolution readFrom(ObjectInput in) throws IOException {
+        String id = in.readUTF();
+        String[] words = new String[in.readUnsignedShort()];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = in.readUTF();
+        }
+        int rows = in.readUnsignedShort();
+        int columns = in.readUnsignedShort();
+        if (columns < 1) {
+            throw new InvalidObjectException("Invalid puzzle solution width " + columns);
+        }
+        char[][] grid = new char[rows][columns];
+        for (char[] row : grid) {
+            for (int j = 0; j < columns - 1; j++) {
+                row[j] = (char) in.readUnsignedByte();
+            }
+            row[columns - 1] = '+';
+        }
+
+        // Skip the copy just read if this process already has the solution
+        PuzzleSolution existing = interned.get(id);
+        return existing != null ? existing : new PuzzleSolution(id, words, grid);
+    }
+}
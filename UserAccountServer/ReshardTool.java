@@ -0,0 +1,113 @@
+package UserAccountServer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import GameServer.Constants;
+
+/**
+ * Offline tool that moves user data files between shard data directories
+ * after the shard map changes.
+ *
+ * Usage: ReshardTool oldShardMap newShardMap [--dry-run]
+ *
+ * Every user data file found in a shard directory of the old map is moved to
+ * the directory of its owning shard in the new map, if that differs. Only the
+ * users whose hash ranges changed owner are moved. Shared puzzle solutions
+ * (<id>.puzzle) are moved the same way, by the owner of their id, so that
+ * saved games of a shared puzzle keep resolving to the same layout. All
+ * UserAccountServer shards must be stopped while the tool runs.
+ */
+public class ReshardTool {
+
+    /**
+     * Main method to run the tool.
+     *
+     * @param args - Command-line arguments: oldShardMap newShardMap [--dry-run].
+     */
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: ReshardTool oldShardMap newShardMap [--dry-run]");
+            return;
+        }
+        boolean dryRun = args.length > 2 && args[2].equals("--dry-run");
+
+        try {
+            ShardMap oldMap = ShardMap.load(args[0]);
+            ShardMap newMap = ShardMap.load(args[1]);
+            int[] counts = reshard(oldMap, newMap, dryRun);
+            System.out.println((dryRun ? "Would move " : "Moved ") + counts[1] + " of " + counts[0]
+                    + " user data and shared puzzle files.");
+        } catch (IOException e) {
+            System.err.println("Resharding failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Moves every user data file and shared puzzle solution to the directory
+     * of its owner in the new map.
+     *
+     * @param oldMap - The shard map the files are currently laid out by.
+     * @param newMap - The shard map to lay the files out by.
+     * @param dryRun - If true, only report the moves.
+     * @return - The number of files examined and the number moved.
+     * @throws IOException - if a file cannot be moved.
+     */
+    public static int[] reshard(ShardMap oldMap, ShardMap newMap, boolean dryRun) throws IOException {
+        int examined = 0;
+        int moved = 0;
+
+        for (ShardMap.Shard shard : oldMap.getShards()) {
+            File[] files = new File(shard.getDataDirectory()).listFiles();
+            if (files == null) {
+                continue;
+            }
+
+            for (File file : files) {
+                String key = keyOf(file);
+                if (key == null) {
+                    continue;
+                }
+                examined++;
+
+                ShardMap.Shard owner = newMap.ownerOf(key);
+                Path target = new File(owner.getDataDirectory(), file.getName()).toPath();
+                if (target.toAbsolutePath().normalize().equals(file.toPath().toAbsolutePath().normalize())) {
+                    continue;
+                }
+
+                System.out.println(file.getName() + ": " + shard.getId() + " -> " + owner.getId());
+                if (!dryRun) {
+                    Files.createDirectories(target.getParent());
+                    Files.move(file.toPath(), target, StandardCopyOption.REPLACE_EXISTING);
+                }
+                moved++;
+            }
+        }
+        return new int[] { examined, moved };
+    }
+
+    /**
+     * Gets the key a data file is placed by: the username of a user data
+     * file, or the id of a shared puzzle solution.
+     *
+     * @param file - The file.
+     * @return - The key, or null if the file is not placed by key.
+     */
+    private static String keyOf(File file) {
+        String name = file.getName();
+        if (!file.isFile()) {
+            return null;
+        }
+        if (name.endsWith(".txt")) {
+            return name.substring(0, name.length() - ".txt".length());
+        }
+        if (name.endsWith(Constants.SHARED_PUZZLE_EXTENSION)) {
+            return name.substring(0, name.length() - Constants.SHARED_PUZZLE_EXTENSION.length());
+        }
+        return null;
+    }
+}
@@ -0,0 +1,154 @@
+package UserAccountServer;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import GameServer.ConsistentHashRing;
+import GameServer.Constants;
+
+/**
+ * Maps usernames to the user account shard that owns them.
+ *
+ * Each shard is a UserAccountServer process with its own port and data
+ * directory, owning the usernames whose hashes fall in its ranges of a
+ * consistent hash ring. The map is read from a text file with one shard per
+ * line:
+ *
+ * shardId host port dataDirectory
+ *
+ * Blank lines and lines starting with '#' are ignored. If the file does not
+ * exist, the map has a single shard on localhost at Constants.UAS_PORT with
+ * data directory Constants.USER_DATA_DIRECTORY.
+ */
+public class ShardMap {
+
+    /**
+     * Represents one user account shard.
+     */
+    public static class Shard {
+        private final String id;
+        private final String host;
+        private final int port;
+        private final String dataDirectory;
+
+        public Shard(String id, String host, int port, String dataDirectory) {
+            this.id = id;
+            this.host = host;
+            this.port = port;
+            this.dataDirectory = dataDirectory.endsWith("/") ? dataDirectory : dataDirectory + "/";
+        }
+
+        public String getId() {
+            return this.id;
+        }
+
+        public String getHost() {
+            return this.host;
+        }
+
+        public int getPort() {
+            return this.port;
+        }
+
+        public String getDataDirectory() {
+            return this.dataDirectory;
+        }
+    }
+
+    private final List<Shard> shards;
+    private final ConsistentHashRing<Shard> ring = new ConsistentHashRing<>(Constants.RING_VIRTUAL_NODES);
+
+    /**
+     * Constructs a ShardMap from a list of shards.
+     *
+     * @param shards - The shards; must not be empty.
+     */
+    public ShardMap(List<Shard> shards) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("Shard map has no shards.");
+        }
+        this.shards = Collections.unmodifiableList(new ArrayList<>(shards));
+        for (Shard shard : shards) {
+            ring.add(shard.getId(), shard);
+        }
+    }
+
+    /**
+     * Loads the shard map from Constants.SHARD_MAP_FILE.
+     *
+     * @return - The shard map.
+     * @throws IOException - if the file exists but cannot be read or parsed.
+     */
+    public static ShardMap load() throws IOException {
+        return load(Constants.SHARD_MAP_FILE);
+    }
+
+    /**
+     * Loads a shard map from a file.
+     *
+     * @param path - The path of the shard map file.
+     * @return - The shard map, or the single default shard if the file does not
+     *         exist.
+     * @throws IOException - if the file exists but cannot be read or parsed.
+     */
+    public static ShardMap load(String path) throws IOException {
+        File file = new File(path);
+        List<Shard> shards = new ArrayList<>();
+        if (!file.exists()) {
+            shards.add(new Shard("0", "localhost", Constants.UAS_PORT, Constants.USER_DATA_DIRECTORY));
+            return new ShardMap(shards);
+        }
+
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split("\\s+");
+                if (fields.length != 4) {
+                    throw new IOException("Invalid shard map line: " + line);
+                }
+                shards.add(new Shard(fields[0], fields[1], Integer.parseInt(fields[2]), fields[3]));
+            }
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid shard port in " + path, e);
+        }
+        return new ShardMap(shards);
+    }
+
+    /**
+     * Gets the shard that owns a username.
+     *
+     * @param username - The username.
+     * @return - The owning shard.
+     */
+    public Shard ownerOf(String username) {
+        return ring.get(username.trim());
+    }
+
+    /**
+     * Gets a shard by id.
+     *
+     * @param shardId - The shard id.
+     * @return - The shard, or null if there is no shard with that id.
+     */
+    public Shard getShard(String shardId) {
+        return ring.getNode(shardId);
+    }
+
+    /**
+     * Gets all shards.
+     *
+     * @return - The shards, in file order.
+     */
+    public List<Shard> getShards() {
+        return this.shards;
+    }
+}
@@ -1,56 +1,111 @@
 package UserAccountServer;
 
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.rmi.RemoteException;
-import java.rmi.registry.LocateRegistry;
 import java.rmi.registry.Registry;
 import java.rmi.server.UnicastRemoteObject;
 import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import GameServer.Constants;
+import GameServer.ServiceSockets;
+import GameServer.SnapshotFile;
 
 /**
  * Represents a server managing user accounts and handling client interactions.
+ *
+ * Several UserAccountServer processes may run as shards, each owning the
+ * usernames assigned to it by the ShardMap and keeping their data in its own
+ * directory.
+ *
+ * On shutdown the server writes its login leases to a snapshot in its data
+ * directory, and restores them when it starts again soon after, so a restart
+ * does not log everyone out. The user accounts are always listed from the
+ * directory, so files added while the server was down are known.
+ *
+ * The server also ranks its users by score on a Leaderboard, updated as user
+ * data is saved, and keeps the solutions of the shared (daily) puzzles whose
+ * ids it owns.
  */
 public class UserAccountServer extends UnicastRemoteObject implements UserAccountService {
 
-    private static List<String> userAccounts;
-    private static Map<String, Boolean> loggedInUsers;
+    // Version of the login lease snapshot format
+    private static final int LEASE_SNAPSHOT_VERSION = 2;
+
+    private final String dataDirectory;
+    private List<String> userAccounts;
+    private Map<String, Boolean> loggedInUsers;
+    private final Leaderboard leaderboard;
 
     /**
      * The main method is the entry point of the UserAccountServer application.
      * It initializes the RMI Registry, creates an instance of UserAccountService,
      * and binds it to the Registry.
      *
-     * @param args - The command-line arguments (not used).
+     * @param args - The command-line arguments: [shardId]. The port and data
+     *             directory of the shard are read from the shard map; without
+     *             a shard id, the first shard in the map is used.
      */
     public static void main(String[] args) {
         try {
-            LocateRegistry.createRegistry(Constants.UAS_PORT);
+            ShardMap shardMap = ShardMap.load();
+            ShardMap.Shard shard = args.length > 0 ? shardMap.getShard(args[0]) : shardMap.getShards().get(0);
+            if (shard == null) {
+                System.err.println("Unknown shard: " + args[0]);
+                return;
+            }
 
-            // Now get the registry reference
-            Registry registry = LocateRegistry.getRegistry("localhost", Constants.UAS_PORT);
+            Registry registry = ServiceSockets.USER_ACCOUNTS.createRegistry(shard.getPort());
 
-            UserAccountService userAccountService = new UserAccountServer();
+            UserAccountService userAccountService = new UserAccountServer(shard.getDataDirectory());
             registry.rebind("UserAccountService", userAccountService);
 
-            System.out.println("UserAccountServer is running...");
+            System.out.println("UserAccountServer shard '" + shard.getId() + "' is running...");
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
 
+    /**
+     * Constructs a UserAccountServer instance using the default data directory.
+     *
+     * @throws RemoteException - if there is an issue with remote communication.
+     */
+    public UserAccountServer() throws RemoteException {
+        this(Constants.USER_DATA_DIRECTORY);
+    }
+
     /**
      * Constructs a UserAccountServer instance.
      * This constructor initializes the server by loading existing user accounts
      * and creating an empty set for logged-in users.
      *
+     * @param dataDirectory - The directory holding this shard's user data files.
      * @throws RemoteException - if there is an issue with remote communication.
      */
-    public UserAccountServer() throws RemoteException {
-        super();
-        loadUserAccounts();
+    public UserAccountServer(String dataDirectory) throws RemoteException {
+        super(0, ServiceSockets.USER_ACCOUNTS.client(), ServiceSockets.USER_ACCOUNTS.server());
+        this.dataDirectory = dataDirectory.endsWith("/") ? dataDirectory : dataDirectory + "/";
+        new File(this.dataDirectory).mkdirs();
         loggedInUsers = new HashMap<>();
+        loadUserAccounts();
+        restoreSnapshot();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::writeSnapshot, "lease-snapshot"));
+
+        leaderboard = new Leaderboard(this.dataDirectory);
+        ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "leaderboard-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(leaderboard::flush, 0, Constants.LEADERBOARD_FLUSH_MS, TimeUnit.MILLISECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(leaderboard::flush, "leaderboard-flush"));
+
         Thread heartbeatMonitorThread = new Thread(this::heartbeatMonitor);
         heartbeatMonitorThread.start();
     }
@@ -61,10 +116,10 @@ public class UserAccountServer extends UnicastRemoteObject implements UserAccoun
      * User accounts are loaded from the specified directory containing text files
      * with user data.
      */
-    private static void loadUserAccounts() {
+    private void loadUserAccounts() {
         userAccounts = new ArrayList<>();
 
-        File directory = new File(Constants.USER_DATA_DIRECTORY);
+        File directory = new File(this.dataDirectory);
         File[] files = directory.listFiles();
         if (files != null) {
             for (File file : files) {
@@ -75,6 +130,47 @@ public class UserAccountServer extends UnicastRemoteObject implements UserAccoun
         }
     }
 
+    /**
+     * Restores the login leases from the snapshot written on the last
+     * shutdown, if it is recent. Restored logins count as having sent a
+     * heartbeat, since their clients could not reach the server while it
+     * restarted.
+     */
+    private void restoreSnapshot() {
+        Path file = Paths.get(this.dataDirectory, Constants.LEASE_SNAPSHOT_FILE);
+        SnapshotFile.read(file, LEASE_SNAPSHOT_VERSION, in -> {
+            int loginCount = in.readInt();
+            Map<String, Boolean> logins = new HashMap<>(loginCount * 2);
+            for (int i = 0; i < loginCount; i++) {
+                logins.put(in.readUTF(), true);
+            }
+
+            synchronized (this) {
+                loggedInUsers.putAll(logins);
+            }
+            System.out.println("Restored " + loginCount + " logins from " + file);
+            return true;
+        });
+    }
+
+    /**
+     * Writes the login leases to the snapshot; run on shutdown.
+     */
+    private synchronized void writeSnapshot() {
+        Path file = Paths.get(this.dataDirectory, Constants.LEASE_SNAPSHOT_FILE);
+        try {
+            SnapshotFile.write(file, LEASE_SNAPSHOT_VERSION, out -> {
+                out.writeInt(loggedInUsers.size());
+                for (String username : loggedInUsers.keySet()) {
+                    out.writeUTF(username);
+                }
+            });
+            System.out.println("Saved " + loggedInUsers.size() + " logins to " + file);
+        } catch (IOException e) {
+            System.out.println("Could not save logins: " + e.getMessage());
+        }
+    }
+
     /**
      * Checks if a user is already registered
      *
@@ -125,7 +221,7 @@ public class UserAccountServer extends UnicastRemoteObject implements UserAccoun
      *                         reading from it.
      */
     public synchronized String load(String username) throws RemoteException {
-        String filePath = Constants.USER_DATA_DIRECTORY + username + ".txt";
+        String filePath = this.dataDirectory + username + ".txt";
         File userDatafile = new File(filePath);
         try {
             if (!userDatafile.exists()) {
@@ -161,15 +257,96 @@ public class UserAccountServer extends UnicastRemoteObject implements UserAccoun
      * @throws RemoteException - if there is an issue with remote communication.
      */
     public synchronized int save(String username, String data) throws RemoteException {
-        File userDataFile = new File(Constants.USER_DATA_DIRECTORY +
+        File userDataFile = new File(this.dataDirectory +
                 username + ".txt");
         try (BufferedWriter writer = new BufferedWriter(new FileWriter(userDataFile))) {
             writer.write(data);
-            return 1;
         } catch (IOException e) {
             e.printStackTrace();
             return 0;
         }
+        leaderboard.update(username, Leaderboard.parseScore(data));
+        return 1;
+    }
+
+    /**
+     * Loads the solution of a shared puzzle kept by this shard.
+     *
+     * @param puzzleId - The id of the puzzle.
+     * @return - The solution, or null if this shard does not have it.
+     * @throws RemoteException - if the id is invalid or the file cannot be
+     *                         read.
+     */
+    public synchronized String loadSharedPuzzle(String puzzleId) throws RemoteException {
+        Path file = sharedPuzzleFile(puzzleId);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try {
+            return Files.readString(file);
+        } catch (IOException e) {
+            throw new RemoteException("Failed to read shared puzzle file.", e);
+        }
+    }
+
+    /**
+     * Saves the solution of a shared puzzle, unless this shard already has
+     * one with that id.
+     *
+     * @param puzzleId - The id of the puzzle.
+     * @param solution - The solution.
+     * @return - The solution kept.
+     * @throws RemoteException - if the id is invalid or the file cannot be
+     *                         written.
+     */
+    public synchronized String saveSharedPuzzle(String puzzleId, String solution) throws RemoteException {
+        String existing = loadSharedPuzzle(puzzleId);
+        if (existing != null) {
+            return existing;
+        }
+        try {
+            Files.writeString(sharedPuzzleFile(puzzleId), solution);
+        } catch (IOException e) {
+            throw new RemoteException("Failed to write shared puzzle file.", e);
+        }
+        return solution;
+    }
+
+    /**
+     * Gets the file of a shared puzzle's solution.
+     *
+     * @param puzzleId - The id of the puzzle; letters, digits and '-' only.
+     * @return - The file.
+     * @throws RemoteException - if the id is invalid.
+     */
+    private Path sharedPuzzleFile(String puzzleId) throws RemoteException {
+        if (puzzleId == null || !puzzleId.matches("[A-Za-z0-9-]{1,64}")) {
+            throw new RemoteException(Constants.INVALID_PUZZLE_ID);
+        }
+        return Paths.get(this.dataDirectory, puzzleId + Constants.SHARED_PUZZLE_EXTENSION);
+    }
+
+    /**
+     * Gets the users of this shard with the highest scores.
+     *
+     * @param count - The maximum number of users, at most
+     *              Constants.LEADERBOARD_MAX_COUNT.
+     * @return - The users and their scores, highest first.
+     * @throws RemoteException - if there is an issue with remote communication.
+     */
+    public List<LeaderboardEntry> getTopScores(int count) throws RemoteException {
+        return leaderboard.top(Math.max(0, Math.min(count, Constants.LEADERBOARD_MAX_COUNT)));
+    }
+
+    /**
+     * Counts the users of this shard with a higher score than the given one.
+     *
+     * @param score - The score to rank.
+     * @return - The number of users with a higher score.
+     * @throws RemoteException - if there is an issue with remote communication.
+     */
+    public int countHigherScores(int score) throws RemoteException {
+        return leaderboard.countHigher(score);
     }
 
     /**
@@ -189,6 +366,21 @@ public class UserAccountServer extends UnicastRemoteObject implements UserAccoun
         }
     }
 
+    /**
+     * Validates the heartbeat signals for a batch of users in one call.
+     * Equivalent to calling validateHeartbeat for each username.
+     *
+     * @param usernames The usernames of the users whose heartbeat signals are validated.
+     * @throws RemoteException If an error occurs during the validation process.
+     */
+    public synchronized void validateHeartbeats(Collection<String> usernames) throws RemoteException {
+        for (String username : usernames) {
+            if (loggedInUsers.containsKey(username)) {
+                loggedInUsers.put(username, true);
+            }
+        }
+    }
+
     /**
      * Monitors the heartbeat status of logged-in users and removes users with lost heartbeat signals.
      * This method continuously monitors the heartbeat status of logged-in users and removes
@@ -197,9 +389,9 @@ public class UserAccountServer extends UnicastRemoteObject implements UserAccoun
     private void heartbeatMonitor() {
         while(true) {
             try {
-                Thread.sleep(6000);
+                Thread.sleep(Constants.UAS_HEARTBEAT_INTERVAL_MS);
 
-                synchronized (loggedInUsers) {
+                synchronized (this) {
                     Iterator<Map.Entry<String, Boolean>> iterator = loggedInUsers.entrySet().iterator();
                     while (iterator.hasNext()) {
                         Map.Entry<String, Boolean> entry = iterator.next();
@@ -2,6 +2,8 @@ package UserAccountServer;
 
 import java.rmi.Remote;
 import java.rmi.RemoteException;
+import java.util.Collection;
+import java.util.List;
 
 /**
  * The UserAccountService interface defines the remote methods for managing user
@@ -61,4 +63,56 @@ public interface UserAccountService extends Remote {
      * @throws RemoteException If an error occurs during the validation process.
      */
     void validateHeartbeat(String username) throws RemoteException;
-}
\ No newline at end of file
+
+    /**
+     * Validates the heartbeat signals for a batch of users in one call.
+     * Equivalent to calling validateHeartbeat for each username.
+     *
+     * @param usernames The usernames of the users whose heartbeat signals are validated.
+     * @throws RemoteException If an error occurs during the validation process.
+     */
+    void validateHeartbeats(Collection<String> usernames) throws RemoteException;
+
+    /**
+     * Gets the users of this shard with the highest scores.
+     *
+     * @param count - The maximum number of users.
+     * @return - The users and their scores, highest first.
+     * @throws RemoteException - if there is an issue with remote communication.
+     */
+    List<LeaderboardEntry> getTopScores(int count) throws RemoteException;
+
+    /**
+     * Counts the users of this shard with a higher score than the given one;
+     * a user's rank across all shards is one more than the sum of the counts.
+     *
+     * @param score - The score to rank.
+     * @return - The number of users with a higher score.
+     * @throws RemoteException - if there is an issue with remote communication.
+     */
+    int countHigherScores(int score) throws RemoteException;
+
+    /**
+     * Loads the solution of a shared puzzle (e.g. a daily puzzle) kept by
+     * this shard.
+     *
+     * @param puzzleId - The id of the puzzle.
+     * @return - The solution, as written by PuzzleSolution.toText, or null if
+     *         this shard does not have it.
+     * @throws RemoteException - if there is an issue with remote communication,
+     *                         the id is invalid or the file cannot be read.
+     */
+    String loadSharedPuzzle(String puzzleId) throws RemoteException;
+
+    /**
+     * Saves the solution of a shared puzzle, unless this shard already has a
+     * solution with that id; the first solution saved wins.
+     *
+     * @param puzzleId - The id of the puzzle.
+     * @param solution - The solution, as written by PuzzleSolution.toText.
+     * @return - The solution kept: the one given, or the one saved before.
+     * @throws RemoteException - if there is an issue with remote communication,
+     *                         the id is invalid or the file cannot be written.
+     */
+    String saveSharedPuzzle(String puzzleId, String solution) throws RemoteException;
+}
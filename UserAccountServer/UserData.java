@@ -1,15 +1,34 @@
 package UserAccountServer;
 
-import java.io.Serializable;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 
 /**
  * Represents user data, including username, score, and the game state object.
+ *
+ * UserData is sent with almost every call to the game server, so it has a
+ * compact, versioned wire encoding (see writeExternal) in place of default
+ * serialization; the GameState and Puzzle it holds are written inline.
  */
-public class UserData implements Serializable {
-    private final String username;
+public class UserData implements Externalizable {
+    private static final long serialVersionUID = 1L;
+
+    // Version of the wire encoding
+    private static final int ENCODING_VERSION = 1;
+
+    private String username;
     private int score;
     private GameState gameState;
 
+    /**
+     * Constructs an empty UserData; used by deserialization only.
+     */
+    public UserData() {
+    }
+
     /**
      * Constructs UserData object from a string containing user data.
      * 
@@ -100,4 +119,43 @@ public class UserData implements Serializable {
         String userDataString = stringBuilder.toString();
         return userDataString;
     }
-}
\ No newline at end of file
+
+    /**
+     * Writes the user data in the compact wire encoding.
+     *
+     * @param out - The stream to write to.
+     * @throws IOException - if the stream cannot be written.
+     */
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        out.writeByte(ENCODING_VERSION);
+        out.writeUTF(this.username);
+        out.writeInt(this.score);
+        out.writeBoolean(this.gameState != null);
+        if (this.gameState != null) {
+            this.gameState.writeExternal(out);
+        }
+    }
+
+    /**
+     * Reads user data written by writeExternal.
+     *
+     * @param in - The stream to read from.
+     * @throws IOException - if the stream cannot be read or holds an unknown
+     *                     encoding.
+     */
+    @Override
+    public void readExternal(ObjectInput in) throws IOException {
+        int version = in.readUnsignedByte();
+        if (version != ENCODING_VERSION) {
+            throw new InvalidObjectException("Unsupported UserData encoding version " + version);
+        }
+        this.username = in.readUTF();
+        this.score = in.readInt();
+        this.gameState = null;
+        if (in.readBoolean()) {
+            this.gameState = new GameState();
+            this.gameState.readExternal(in);
+        }
+    }
+}